@@ -63,6 +63,11 @@ public class AHCBatchOperations implements BatchOperations<BatchRequest>, LifeCy
                 builder.add(item);
             }
 
+            @Override
+            public void oldestItemTimestamp(final long timestamp) {
+                builder.withOldestItemTimestamp(timestamp);
+            }
+
             @Override
             public BatchRequest build() {
                 return builder.build();
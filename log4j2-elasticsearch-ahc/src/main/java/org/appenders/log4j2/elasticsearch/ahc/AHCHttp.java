@@ -24,9 +24,11 @@ package org.appenders.log4j2.elasticsearch.ahc;
 import org.appenders.log4j2.elasticsearch.BatchOperations;
 import org.appenders.log4j2.elasticsearch.LifeCycle;
 import org.appenders.log4j2.elasticsearch.OperationFactory;
+import org.appenders.log4j2.elasticsearch.ahc.discovery.ServerInfo;
 import org.appenders.log4j2.elasticsearch.ahc.failover.HCFailedItemOps;
 import org.appenders.log4j2.elasticsearch.backoff.BackoffPolicy;
 import org.appenders.log4j2.elasticsearch.failover.FailedItemOps;
+import org.appenders.log4j2.elasticsearch.jfr.FlightRecorderEvents;
 import org.appenders.log4j2.elasticsearch.metrics.Measured;
 import org.appenders.log4j2.elasticsearch.metrics.MetricConfig;
 import org.appenders.log4j2.elasticsearch.metrics.MetricsRegistry;
@@ -159,6 +161,8 @@ public class AHCHttp extends BatchingClientObjectFactory<BatchRequest, IndexRequ
 
         private final BatchRequest request;
         private final Function<BatchRequest, Boolean> failureHandler;
+        private final long sentTimestamp = System.currentTimeMillis();
+        private volatile String node;
 
         public AHCResponseHandler(final BatchRequest request, final Function<BatchRequest, Boolean> failureHandler) {
             this.request = request;
@@ -168,7 +172,22 @@ public class AHCHttp extends BatchingClientObjectFactory<BatchRequest, IndexRequ
         @Override
         public void completed(final BatchResult result) {
 
+            final long completedTimestamp = System.currentTimeMillis();
+
             metrics.serverTookMs(result.getTook());
+            metrics.responseTookMs(completedTimestamp - sentTimestamp);
+            metrics.serializeTookMicros(request.getSerializeTookMicros());
+            if (request.getOldestItemTimestamp() > 0) {
+                metrics.endToEndMs(completedTimestamp - request.getOldestItemTimestamp());
+            }
+
+            FlightRecorderEvents.bulkRequestCompleted(
+                    node,
+                    result.getResponseCode(),
+                    result.getTook(),
+                    completedTimestamp - sentTimestamp,
+                    request.size(),
+                    result.isSucceeded());
 
             backoffPolicy.deregister(request);
 
@@ -188,6 +207,14 @@ public class AHCHttp extends BatchingClientObjectFactory<BatchRequest, IndexRequ
 
             getLogger().warn(ex.getMessage(), ex);
 
+            FlightRecorderEvents.bulkRequestCompleted(
+                    node,
+                    0,
+                    0,
+                    System.currentTimeMillis() - sentTimestamp,
+                    request.size(),
+                    false);
+
             backoffPolicy.deregister(request);
 
             failureHandler.apply(request);
@@ -200,6 +227,11 @@ public class AHCHttp extends BatchingClientObjectFactory<BatchRequest, IndexRequ
             return request.deserialize(responseBody);
         }
 
+        @Override
+        public void serverAcquired(final ServerInfo serverInfo) {
+            this.node = serverInfo.getResolvedAddress();
+        }
+
     }
 
 }
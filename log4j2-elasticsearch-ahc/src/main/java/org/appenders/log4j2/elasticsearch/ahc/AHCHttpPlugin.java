@@ -35,6 +35,7 @@ import org.appenders.log4j2.elasticsearch.ClientObjectFactory;
 import org.appenders.log4j2.elasticsearch.ItemSourceFactory;
 import org.appenders.log4j2.elasticsearch.JacksonDeserializer;
 import org.appenders.log4j2.elasticsearch.Log4j2Lookup;
+import org.appenders.log4j2.elasticsearch.ParallelSetup;
 import org.appenders.log4j2.elasticsearch.PooledItemSourceFactory;
 import org.appenders.log4j2.elasticsearch.ValueResolver;
 import org.appenders.log4j2.elasticsearch.ahc.discovery.ServiceDiscoveryFactory;
@@ -66,6 +67,8 @@ public class AHCHttpPlugin extends AHCHttp {
 
     public static class Builder implements org.apache.logging.log4j.core.util.Builder<AHCHttpPlugin> {
 
+        public static final int DEFAULT_RESPONSE_BUFFER_SIZE = 32 * 1024;
+
         @PluginConfiguration
         protected Configuration configuration;
 
@@ -81,12 +84,21 @@ public class AHCHttpPlugin extends AHCHttp {
         @PluginBuilderAttribute
         protected int maxTotalConnections = 8;
 
+        @PluginBuilderAttribute
+        protected int maxConnectionsPerServer;
+
         @PluginBuilderAttribute
         protected int ioThreadCount = Runtime.getRuntime().availableProcessors();
 
         @PluginBuilderAttribute
         protected Boolean gzipCompression = Boolean.FALSE;
 
+        @PluginBuilderAttribute
+        protected boolean pooledResponseBuffers = true;
+
+        @PluginBuilderAttribute
+        protected int pooledResponseBuffersSizeInBytes = DEFAULT_RESPONSE_BUFFER_SIZE;
+
         @PluginElement("auth")
         protected Auth<HttpClientFactory.Builder> auth;
 
@@ -98,9 +110,19 @@ public class AHCHttpPlugin extends AHCHttp {
 
         @PluginElement("serviceDiscovery")
         protected ServiceDiscoveryFactory<HttpClient> serviceDiscoveryFactory;
+
+        @PluginElement(HedgedDelivery.ELEMENT_TYPE)
+        protected HedgedDelivery hedgedDelivery;
+
+        @PluginElement(ParallelSetup.ELEMENT_TYPE)
+        protected ParallelSetup parallelSetup;
+
         @PluginBuilderAttribute
         private String name = AHCHttp.class.getSimpleName();
 
+        @PluginBuilderAttribute
+        protected String sharedClientName;
+
         @PluginElement("metricsFactory")
         private final MetricsFactory metricsFactory = new DefaultMetricsFactory(AHCHttp.metricConfigs(false));
 
@@ -119,6 +141,8 @@ public class AHCHttpPlugin extends AHCHttp {
                     .withOperationFactory(createOperationFactory(clientProvider))
                     .withClientProvider(clientProvider)
                     .withBackoffPolicy(backoffPolicy == null ? new NoopBackoffPolicy<>() : backoffPolicy)
+                    .withHedgedDelivery(hedgedDelivery)
+                    .withParallelSetup(parallelSetup)
                     .withName(name);
 
             // Don't allow factory replacement yet. Maybe in future releases?
@@ -165,15 +189,20 @@ public class AHCHttpPlugin extends AHCHttp {
                     .withConnTimeout(connTimeout)
                     .withReadTimeout(readTimeout)
                     .withMaxTotalConnections(maxTotalConnections)
+                    .withMaxConnectionsPerServer(maxConnectionsPerServer)
                     .withIoThreadCount(ioThreadCount)
                     .withAuth(auth)
-                    .withGzipCompression(gzipCompression);
+                    .withGzipCompression(gzipCompression)
+                    .withPooledResponseBuffers(pooledResponseBuffers)
+                    .withPooledResponseBuffersSizeInBytes(pooledResponseBuffersSizeInBytes);
         }
 
         protected HttpClientProvider createClientProvider() {
 
             final HttpClientFactory.Builder mainClientFactoryBuilder = createHttpClientFactoryBuilder();
-            final HttpClientProvider mainClientProvider = new HttpClientProvider(mainClientFactoryBuilder);
+            final HttpClientProvider mainClientProvider = sharedClientName == null
+                    ? new HttpClientProvider(mainClientFactoryBuilder)
+                    : new SharedHttpClientProvider(sharedClientName, mainClientFactoryBuilder);
 
             if (this.serviceDiscoveryFactory != null) {
                 mainClientFactoryBuilder.withServiceDiscovery(serviceDiscoveryFactory.create(mainClientProvider));
@@ -205,6 +234,11 @@ public class AHCHttpPlugin extends AHCHttp {
             return this;
         }
 
+        public Builder withMaxConnectionsPerServer(final int maxConnectionsPerServer) {
+            this.maxConnectionsPerServer = maxConnectionsPerServer;
+            return this;
+        }
+
         public Builder withConnTimeout(final int connTimeout) {
             this.connTimeout = connTimeout;
             return this;
@@ -220,6 +254,16 @@ public class AHCHttpPlugin extends AHCHttp {
             return this;
         }
 
+        public Builder withPooledResponseBuffers(final boolean pooledResponseBuffersEnabled) {
+            this.pooledResponseBuffers = pooledResponseBuffersEnabled;
+            return this;
+        }
+
+        public Builder withPooledResponseBuffersSizeInBytes(final int estimatedResponseSizeInBytes) {
+            this.pooledResponseBuffersSizeInBytes = estimatedResponseSizeInBytes;
+            return this;
+        }
+
         public Builder withItemSourceFactory(final PooledItemSourceFactory<Object, ByteBuf> pooledItemSourceFactory) {
             this.pooledItemSourceFactory = pooledItemSourceFactory;
             return this;
@@ -255,6 +299,30 @@ public class AHCHttpPlugin extends AHCHttp {
             return this;
         }
 
+        public Builder withHedgedDelivery(HedgedDelivery hedgedDelivery) {
+            this.hedgedDelivery = hedgedDelivery;
+            return this;
+        }
+
+        /**
+         * @param parallelSetup if not null, setup operations will be executed concurrently, off the batch delivery thread
+         * @return this
+         */
+        public Builder withParallelSetup(final ParallelSetup parallelSetup) {
+            this.parallelSetup = parallelSetup;
+            return this;
+        }
+
+        /**
+         * @param sharedClientName if not null, HTTP client with given name will be shared with other {@link AHCHttp}s configured with the same {@code sharedClientName}.
+         *                         Client is created with config of the first one
+         * @return this
+         */
+        public Builder withSharedClientName(final String sharedClientName) {
+            this.sharedClientName = sharedClientName;
+            return this;
+        }
+
         public Builder withName(String name) {
             this.name = name;
             return this;
@@ -45,7 +45,8 @@ public class AHCRequestFactory implements RequestFactory<RequestBuilder> {
         //noinspection rawtypes
         final ItemSource itemSource = request.serialize();
         if (itemSource != null) {
-            httpUriRequest.setBody(new ByteBufInputStream((ByteBuf) itemSource.getSource()));
+            // independent indices, so the same request can be sent more than once
+            httpUriRequest.setBody(new ByteBufInputStream(((ByteBuf) itemSource.getSource()).duplicate()));
         }
 
         return httpUriRequest;
@@ -20,7 +20,18 @@ package org.appenders.log4j2.elasticsearch.ahc;
  * #L%
  */
 
-import org.asynchttpclient.AsyncCompletionHandler;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.appenders.log4j2.elasticsearch.ByteBufItemSource;
+import org.appenders.log4j2.elasticsearch.ItemSource;
+import org.appenders.log4j2.elasticsearch.ItemSourcePool;
+import org.appenders.log4j2.elasticsearch.PoolResourceException;
+import org.asynchttpclient.AsyncHandler;
+import org.asynchttpclient.HttpResponseBodyPart;
+import org.asynchttpclient.HttpResponseStatus;
+import org.asynchttpclient.netty.LazyResponseBodyPart;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -28,21 +39,78 @@ import java.io.InputStream;
 import static org.appenders.core.logging.InternalLogging.getLogger;
 
 /**
- * Generic async callback for {@link org.asynchttpclient.Response}s and failures.
- * Adapts {@link org.asynchttpclient.Response} to {@link Response}
+ * Generic async handler for AsyncHttpClient responses and failures.
+ * Consumes response body incrementally into {@link ItemSourcePool}-provided buffer (or unpooled one, if pool was not provided)
+ * and adapts it to {@link Response}. Buffer is released once the response was processed.
  *
  * @param <T> response type
  */
-public class AHCResultCallback<T extends Response> extends AsyncCompletionHandler<T> {
+public class AHCResultCallback<T extends Response> implements AsyncHandler<T> {
 
     private final ResponseHandler<T> responseHandler;
+    private final ItemSourcePool<ByteBuf> bufferPool;
+
+    private volatile int statusCode;
+    private volatile String statusText;
+    private volatile ItemSource<ByteBuf> buffer;
 
     public AHCResultCallback(final ResponseHandler<T> responseHandler) {
+        this(responseHandler, null);
+    }
+
+    /**
+     * @param responseHandler response handler
+     * @param bufferPool response buffer pool. If null, unpooled buffers will be used
+     */
+    public AHCResultCallback(final ResponseHandler<T> responseHandler, final ItemSourcePool<ByteBuf> bufferPool) {
         this.responseHandler = responseHandler;
+        this.bufferPool = bufferPool;
+    }
+
+    @Override
+    public State onStatusReceived(final HttpResponseStatus responseStatus) {
+        this.statusCode = responseStatus.getStatusCode();
+        this.statusText = responseStatus.getStatusText();
+        return State.CONTINUE;
+    }
+
+    @Override
+    public State onHeadersReceived(final HttpHeaders headers) {
+        return State.CONTINUE;
+    }
+
+    /**
+     * Writes content of given body part to response buffer
+     *
+     * @param bodyPart response body part
+     * @return {@code org.asynchttpclient.AsyncHandler.State#CONTINUE}
+     * @throws IOException on pool errors
+     */
+    @Override
+    public State onBodyPartReceived(final HttpResponseBodyPart bodyPart) throws IOException {
+
+        if (bodyPart.length() == 0) {
+            return State.CONTINUE;
+        }
+
+        if (buffer == null) {
+            buffer = getBuffer(bodyPart.length());
+        }
+
+        if (bodyPart instanceof LazyResponseBodyPart) {
+            final ByteBuf content = ((LazyResponseBodyPart) bodyPart).getBuf();
+            buffer.getSource().writeBytes(content, content.readerIndex(), content.readableBytes());
+        } else {
+            buffer.getSource().writeBytes(bodyPart.getBodyByteBuffer());
+        }
+
+        return State.CONTINUE;
+
     }
 
     @Override
     public void onThrowable(final Throwable t) {
+        releaseBuffer();
         getLogger().error("{}: Throwable caught: {}", AHCResultCallback.class.getSimpleName(), t);
         failed(new RuntimeException(t));
     }
@@ -57,18 +125,18 @@ public class AHCResultCallback<T extends Response> extends AsyncCompletionHandle
     }
 
     @Override
-    public T onCompleted(final org.asynchttpclient.Response response) {
+    public T onCompleted() {
 
         InputStream inputStream = null;
         T result = null;
         try {
-            if (response.hasResponseBody()) {
-                inputStream = response.getResponseBodyAsStream();
+            if (buffer != null) {
+                inputStream = new ByteBufInputStream(buffer.getSource());
             }
             result = responseHandler.deserializeResponse(inputStream);
 
-            result.withResponseCode(response.getStatusCode());
-            result.withErrorMessage(response.getStatusText());
+            result.withResponseCode(statusCode);
+            result.withErrorMessage(statusText);
 
         } catch (IOException e) {
             failed(e);
@@ -84,6 +152,7 @@ public class AHCResultCallback<T extends Response> extends AsyncCompletionHandle
                     getLogger().error("Exception while closing input stream", e);
                 }
             }
+            releaseBuffer();
             if (result != null) {
                 responseHandler.completed(result);
             }
@@ -93,4 +162,29 @@ public class AHCResultCallback<T extends Response> extends AsyncCompletionHandle
 
     }
 
+    ItemSource<ByteBuf> getBuffer(final int sizeHint) throws IOException {
+
+        if (bufferPool == null) {
+            return new ByteBufItemSource(Unpooled.buffer(sizeHint), source -> source.getSource().release());
+        }
+
+        try {
+            return bufferPool.getPooled();
+        } catch (PoolResourceException e) {
+            throw new IOException("Unable get pooled response buffer: " + e.getMessage());
+        }
+
+    }
+
+    private void releaseBuffer() {
+
+        final ItemSource<ByteBuf> current = buffer;
+        buffer = null;
+
+        if (current != null) {
+            current.release();
+        }
+
+    }
+
 }
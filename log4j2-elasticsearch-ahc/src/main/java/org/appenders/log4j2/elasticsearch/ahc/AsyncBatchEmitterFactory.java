@@ -24,6 +24,8 @@ import org.appenders.log4j2.elasticsearch.AsyncBatchEmitter;
 import org.appenders.log4j2.elasticsearch.BatchEmitterFactory;
 import org.appenders.log4j2.elasticsearch.ClientObjectFactory;
 import org.appenders.log4j2.elasticsearch.FailoverPolicy;
+import org.appenders.log4j2.elasticsearch.metrics.DefaultMetricsFactory;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsFactory;
 
 public class AsyncBatchEmitterFactory implements BatchEmitterFactory<AsyncBatchEmitter> {
 
@@ -43,7 +45,12 @@ public class AsyncBatchEmitterFactory implements BatchEmitterFactory<AsyncBatchE
 
     @Override
     public AsyncBatchEmitter createInstance(final int batchSize, final int deliveryInterval, final ClientObjectFactory clientObjectFactory, final FailoverPolicy failoverPolicy) {
-        final AsyncBatchEmitter bulkEmitter = new AsyncBatchEmitter(batchSize, deliveryInterval, clientObjectFactory.createBatchOperations());
+        return createInstance(batchSize, deliveryInterval, clientObjectFactory, failoverPolicy, AsyncBatchEmitter.class.getSimpleName(), new DefaultMetricsFactory(AsyncBatchEmitter.metricConfigs(false)));
+    }
+
+    @Override
+    public AsyncBatchEmitter createInstance(final int batchSize, final int deliveryInterval, final ClientObjectFactory clientObjectFactory, final FailoverPolicy failoverPolicy, final String name, final MetricsFactory metricsFactory) {
+        final AsyncBatchEmitter bulkEmitter = new AsyncBatchEmitter(name, batchSize, deliveryInterval, clientObjectFactory.createBatchOperations(), metricsFactory);
         bulkEmitter.addListener(clientObjectFactory.createBatchListener(failoverPolicy));
         return bulkEmitter;
     }
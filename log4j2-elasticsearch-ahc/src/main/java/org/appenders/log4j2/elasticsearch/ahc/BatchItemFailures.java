@@ -0,0 +1,113 @@
+package org.appenders.log4j2.elasticsearch.ahc;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * Compact record of failed items of a single /_bulk response.
+ * <p>
+ * Only position, status and error type of each failed item are stored in primitive arrays.
+ * Full {@link Error} is retained for the first failed item only.
+ */
+public class BatchItemFailures {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private int[] positions = new int[INITIAL_CAPACITY];
+    private int[] statuses = new int[INITIAL_CAPACITY];
+    private String[] errorTypes = new String[INITIAL_CAPACITY];
+    private int size;
+    private Error firstError;
+
+    /**
+     * @param position position of failed item in /_bulk response
+     * @param status item status
+     * @param errorType item error type, may be null
+     */
+    void add(final int position, final int status, final String errorType) {
+
+        if (size == positions.length) {
+            final int newCapacity = positions.length << 1;
+            positions = Arrays.copyOf(positions, newCapacity);
+            statuses = Arrays.copyOf(statuses, newCapacity);
+            errorTypes = Arrays.copyOf(errorTypes, newCapacity);
+        }
+
+        positions[size] = position;
+        statuses[size] = status;
+        errorTypes[size] = errorType;
+        size++;
+
+    }
+
+    void setFirstError(final Error firstError) {
+        this.firstError = firstError;
+    }
+
+    /**
+     * @return number of failed items
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index index of failed item, 0 to {@link #size()} - 1
+     * @return position of failed item in /_bulk response
+     */
+    public int getPosition(final int index) {
+        checkIndex(index);
+        return positions[index];
+    }
+
+    /**
+     * @param index index of failed item, 0 to {@link #size()} - 1
+     * @return status of failed item
+     */
+    public int getStatus(final int index) {
+        checkIndex(index);
+        return statuses[index];
+    }
+
+    /**
+     * @param index index of failed item, 0 to {@link #size()} - 1
+     * @return error type of failed item, may be null
+     */
+    public String getErrorType(final int index) {
+        checkIndex(index);
+        return errorTypes[index];
+    }
+
+    /**
+     * @return full error of first failed item, may be null
+     */
+    public Error getFirstError() {
+        return firstError;
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+}
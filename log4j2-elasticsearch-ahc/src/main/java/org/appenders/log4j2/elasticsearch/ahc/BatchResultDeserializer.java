@@ -21,15 +21,18 @@ package org.appenders.log4j2.elasticsearch.ahc;
  */
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.MappingIterator;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
+/**
+ * Streams through /_bulk response.
+ * <p>
+ * If {@code errors} is true, {@code items} are walked token by token. Successful items are skipped and only position, status and error type of failed items are recorded in {@link BatchItemFailures}.
+ * Full {@link Error} is deserialized for the first failed item only.
+ */
 public class BatchResultDeserializer extends JsonDeserializer {
 
     @Override
@@ -38,7 +41,7 @@ public class BatchResultDeserializer extends JsonDeserializer {
         boolean errors = false;
         Error error = null;
         int status = -1;
-        List<BatchItemResult> items = null;
+        BatchItemFailures failedItems = null;
 
         String fieldName;
         while ((fieldName = p.nextFieldName()) != null)  {
@@ -62,23 +65,106 @@ public class BatchResultDeserializer extends JsonDeserializer {
                     break;
                 }
                 case "items": {
+                    p.nextToken(); // skip to START_ARRAY
                     if (errors) {
-                        items = new ArrayList<>();
-                        p.nextValue(); // skip to START_ARRAY
-                        p.nextValue(); // skip to START_OBJECT
-                        final ObjectMapper mapper = (ObjectMapper) p.getCodec();
-                        final MappingIterator<BatchItemResult> batchResultItemMappingIterator = mapper.readValues(p, BatchItemResult.class);
-
-                        while (batchResultItemMappingIterator.hasNext()) {
-                            items.add(batchResultItemMappingIterator.next());
-                        }
+                        failedItems = readFailedItems(p, ctxt);
+                    } else {
+                        p.skipChildren();
                     }
                     break;
                 }
+                default: {
+                    p.nextToken();
+                    p.skipChildren();
+                }
             }
         }
 
-        return new BatchResult(took, errors, error, status, items);
+        return new BatchResult(took, errors, error, status, null).withFailedItems(failedItems);
+    }
+
+    private BatchItemFailures readFailedItems(final JsonParser p, final DeserializationContext ctxt) throws IOException {
+
+        final BatchItemFailures failedItems = new BatchItemFailures();
+
+        int position = 0;
+        while (p.nextToken() == JsonToken.START_OBJECT) {
+
+            // item is wrapped with action name, e.g. {"index":{...}}
+            while (p.nextFieldName() != null) {
+                if (p.nextToken() == JsonToken.START_OBJECT) {
+                    readItem(p, ctxt, position, failedItems);
+                } else {
+                    p.skipChildren();
+                }
+            }
+
+            position++;
+
+        }
+
+        return failedItems;
+
+    }
+
+    private void readItem(final JsonParser p, final DeserializationContext ctxt, final int position, final BatchItemFailures failedItems) throws IOException {
+
+        int status = -1;
+        String errorType = null;
+        boolean hasError = false;
+
+        String fieldName;
+        while ((fieldName = p.nextFieldName()) != null) {
+            switch (fieldName) {
+                case "status": {
+                    status = p.nextIntValue(-1);
+                    break;
+                }
+                case "error": {
+                    if (p.nextToken() != JsonToken.START_OBJECT) {
+                        p.skipChildren();
+                        break;
+                    }
+                    hasError = true;
+                    if (failedItems.getFirstError() == null) {
+                        final JsonDeserializer<Object> typeDeserializer = ctxt.findNonContextualValueDeserializer(ctxt.constructType(Error.class));
+                        final Error firstError = (Error) typeDeserializer.deserialize(p, ctxt);
+                        failedItems.setFirstError(firstError);
+                        errorType = firstError.getType();
+                    } else {
+                        errorType = readErrorType(p);
+                    }
+                    break;
+                }
+                default: {
+                    p.nextToken();
+                    p.skipChildren();
+                }
+            }
+        }
+
+        if (hasError || status >= 300) {
+            failedItems.add(position, status, errorType);
+        }
+
+    }
+
+    private String readErrorType(final JsonParser p) throws IOException {
+
+        String errorType = null;
+
+        String fieldName;
+        while ((fieldName = p.nextFieldName()) != null) {
+            if ("type".equals(fieldName)) {
+                errorType = p.nextTextValue();
+            } else {
+                p.nextToken();
+                p.skipChildren();
+            }
+        }
+
+        return errorType;
+
     }
 
 }
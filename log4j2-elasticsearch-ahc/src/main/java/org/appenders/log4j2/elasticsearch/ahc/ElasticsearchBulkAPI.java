@@ -31,20 +31,30 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.introspect.VisibilityChecker;
 import org.appenders.log4j2.elasticsearch.Deserializer;
 import org.appenders.log4j2.elasticsearch.ExtendedObjectMapper;
+import org.appenders.log4j2.elasticsearch.IdGenerator;
 import org.appenders.log4j2.elasticsearch.ItemSource;
 import org.appenders.log4j2.elasticsearch.JacksonDeserializer;
 import org.appenders.log4j2.elasticsearch.JacksonSerializer;
 import org.appenders.log4j2.elasticsearch.Serializer;
+import org.appenders.log4j2.elasticsearch.failover.FailedItemSource;
 
 public class ElasticsearchBulkAPI implements ClientAPIFactory<IndexRequest.Builder, BatchRequest.Builder, BatchResult> {
 
+    /**
+     * Default {@code filter_path}. Trims /_bulk responses to fields required to handle the response.
+     * Successful items are reduced to {@code status} only.
+     */
+    public static final String DEFAULT_FILTER_PATH = "took,errors,error,status,items.*.status,items.*.error";
+
+
     private final String mappingType;
     private final String filterPath;
     private final Serializer<Object> itemSerializer;
     private final Deserializer<BatchResult> resultDeserializer;
+    private final IdGenerator idGenerator;
 
     public ElasticsearchBulkAPI() {
-        this(null, null);
+        this(null, DEFAULT_FILTER_PATH);
     }
 
     public ElasticsearchBulkAPI(final String mappingType, final String filterPath) {
@@ -52,6 +62,7 @@ public class ElasticsearchBulkAPI implements ClientAPIFactory<IndexRequest.Build
         this.filterPath = filterPath;
         this.itemSerializer = createItemSerializer();
         this.resultDeserializer = createResultDeserializer();
+        this.idGenerator = null;
     }
 
     /**
@@ -61,17 +72,61 @@ public class ElasticsearchBulkAPI implements ClientAPIFactory<IndexRequest.Build
      * @param resultDeserializer batch response deserializer
      */
     public ElasticsearchBulkAPI(final String mappingType, final String filterPath, final Serializer<Object> itemSerializer, final Deserializer<BatchResult> resultDeserializer) {
+        this(mappingType, filterPath, itemSerializer, resultDeserializer, null);
+    }
+
+    /**
+     * @param mappingType Elasticsearch mapping type
+     * @param filterPath Elasticsearch {@code filter_path}
+     * @param itemSerializer index request metadata serializer
+     * @param resultDeserializer batch response deserializer
+     * @param idGenerator document id generator, if null, ids will be assigned by Elasticsearch
+     */
+    public ElasticsearchBulkAPI(final String mappingType, final String filterPath, final Serializer<Object> itemSerializer, final Deserializer<BatchResult> resultDeserializer, final IdGenerator idGenerator) {
         this.mappingType = mappingType;
         this.filterPath = filterPath;
         this.itemSerializer = itemSerializer;
         this.resultDeserializer = resultDeserializer;
+        this.idGenerator = idGenerator;
     }
 
     @Override
     public IndexRequest.Builder itemBuilder(final String target, final ItemSource payload) {
-        return new IndexRequest.Builder(payload)
+
+        final IndexRequest.Builder builder = new IndexRequest.Builder(payload)
                 .index(target)
                 .type(mappingType);
+
+        final String id = resolveId(payload);
+        if (id != null) {
+            builder.id(id);
+        }
+
+        return builder;
+
+    }
+
+    /**
+     * Replayed items keep the ID assigned before their first delivery, so replays don't create duplicates.
+     *
+     * @param payload batch item
+     * @return ID of failed item if present, generated ID if {@link #idGenerator} is configured, null otherwise
+     */
+    private String resolveId(final ItemSource payload) {
+
+        if (payload instanceof FailedItemSource) {
+            final String id = ((FailedItemSource) payload).getInfo().getId();
+            if (id != null) {
+                return id;
+            }
+        }
+
+        if (idGenerator != null) {
+            return idGenerator.generate(payload);
+        }
+
+        return null;
+
     }
 
     @Override
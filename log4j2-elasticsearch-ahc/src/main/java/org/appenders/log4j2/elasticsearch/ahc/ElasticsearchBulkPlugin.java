@@ -27,7 +27,9 @@ import org.apache.logging.log4j.core.config.Node;
 import org.apache.logging.log4j.core.config.plugins.Plugin;
 import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
 import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
+import org.apache.logging.log4j.core.config.plugins.PluginElement;
 import org.appenders.log4j2.elasticsearch.Deserializer;
+import org.appenders.log4j2.elasticsearch.IdGenerator;
 import org.appenders.log4j2.elasticsearch.JacksonDeserializer;
 import org.appenders.log4j2.elasticsearch.JacksonSerializer;
 import org.appenders.log4j2.elasticsearch.Serializer;
@@ -39,8 +41,9 @@ public class ElasticsearchBulkPlugin extends ElasticsearchBulkAPI {
             final Serializer<Object> itemSerializer,
             final Deserializer<BatchResult> resultDeserializer,
             final String mappingType,
-            final String filterPath) {
-        super(mappingType, filterPath, itemSerializer, resultDeserializer);
+            final String filterPath,
+            final IdGenerator idGenerator) {
+        super(mappingType, filterPath, itemSerializer, resultDeserializer, idGenerator);
     }
 
     @PluginBuilderFactory
@@ -53,8 +56,11 @@ public class ElasticsearchBulkPlugin extends ElasticsearchBulkAPI {
         @PluginAttribute(value = "mappingType")
         protected String mappingType;
 
-        @PluginAttribute(value = "filterPath")
-        protected String filterPath;
+        @PluginAttribute(value = "filterPath", defaultString = DEFAULT_FILTER_PATH)
+        protected String filterPath = DEFAULT_FILTER_PATH;
+
+        @PluginElement(IdGenerator.ELEMENT_TYPE)
+        protected IdGenerator idGenerator;
 
         private Serializer<Object> itemSerializer = createItemSerializer();
         private Deserializer<BatchResult> resultDeserializer = createResultDeserializer();
@@ -70,7 +76,7 @@ public class ElasticsearchBulkPlugin extends ElasticsearchBulkAPI {
                 throw new ConfigurationException("resultDeserializer cannot be null");
             }
 
-            return new ElasticsearchBulkPlugin(itemSerializer, resultDeserializer, mappingType, filterPath);
+            return new ElasticsearchBulkPlugin(itemSerializer, resultDeserializer, mappingType, filterPath, idGenerator);
         }
 
         public Builder withMappingType(final String mappingType) {
@@ -83,6 +89,15 @@ public class ElasticsearchBulkPlugin extends ElasticsearchBulkAPI {
             return this;
         }
 
+        /**
+         * @param idGenerator document id generator, if null, ids will be assigned by Elasticsearch
+         * @return this
+         */
+        public Builder withIdGenerator(final IdGenerator idGenerator) {
+            this.idGenerator = idGenerator;
+            return this;
+        }
+
         public Builder withItemSerializer(final Serializer<Object> itemSerializer) {
             this.itemSerializer = itemSerializer;
             return this;
@@ -0,0 +1,111 @@
+package org.appenders.log4j2.elasticsearch.ahc;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.core.config.ConfigurationException;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
+
+/**
+ * {@inheritDoc}
+ *
+ * <p>Log4j2 Core Plugin. See <a href="https://logging.apache.org/log4j/2.x/manual/plugins.html">Log4j2 Plugins docs</a>
+ */
+@Plugin(name = HedgedDeliveryPlugin.PLUGIN_NAME, category = Node.CATEGORY, elementType = HedgedDelivery.ELEMENT_TYPE, printObject = true)
+public class HedgedDeliveryPlugin extends HedgedDelivery {
+
+    public static final String PLUGIN_NAME = "HedgedDelivery";
+
+    protected HedgedDeliveryPlugin(final double percentile, final long minDelayMillis, final int sampleSize) {
+        super(percentile, minDelayMillis, sampleSize);
+    }
+
+    @PluginBuilderFactory
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder implements org.apache.logging.log4j.core.util.Builder<HedgedDeliveryPlugin> {
+
+        public static final double DEFAULT_PERCENTILE = 99.0;
+        public static final long DEFAULT_MIN_DELAY_MILLIS = 100;
+        public static final int DEFAULT_SAMPLE_SIZE = 1024;
+
+        @PluginBuilderAttribute
+        protected double percentile = DEFAULT_PERCENTILE;
+
+        @PluginBuilderAttribute
+        protected long minDelayMillis = DEFAULT_MIN_DELAY_MILLIS;
+
+        @PluginBuilderAttribute
+        protected int sampleSize = DEFAULT_SAMPLE_SIZE;
+
+        @Override
+        public HedgedDeliveryPlugin build() {
+
+            if (percentile <= 0 || percentile > 100) {
+                throw new ConfigurationException("percentile must be higher than 0 and lower or equal 100");
+            }
+
+            if (minDelayMillis < 0) {
+                throw new ConfigurationException("minDelayMillis must be higher or equal 0");
+            }
+
+            if (sampleSize <= 0) {
+                throw new ConfigurationException("sampleSize must be higher than 0");
+            }
+
+            return new HedgedDeliveryPlugin(percentile, minDelayMillis, sampleSize);
+
+        }
+
+        /**
+         * @param percentile percentile of recent latencies after which batch is sent to another server
+         * @return this
+         */
+        public Builder withPercentile(final double percentile) {
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * @param minDelayMillis min. millis before batch can be sent to another server
+         * @return this
+         */
+        public Builder withMinDelayMillis(final long minDelayMillis) {
+            this.minDelayMillis = minDelayMillis;
+            return this;
+        }
+
+        /**
+         * @param sampleSize number of recent latencies to track
+         * @return this
+         */
+        public Builder withSampleSize(final int sampleSize) {
+            this.sampleSize = sampleSize;
+            return this;
+        }
+
+    }
+
+}
@@ -20,7 +20,10 @@ package org.appenders.log4j2.elasticsearch.ahc;
  * #L%
  */
 
+import io.netty.buffer.ByteBuf;
+import org.appenders.log4j2.elasticsearch.ItemSourcePool;
 import org.appenders.log4j2.elasticsearch.LifeCycle;
+import org.appenders.log4j2.elasticsearch.ahc.discovery.ServerInfo;
 import org.appenders.log4j2.elasticsearch.metrics.DefaultMetricsFactory;
 import org.appenders.log4j2.elasticsearch.metrics.Measured;
 import org.appenders.log4j2.elasticsearch.metrics.Metric;
@@ -35,10 +38,12 @@ import org.asynchttpclient.AsyncHttpClient;
 import org.asynchttpclient.RequestBuilder;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.appenders.core.logging.InternalLogging.getLogger;
 
@@ -52,6 +57,7 @@ public class HttpClient implements LifeCycle, Measured {
     private final AsyncHttpClient asyncClient;
     private final ServerPool serverPool;
     private final RequestFactory httpRequestFactory;
+    private final ItemSourcePool<ByteBuf> responseBufferPool;
     private final HttpClientMetrics metrics;
 
     /**
@@ -80,10 +86,30 @@ public class HttpClient implements LifeCycle, Measured {
             final AsyncHttpClient asyncClient,
             final ServerPool serverPool,
             final RequestFactory requestFactory
+    ) {
+        this(name, metricsFactory, asyncClient, serverPool, requestFactory, null);
+    }
+
+    /**
+     * @param name HTTP client instance name. Used as Metric component name
+     * @param metricsFactory Metrics factory
+     * @param asyncClient actual AsyncHttpClient client
+     * @param serverPool pool of servers to use
+     * @param requestFactory {@link Request} adapter
+     * @param responseBufferPool response buffer pool. If null, unpooled buffers will be used
+     */
+    public HttpClient(
+            final String name,
+            final MetricsFactory metricsFactory,
+            final AsyncHttpClient asyncClient,
+            final ServerPool serverPool,
+            final RequestFactory requestFactory,
+            final ItemSourcePool<ByteBuf> responseBufferPool
     ) {
         this.asyncClient = asyncClient;
         this.serverPool = serverPool;
         this.httpRequestFactory = requestFactory;
+        this.responseBufferPool = responseBufferPool;
         this.metrics = new HttpClientMetrics(name == null ? HttpClient.class.getSimpleName() : name, metricsFactory);
     }
 
@@ -107,32 +133,88 @@ public class HttpClient implements LifeCycle, Measured {
             final Request request,
             final ResponseHandler<T> responseHandler
     ) {
+        doExecuteAsync(request, responseHandler, null);
+    }
+
+    /**
+     * Executes given request on any server other than {@code excluded}.
+     * If no other server can accept the request, {@link ResponseHandler#failed(Exception)} is called.
+     *
+     * @param request request to execute
+     * @param responseHandler response handler
+     * @param excluded server that MUST NOT be used, if null, any server may be used
+     * @param <T> response type
+     * @return server the request was sent to, null if request failed before it was sent
+     */
+    public <T extends Response> ServerInfo executeAsyncExcluding(
+            final Request request,
+            final ResponseHandler<T> responseHandler,
+            final ServerInfo excluded
+    ) {
+        return doExecuteAsync(request, responseHandler, excluded);
+    }
 
+    private <T extends Response> ServerInfo doExecuteAsync(
+            final Request request,
+            final ResponseHandler<T> responseHandler,
+            final ServerInfo excluded
+    ) {
+
+        ServerInfo serverInfo = null;
         final RequestBuilder clientRequest;
         try {
-            clientRequest = createClientRequest(request);
+            serverInfo = excluded == null ? serverPool.acquire() : serverPool.acquire(excluded);
+            if (serverInfo == null) {
+                throw new IllegalStateException("No servers available other than " + excluded.getResolvedAddress());
+            }
+            clientRequest = createClientRequest(serverInfo.getResolvedAddress(), request);
         } catch (Exception e) {
+            if (serverInfo != null) {
+                serverPool.release(serverInfo);
+            }
             responseHandler.failed(e);
-            return;
+            return null;
+        }
+
+        responseHandler.serverAcquired(serverInfo);
+
+        final ServerReleasingResponseHandler<T> releasingHandler = new ServerReleasingResponseHandler<>(responseHandler, serverPool, serverInfo);
+        try {
+            getAsyncClient().executeRequest(clientRequest, createCallback(releasingHandler));
+        } catch (RuntimeException e) {
+            // e.g. client closed; callback will not be called, so the server has to be released here
+            releasingHandler.release();
+            throw e;
         }
 
-        getAsyncClient().executeRequest(clientRequest, createCallback(responseHandler));
+        return serverInfo;
 
     }
 
     RequestBuilder createClientRequest(final Request request) throws Exception {
-        final String url = serverPool.getNext() + '/' + request.getURI();
+        return createClientRequest(serverPool.getNext(), request);
+    }
+
+    RequestBuilder createClientRequest(final String address, final Request request) throws Exception {
+        final String url = address + '/' + request.getURI();
         return (RequestBuilder) httpRequestFactory.create(url, request);
     }
 
     <T extends Response> AsyncHandler<T> createCallback(final ResponseHandler<T> responseHandler) {
-        return new AHCResultCallback<>(responseHandler);
+        return new AHCResultCallback<>(responseHandler, responseBufferPool);
     }
 
     public AsyncHttpClient getAsyncClient() {
         return asyncClient;
     }
 
+    /**
+     * @return true, if none of target servers can accept more requests, false otherwise
+     */
+    public boolean isSaturated() {
+        return serverPool.isSaturated();
+    }
+
     @Override
     public void start() {
 
@@ -140,6 +222,8 @@ public class HttpClient implements LifeCycle, Measured {
             return;
         }
 
+        LifeCycle.of(responseBufferPool).start();
+
         state = State.STARTED;
 
         getLogger().debug("{}: Started", HttpClient.class.getSimpleName());
@@ -163,6 +247,8 @@ public class HttpClient implements LifeCycle, Measured {
             }
         }
 
+        LifeCycle.of(responseBufferPool).stop();
+
         state = State.STOPPED;
 
         getLogger().debug("{}: Stopping client", HttpClient.class.getSimpleName());
@@ -182,11 +268,56 @@ public class HttpClient implements LifeCycle, Measured {
     @Override
     public void register(final MetricsRegistry registry) {
         metrics.register(registry);
+        Measured.of(responseBufferPool).register(registry);
     }
 
     @Override
     public void deregister() {
         metrics.deregister();
+        Measured.of(responseBufferPool).deregister();
+    }
+
+    /**
+     * Releases target server once the response was handled
+     *
+     * @param <T> response type
+     */
+    private static class ServerReleasingResponseHandler<T extends Response> implements ResponseHandler<T> {
+
+        private final ResponseHandler<T> delegate;
+        private final ServerPool serverPool;
+        private final ServerInfo serverInfo;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ServerReleasingResponseHandler(final ResponseHandler<T> delegate, final ServerPool serverPool, final ServerInfo serverInfo) {
+            this.delegate = delegate;
+            this.serverPool = serverPool;
+            this.serverInfo = serverInfo;
+        }
+
+        @Override
+        public void completed(final T result) {
+            release();
+            delegate.completed(result);
+        }
+
+        @Override
+        public void failed(final Exception ex) {
+            release();
+            delegate.failed(ex);
+        }
+
+        @Override
+        public T deserializeResponse(final InputStream inputStream) throws IOException {
+            return delegate.deserializeResponse(inputStream);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                serverPool.release(serverInfo);
+            }
+        }
+
     }
 
     public class HttpClientMetrics implements Metrics {
@@ -20,13 +20,20 @@ package org.appenders.log4j2.elasticsearch.ahc;
  * #L%
  */
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import org.appenders.log4j2.elasticsearch.Auth;
+import org.appenders.log4j2.elasticsearch.ByteBufBoundedSizeLimitPolicy;
+import org.appenders.log4j2.elasticsearch.ByteBufPooledObjectOps;
+import org.appenders.log4j2.elasticsearch.GenericItemSourcePool;
+import org.appenders.log4j2.elasticsearch.UnlimitedResizePolicy;
 import org.appenders.log4j2.elasticsearch.ahc.discovery.ServiceDiscovery;
 import org.appenders.log4j2.elasticsearch.metrics.DefaultMetricsFactory;
 import org.appenders.log4j2.elasticsearch.metrics.MetricConfig;
 import org.appenders.log4j2.elasticsearch.metrics.MetricsFactory;
 import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.AsyncHttpClientConfig;
 import org.asynchttpclient.DefaultAsyncHttpClient;
 import org.asynchttpclient.DefaultAsyncHttpClientConfig;
 import org.asynchttpclient.Realm;
@@ -45,8 +52,11 @@ public class HttpClientFactory {
     protected final int connTimeout;
     protected final int readTimeout;
     protected final int maxTotalConnections;
+    protected final int maxConnectionsPerServer;
     protected final int ioThreadCount;
     protected final boolean gzipCompression;
+    protected final boolean pooledResponseBuffersEnabled;
+    protected final int pooledResponseBuffersSizeInBytes;
     protected final Realm realm;
     protected final SslEngineFactory sslEngineFactory;
     protected final ServiceDiscovery serviceDiscovery;
@@ -58,8 +68,11 @@ public class HttpClientFactory {
         this.connTimeout = httpClientFactoryBuilder.connTimeout;
         this.readTimeout = httpClientFactoryBuilder.readTimeout;
         this.maxTotalConnections = httpClientFactoryBuilder.maxTotalConnections;
+        this.maxConnectionsPerServer = httpClientFactoryBuilder.maxConnectionsPerServer;
         this.ioThreadCount = httpClientFactoryBuilder.ioThreadCount;
         this.gzipCompression = httpClientFactoryBuilder.gzipCompression;
+        this.pooledResponseBuffersEnabled = httpClientFactoryBuilder.pooledResponseBuffersEnabled;
+        this.pooledResponseBuffersSizeInBytes = httpClientFactoryBuilder.pooledResponseBuffersSizeInBytes;
         this.realm = httpClientFactoryBuilder.realm;
         this.sslEngineFactory = httpClientFactoryBuilder.sslEngineFactory;
         this.serviceDiscovery = httpClientFactoryBuilder.serviceDiscovery;
@@ -71,7 +84,7 @@ public class HttpClientFactory {
 
         final AsyncHttpClient asyncHttpClient = createAsyncHttpClient();
 
-        final ServerPool serverPool = new ServerPool(new ArrayList<>(serverList));
+        final ServerPool serverPool = new ServerPool(new ArrayList<>(serverList), maxConnectionsPerServer);
         if (serviceDiscovery != null) {
             serviceDiscovery.addListener(serverPool);
         }
@@ -104,10 +117,35 @@ public class HttpClientFactory {
                 metricsFactory,
                 asyncHttpClient,
                 serverPool,
-                requestFactory
+                requestFactory,
+                createResponseBufferPool()
         );
     }
 
+    /**
+     * @return response buffer pool if pooled response buffers are enabled, null otherwise
+     */
+    protected GenericItemSourcePool<ByteBuf> createResponseBufferPool() {
+
+        if (!pooledResponseBuffersEnabled) {
+            return null;
+        }
+
+        final String poolName = name == null ? HttpClient.class.getSimpleName() : name;
+        return new GenericItemSourcePool<>(
+                poolName,
+                new ByteBufPooledObjectOps(
+                        UnpooledByteBufAllocator.DEFAULT,
+                        new ByteBufBoundedSizeLimitPolicy(pooledResponseBuffersSizeInBytes, pooledResponseBuffersSizeInBytes)
+                ),
+                new UnlimitedResizePolicy.Builder().withResizeFactor(0.5).build(),
+                1000,
+                maxTotalConnections,
+                metricsFactory
+        );
+
+    }
+
     protected RequestFactory createRequestFactory() {
         return new AHCRequestFactory();
     }
@@ -118,11 +156,17 @@ public class HttpClientFactory {
                 .setConnectTimeout(connTimeout)
                 .setAllocator(PooledByteBufAllocator.DEFAULT)
                 .setMaxConnections(maxTotalConnections)
+                .setMaxConnectionsPerHost(maxConnectionsPerServer > 0 ? maxConnectionsPerServer : -1)
                 .setReadTimeout(readTimeout)
                 .setCompressionEnforced(gzipCompression)
                 .setRealm(realm)
                 .setSslEngineFactory(sslEngineFactory);
 
+        if (pooledResponseBuffersEnabled) {
+            // body parts are copied to pooled buffers on arrival, so they don't have to be copied to heap beforehand
+            builder.setResponseBodyPartFactory(AsyncHttpClientConfig.ResponseBodyPartFactory.LAZY);
+        }
+
         return new DefaultAsyncHttpClient(builder.build());
     }
 
@@ -132,12 +176,16 @@ public class HttpClientFactory {
         protected int connTimeout = 1000;
         protected int readTimeout = 1000;
         protected int maxTotalConnections = 1;
+        protected int maxConnectionsPerServer;
         protected int ioThreadCount = maxTotalConnections;
         protected Auth<Builder> auth;
         protected ServiceDiscovery serviceDiscovery;
-        protected final MetricsFactory metricsFactory = new DefaultMetricsFactory(HttpClient.metricConfigs(false));
+        protected final MetricsFactory metricsFactory = new DefaultMetricsFactory(HttpClient.metricConfigs(false))
+                .configure(GenericItemSourcePool.metricConfigs(false));
         protected String name;
         protected boolean gzipCompression;
+        protected boolean pooledResponseBuffersEnabled;
+        protected int pooledResponseBuffersSizeInBytes;
         protected Realm realm;
         protected SslEngineFactory sslEngineFactory;
 
@@ -181,6 +229,18 @@ public class HttpClientFactory {
             return this;
         }
 
+        /**
+         * Limits number of connections and in-flight requests per target server.
+         * Once all servers are saturated, {@link HttpClient#isSaturated()} returns true.
+         *
+         * @param maxConnectionsPerServer max number of connections per server. If lower or equal to 0, number of connections per server and in-flight requests are not limited
+         * @return this
+         */
+        public Builder withMaxConnectionsPerServer(final int maxConnectionsPerServer) {
+            this.maxConnectionsPerServer = maxConnectionsPerServer;
+            return this;
+        }
+
         public Builder withIoThreadCount(final int ioThreadCount) {
             this.ioThreadCount = ioThreadCount;
             return this;
@@ -196,6 +256,16 @@ public class HttpClientFactory {
             return this;
         }
 
+        public Builder withPooledResponseBuffers(final boolean pooledResponseBuffersEnabled) {
+            this.pooledResponseBuffersEnabled = pooledResponseBuffersEnabled;
+            return this;
+        }
+
+        public Builder withPooledResponseBuffersSizeInBytes(final int pooledResponseBuffersSizeInBytes) {
+            this.pooledResponseBuffersSizeInBytes = pooledResponseBuffersSizeInBytes;
+            return this;
+        }
+
         public Builder withRealm(final Realm realm) {
             this.realm = realm;
             return this;
@@ -228,7 +298,10 @@ public class HttpClientFactory {
                     ", connTimeout=" + connTimeout +
                     ", readTimeout=" + readTimeout +
                     ", maxTotalConnections=" + maxTotalConnections +
+                    ", maxConnectionsPerServer=" + maxConnectionsPerServer +
                     ", ioThreadCount=" + ioThreadCount +
+                    ", pooledResponseBuffers=" + pooledResponseBuffersEnabled +
+                    ", pooledResponseBuffersSizeInBytes=" + pooledResponseBuffersSizeInBytes +
                     ", auth=" + (auth != null) +
                     ", serviceDiscovery=" + (serviceDiscovery != null) +
                     ", metrics=" + metricsFactory.getMetricConfigs().size() +
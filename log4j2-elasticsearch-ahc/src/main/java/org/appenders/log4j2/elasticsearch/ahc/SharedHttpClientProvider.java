@@ -0,0 +1,123 @@
+package org.appenders.log4j2.elasticsearch.ahc;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.appenders.log4j2.elasticsearch.LifeCycle;
+import org.appenders.log4j2.elasticsearch.SharedResources;
+import org.appenders.log4j2.elasticsearch.metrics.Measured;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsRegistry;
+
+import static org.appenders.core.logging.InternalLogging.getLogger;
+
+/**
+ * Provides {@link HttpClient} registered at {@link SharedResources}, so multiple appenders can use the same IO threads and connection pool.
+ * <p>
+ * Client is created with config of the first provider that acquired it. Client is stopped when the last provider is stopped.
+ * Client metrics are registered once per shared client, see {@link SharedResources#register(String, Object, MetricsRegistry)}.
+ */
+public class SharedHttpClientProvider extends HttpClientProvider {
+
+    private final String sharedName;
+    private final SharedResources sharedResources;
+
+    private HttpClient httpClient;
+
+    /**
+     * @param sharedClientName shared client name
+     * @param httpClientFactoryBuilder client config used if client with given name doesn't exist yet
+     */
+    public SharedHttpClientProvider(final String sharedClientName, final HttpClientFactory.Builder httpClientFactoryBuilder) {
+        super(httpClientFactoryBuilder);
+        this.sharedName = sharedName(sharedClientName);
+        this.sharedResources = SharedResources.getInstance();
+    }
+
+    /**
+     * @param sharedClientName shared client name
+     * @return name of client with given name at {@link SharedResources}
+     */
+    public static String sharedName(final String sharedClientName) {
+        return HttpClient.class.getName() + ":" + sharedClientName;
+    }
+
+    /**
+     * @return shared client. Acquired from {@link SharedResources} on first call
+     */
+    @Override
+    public synchronized HttpClient createClient() {
+
+        if (httpClient == null) {
+            httpClient = sharedResources.acquire(sharedName, HttpClient.class, () -> getHttpClientFactoryBuilder().build().createInstance());
+        }
+
+        return httpClient;
+
+    }
+
+    @Override
+    public void stop() {
+
+        if (isStopped()) {
+            return;
+        }
+
+        super.stop();
+
+        deregister();
+
+        final HttpClient released = releaseClient();
+        if (released != null && sharedResources.release(sharedName, released)) {
+            getLogger().debug("{}: Last reference to {} released", SharedHttpClientProvider.class.getSimpleName(), sharedName);
+            Measured.of(released).deregister(); // prevent leaks
+            LifeCycle.of(released).stop();
+        }
+
+    }
+
+    private synchronized HttpClient releaseClient() {
+        final HttpClient released = httpClient;
+        httpClient = null;
+        return released;
+    }
+
+    @Override
+    public synchronized void register(final MetricsRegistry registry) {
+        if (httpClient == null) {
+            getLogger().warn("{}: Metrics not ready. HttpClient not created yet", SharedHttpClientProvider.class.getSimpleName());
+            return;
+        }
+        sharedResources.register(sharedName, this, registry);
+    }
+
+    @Override
+    public synchronized void deregister() {
+        sharedResources.deregister(sharedName, this);
+    }
+
+    @Override
+    public String toString() {
+        return "SharedHttpClientProvider{" +
+                "sharedName=" + sharedName +
+                ", config=" + getHttpClientFactoryBuilder() +
+                '}';
+    }
+
+}
@@ -48,7 +48,7 @@ public class HCFailedItemOps implements FailedItemOps<IndexRequest> {
 
     @Override
     public FailedItemInfo createInfo(final IndexRequest failed) {
-        return new FailedItemInfo(failed.getIndex());
+        return new FailedItemInfo(failed.getIndex(), failed.getId());
     }
 
 }
@@ -0,0 +1,93 @@
+package org.appenders.log4j2.elasticsearch.ahc;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.appenders.log4j2.elasticsearch.AllocationBudgetTestBase;
+import org.appenders.log4j2.elasticsearch.ByteBufBoundedSizeLimitPolicy;
+import org.appenders.log4j2.elasticsearch.ByteBufPooledObjectOps;
+import org.appenders.log4j2.elasticsearch.ClientObjectFactory;
+import org.appenders.log4j2.elasticsearch.ItemSourceFactory;
+import org.appenders.log4j2.elasticsearch.JacksonDeserializer;
+import org.appenders.log4j2.elasticsearch.PooledItemSourceFactory;
+import org.appenders.log4j2.elasticsearch.UnlimitedResizePolicy;
+import org.appenders.log4j2.elasticsearch.ValueResolver;
+import org.appenders.log4j2.elasticsearch.backoff.BatchLimitBackoffPolicy;
+
+import java.util.Collections;
+
+/**
+ * {@link AllocationBudgetTestBase} with {@link AHCHttp} client and pooled {@link ByteBuf} item and batch buffers.
+ */
+public class AHCHttpAllocationBudgetTest extends AllocationBudgetTestBase {
+
+    @Override
+    protected ClientObjectFactory<?, ?> createClientObjectFactory(final String serverUri, final int estimatedBatchSizeInBytes) {
+
+        final PooledItemSourceFactory<Object, ByteBuf> batchPool = new PooledItemSourceFactory.Builder<Object, ByteBuf>()
+                .withPoolName("batchPool")
+                .withInitialPoolSize(4)
+                .withPooledObjectOps(new ByteBufPooledObjectOps(
+                        UnpooledByteBufAllocator.DEFAULT,
+                        new ByteBufBoundedSizeLimitPolicy(estimatedBatchSizeInBytes, estimatedBatchSizeInBytes * 2)))
+                .build();
+
+        final HttpClientProvider clientProvider = new HttpClientProvider(new HttpClientFactory.Builder()
+                .withServerList(Collections.singletonList(serverUri))
+                .withConnTimeout(500)
+                .withReadTimeout(10000)
+                .withIoThreadCount(4)
+                .withMaxTotalConnections(8)
+                .withName("http-alloc"));
+
+        return new AHCHttp.Builder()
+                .withBatchOperations(new AHCBatchOperations(batchPool, new ElasticsearchBulkAPI()))
+                .withClientProvider(clientProvider)
+                .withOperationFactory(new ElasticsearchOperationFactory(
+                        new SyncStepProcessor(clientProvider, new JacksonDeserializer<>(ElasticsearchBulkAPI.defaultObjectMapper().readerFor(BatchResult.class))),
+                        ValueResolver.NO_OP))
+                .withBackoffPolicy(new BatchLimitBackoffPolicy<>(8))
+                .withName("http-alloc")
+                .build();
+
+    }
+
+    @Override
+    protected ItemSourceFactory<Object, ?> createItemSourceFactory(final int itemSizeInBytes) {
+        return new PooledItemSourceFactory.Builder<Object, ByteBuf>()
+                .withPoolName("itemPool")
+                .withPooledObjectOps(new ByteBufPooledObjectOps(
+                        UnpooledByteBufAllocator.DEFAULT,
+                        new ByteBufBoundedSizeLimitPolicy(itemSizeInBytes, itemSizeInBytes * 2)))
+                .withInitialPoolSize(BATCH_SIZE * 4)
+                .withResizePolicy(new UnlimitedResizePolicy.Builder().build())
+                .build();
+    }
+
+    @Override
+    protected long allocationBudget(final LayoutType layoutType) {
+        // baseline: ~350 bytes per event (JsonGenerator and its context, IndexRequest, OutputStream wrapper)
+        // dynamic virtual properties add ~800 bytes per event (Log4j2 StrSubstitutor)
+        return layoutType == LayoutType.VIRTUAL_PROPERTIES ? 1536 : 512;
+    }
+
+}
@@ -50,6 +50,7 @@ import static org.appenders.log4j2.elasticsearch.ahc.HttpClientProviderTest.TEST
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -111,6 +112,35 @@ public class AHCHttpPluginTest {
 
     }
 
+    @Test
+    public void builderCreatesSharedClientProviderIfSharedClientNameIsConfigured() {
+
+        // given
+        final AHCHttpPlugin.Builder builder = createDefaultHttpObjectFactoryBuilder()
+                .withSharedClientName(UUID.randomUUID().toString());
+
+        // when
+        final AHCHttpPlugin plugin = builder.build();
+
+        // then
+        assertTrue(plugin.clientProvider instanceof SharedHttpClientProvider);
+
+    }
+
+    @Test
+    public void builderCreatesNonSharedClientProviderByDefault() {
+
+        // given
+        final AHCHttpPlugin.Builder builder = createDefaultHttpObjectFactoryBuilder();
+
+        // when
+        final AHCHttpPlugin plugin = builder.build();
+
+        // then
+        assertFalse(plugin.clientProvider instanceof SharedHttpClientProvider);
+
+    }
+
     @Test
     public void builderThrowsIfItemSourceFactoryIsNull() {
 
@@ -226,6 +256,23 @@ public class AHCHttpPluginTest {
 
     }
 
+    @Test
+    public void hedgedDeliveryIsUsedIfConfigured() {
+
+        // given
+        final HedgedDelivery hedgedDelivery = HedgedDeliveryPlugin.newBuilder().build();
+
+        final AHCHttpPlugin.Builder builder = createDefaultHttpObjectFactoryBuilder()
+                .withHedgedDelivery(hedgedDelivery);
+
+        // when
+        final AHCHttpPlugin plugin = builder.build();
+
+        // then
+        assertEquals(hedgedDelivery, plugin.hedgedDelivery);
+
+    }
+
     @Test
     public void clientAPIFactoryIsUsedIfConfigured() {
 
@@ -305,7 +352,7 @@ public class AHCHttpPluginTest {
         final AHCHttpPlugin plugin = builder.build();
 
         plugin.register(registry);
-        assertEquals(12, registry.getMetrics(metric -> true).size());
+        assertEquals(16, registry.getMetrics(metric -> true).size());
 
         // when
         plugin.deregister();
@@ -23,8 +23,11 @@ package org.appenders.log4j2.elasticsearch.ahc;
 import com.fasterxml.jackson.databind.ObjectReader;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.CompositeByteBuf;
+import org.apache.logging.log4j.Level;
 import org.appenders.core.logging.InternalLoggingTest;
+import org.appenders.log4j2.elasticsearch.AsyncBatchDelivery;
 import org.appenders.log4j2.elasticsearch.Auth;
+import org.appenders.log4j2.elasticsearch.BatchDelivery;
 import org.appenders.log4j2.elasticsearch.BatchOperations;
 import org.appenders.log4j2.elasticsearch.ByteBufItemSourceTest;
 import org.appenders.log4j2.elasticsearch.ClientObjectFactory;
@@ -33,13 +36,17 @@ import org.appenders.log4j2.elasticsearch.FailoverPolicy;
 import org.appenders.log4j2.elasticsearch.ItemSource;
 import org.appenders.log4j2.elasticsearch.JacksonDeserializer;
 import org.appenders.log4j2.elasticsearch.JacksonSerializerTest;
+import org.appenders.log4j2.elasticsearch.LevelAwareLoadSheddingPolicyPlugin;
 import org.appenders.log4j2.elasticsearch.LifeCycle;
 import org.appenders.log4j2.elasticsearch.NoopFailoverPolicy;
+import org.appenders.log4j2.elasticsearch.OpSource;
 import org.appenders.log4j2.elasticsearch.Operation;
 import org.appenders.log4j2.elasticsearch.OperationFactory;
+import org.appenders.log4j2.elasticsearch.ParallelSetup;
 import org.appenders.log4j2.elasticsearch.PooledItemSourceFactory;
 import org.appenders.log4j2.elasticsearch.PooledItemSourceFactoryTest;
 import org.appenders.log4j2.elasticsearch.Result;
+import org.appenders.log4j2.elasticsearch.SetupOperationCache;
 import org.appenders.log4j2.elasticsearch.ValueResolver;
 import org.appenders.log4j2.elasticsearch.ahc.failover.HCFailedItemOps;
 import org.appenders.log4j2.elasticsearch.backoff.BackoffPolicy;
@@ -49,12 +56,16 @@ import org.asynchttpclient.AsyncHttpClient;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import static org.appenders.core.logging.InternalLogging.setLogger;
@@ -72,7 +83,10 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockingDetails;
 import static org.mockito.Mockito.never;
@@ -715,6 +729,363 @@ public class AHCHttpTest {
     }
 
 
+    @Test
+    public void failoverHandlerIsExecutedImmediatelyIfAllServersAreSaturated() {
+
+        // given
+        final TestBackoffPolicy<BatchRequest> backoffPolicy = spy(new TestBackoffPolicy<BatchRequest>() {
+            @Override
+            public boolean shouldApply(final BatchRequest data) {
+                return false;
+            }
+        });
+
+        final HttpClient httpClient = mock(HttpClient.class);
+        when(httpClient.isSaturated()).thenReturn(true);
+
+        final HttpClientProvider clientProvider = mock(HttpClientProvider.class);
+        when(clientProvider.createClient()).thenReturn(httpClient);
+
+        final AHCHttp.Builder builder = createDefaultHttpObjectFactoryBuilder()
+                .withBackoffPolicy(backoffPolicy)
+                .withClientProvider(clientProvider);
+
+        final FailoverPolicy failoverPolicy = mock(FailoverPolicy.class);
+        final Function<BatchRequest, Boolean> failoverHandler = mock(Function.class);
+
+        final AHCHttp config = spy(builder.build());
+        when(config.createFailureHandler(eq(failoverPolicy))).thenReturn(failoverHandler);
+
+        final ItemSource<ByteBuf> payload1 = createDefaultTestItemSource("test1");
+
+        final BatchRequest.Builder batchBuilder = spy(new BatchRequest.Builder());
+        final BatchRequest batchRequest = createTestBatch(batchBuilder, payload1);
+
+        final Function<BatchRequest, Boolean> batchListener = config.createBatchListener(failoverPolicy);
+
+        // when
+        batchListener.apply(batchRequest);
+
+        // then
+        verify(failoverHandler, times(1)).apply(eq(batchRequest));
+        verify(batchRequest, times(1)).completed();
+        verify(backoffPolicy, never()).register(any());
+        verify(httpClient, never()).executeAsync(any(), any());
+
+    }
+
+    @Test
+    public void batchListenerDelegatesToHedgedDeliveryIfConfigured() {
+
+        // given
+        final HttpClient httpClient = mock(HttpClient.class);
+
+        final HttpClientProvider clientProvider = mock(HttpClientProvider.class);
+        when(clientProvider.createClient()).thenReturn(httpClient);
+
+        final HedgedDelivery hedgedDelivery = mock(HedgedDelivery.class);
+
+        final AHCHttp.Builder builder = (AHCHttp.Builder) createDefaultHttpObjectFactoryBuilder()
+                .withClientProvider(clientProvider)
+                .withHedgedDelivery(hedgedDelivery);
+
+        final AHCHttp config = builder.build();
+
+        final BatchRequest batchRequest = createTestBatch(spy(new BatchRequest.Builder()), createDefaultTestItemSource("test1"));
+
+        final Function<BatchRequest, Boolean> batchListener = config.createBatchListener(mock(FailoverPolicy.class));
+
+        // when
+        batchListener.apply(batchRequest);
+
+        // then
+        verify(hedgedDelivery).execute(eq(httpClient), eq(batchRequest), any());
+        verify(httpClient, never()).executeAsync(any(), any());
+
+    }
+
+    @Test
+    public void addSetupOperationSubmitsOperationToParallelSetupIfConfigured() {
+
+        // given
+        final HttpClientProvider clientProvider = mock(HttpClientProvider.class);
+        when(clientProvider.getHttpClientFactoryBuilder()).thenReturn(createDefaultTestHttpClientFactoryBuilder());
+        final ParallelSetup parallelSetup = mock(ParallelSetup.class);
+
+        final AHCHttp config = ((AHCHttp.Builder) createDefaultHttpObjectFactoryBuilder()
+                .withClientProvider(clientProvider)
+                .withParallelSetup(parallelSetup))
+                .build();
+
+        final OpSource opSource = mock(OpSource.class);
+        when(opSource.getType()).thenReturn("testType");
+        when(opSource.getSource()).thenReturn("testSource");
+
+        final Operation operation = mock(Operation.class);
+
+        // when
+        config.addSetupOperation(opSource, operation);
+
+        // then
+        final String expectedKey = SetupOperationCache.key(opSource, config.getServerList());
+        verify(clientProvider).start();
+        verify(parallelSetup).submit(eq("testType"), eq(expectedKey), eq(operation), any());
+
+    }
+
+    @Test
+    public void addSetupOperationExecutesOperationBeforeBatchIfParallelSetupIsNotConfigured() throws Exception {
+
+        // given
+        final HttpClientProvider clientProvider = mock(HttpClientProvider.class);
+        when(clientProvider.createClient()).thenReturn(mock(HttpClient.class));
+
+        final AHCHttp config = createDefaultHttpObjectFactoryBuilder()
+                .withClientProvider(clientProvider)
+                .build();
+
+        final Operation operation = mock(Operation.class);
+        config.addSetupOperation(mock(OpSource.class), operation);
+
+        final Function<BatchRequest, Boolean> batchListener = config.createBatchListener(mock(FailoverPolicy.class));
+
+        // when
+        batchListener.apply(createTestBatch(spy(new BatchRequest.Builder()), createDefaultTestItemSource("test1")));
+
+        // then
+        verify(operation).execute();
+
+    }
+
+    @Test
+    public void batchListenerExecutesFailedParallelSetupOperationsAfterParallelSetupCompletion() throws Exception {
+
+        // given
+        final HttpClientProvider clientProvider = mock(HttpClientProvider.class);
+        when(clientProvider.getHttpClientFactoryBuilder()).thenReturn(createDefaultTestHttpClientFactoryBuilder());
+        when(clientProvider.createClient()).thenReturn(mock(HttpClient.class));
+
+        final ParallelSetup parallelSetup = mock(ParallelSetup.class);
+
+        final AHCHttp config = ((AHCHttp.Builder) createDefaultHttpObjectFactoryBuilder()
+                .withClientProvider(clientProvider)
+                .withParallelSetup(parallelSetup))
+                .build();
+
+        final OpSource opSource = mock(OpSource.class);
+        when(opSource.getType()).thenReturn("testType");
+        when(opSource.getSource()).thenReturn("testSource");
+
+        final Operation operation = mock(Operation.class);
+        config.addSetupOperation(opSource, operation);
+
+        final ArgumentCaptor<Consumer<Operation>> captor = ArgumentCaptor.forClass(Consumer.class);
+        verify(parallelSetup).submit(any(), any(), eq(operation), captor.capture());
+        captor.getValue().accept(operation);
+
+        final Function<BatchRequest, Boolean> batchListener = config.createBatchListener(mock(FailoverPolicy.class));
+
+        // when
+        batchListener.apply(createTestBatch(spy(new BatchRequest.Builder()), createDefaultTestItemSource("test1")));
+
+        // then
+        final InOrder inOrder = inOrder(parallelSetup, operation);
+        inOrder.verify(parallelSetup).awaitCompletion();
+        inOrder.verify(operation).execute();
+
+    }
+
+    @Test
+    public void batchListenerAwaitsParallelSetupCompletionIfConfigured() {
+
+        // given
+        final HttpClient httpClient = mock(HttpClient.class);
+
+        final HttpClientProvider clientProvider = mock(HttpClientProvider.class);
+        when(clientProvider.createClient()).thenReturn(httpClient);
+
+        final ParallelSetup parallelSetup = mock(ParallelSetup.class);
+
+        final AHCHttp config = ((AHCHttp.Builder) createDefaultHttpObjectFactoryBuilder()
+                .withClientProvider(clientProvider)
+                .withParallelSetup(parallelSetup))
+                .build();
+
+        final BatchRequest batchRequest = createTestBatch(spy(new BatchRequest.Builder()), createDefaultTestItemSource("test1"));
+
+        final Function<BatchRequest, Boolean> batchListener = config.createBatchListener(mock(FailoverPolicy.class));
+
+        // when
+        batchListener.apply(batchRequest);
+
+        // then
+        verify(parallelSetup).awaitCompletion();
+        verify(httpClient).executeAsync(eq(batchRequest), any());
+
+    }
+
+    @Test
+    public void batchListenerTracksInFlightBatchUntilCompleted() {
+
+        // given
+        final HttpClient httpClient = mock(HttpClient.class);
+
+        final HttpClientProvider clientProvider = mock(HttpClientProvider.class);
+        when(clientProvider.createClient()).thenReturn(httpClient);
+
+        final AHCHttp config = createDefaultHttpObjectFactoryBuilder()
+                .withClientProvider(clientProvider)
+                .build();
+
+        final Runnable onBatchCompleted = mock(Runnable.class);
+        config.onBatchCompleted(onBatchCompleted);
+
+        final BatchRequest batchRequest = createTestBatch(spy(new BatchRequest.Builder()), createDefaultTestItemSource("test1"));
+        final BatchResult result = mock(BatchResult.class);
+        when(result.isSucceeded()).thenReturn(true);
+
+        final Function<BatchRequest, Boolean> batchListener = config.createBatchListener(mock(FailoverPolicy.class));
+        batchListener.apply(batchRequest);
+
+        final ArgumentCaptor<ResponseHandler> captor = ArgumentCaptor.forClass(ResponseHandler.class);
+        verify(httpClient).executeAsync(eq(batchRequest), captor.capture());
+        final ResponseHandler<BatchResult> responseHandler = captor.getValue();
+
+        assertEquals(1, config.getInFlightCount());
+        assertEquals(1, config.getInFlightItemCount());
+        verify(onBatchCompleted, never()).run();
+
+        // when
+        responseHandler.completed(result);
+
+        // then
+        assertEquals(0, config.getInFlightCount());
+        assertEquals(0, config.getInFlightItemCount());
+        verify(onBatchCompleted).run();
+
+    }
+
+    @Test
+    public void batchListenerTracksInFlightBatchUntilFailed() {
+
+        // given
+        final HttpClient httpClient = mock(HttpClient.class);
+
+        final HttpClientProvider clientProvider = mock(HttpClientProvider.class);
+        when(clientProvider.createClient()).thenReturn(httpClient);
+
+        final AHCHttp config = createDefaultHttpObjectFactoryBuilder()
+                .withClientProvider(clientProvider)
+                .build();
+
+        final Runnable onBatchCompleted = mock(Runnable.class);
+        config.onBatchCompleted(onBatchCompleted);
+
+        final BatchRequest batchRequest = createTestBatch(spy(new BatchRequest.Builder()), createDefaultTestItemSource("test1"));
+        final BatchResult result = mock(BatchResult.class);
+        when(result.isSucceeded()).thenReturn(true);
+
+        final Function<BatchRequest, Boolean> batchListener = config.createBatchListener(mock(FailoverPolicy.class));
+        batchListener.apply(batchRequest);
+
+        final ArgumentCaptor<ResponseHandler> captor = ArgumentCaptor.forClass(ResponseHandler.class);
+        verify(httpClient).executeAsync(eq(batchRequest), captor.capture());
+        final ResponseHandler<BatchResult> responseHandler = captor.getValue();
+
+        assertEquals(1, config.getInFlightCount());
+        assertEquals(1, config.getInFlightItemCount());
+        verify(onBatchCompleted, never()).run();
+
+        // when
+        responseHandler.failed(new IOException("test"));
+
+        // then
+        assertEquals(0, config.getInFlightCount());
+        assertEquals(0, config.getInFlightItemCount());
+        verify(onBatchCompleted).run();
+
+    }
+
+    @Test
+    public void loadSheddingPolicyDropsDebugEventsIfEndpointStalls() {
+
+        // given
+        final HttpClient httpClient = mock(HttpClient.class); // response handler is never called
+
+        final HttpClientProvider clientProvider = mock(HttpClientProvider.class);
+        when(clientProvider.createClient()).thenReturn(httpClient);
+        when(clientProvider.getHttpClientFactoryBuilder()).thenReturn(createDefaultTestHttpClientFactoryBuilder());
+
+        final AHCHttp config = createDefaultHttpObjectFactoryBuilder()
+                .withClientProvider(clientProvider)
+                .build();
+
+        final BatchDelivery<String> batchDelivery = AsyncBatchDelivery.newBuilder()
+                .withClientObjectFactory(config)
+                .withBatchSize(1)
+                .withDeliveryInterval(1000)
+                .withShutdownDelayMillis(0)
+                .build();
+        batchDelivery.start();
+
+        final LevelAwareLoadSheddingPolicyPlugin policy = LevelAwareLoadSheddingPolicyPlugin.newBuilder()
+                .withCapacity(4)
+                .withInfoCapacityFactor(0.75)
+                .withDebugCapacityFactor(0.5)
+                .build();
+
+        assertTrue(policy.accept(Level.DEBUG, batchDelivery));
+
+        // when
+        batchDelivery.add("test-index", createDefaultTestItemSource("test1"));
+        batchDelivery.add("test-index", createDefaultTestItemSource("test2"));
+
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (config.getInFlightCount() < 2 && System.currentTimeMillis() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        // then
+        assertEquals(2, batchDelivery.getBacklogSize());
+        assertFalse(policy.accept(Level.DEBUG, batchDelivery));
+        assertTrue(policy.accept(Level.INFO, batchDelivery));
+        assertEquals(1, policy.getDroppedDebug());
+
+        batchDelivery.stop();
+
+    }
+
+    @Test
+    public void batchListenerDoesNotTrackInFlightBatchIfExecutionThrows() {
+
+        // given
+        final HttpClient httpClient = mock(HttpClient.class);
+        doThrow(new IllegalStateException("test")).when(httpClient).executeAsync(any(), any());
+
+        final HttpClientProvider clientProvider = mock(HttpClientProvider.class);
+        when(clientProvider.createClient()).thenReturn(httpClient);
+
+        final AHCHttp config = createDefaultHttpObjectFactoryBuilder()
+                .withClientProvider(clientProvider)
+                .build();
+
+        final Runnable onBatchCompleted = mock(Runnable.class);
+        config.onBatchCompleted(onBatchCompleted);
+
+        final BatchRequest batchRequest = createTestBatch(spy(new BatchRequest.Builder()), createDefaultTestItemSource("test1"));
+
+        final Function<BatchRequest, Boolean> batchListener = config.createBatchListener(mock(FailoverPolicy.class));
+
+        // when
+        assertThrows(IllegalStateException.class, () -> batchListener.apply(batchRequest));
+
+        // then
+        assertEquals(0, config.getInFlightCount());
+        assertEquals(0, config.getInFlightItemCount());
+        verify(onBatchCompleted).run();
+
+    }
+
     @Test
     public void failureHandlerDeregistersRequestFromBackoffPolicyAfterException() {
 
@@ -838,6 +1209,46 @@ public class AHCHttpTest {
 
     }
 
+    @Test
+    public void lifecycleStartStartsAndStopStopsHedgedDelivery() {
+
+        // given
+        final HedgedDelivery hedgedDelivery = mock(HedgedDelivery.class);
+
+        final AHCHttp objectFactory = ((AHCHttp.Builder) createDefaultHttpObjectFactoryBuilder()
+                .withHedgedDelivery(hedgedDelivery))
+                .build();
+
+        // when
+        objectFactory.start();
+        objectFactory.stop();
+
+        // then
+        verify(hedgedDelivery).start();
+        verify(hedgedDelivery).stop();
+
+    }
+
+    @Test
+    public void lifecycleStartStartsAndStopStopsParallelSetup() {
+
+        // given
+        final ParallelSetup parallelSetup = mock(ParallelSetup.class);
+
+        final AHCHttp objectFactory = ((AHCHttp.Builder) createDefaultHttpObjectFactoryBuilder()
+                .withParallelSetup(parallelSetup))
+                .build();
+
+        // when
+        objectFactory.start();
+        objectFactory.stop();
+
+        // then
+        verify(parallelSetup).start();
+        verify(parallelSetup).stop();
+
+    }
+
     @Test
     public void lifecycleStartStartOperationFactoryOnlyOnce() {
 
@@ -125,7 +125,7 @@ public class AHCRequestFactoryTest {
     }
 
     @Test
-    public void createsEntityUsingGivenSource() throws Exception {
+    public void createsEntityWithIndependentReaderIndex() throws Exception {
 
         // given
         final AHCRequestFactory factory = createDefaultTestObject();
@@ -150,7 +150,7 @@ public class AHCRequestFactoryTest {
         source.readBytes(new byte[source.writerIndex()]);
 
         final InputStream inputStream = result.build().getStreamData();
-        assertEquals(0, inputStream.available());
+        assertEquals(expectedBytes.length, inputStream.available());
 
     }
 
@@ -161,6 +161,7 @@ public class AHCRequestFactoryTest {
 
         final ByteBuf byteBuf = mock(ByteBuf.class);
         when(byteBuf.writerIndex()).thenReturn(1);
+        when(byteBuf.duplicate()).thenReturn(byteBuf);
 
         final ItemSource<ByteBuf> itemSource = mock(ItemSource.class);
         when(itemSource.getSource()).thenReturn(byteBuf);
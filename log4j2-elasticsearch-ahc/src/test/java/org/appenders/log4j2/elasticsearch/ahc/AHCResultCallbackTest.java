@@ -20,14 +20,23 @@ package org.appenders.log4j2.elasticsearch.ahc;
  * #L%
  */
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.appenders.core.logging.InternalLogging;
 import org.appenders.core.logging.Logger;
+import org.appenders.log4j2.elasticsearch.ByteBufItemSource;
+import org.appenders.log4j2.elasticsearch.ItemSource;
+import org.appenders.log4j2.elasticsearch.ItemSourcePool;
+import org.appenders.log4j2.elasticsearch.PoolResourceException;
+import org.asynchttpclient.HttpResponseBodyPart;
+import org.asynchttpclient.HttpResponseStatus;
+import org.asynchttpclient.netty.LazyResponseBodyPart;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -36,6 +45,8 @@ import java.util.UUID;
 import static org.appenders.core.logging.InternalLoggingTest.mockTestLogger;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNotNull;
@@ -45,6 +56,7 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -61,17 +73,10 @@ public class AHCResultCallbackTest {
         when(responseHandler.deserializeResponse(isNull())).thenReturn(basicResponse);
 
         final AHCResultCallback<Response> callback = new AHCResultCallback<>(responseHandler);
-
-        final org.asynchttpclient.Response httpResponse = mock(org.asynchttpclient.Response.class);
-        when(httpResponse.getResponseBodyAsStream()).thenReturn(null);
-
-        final int expectedStatusCode = 1;
-        final String expectedReason = UUID.randomUUID().toString();
-        when(httpResponse.getStatusCode()).thenReturn(expectedStatusCode);
-        when(httpResponse.getStatusText()).thenReturn(expectedReason);
+        callback.onStatusReceived(mockHttpResponseStatus(1, UUID.randomUUID().toString()));
 
         // when
-        callback.onCompleted(httpResponse);
+        callback.onCompleted();
 
         // then
         verify(responseHandler).deserializeResponse(isNull());
@@ -92,16 +97,11 @@ public class AHCResultCallbackTest {
 
         final AHCResultCallback<Response> callback = new AHCResultCallback<>(responseHandler);
 
-        final org.asynchttpclient.Response httpResponse = mock(org.asynchttpclient.Response.class);
-        when(httpResponse.getResponseBodyAsStream()).thenReturn(null);
-
         final int expectedStatusCode = 1;
-        final String expectedReason = UUID.randomUUID().toString();
-        when(httpResponse.getStatusCode()).thenReturn(expectedStatusCode);
-        when(httpResponse.getStatusText()).thenReturn(expectedReason);
+        callback.onStatusReceived(mockHttpResponseStatus(expectedStatusCode, UUID.randomUUID().toString()));
 
         // when
-        final Response response = callback.onCompleted(httpResponse);
+        final Response response = callback.onCompleted();
 
         // then
         verify(responseHandler).deserializeResponse(isNull());
@@ -111,74 +111,164 @@ public class AHCResultCallbackTest {
     }
 
     @Test
-    public void logsOnResponseHandlerFailureHandlingExceptions() {
+    public void deserializesAllReceivedBodyParts() throws IOException {
 
         // given
-        final Logger logger = mockTestLogger();
+        final ResponseHandler<Response> responseHandler = new TestResponseHandler();
+
+        final AHCResultCallback<Response> callback = new AHCResultCallback<>(responseHandler);
+        callback.onStatusReceived(mockHttpResponseStatus(200, "OK"));
+
+        // when
+        callback.onBodyPartReceived(mockHttpResponseBodyPart("{\"took\":"));
+        callback.onBodyPartReceived(new LazyResponseBodyPart(Unpooled.wrappedBuffer("1}".getBytes(StandardCharsets.UTF_8)), true));
+        final Response response = callback.onCompleted();
+
+        // then
+        assertEquals("{\"took\":1}", ((TestResponse) response).body);
+
+    }
 
+    @Test
+    public void skipsEmptyBodyParts() throws IOException, PoolResourceException {
+
+        // given
         //noinspection unchecked
-        final ResponseHandler<Response> responseHandler = mock(ResponseHandler.class);
-        final RuntimeException exception = new RuntimeException("test handler exception");
-        doThrow(exception).when(responseHandler).failed(any());
+        final ItemSourcePool<ByteBuf> bufferPool = mock(ItemSourcePool.class);
 
-        final AHCResultCallback<Response> callback = new AHCResultCallback<>(responseHandler);
+        final AHCResultCallback<Response> callback = new AHCResultCallback<>(mock(ResponseHandler.class), bufferPool);
+        final HttpResponseBodyPart bodyPart = mock(HttpResponseBodyPart.class);
+        when(bodyPart.length()).thenReturn(0);
 
         // when
-        callback.failed(new Exception("any"));
+        callback.onBodyPartReceived(bodyPart);
 
         // then
-        verify(logger).error(eq("Callback failed"), same(exception));
+        verify(bufferPool, never()).getPooled();
+        verify(bodyPart, never()).getBodyByteBuffer();
 
-        InternalLogging.setLogger(null);
+    }
+
+    @Test
+    public void getsPooledBufferOncePerResponse() throws IOException, PoolResourceException {
+
+        // given
+        final ItemSource<ByteBuf> buffer = createTestItemSource();
+        //noinspection unchecked
+        final ItemSourcePool<ByteBuf> bufferPool = mock(ItemSourcePool.class);
+        when(bufferPool.getPooled()).thenReturn(buffer);
+
+        final AHCResultCallback<Response> callback = new AHCResultCallback<>(new TestResponseHandler(), bufferPool);
+        callback.onStatusReceived(mockHttpResponseStatus(200, "OK"));
+
+        // when
+        callback.onBodyPartReceived(mockHttpResponseBodyPart("{}"));
+        callback.onBodyPartReceived(mockHttpResponseBodyPart("{}"));
+
+        // then
+        verify(bufferPool, times(1)).getPooled();
 
     }
 
     @Test
-    public void logsOnCompletionHandlerThrowable() {
+    public void releasesPooledBufferOnCompleted() throws IOException, PoolResourceException {
 
         // given
-        final Logger logger = mockTestLogger();
+        final ItemSource<ByteBuf> buffer = createTestItemSource();
+        //noinspection unchecked
+        final ItemSourcePool<ByteBuf> bufferPool = mock(ItemSourcePool.class);
+        when(bufferPool.getPooled()).thenReturn(buffer);
 
-        final AHCResultCallback<Response> callback = new AHCResultCallback<>(mock(ResponseHandler.class));
-        final String expectedMessage = UUID.randomUUID().toString();
-        final Exception exception = new Exception(expectedMessage);
+        final AHCResultCallback<Response> callback = new AHCResultCallback<>(new TestResponseHandler(), bufferPool);
+        callback.onStatusReceived(mockHttpResponseStatus(200, "OK"));
+        callback.onBodyPartReceived(mockHttpResponseBodyPart("{}"));
 
         // when
-        callback.onThrowable(exception);
+        callback.onCompleted();
 
         // then
-        verify(logger).error(eq("{}: Throwable caught: {}"), eq(AHCResultCallback.class.getSimpleName()), same(exception));
+        verify(buffer).release();
 
-        InternalLogging.setLogger(null);
+    }
+
+    @Test
+    public void releasesPooledBufferOnThrowable() throws IOException, PoolResourceException {
+
+        // given
+        final ItemSource<ByteBuf> buffer = createTestItemSource();
+        //noinspection unchecked
+        final ItemSourcePool<ByteBuf> bufferPool = mock(ItemSourcePool.class);
+        when(bufferPool.getPooled()).thenReturn(buffer);
+
+        final AHCResultCallback<Response> callback = new AHCResultCallback<>(mock(ResponseHandler.class), bufferPool);
+        callback.onBodyPartReceived(mockHttpResponseBodyPart("{}"));
+
+        // when
+        callback.onThrowable(new Exception("test"));
+
+        // then
+        verify(buffer).release();
 
     }
 
     @Test
-    public void logsOnInputStreamCloseExceptions() throws IOException {
+    public void throwsOnPoolResourceException() throws PoolResourceException {
+
+        // given
+        //noinspection unchecked
+        final ItemSourcePool<ByteBuf> bufferPool = mock(ItemSourcePool.class);
+        final String expectedMessage = UUID.randomUUID().toString();
+        when(bufferPool.getPooled()).thenThrow(new PoolResourceException(expectedMessage));
+
+        final AHCResultCallback<Response> callback = new AHCResultCallback<>(mock(ResponseHandler.class), bufferPool);
+
+        // when
+        final IOException exception = assertThrows(IOException.class,
+                () -> callback.onBodyPartReceived(mockHttpResponseBodyPart("{}")));
+
+        // then
+        assertTrue(exception.getMessage().contains(expectedMessage));
+
+    }
+
+    @Test
+    public void logsOnResponseHandlerFailureHandlingExceptions() {
 
         // given
         final Logger logger = mockTestLogger();
 
         //noinspection unchecked
         final ResponseHandler<Response> responseHandler = mock(ResponseHandler.class);
-        when(responseHandler.deserializeResponse(any())).thenReturn(new BatchResult(0, true, null, 500, Collections.emptyList()));
+        final RuntimeException exception = new RuntimeException("test handler exception");
+        doThrow(exception).when(responseHandler).failed(any());
 
         final AHCResultCallback<Response> callback = new AHCResultCallback<>(responseHandler);
 
-        final IOException exception = new IOException("input stream close exception test");
-        final ByteArrayInputStream byteArrayInputStream = spy(new ByteArrayInputStream(new byte[0]));
-        doThrow(exception).when(byteArrayInputStream).close();
+        // when
+        callback.failed(new Exception("any"));
 
-        final org.asynchttpclient.Response httpResponse = mockHttpResponse();
-        when(httpResponse.hasResponseBody()).thenReturn(true);
-        when(httpResponse.getResponseBodyAsStream()).thenReturn(byteArrayInputStream);
+        // then
+        verify(logger).error(eq("Callback failed"), same(exception));
+
+        InternalLogging.setLogger(null);
+
+    }
+
+    @Test
+    public void logsOnCompletionHandlerThrowable() {
+
+        // given
+        final Logger logger = mockTestLogger();
+
+        final AHCResultCallback<Response> callback = new AHCResultCallback<>(mock(ResponseHandler.class));
+        final String expectedMessage = UUID.randomUUID().toString();
+        final Exception exception = new Exception(expectedMessage);
 
         // when
-        callback.onCompleted(httpResponse);
+        callback.onThrowable(exception);
 
         // then
-        verify(responseHandler).deserializeResponse(isNotNull());
-        verify(logger).error(eq("Exception while closing input stream"), same(exception));
+        verify(logger).error(eq("{}: Throwable caught: {}"), eq(AHCResultCallback.class.getSimpleName()), same(exception));
 
         InternalLogging.setLogger(null);
 
@@ -194,12 +284,11 @@ public class AHCResultCallbackTest {
         when(responseHandler.deserializeResponse(any())).thenThrow(exception);
 
         final AHCResultCallback<Response> callback = new AHCResultCallback<>(responseHandler);
-
-        final org.asynchttpclient.Response httpResponse = mockHttpResponse();
-        when(httpResponse.hasResponseBody()).thenReturn(true);
+        callback.onStatusReceived(mockHttpResponseStatus(1, UUID.randomUUID().toString()));
+        callback.onBodyPartReceived(mockHttpResponseBodyPart("{}"));
 
         // when
-        callback.onCompleted(httpResponse);
+        callback.onCompleted();
 
         // then
         verify(responseHandler).deserializeResponse(isNotNull());
@@ -221,12 +310,11 @@ public class AHCResultCallbackTest {
         when(responseHandler.deserializeResponse(any())).thenThrow(exception);
 
         final AHCResultCallback<Response> callback = new AHCResultCallback<>(responseHandler);
-
-        final org.asynchttpclient.Response httpResponse = mockHttpResponse();
-        when(httpResponse.hasResponseBody()).thenReturn(true);
+        callback.onStatusReceived(mockHttpResponseStatus(1, UUID.randomUUID().toString()));
+        callback.onBodyPartReceived(mockHttpResponseBodyPart("{}"));
 
         // when
-        callback.onCompleted(httpResponse);
+        callback.onCompleted();
 
         // then
         verify(responseHandler).deserializeResponse(isNotNull());
@@ -238,18 +326,52 @@ public class AHCResultCallbackTest {
 
     }
 
-    private org.asynchttpclient.Response mockHttpResponse() {
+    static HttpResponseStatus mockHttpResponseStatus(final int statusCode, final String statusText) {
+        final HttpResponseStatus status = mock(HttpResponseStatus.class);
+        when(status.getStatusCode()).thenReturn(statusCode);
+        when(status.getStatusText()).thenReturn(statusText);
+        return status;
+    }
 
-        final org.asynchttpclient.Response httpResponse = mock(org.asynchttpclient.Response.class);
-        final int expectedStatusCode = 1;
-        final String expectedReason = UUID.randomUUID().toString();
-        when(httpResponse.getStatusCode()).thenReturn(expectedStatusCode);
-        when(httpResponse.getStatusText()).thenReturn(expectedReason);
+    static HttpResponseBodyPart mockHttpResponseBodyPart(final String content) {
+        final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        final HttpResponseBodyPart bodyPart = mock(HttpResponseBodyPart.class);
+        when(bodyPart.length()).thenReturn(bytes.length);
+        when(bodyPart.getBodyByteBuffer()).thenReturn(ByteBuffer.wrap(bytes));
+        return bodyPart;
+    }
+
+    private ItemSource<ByteBuf> createTestItemSource() {
+        return spy(new ByteBufItemSource(Unpooled.buffer(), source -> {}));
+    }
+
+    private static class TestResponse extends BasicResponse {
+
+        private final String body;
+
+        TestResponse(final String body) {
+            this.body = body;
+        }
+
+    }
+
+    private static class TestResponseHandler implements ResponseHandler<Response> {
+
+        @Override
+        public void completed(final Response result) {
+        }
 
-        final InputStream inputStream = new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8));
-        when(httpResponse.getResponseBodyAsStream()).thenReturn(inputStream);
+        @Override
+        public void failed(final Exception ex) {
+        }
 
-        return httpResponse;
+        @Override
+        public Response deserializeResponse(final InputStream inputStream) throws IOException {
+            final byte[] bytes = new byte[inputStream.available()];
+            //noinspection ResultOfMethodCallIgnored
+            inputStream.read(bytes);
+            return new TestResponse(new String(bytes, StandardCharsets.UTF_8));
+        }
 
     }
 
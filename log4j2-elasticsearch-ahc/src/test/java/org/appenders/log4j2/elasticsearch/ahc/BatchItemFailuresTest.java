@@ -0,0 +1,80 @@
+package org.appenders.log4j2.elasticsearch.ahc;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BatchItemFailuresTest {
+
+    @Test
+    public void growsBeyondInitialCapacity() {
+
+        // given
+        final BatchItemFailures failedItems = new BatchItemFailures();
+        final int expectedSize = 1000;
+
+        // when
+        for (int i = 0; i < expectedSize; i++) {
+            failedItems.add(i * 2, 400 + i, "type" + i);
+        }
+
+        // then
+        assertEquals(expectedSize, failedItems.size());
+        for (int i = 0; i < expectedSize; i++) {
+            assertEquals(i * 2, failedItems.getPosition(i));
+            assertEquals(400 + i, failedItems.getStatus(i));
+            assertEquals("type" + i, failedItems.getErrorType(i));
+        }
+
+    }
+
+    @Test
+    public void firstErrorIsNullByDefault() {
+
+        // when
+        final BatchItemFailures failedItems = new BatchItemFailures();
+
+        // then
+        assertEquals(0, failedItems.size());
+        assertNull(failedItems.getFirstError());
+
+    }
+
+    @Test
+    public void throwsOnIndexOutOfBounds() {
+
+        // given
+        final BatchItemFailures failedItems = new BatchItemFailures();
+        failedItems.add(0, 400, null);
+
+        // when
+        final IndexOutOfBoundsException exception = assertThrows(IndexOutOfBoundsException.class, () -> failedItems.getStatus(1));
+
+        // then
+        assertEquals("index: 1, size: 1", exception.getMessage());
+
+    }
+
+}
@@ -20,20 +20,17 @@ package org.appenders.log4j2.elasticsearch.ahc;
  * #L%
  */
 
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.introspect.VisibilityChecker;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class BatchRequestResultDeserializerTest {
 
@@ -124,42 +121,88 @@ public class BatchRequestResultDeserializerTest {
     }
 
     @Test
-    public void canDeserializeItems() throws IOException {
+    public void recordsFailedItemsOnly() throws IOException {
 
         // given
         final ObjectMapper mapper = new ObjectMapper()
-                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
-                .setVisibility(VisibilityChecker.Std.defaultInstance()
-                        .withFieldVisibility(JsonAutoDetect.Visibility.ANY))
                 .addMixIn(BatchResult.class, BatchResultMixIn.class);
 
-        final String expectedId = UUID.randomUUID().toString();
-        final String expectedIndex = UUID.randomUUID().toString();
+        final int expectedStatus = random.nextInt(100) + 400;
         final String expectedType = UUID.randomUUID().toString();
-        final int expectedStatus = random.nextInt(1000) + 1;
+        final String expectedReason = UUID.randomUUID().toString();
 
-        final BatchItemResult item = new BatchItemResult();
-        item.setId(expectedId);
-        item.setIndex(expectedIndex);
-        item.setType(expectedType);
-        item.setStatus(expectedStatus);
+        final String json = "{\"took\":1,\"errors\":true,\"items\":["
+                + "{\"index\":{\"_index\":\"test-index\",\"_id\":\"1\",\"_shards\":{\"total\":2,\"successful\":1,\"failed\":0},\"status\":201}},"
+                + "{\"index\":{\"_index\":\"test-index\",\"_id\":\"2\",\"status\":" + expectedStatus + ",\"error\":{\"type\":\"" + expectedType + "\",\"reason\":\"" + expectedReason + "\"}}},"
+                + "{\"create\":{\"_index\":\"test-index\",\"_id\":\"3\",\"result\":\"created\",\"status\":201}}"
+                + "]}";
 
-        final List<BatchItemResult> items = new ArrayList<>();
-        items.add(item);
+        // when
+        final BatchResult result = mapper.readerFor(BatchResult.class).readValue(json);
 
-        final BatchResult batchResult = new BatchResult(0, true, null, 0, items);
-        final String json = mapper.writeValueAsString(batchResult);
+        // then
+        assertNull(result.getItems());
+        final BatchItemFailures failedItems = result.getFailedItems();
+        assertEquals(1, failedItems.size());
+        assertEquals(1, failedItems.getPosition(0));
+        assertEquals(expectedStatus, failedItems.getStatus(0));
+        assertEquals(expectedType, failedItems.getErrorType(0));
+        assertEquals(expectedType, failedItems.getFirstError().getType());
+        assertEquals(expectedReason, failedItems.getFirstError().getReason());
+
+    }
+
+    @Test
+    public void recordsErrorTypeOfAllFailedItems() throws IOException {
+
+        // given
+        final ObjectMapper mapper = new ObjectMapper()
+                .addMixIn(BatchResult.class, BatchResultMixIn.class)
+                .addMixIn(Error.class, ErrorMixIn.class);
+
+        final StringBuilder json = new StringBuilder("{\"took\":1,\"errors\":true,\"items\":[");
+        final int expectedSize = random.nextInt(100) + 10;
+        for (int i = 0; i < expectedSize; i++) {
+            if (i > 0) {
+                json.append(",");
+            }
+            json.append("{\"index\":{\"_id\":\"").append(i).append("\",\"status\":429,")
+                    .append("\"error\":{\"type\":\"type").append(i).append("\",\"reason\":\"reason\",\"caused_by\":{\"type\":\"cause\",\"reason\":\"reason\"}}}}");
+        }
+        json.append("]}");
+
+        // when
+        final BatchResult result = mapper.readerFor(BatchResult.class).readValue(json.toString());
+
+        // then
+        final BatchItemFailures failedItems = result.getFailedItems();
+        assertEquals(expectedSize, failedItems.size());
+        for (int i = 0; i < expectedSize; i++) {
+            assertEquals(i, failedItems.getPosition(i));
+            assertEquals(429, failedItems.getStatus(i));
+            assertEquals("type" + i, failedItems.getErrorType(i));
+        }
+        assertEquals("cause", failedItems.getFirstError().getCausedBy().getType());
+
+    }
+
+    @Test
+    public void doesNotRecordItemsIfErrorsIsFalse() throws IOException {
+
+        // given
+        final ObjectMapper mapper = new ObjectMapper()
+                .addMixIn(BatchResult.class, BatchResultMixIn.class);
+
+        final int expectedStatus = random.nextInt(1000) + 1;
+        final String json = "{\"took\":1,\"errors\":false,\"items\":[{\"index\":{\"_id\":\"1\",\"status\":201}}],\"status\":" + expectedStatus + "}";
 
         // when
         final BatchResult result = mapper.readerFor(BatchResult.class).readValue(json);
 
         // then
-        assertEquals(1, result.getItems().size());
-        final BatchItemResult resultItem = result.getItems().get(0);
-        assertEquals(resultItem.getId(), expectedId);
-        assertEquals(resultItem.getIndex(), expectedIndex);
-        assertEquals(resultItem.getStatus(), expectedStatus);
-        assertEquals(resultItem.getType(), expectedType);
+        assertTrue(result.isSucceeded());
+        assertNull(result.getFailedItems());
+        assertEquals(expectedStatus, result.getStatusCode());
 
     }
 
@@ -22,6 +22,7 @@ package org.appenders.log4j2.elasticsearch.ahc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.netty.buffer.ByteBuf;
+import java.nio.charset.StandardCharsets;
 import org.appenders.log4j2.elasticsearch.ByteBufItemSource;
 import org.appenders.log4j2.elasticsearch.Deserializer;
 import org.appenders.log4j2.elasticsearch.ItemSource;
@@ -45,7 +46,10 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -67,6 +71,22 @@ public abstract class BatchRequestTest {
         return spy(builder.build());
     }
 
+    @Test
+    public void builderSetsOldestItemTimestamp() {
+
+        // given
+        final long expectedTimestamp = System.currentTimeMillis();
+        final BatchRequest.Builder builder = createDefaultTestObjectBuilder()
+                .withOldestItemTimestamp(expectedTimestamp);
+
+        // when
+        final BatchRequest batchRequest = builder.build();
+
+        // then
+        assertEquals(expectedTimestamp, batchRequest.getOldestItemTimestamp());
+
+    }
+
     @Test
     public void builderBuildsSuccessfully() {
 
@@ -436,6 +456,212 @@ public abstract class BatchRequestTest {
 
     }
 
+    @Test
+    public void serializeIsIdempotent() throws Exception {
+
+        // given
+        final Serializer<Object> serializer = spy(new JacksonSerializer<>(new ObjectMapper().writerFor(IndexRequest.class)));
+
+        @SuppressWarnings("unchecked")
+        final BatchRequest batchRequest = new BatchRequest.Builder()
+                .withItemSerializer(serializer)
+                .withResultDeserializer(mock(Deserializer.class))
+                .withBuffer(createTestItemSource())
+                .add(createIndexRequestBuilder(createTestItemSource()).build())
+                .build();
+
+        final int expectedSize = ((ByteBuf) batchRequest.serialize().getSource()).writerIndex();
+
+        // when
+        final ItemSource result = batchRequest.serialize();
+
+        // then
+        assertEquals(expectedSize, ((ByteBuf) result.getSource()).writerIndex());
+        verify(serializer, times(1)).writeAsBytes(any());
+
+    }
+
+    @Test
+    public void splicesIdsIntoActionTemplate() throws Exception {
+
+        // given
+        final Serializer<Object> serializer = spy(new JacksonSerializer<>(ElasticsearchBulkAPI.defaultObjectMapper().writerFor(IndexRequest.class)));
+
+        final String index = UUID.randomUUID().toString();
+        final String mappingType = UUID.randomUUID().toString();
+        final IndexRequest action1 = createIndexRequestBuilder(createTestItemSource())
+                .index(index)
+                .type(mappingType)
+                .id(UUID.randomUUID().toString())
+                .build();
+
+        final IndexRequest action2 = createIndexRequestBuilder(createTestItemSource())
+                .index(index)
+                .type(mappingType)
+                .build();
+
+        final IndexRequest action3 = createIndexRequestBuilder(createTestItemSource())
+                .index(index)
+                .type(mappingType)
+                .id(UUID.randomUUID().toString())
+                .build();
+
+        @SuppressWarnings("unchecked")
+        final BatchRequest batchRequest = new BatchRequest.Builder()
+                .withItemSerializer(serializer)
+                .withResultDeserializer(mock(Deserializer.class))
+                .withBuffer(createTestItemSource())
+                .add(action1)
+                .add(action2)
+                .add(action3)
+                .build();
+
+        final String expected = new String(serializer.writeAsBytes(action1)) + "\n\n"
+                + new String(serializer.writeAsBytes(action2)) + "\n\n"
+                + new String(serializer.writeAsBytes(action3)) + "\n\n";
+
+        // when
+        final ItemSource<ByteBuf> result = batchRequest.serialize();
+
+        // then
+        assertEquals(expected, result.getSource().toString(StandardCharsets.UTF_8));
+        verify(serializer, never()).write(any(), any());
+
+    }
+
+    @Test
+    public void serializesActionSeparatelyIfIdCannotBeSpliced() throws Exception {
+
+        // given
+        final Serializer<Object> serializer = spy(new JacksonSerializer<>(ElasticsearchBulkAPI.defaultObjectMapper().writerFor(IndexRequest.class)));
+
+        final String index = UUID.randomUUID().toString();
+        final String mappingType = UUID.randomUUID().toString();
+        final IndexRequest action1 = createIndexRequestBuilder(createTestItemSource())
+                .index(index)
+                .type(mappingType)
+                .id("\"" + UUID.randomUUID())
+                .build();
+
+        final IndexRequest action2 = createIndexRequestBuilder(createTestItemSource())
+                .index(index)
+                .type(mappingType)
+                .id(UUID.randomUUID().toString())
+                .build();
+
+        @SuppressWarnings("unchecked")
+        final BatchRequest batchRequest = new BatchRequest.Builder()
+                .withItemSerializer(serializer)
+                .withResultDeserializer(mock(Deserializer.class))
+                .withBuffer(createTestItemSource())
+                .add(action1)
+                .add(action2)
+                .build();
+
+        final String expected = new String(serializer.writeAsBytes(action1)) + "\n\n"
+                + new String(serializer.writeAsBytes(action2)) + "\n\n";
+
+        // when
+        final ItemSource<ByteBuf> result = batchRequest.serialize();
+
+        // then
+        assertEquals(expected, result.getSource().toString(StandardCharsets.UTF_8));
+        verify(serializer).write(any(), eq(action1));
+        verify(serializer, never()).write(any(), eq(action2));
+
+    }
+
+    @Test
+    public void serializesEachActionSeparatelyIfActionTemplateIsNotRecognized() throws Exception {
+
+        // given
+        final Serializer<Object> serializer = spy(new JacksonSerializer<>(new ObjectMapper().writerFor(IndexRequest.class)));
+        doReturn("{}".getBytes()).when(serializer).writeAsBytes(any());
+
+        final String index = UUID.randomUUID().toString();
+        final String mappingType = UUID.randomUUID().toString();
+        final IndexRequest action1 = createIndexRequestBuilder(createTestItemSource())
+                .index(index)
+                .type(mappingType)
+                .id(UUID.randomUUID().toString())
+                .build();
+
+        final IndexRequest action2 = createIndexRequestBuilder(createTestItemSource())
+                .index(index)
+                .type(mappingType)
+                .id(UUID.randomUUID().toString())
+                .build();
+
+        @SuppressWarnings("unchecked")
+        final BatchRequest batchRequest = new BatchRequest.Builder()
+                .withItemSerializer(serializer)
+                .withResultDeserializer(mock(Deserializer.class))
+                .withBuffer(createTestItemSource())
+                .add(action1)
+                .add(action2)
+                .build();
+
+        // when
+        batchRequest.serialize();
+
+        // then
+        verify(serializer).write(any(), eq(action1));
+        verify(serializer).write(any(), eq(action2));
+
+    }
+
+    @Test
+    public void callingCompletedDoesNotReleaseRetainedRequest() {
+
+        // given
+        BatchRequest.Builder builder = createDefaultTestObjectBuilder();
+
+        ByteBufItemSource buffer = mock(ByteBufItemSource.class);
+        builder.withBuffer(buffer);
+
+        IndexRequest indexRequest = spy(createIndexRequestBuilder(mock(ByteBufItemSource.class))
+                .build());
+        builder.add(indexRequest);
+
+        BatchRequest request = builder.build();
+        request.retain();
+
+        // when
+        request.completed();
+
+        // then
+        verify(buffer, never()).release();
+        verify(indexRequest, never()).completed();
+
+    }
+
+    @Test
+    public void callingCompletedReleasesRetainedRequestOnce() {
+
+        // given
+        BatchRequest.Builder builder = createDefaultTestObjectBuilder();
+
+        ByteBufItemSource buffer = mock(ByteBufItemSource.class);
+        builder.withBuffer(buffer);
+
+        IndexRequest indexRequest = spy(createIndexRequestBuilder(mock(ByteBufItemSource.class))
+                .build());
+        builder.add(indexRequest);
+
+        BatchRequest request = builder.build();
+        request.retain();
+
+        // when
+        request.completed();
+        request.completed();
+        request.completed();
+
+        // then
+        verify(buffer, times(1)).release();
+        verify(indexRequest, times(1)).completed();
+
+    }
+
     public static BatchRequest.Builder createDefaultTestObjectBuilder() {
         //noinspection unchecked
         return new BatchRequest.Builder()
@@ -382,6 +382,52 @@ public class BatchResultTest {
 
     }
 
+    @Test
+    public void errorMessageContainsFirstFailedItemErrorInfoIfFailedItemsAvailableAndErrorsIsTrue() {
+
+        // given
+        final String expectedType = UUID.randomUUID().toString();
+        final String expectedReason = UUID.randomUUID().toString();
+
+        final Error error = new Error();
+        error.setType(expectedType);
+        error.setReason(expectedReason);
+
+        final BatchItemFailures failedItems = new BatchItemFailures();
+        failedItems.add(1, 400, expectedType);
+        failedItems.setFirstError(error);
+
+        final BatchResult result = createTestBatchResult(true, null).withFailedItems(failedItems);
+        result.withErrorMessage(DEFAULT_TEST_MESSAGE);
+
+        // when
+        final String actualMessage = result.getErrorMessage();
+
+        // then
+        assertTrue(actualMessage.contains(BatchResult.FIRST_FAILED_ITEM_PREFIX));
+        assertTrue(actualMessage.contains(expectedType));
+        assertTrue(actualMessage.contains(expectedReason));
+
+    }
+
+    @Test
+    public void errorMessageContainsNoFailedItemErrorInfoIfFailedItemsHaveNoError() {
+
+        // given
+        final BatchItemFailures failedItems = new BatchItemFailures();
+        failedItems.add(0, 500, null);
+
+        final BatchResult result = createTestBatchResult(true, null).withFailedItems(failedItems);
+        result.withErrorMessage(DEFAULT_TEST_MESSAGE);
+
+        // when
+        final String actualMessage = result.getErrorMessage();
+
+        // then
+        assertTrue(actualMessage.contains(BatchResult.UNABLE_TO_GET_MORE_INFO));
+
+    }
+
     @Test
     public void errorMessageDoesNotContainFailedItemErrorInfoIfAvailableAndErrorsIsFalse() {
 
@@ -22,6 +22,7 @@ package org.appenders.log4j2.elasticsearch.ahc;
 
 import org.apache.logging.log4j.core.config.ConfigurationException;
 import org.appenders.log4j2.elasticsearch.ByteBufItemSourceTest;
+import org.appenders.log4j2.elasticsearch.ContentHashIdGenerator;
 import org.junit.jupiter.api.Test;
 
 import java.util.UUID;
@@ -39,6 +40,23 @@ public class ElasticsearchBulkPluginTest extends ElasticsearchBulkAPITest {
     public static final String TEST_PAYLOAD_STRING = "{}";
     public static final String TEST_INDEX_NAME = UUID.randomUUID().toString();
 
+    @Test
+    public void builderSetsConfiguredIdGenerator() {
+
+        // given
+        final ElasticsearchBulkPlugin.Builder builder = ElasticsearchBulkPlugin.newBuilder()
+                .withIdGenerator(new ContentHashIdGenerator());
+
+        final ElasticsearchBulkPlugin plugin = builder.build();
+
+        // when
+        final IndexRequest indexRequest = plugin.itemBuilder(TEST_INDEX_NAME, createTestItemSource(TEST_PAYLOAD_STRING)).build();
+
+        // then
+        assertNotNull(indexRequest.getId());
+
+    }
+
     @Test
     public void defaultBuilderBuildsSuccessfully() {
 
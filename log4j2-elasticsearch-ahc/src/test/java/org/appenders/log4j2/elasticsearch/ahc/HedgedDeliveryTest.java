@@ -0,0 +1,414 @@
+package org.appenders.log4j2.elasticsearch.ahc;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.appenders.log4j2.elasticsearch.ahc.discovery.ServerInfo;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HedgedDeliveryTest {
+
+    private static final ServerInfo TEST_SERVER_INFO = new ServerInfo("http://localhost:9200");
+
+    @Test
+    public void delayIsNotAvailableIfNotEnoughSamplesWereRecorded() {
+
+        // given
+        HedgedDelivery hedgedDelivery = new HedgedDelivery(99, 0, 1024);
+        recordLatencies(hedgedDelivery, HedgedDelivery.MIN_SAMPLES - 1, 10);
+
+        // when
+        hedgedDelivery.refresh();
+
+        // then
+        assertEquals(-1, hedgedDelivery.delayMillis());
+
+    }
+
+    @Test
+    public void refreshCalculatesDelayFromRecordedLatencies() {
+
+        // given
+        HedgedDelivery hedgedDelivery = new HedgedDelivery(99, 0, 1024);
+        for (int i = 1; i <= 100; i++) {
+            hedgedDelivery.record(i);
+        }
+
+        // when
+        hedgedDelivery.refresh();
+
+        // then
+        assertEquals(99, hedgedDelivery.delayMillis());
+
+    }
+
+    @Test
+    public void refreshUsesRecentLatenciesOnly() {
+
+        // given
+        int sampleSize = 100;
+        HedgedDelivery hedgedDelivery = new HedgedDelivery(100, 0, sampleSize);
+        recordLatencies(hedgedDelivery, sampleSize, 1000);
+        recordLatencies(hedgedDelivery, sampleSize, 10);
+
+        // when
+        hedgedDelivery.refresh();
+
+        // then
+        assertEquals(10, hedgedDelivery.delayMillis());
+
+    }
+
+    @Test
+    public void delayIsNotLowerThanMinDelay() {
+
+        // given
+        long expectedDelay = 50;
+        HedgedDelivery hedgedDelivery = new HedgedDelivery(99, expectedDelay, 1024);
+        recordLatencies(hedgedDelivery, HedgedDelivery.MIN_SAMPLES, 10);
+
+        // when
+        hedgedDelivery.refresh();
+
+        // then
+        assertEquals(expectedDelay, hedgedDelivery.delayMillis());
+
+    }
+
+    @Test
+    public void executeDoesNotHedgeIfDelayIsNotAvailable() {
+
+        // given
+        HedgedDelivery hedgedDelivery = new HedgedDelivery(99, 0, 1024);
+        hedgedDelivery.start();
+
+        HttpClient client = mockClient();
+        BatchRequest batch = mock(BatchRequest.class);
+
+        // when
+        hedgedDelivery.execute(client, batch, mockHandler());
+
+        // then
+        verify(client, after(100).times(1)).executeAsyncExcluding(any(), any(), any());
+        verify(batch, never()).retain();
+
+        hedgedDelivery.stop();
+
+    }
+
+    @Test
+    public void executeSendsBatchToOtherServerIfNotCompletedInTime() {
+
+        // given
+        HedgedDelivery hedgedDelivery = createStartedTestHedgedDelivery();
+
+        HttpClient client = mockClient();
+        BatchRequest batch = mock(BatchRequest.class);
+
+        // when
+        hedgedDelivery.execute(client, batch, mockHandler());
+
+        // then
+        verify(client, timeout(1000)).executeAsyncExcluding(eq(batch), any(), eq(TEST_SERVER_INFO));
+        verify(batch).retain();
+
+        hedgedDelivery.stop();
+
+    }
+
+    @Test
+    public void executeDoesNotHedgeCompletedBatch() {
+
+        // given
+        HedgedDelivery hedgedDelivery = createStartedTestHedgedDelivery();
+
+        HttpClient client = mockClient();
+        BatchRequest batch = mock(BatchRequest.class);
+        ResponseHandler<BatchResult> responseHandler = mockHandler();
+
+        hedgedDelivery.execute(client, batch, responseHandler);
+        BatchResult result = createTestBatchResult(true);
+
+        // when
+        captureHandlers(client, 1).get(0).completed(result);
+
+        // then
+        verify(client, after(100).times(1)).executeAsyncExcluding(any(), any(), any());
+        verify(responseHandler).completed(eq(result));
+        verify(batch, never()).retain();
+        verify(batch, never()).completed();
+
+        hedgedDelivery.stop();
+
+    }
+
+    @Test
+    public void firstSuccessfulResponseIsForwardedOnce() {
+
+        // given
+        HedgedDelivery hedgedDelivery = createStartedTestHedgedDelivery();
+
+        HttpClient client = mockClient();
+        BatchRequest batch = mock(BatchRequest.class);
+        ResponseHandler<BatchResult> responseHandler = mockHandler();
+
+        hedgedDelivery.execute(client, batch, responseHandler);
+        List<ResponseHandler<BatchResult>> handlers = captureHandlers(client, 2);
+
+        BatchResult hedgeResult = createTestBatchResult(true);
+        BatchResult firstResult = createTestBatchResult(true);
+
+        // when
+        handlers.get(1).completed(hedgeResult);
+        handlers.get(0).completed(firstResult);
+
+        // then
+        verify(responseHandler).completed(eq(hedgeResult));
+        verify(responseHandler, never()).completed(eq(firstResult));
+        verify(responseHandler, never()).failed(any());
+        verify(batch, times(1)).completed();
+
+        hedgedDelivery.stop();
+
+    }
+
+    @Test
+    public void serverOfForwardedAttemptIsPassedToResponseHandler() {
+
+        // given
+        HedgedDelivery hedgedDelivery = createStartedTestHedgedDelivery();
+
+        HttpClient client = mockClient();
+        BatchRequest batch = mock(BatchRequest.class);
+        ResponseHandler<BatchResult> responseHandler = mockHandler();
+
+        hedgedDelivery.execute(client, batch, responseHandler);
+        List<ResponseHandler<BatchResult>> handlers = captureHandlers(client, 2);
+
+        ServerInfo firstServer = new ServerInfo("http://localhost:9200");
+        ServerInfo hedgeServer = new ServerInfo("http://localhost:9201");
+        handlers.get(0).serverAcquired(firstServer);
+        handlers.get(1).serverAcquired(hedgeServer);
+
+        // when
+        handlers.get(1).completed(createTestBatchResult(true));
+        handlers.get(0).completed(createTestBatchResult(true));
+
+        // then
+        verify(responseHandler).serverAcquired(eq(hedgeServer));
+        verify(responseHandler, never()).serverAcquired(eq(firstServer));
+
+        hedgedDelivery.stop();
+
+    }
+
+    @Test
+    public void failedResponseIsNotForwardedIfOtherAttemptIsInProgress() {
+
+        // given
+        HedgedDelivery hedgedDelivery = createStartedTestHedgedDelivery();
+
+        HttpClient client = mockClient();
+        BatchRequest batch = mock(BatchRequest.class);
+        ResponseHandler<BatchResult> responseHandler = mockHandler();
+
+        hedgedDelivery.execute(client, batch, responseHandler);
+        List<ResponseHandler<BatchResult>> handlers = captureHandlers(client, 2);
+
+        BatchResult firstResult = createTestBatchResult(false);
+        BatchResult hedgeResult = createTestBatchResult(true);
+
+        // when
+        handlers.get(0).completed(firstResult);
+        handlers.get(1).completed(hedgeResult);
+
+        // then
+        verify(responseHandler, never()).completed(eq(firstResult));
+        verify(responseHandler).completed(eq(hedgeResult));
+        verify(batch, times(1)).completed();
+
+        hedgedDelivery.stop();
+
+    }
+
+    @Test
+    public void lastFailureIsForwardedIfAllAttemptsFailed() {
+
+        // given
+        HedgedDelivery hedgedDelivery = createStartedTestHedgedDelivery();
+
+        HttpClient client = mockClient();
+        BatchRequest batch = mock(BatchRequest.class);
+        ResponseHandler<BatchResult> responseHandler = mockHandler();
+
+        hedgedDelivery.execute(client, batch, responseHandler);
+        List<ResponseHandler<BatchResult>> handlers = captureHandlers(client, 2);
+
+        Exception firstException = new Exception("first");
+        Exception hedgeException = new Exception("hedge");
+
+        // when
+        handlers.get(1).failed(hedgeException);
+        handlers.get(0).failed(firstException);
+
+        // then
+        verify(responseHandler, never()).failed(eq(hedgeException));
+        verify(responseHandler).failed(eq(firstException));
+        verify(batch, times(1)).completed();
+
+        hedgedDelivery.stop();
+
+    }
+
+    @Test
+    public void attemptsDelegateDeserialization() throws IOException {
+
+        // given
+        HedgedDelivery hedgedDelivery = new HedgedDelivery(99, 0, 1024);
+
+        HttpClient client = mockClient();
+        ResponseHandler<BatchResult> responseHandler = mockHandler();
+
+        hedgedDelivery.execute(client, mock(BatchRequest.class), responseHandler);
+        InputStream inputStream = new ByteArrayInputStream(new byte[0]);
+
+        // when
+        captureHandlers(client, 1).get(0).deserializeResponse(inputStream);
+
+        // then
+        verify(responseHandler).deserializeResponse(eq(inputStream));
+
+    }
+
+    @Test
+    public void completedAttemptsAreRecorded() {
+
+        // given
+        HedgedDelivery hedgedDelivery = new HedgedDelivery(99, 0, 1024);
+
+        HttpClient client = mockClient();
+
+        for (int i = 0; i < HedgedDelivery.MIN_SAMPLES; i++) {
+            hedgedDelivery.execute(client, mock(BatchRequest.class), mockHandler());
+        }
+
+        List<ResponseHandler<BatchResult>> handlers = captureHandlers(client, HedgedDelivery.MIN_SAMPLES);
+
+        // when
+        handlers.forEach(handler -> handler.completed(createTestBatchResult(true)));
+        hedgedDelivery.refresh();
+
+        // then
+        assertTrue(hedgedDelivery.delayMillis() >= 0);
+
+    }
+
+    @Test
+    public void lifecycleStart() {
+
+        // given
+        HedgedDelivery hedgedDelivery = new HedgedDelivery(99, 0, 1024);
+
+        assertFalse(hedgedDelivery.isStarted());
+
+        // when
+        hedgedDelivery.start();
+        hedgedDelivery.start();
+
+        // then
+        assertTrue(hedgedDelivery.isStarted());
+
+        hedgedDelivery.stop();
+
+    }
+
+    @Test
+    public void lifecycleStop() {
+
+        // given
+        HedgedDelivery hedgedDelivery = new HedgedDelivery(99, 0, 1024);
+        hedgedDelivery.start();
+
+        // when
+        hedgedDelivery.stop();
+        hedgedDelivery.stop();
+
+        // then
+        assertTrue(hedgedDelivery.isStopped());
+
+    }
+
+    private HedgedDelivery createStartedTestHedgedDelivery() {
+        HedgedDelivery hedgedDelivery = new HedgedDelivery(99, 10, 1024);
+        recordLatencies(hedgedDelivery, HedgedDelivery.MIN_SAMPLES, 10);
+        hedgedDelivery.refresh();
+        hedgedDelivery.start();
+        return hedgedDelivery;
+    }
+
+    private void recordLatencies(HedgedDelivery hedgedDelivery, int count, long latencyMillis) {
+        for (int i = 0; i < count; i++) {
+            hedgedDelivery.record(latencyMillis);
+        }
+    }
+
+    private HttpClient mockClient() {
+        HttpClient client = mock(HttpClient.class);
+        when(client.executeAsyncExcluding(any(), any(), isNull())).thenReturn(TEST_SERVER_INFO);
+        return client;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ResponseHandler<BatchResult> mockHandler() {
+        return mock(ResponseHandler.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ResponseHandler<BatchResult>> captureHandlers(HttpClient client, int expectedAttempts) {
+        ArgumentCaptor<ResponseHandler> captor = ArgumentCaptor.forClass(ResponseHandler.class);
+        verify(client, timeout(1000).times(expectedAttempts)).executeAsyncExcluding(any(), captor.capture(), any());
+        return (List) captor.getAllValues();
+    }
+
+    private BatchResult createTestBatchResult(boolean succeeded) {
+        return new BatchResult(0, !succeeded, null, 200, null);
+    }
+
+}
@@ -20,6 +20,8 @@ package org.appenders.log4j2.elasticsearch.ahc;
  * #L%
  */
 
+import io.netty.buffer.ByteBuf;
+import org.appenders.log4j2.elasticsearch.GenericItemSourcePool;
 import org.appenders.log4j2.elasticsearch.ahc.discovery.AHCServiceDiscovery;
 import org.appenders.log4j2.elasticsearch.ahc.discovery.ServiceDiscovery;
 import org.asynchttpclient.AsyncHttpClient;
@@ -45,6 +47,7 @@ import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -63,6 +66,7 @@ public class HttpClientFactoryTest {
     private static final int TEST_READ_TIMEOUT = RANDOM.nextInt(1000) + 10;
 
     private static final int TEST_MAX_TOTAL_CONNECTIONS = RANDOM.nextInt(1000) + 10;
+    private static final int TEST_MAX_CONNECTIONS_PER_SERVER = RANDOM.nextInt(10) + 1;
     private static final int TEST_IO_THREAD_COUNT = RANDOM.nextInt(1000) + 10;
     private static final boolean TEST_POOLED_RESPONSE_BUFFERS_ENABLED = true;
     private static final int TEST_POOLED_RESPONSE_BUFFERS_SIZE_IN_BYTES = 34;
@@ -127,6 +131,7 @@ public class HttpClientFactoryTest {
                 .withConnTimeout(TEST_CONNECTION_TIMEOUT)
                 .withReadTimeout(TEST_READ_TIMEOUT)
                 .withMaxTotalConnections(TEST_MAX_TOTAL_CONNECTIONS)
+                .withMaxConnectionsPerServer(TEST_MAX_CONNECTIONS_PER_SERVER)
                 .withIoThreadCount(TEST_IO_THREAD_COUNT)
                 .withRealm(realm)
                 .withSslEngineFactory(sslEngineFactory)
@@ -142,6 +147,7 @@ public class HttpClientFactoryTest {
         assertEquals(TEST_CONNECTION_TIMEOUT, httpClientFactory.connTimeout);
         assertEquals(TEST_READ_TIMEOUT, httpClientFactory.readTimeout);
         assertEquals(TEST_MAX_TOTAL_CONNECTIONS, httpClientFactory.maxTotalConnections);
+        assertEquals(TEST_MAX_CONNECTIONS_PER_SERVER, httpClientFactory.maxConnectionsPerServer);
         assertEquals(TEST_IO_THREAD_COUNT, httpClientFactory.ioThreadCount);
         assertEquals(realm, httpClientFactory.realm);
         assertEquals(sslEngineFactory, httpClientFactory.sslEngineFactory);
@@ -186,6 +192,58 @@ public class HttpClientFactoryTest {
 
     }
 
+    @Test
+    public void builderSetsPooledResponseBuffersFields() {
+
+        // given
+        final int expectedSizeInBytes = 4096;
+        final HttpClientFactory.Builder builder = createDefaultTestHttpClientFactoryBuilder()
+                .withPooledResponseBuffers(true)
+                .withPooledResponseBuffersSizeInBytes(expectedSizeInBytes);
+
+        // when
+        final HttpClientFactory httpClientFactory = builder.build();
+
+        // then
+        assertTrue(httpClientFactory.pooledResponseBuffersEnabled);
+        assertEquals(expectedSizeInBytes, httpClientFactory.pooledResponseBuffersSizeInBytes);
+
+    }
+
+    @Test
+    public void doesNotCreateResponseBufferPoolIfPooledResponseBuffersAreDisabled() {
+
+        // given
+        final HttpClientFactory httpClientFactory = createDefaultTestHttpClientFactoryBuilder()
+                .withPooledResponseBuffers(false)
+                .build();
+
+        // when
+        final GenericItemSourcePool<ByteBuf> pool = httpClientFactory.createResponseBufferPool();
+
+        // then
+        assertNull(pool);
+
+    }
+
+    @Test
+    public void createsResponseBufferPoolIfPooledResponseBuffersAreEnabled() {
+
+        // given
+        final HttpClientFactory httpClientFactory = createDefaultTestHttpClientFactoryBuilder()
+                .withMaxTotalConnections(1)
+                .withPooledResponseBuffers(true)
+                .withPooledResponseBuffersSizeInBytes(1024)
+                .build();
+
+        // when
+        final GenericItemSourcePool<ByteBuf> pool = httpClientFactory.createResponseBufferPool();
+
+        // then
+        assertNotNull(pool);
+
+    }
+
     @Test
     public void createInstanceConfiguresAsyncHttpClient() {
 
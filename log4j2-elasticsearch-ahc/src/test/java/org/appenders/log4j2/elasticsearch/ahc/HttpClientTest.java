@@ -28,6 +28,7 @@ import org.appenders.core.logging.Logger;
 import org.appenders.log4j2.elasticsearch.ByteBufItemSourceTest;
 import org.appenders.log4j2.elasticsearch.ItemSource;
 import org.appenders.log4j2.elasticsearch.LifeCycle;
+import org.appenders.log4j2.elasticsearch.ahc.discovery.ServerInfo;
 import org.appenders.log4j2.elasticsearch.metrics.BasicMetricOutputsRegistry;
 import org.appenders.log4j2.elasticsearch.metrics.BasicMetricsRegistry;
 import org.appenders.log4j2.elasticsearch.metrics.Metric;
@@ -49,9 +50,9 @@ import org.mockito.Captor;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -60,8 +61,13 @@ import java.util.UUID;
 
 import static org.appenders.core.logging.InternalLogging.setLogger;
 import static org.appenders.log4j2.elasticsearch.ahc.BatchRequestTest.createTestBatch;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -164,9 +170,10 @@ public class HttpClientTest {
 
         // given
         final RequestFactory requestFactory = mock(RequestFactory.class);
+        final ServerPool serverPool = new ServerPool(Collections.singletonList("http://localhost:9200"), 1);
         final HttpClient client = createTestHttpClient(
                 mock(AsyncHttpClient.class),
-                mock(ServerPool.class),
+                serverPool,
                 requestFactory
         );
 
@@ -182,6 +189,137 @@ public class HttpClientTest {
         // then
         verify(responseHandler).failed(exceptionCaptor.capture());
         assertEquals(expectedMessage, exceptionCaptor.getValue().getMessage());
+        assertFalse(serverPool.isSaturated());
+
+    }
+
+    @Test
+    public void executeAsyncReleasesServerWhenResponseIsHandled() {
+
+        // given
+        final AsyncHttpClient asyncClient = mock(AsyncHttpClient.class);
+        final ServerPool serverPool = new ServerPool(Collections.singletonList("http://localhost:9200"), 1);
+        final HttpClient client = createTestHttpClient(
+                asyncClient,
+                serverPool,
+                new AHCRequestFactory()
+        );
+
+        final ResponseHandler<Response> responseHandler = createMockTestResultHandler();
+
+        client.executeAsync(createDefaultTestBatchRequest(), responseHandler);
+        assertTrue(client.isSaturated());
+
+        verify(asyncClient).executeRequest(
+                any(RequestBuilder.class),
+                hcResultCallbackCaptor.capture());
+
+        // when
+        hcResultCallbackCaptor.getValue().onThrowable(new Exception("test"));
+
+        // then
+        assertFalse(client.isSaturated());
+        verify(responseHandler).failed(any());
+
+    }
+
+    @Test
+    public void executeAsyncReleasesServerAndRethrowsIfExecutionFails() {
+
+        // given
+        final AsyncHttpClient asyncClient = mock(AsyncHttpClient.class);
+        final ServerPool serverPool = new ServerPool(Collections.singletonList("http://localhost:9200"), 1);
+        final HttpClient client = createTestHttpClient(
+                asyncClient,
+                serverPool,
+                new AHCRequestFactory()
+        );
+
+        final String expectedMessage = UUID.randomUUID().toString();
+        when(asyncClient.executeRequest(any(RequestBuilder.class), any()))
+                .thenThrow(new IllegalStateException(expectedMessage));
+
+        // when
+        final IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> client.executeAsync(createDefaultTestBatchRequest(), createMockTestResultHandler()));
+
+        // then
+        assertEquals(expectedMessage, exception.getMessage());
+        assertFalse(client.isSaturated());
+
+    }
+
+    @Test
+    public void executeAsyncExcludingNotifiesResponseHandlerAboutAcquiredServer() {
+
+        // given
+        final ServerPool serverPool = new ServerPool(Collections.singletonList("http://localhost:9200"));
+        final HttpClient client = createTestHttpClient(
+                mock(AsyncHttpClient.class),
+                serverPool,
+                new AHCRequestFactory()
+        );
+
+        final ResponseHandler<Response> responseHandler = createMockTestResultHandler();
+
+        // when
+        final ServerInfo result = client.executeAsyncExcluding(createDefaultTestBatchRequest(), responseHandler, null);
+
+        // then
+        verify(responseHandler).serverAcquired(eq(result));
+
+    }
+
+    @Test
+    public void executeAsyncExcludingSendsRequestToOtherServer() throws Exception {
+
+        // given
+        final RequestFactory requestFactory = spy(new AHCRequestFactory());
+        final ServerPool serverPool = new ServerPool(Arrays.asList("http://localhost:9200", "http://localhost:9201"));
+        final HttpClient client = createTestHttpClient(
+                mock(AsyncHttpClient.class),
+                serverPool,
+                requestFactory
+        );
+
+        final BatchRequest request = createDefaultTestBatchRequest();
+        final ServerInfo excluded = client.executeAsyncExcluding(request, createMockTestResultHandler(), null);
+
+        // when
+        final ServerInfo result = client.executeAsyncExcluding(request, createMockTestResultHandler(), excluded);
+
+        // then
+        assertNotEquals(excluded.getResolvedAddress(), result.getResolvedAddress());
+        verify(requestFactory).create(eq(result.getResolvedAddress() + "/" + request.getURI()), eq(request));
+
+    }
+
+    @Test
+    public void executeAsyncExcludingFailsIfNoOtherServerIsAvailable() {
+
+        // given
+        final AsyncHttpClient asyncClient = mock(AsyncHttpClient.class);
+        final ServerPool serverPool = new ServerPool(Collections.singletonList("http://localhost:9200"));
+        final HttpClient client = createTestHttpClient(
+                asyncClient,
+                serverPool,
+                new AHCRequestFactory()
+        );
+
+        final BatchRequest request = createDefaultTestBatchRequest();
+        final ServerInfo excluded = client.executeAsyncExcluding(request, createMockTestResultHandler(), null);
+
+        final ResponseHandler<Response> responseHandler = createMockTestResultHandler();
+
+        // when
+        final ServerInfo result = client.executeAsyncExcluding(request, responseHandler, excluded);
+
+        // then
+        assertNull(result);
+        final ArgumentCaptor<Exception> captor = ArgumentCaptor.forClass(Exception.class);
+        verify(responseHandler).failed(captor.capture());
+        assertThat(captor.getValue().getMessage(), containsString("No servers available other than"));
+        verify(asyncClient, times(1)).executeRequest(any(RequestBuilder.class), any());
 
     }
 
@@ -218,22 +356,15 @@ public class HttpClientTest {
 
         final AHCResultCallback asyncCallback = mockHttpResponseCallback(responseHandler);
 
-        final ByteArrayInputStream inputStream = spy(new ByteArrayInputStream("{}".getBytes()));
-
-        final org.asynchttpclient.Response httpResponse = mock(org.asynchttpclient.Response.class);
-        when(httpResponse.hasResponseBody()).thenReturn(true);
-        when(httpResponse.getResponseBodyAsStream()).thenReturn(inputStream);
-
-        when(httpResponse.getStatusCode()).thenReturn(200);
-        when(httpResponse.getStatusText()).thenReturn(UUID.randomUUID().toString());
+        asyncCallback.onStatusReceived(AHCResultCallbackTest.mockHttpResponseStatus(200, UUID.randomUUID().toString()));
+        asyncCallback.onBodyPartReceived(AHCResultCallbackTest.mockHttpResponseBodyPart("{}"));
 
         // when
-        asyncCallback.onCompleted(httpResponse);
+        asyncCallback.onCompleted();
 
         // then
         verify(responseHandler, never()).failed(any());
         verify(responseHandler).completed(any());
-        verify(inputStream).close();
 
     }
 
@@ -247,10 +378,10 @@ public class HttpClientTest {
 
         final AHCResultCallback asyncCallback = mockHttpResponseCallback(responseHandler);
 
-        final org.asynchttpclient.Response httpResponse = createDefaultTestHttpResponse();
+        asyncCallback.onBodyPartReceived(AHCResultCallbackTest.mockHttpResponseBodyPart("{}"));
 
         // when
-        asyncCallback.onCompleted(httpResponse);
+        asyncCallback.onCompleted();
 
         // then
         verify(responseHandler).failed(exceptionCaptor.capture());
@@ -268,7 +399,9 @@ public class HttpClientTest {
         final HttpClient httpClient = createDefaultTestObject(asyncHttpClient);
 
         final BlockingResponseHandler<Response> responseHandler = mock(BlockingResponseHandler.class);
-        final IndexTemplateRequest request = IndexTemplateRequestTest.createDefaultTestObjectBuilder().build();
+        final IndexTemplateRequest request = IndexTemplateRequestTest.createDefaultTestObjectBuilder()
+                .withSource(ByteBufItemSourceTest.createDefaultTestByteBuf())
+                .build();
 
         // when
         httpClient.execute(request, responseHandler);
@@ -630,10 +763,6 @@ public class HttpClientTest {
         return createDefaultTestObject();
     }
 
-    private org.asynchttpclient.Response createDefaultTestHttpResponse() {
-        return mock(org.asynchttpclient.Response.class);
-    }
-
     private AHCResultCallback mockHttpResponseCallback(final ResponseHandler<Response> responseHandler) throws Exception {
 
         final AsyncHttpClient asyncHttpClient = mock(AsyncHttpClient.class);
@@ -645,7 +774,7 @@ public class HttpClientTest {
         when(request.getURI()).thenReturn(UUID.randomUUID().toString());
         when(request.getHttpMethodName()).thenReturn(BatchRequest.HTTP_METHOD_NAME);
         final ItemSource itemSource = mock(ItemSource.class);
-        when(itemSource.getSource()).thenReturn(mock(ByteBuf.class));
+        when(itemSource.getSource()).thenReturn(ByteBufItemSourceTest.createDefaultTestByteBuf());
         when(request.serialize()).thenReturn(itemSource);
 
         client.executeAsync(request, responseHandler);
@@ -25,6 +25,7 @@ import org.appenders.log4j2.elasticsearch.ahc.discovery.ServerInfo;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
@@ -34,12 +35,55 @@ import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 public class ServerPoolTest {
 
+    @Test
+    public void acquireWithExclusionSkipsExcludedServer() {
+
+        // given
+        final List<String> serverList = Arrays.asList("http://localhost:10000", "http://localhost:10001");
+        final ServerPool serverPool = new ServerPool(serverList);
+
+        final ServerInfo excluded = serverPool.acquire();
+
+        // when
+        final ServerInfo result1 = serverPool.acquire(excluded);
+        final ServerInfo result2 = serverPool.acquire(excluded);
+
+        // then
+        assertEquals("http://localhost:10001", result1.getResolvedAddress());
+        assertSame(result1, result2);
+        assertEquals(2, result1.getInFlight());
+        assertEquals(1, excluded.getInFlight());
+
+    }
+
+    @Test
+    public void acquireWithExclusionReturnsNullIfNoOtherServerIsAvailable() {
+
+        // given
+        final List<String> serverList = Arrays.asList("http://localhost:10000", "http://localhost:10001");
+        final ServerPool serverPool = new ServerPool(serverList, 1);
+
+        final ServerInfo excluded = serverPool.acquire();
+        serverPool.acquire();
+
+        // when
+        final ServerInfo result = serverPool.acquire(excluded);
+
+        // then
+        assertNull(result);
+
+    }
+
     @Test
     public void throwsOnNullInitialServerList() {
 
@@ -146,4 +190,133 @@ public class ServerPoolTest {
 
     }
 
+    @Test
+    public void acquireSkipsSaturatedServers() {
+
+        // given
+        final List<String> serverList = Arrays.asList("http://localhost:10000", "http://localhost:10001");
+        final ServerPool serverPool = new ServerPool(serverList, 1);
+
+        final ServerInfo first = serverPool.acquire();
+
+        // when
+        final ServerInfo second = serverPool.acquire();
+
+        // then
+        assertEquals("http://localhost:10000", first.getResolvedAddress());
+        assertEquals("http://localhost:10001", second.getResolvedAddress());
+        assertEquals(1, first.getInFlight());
+        assertEquals(1, second.getInFlight());
+
+    }
+
+    @Test
+    public void acquireSteersToServersWithSpareCapacity() {
+
+        // given
+        final List<String> serverList = Arrays.asList("http://localhost:10000", "http://localhost:10001");
+        final ServerPool serverPool = new ServerPool(serverList, 1);
+
+        final ServerInfo first = serverPool.acquire();
+        final ServerInfo second = serverPool.acquire();
+        serverPool.release(second);
+
+        // when
+        final ServerInfo result = serverPool.acquire();
+
+        // then
+        assertSame(second, result);
+        assertEquals(1, first.getInFlight());
+
+    }
+
+    @Test
+    public void acquireReturnsNextServerIfAllServersAreSaturated() {
+
+        // given
+        final List<String> serverList = Arrays.asList("http://localhost:10000", "http://localhost:10001");
+        final ServerPool serverPool = new ServerPool(serverList, 1);
+
+        final ServerInfo first = serverPool.acquire();
+        serverPool.acquire();
+
+        // when
+        final ServerInfo result = serverPool.acquire();
+
+        // then
+        assertSame(first, result);
+        assertEquals(2, result.getInFlight());
+
+    }
+
+    @Test
+    public void releaseDecrementsInFlightRequests() {
+
+        // given
+        final ServerPool serverPool = new ServerPool(Collections.singletonList("http://localhost:10000"), 1);
+        final ServerInfo serverInfo = serverPool.acquire();
+
+        // when
+        serverPool.release(serverInfo);
+
+        // then
+        assertEquals(0, serverInfo.getInFlight());
+
+    }
+
+    @Test
+    public void isSaturatedIfAllServersReachedTheLimit() {
+
+        // given
+        final List<String> serverList = Arrays.asList("http://localhost:10000", "http://localhost:10001");
+        final ServerPool serverPool = new ServerPool(serverList, 1);
+
+        serverPool.acquire();
+        assertFalse(serverPool.isSaturated());
+
+        // when
+        final ServerInfo serverInfo = serverPool.acquire();
+
+        // then
+        assertTrue(serverPool.isSaturated());
+
+        serverPool.release(serverInfo);
+        assertFalse(serverPool.isSaturated());
+
+    }
+
+    @Test
+    public void isNeverSaturatedIfLimitIsNotSet() {
+
+        // given
+        final ServerPool serverPool = new ServerPool(Collections.singletonList("http://localhost:10000"));
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            serverPool.acquire();
+        }
+
+        // then
+        assertFalse(serverPool.isSaturated());
+
+    }
+
+    @Test
+    public void retainsInFlightRequestsOfKnownServersAfterUpdate() {
+
+        // given
+        final ServerPool serverPool = new ServerPool(Collections.singletonList("http://localhost:10000"), 1);
+        final ServerInfo acquired = serverPool.acquire();
+
+        final List<ServerInfo> updatedServerList = Collections.singletonList(new ServerInfo("http://localhost:10000"));
+
+        // when
+        serverPool.onServerInfo(updatedServerList);
+
+        // then
+        assertTrue(serverPool.isSaturated());
+        assertSame(acquired, serverPool.acquire());
+
+    }
+
 }
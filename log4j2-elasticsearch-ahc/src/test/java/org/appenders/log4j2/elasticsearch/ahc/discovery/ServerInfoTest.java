@@ -25,7 +25,9 @@ import org.junit.jupiter.api.Test;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ServerInfoTest {
 
@@ -57,4 +59,52 @@ public class ServerInfoTest {
 
     }
 
+    @Test
+    public void tryAcquireDoesNotExceedTheLimit() {
+
+        // given
+        final ServerInfo serverInfo = new ServerInfo("http://localhost");
+
+        // when
+        final boolean first = serverInfo.tryAcquire(1);
+        final boolean second = serverInfo.tryAcquire(1);
+
+        // then
+        assertTrue(first);
+        assertFalse(second);
+        assertEquals(1, serverInfo.getInFlight());
+
+    }
+
+    @Test
+    public void tryAcquireAlwaysSucceedsIfLimitIsNotSet() {
+
+        // given
+        final ServerInfo serverInfo = new ServerInfo("http://localhost");
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            assertTrue(serverInfo.tryAcquire(0));
+        }
+
+        // then
+        assertEquals(10, serverInfo.getInFlight());
+
+    }
+
+    @Test
+    public void releaseDecrementsInFlightRequests() {
+
+        // given
+        final ServerInfo serverInfo = new ServerInfo("http://localhost");
+        serverInfo.acquire();
+
+        // when
+        serverInfo.release();
+
+        // then
+        assertEquals(0, serverInfo.getInFlight());
+
+    }
+
 }
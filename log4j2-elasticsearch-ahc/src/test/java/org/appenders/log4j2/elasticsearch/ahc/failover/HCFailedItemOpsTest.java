@@ -102,6 +102,26 @@ public class HCFailedItemOpsTest {
 
     }
 
+    @Test
+    public void createsFailedItemMetadataWithId() {
+
+        // given
+        final HCFailedItemOps failedItemOps = new HCFailedItemOps();
+
+        final String expectedId = UUID.randomUUID().toString();
+        final IndexRequest request = new IndexRequest.Builder(mock(ItemSource.class))
+                .index(UUID.randomUUID().toString())
+                .id(expectedId)
+                .build();
+
+        // when
+        final FailedItemInfo result = failedItemOps.createInfo(request);
+
+        // then
+        assertEquals(expectedId, result.getId());
+
+    }
+
     public IndexRequest createDefaultTestIndexRequest(final ItemSource<ByteBuf> itemSource, final String expectedIndex) {
         return new IndexRequest.Builder(itemSource)
                 .type(UUID.randomUUID().toString())
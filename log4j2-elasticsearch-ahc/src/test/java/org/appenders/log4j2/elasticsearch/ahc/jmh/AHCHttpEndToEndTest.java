@@ -0,0 +1,96 @@
+package org.appenders.log4j2.elasticsearch.ahc.jmh;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.appenders.log4j2.elasticsearch.ByteBufBoundedSizeLimitPolicy;
+import org.appenders.log4j2.elasticsearch.ByteBufPooledObjectOps;
+import org.appenders.log4j2.elasticsearch.ClientObjectFactory;
+import org.appenders.log4j2.elasticsearch.ItemSourceFactory;
+import org.appenders.log4j2.elasticsearch.JacksonDeserializer;
+import org.appenders.log4j2.elasticsearch.PooledItemSourceFactory;
+import org.appenders.log4j2.elasticsearch.UnlimitedResizePolicy;
+import org.appenders.log4j2.elasticsearch.ValueResolver;
+import org.appenders.log4j2.elasticsearch.backoff.BatchLimitBackoffPolicy;
+import org.appenders.log4j2.elasticsearch.ahc.AHCBatchOperations;
+import org.appenders.log4j2.elasticsearch.ahc.AHCHttp;
+import org.appenders.log4j2.elasticsearch.ahc.BatchResult;
+import org.appenders.log4j2.elasticsearch.ahc.ElasticsearchBulkAPI;
+import org.appenders.log4j2.elasticsearch.ahc.ElasticsearchOperationFactory;
+import org.appenders.log4j2.elasticsearch.ahc.HttpClientFactory;
+import org.appenders.log4j2.elasticsearch.ahc.HttpClientProvider;
+import org.appenders.log4j2.elasticsearch.ahc.SyncStepProcessor;
+import org.appenders.log4j2.elasticsearch.jmh.EndToEndBenchmarkBase;
+import org.appenders.log4j2.elasticsearch.jmh.MockBulkServer;
+
+import java.util.Collections;
+
+/**
+ * {@link EndToEndBenchmarkBase} with {@link AHCHttp} client against {@link MockBulkServer}.
+ * <p>See {@link AHCHttpEndToEndTestMain}
+ */
+public class AHCHttpEndToEndTest extends EndToEndBenchmarkBase {
+
+    @Override
+    protected ClientObjectFactory<?, ?> createClientObjectFactory(final String serverUri, final int estimatedBatchSizeInBytes) {
+
+        final PooledItemSourceFactory<Object, ByteBuf> batchPool = new PooledItemSourceFactory.Builder<Object, ByteBuf>()
+                .withPoolName("batchPool")
+                .withInitialPoolSize(4)
+                .withPooledObjectOps(new ByteBufPooledObjectOps(
+                        UnpooledByteBufAllocator.DEFAULT,
+                        new ByteBufBoundedSizeLimitPolicy(estimatedBatchSizeInBytes, estimatedBatchSizeInBytes * 2)))
+                .build();
+
+        final HttpClientProvider clientProvider = new HttpClientProvider(new HttpClientFactory.Builder()
+                .withServerList(Collections.singletonList(serverUri))
+                .withConnTimeout(500)
+                .withReadTimeout(10000)
+                .withIoThreadCount(4)
+                .withMaxTotalConnections(8)
+                .withName("http-jmh"));
+
+        return new AHCHttp.Builder()
+                .withBatchOperations(new AHCBatchOperations(batchPool, new ElasticsearchBulkAPI()))
+                .withClientProvider(clientProvider)
+                .withOperationFactory(new ElasticsearchOperationFactory(
+                        new SyncStepProcessor(clientProvider, new JacksonDeserializer<>(ElasticsearchBulkAPI.defaultObjectMapper().readerFor(BatchResult.class))),
+                        ValueResolver.NO_OP))
+                .withBackoffPolicy(new BatchLimitBackoffPolicy<>(8))
+                .withName("http-jmh")
+                .build();
+
+    }
+
+    @Override
+    protected ItemSourceFactory<Object, ?> createItemSourceFactory(final int itemSizeInBytes) {
+        return new PooledItemSourceFactory.Builder<Object, ByteBuf>()
+                .withPoolName("itemPool")
+                .withPooledObjectOps(new ByteBufPooledObjectOps(
+                        UnpooledByteBufAllocator.DEFAULT,
+                        new ByteBufBoundedSizeLimitPolicy(itemSizeInBytes, itemSizeInBytes * 2)))
+                .withInitialPoolSize(batchSize * 4)
+                .withResizePolicy(new UnlimitedResizePolicy.Builder().build())
+                .build();
+    }
+
+}
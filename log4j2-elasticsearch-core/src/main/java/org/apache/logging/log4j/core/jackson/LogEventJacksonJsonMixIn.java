@@ -40,6 +40,7 @@ import org.apache.logging.log4j.core.impl.ThrowableProxy;
 import org.apache.logging.log4j.core.time.Instant;
 import org.apache.logging.log4j.message.Message;
 import org.apache.logging.log4j.util.ReadOnlyStringMap;
+import org.appenders.log4j2.elasticsearch.AggregatedLogEventWriter;
 import org.appenders.log4j2.elasticsearch.VirtualPropertiesWriter;
 import org.appenders.log4j2.elasticsearch.VirtualProperty;
 import org.appenders.log4j2.elasticsearch.json.jackson.ExtendedLogEventJacksonJsonMixIn;
@@ -56,6 +57,11 @@ import java.util.Map;
                 name = "virtualProperties", // irrelevant at runtime
                 type = VirtualProperty[].class, // irrelevant at runtime
                 value = VirtualPropertiesWriter.class
+        ),
+        @JsonAppend.Prop(
+                name = "aggregatedLogEvent", // irrelevant at runtime
+                type = Long.class, // irrelevant at runtime
+                value = AggregatedLogEventWriter.class
         )
 })
 @Deprecated
@@ -0,0 +1,197 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.ThrowableProxy;
+import org.apache.logging.log4j.core.time.Instant;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.util.ReadOnlyStringMap;
+
+import java.util.Map;
+
+/**
+ * Summary of repeated events collapsed by {@link AggregatingItemAppender}.
+ * <p>
+ * Delegates to the first collapsed event. {@link AggregatedLogEventWriter} adds {@code count}, {@code first_seen} and {@code last_seen} to serialized output.
+ */
+public class AggregatedLogEvent implements LogEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String COUNT_FIELD = "count";
+    public static final String FIRST_SEEN_FIELD = "first_seen";
+    public static final String LAST_SEEN_FIELD = "last_seen";
+
+    private final LogEvent delegate;
+    private final long count;
+    private final long firstSeen;
+    private final long lastSeen;
+
+    /**
+     * @param delegate immutable copy of the first collapsed event
+     * @param count number of collapsed events
+     * @param firstSeen time millis of the first collapsed event
+     * @param lastSeen time millis of the last collapsed event
+     */
+    public AggregatedLogEvent(final LogEvent delegate, final long count, final long firstSeen, final long lastSeen) {
+        this.delegate = delegate;
+        this.count = count;
+        this.firstSeen = firstSeen;
+        this.lastSeen = lastSeen;
+    }
+
+    /**
+     * @return number of collapsed events
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return time millis of the first collapsed event
+     */
+    public long getFirstSeen() {
+        return firstSeen;
+    }
+
+    /**
+     * @return time millis of the last collapsed event
+     */
+    public long getLastSeen() {
+        return lastSeen;
+    }
+
+    @Override
+    public LogEvent toImmutable() {
+        return this;
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public Map<String, String> getContextMap() {
+        return delegate.getContextMap();
+    }
+
+    @Override
+    public ReadOnlyStringMap getContextData() {
+        return delegate.getContextData();
+    }
+
+    @Override
+    public ThreadContext.ContextStack getContextStack() {
+        return delegate.getContextStack();
+    }
+
+    @Override
+    public String getLoggerFqcn() {
+        return delegate.getLoggerFqcn();
+    }
+
+    @Override
+    public Level getLevel() {
+        return delegate.getLevel();
+    }
+
+    @Override
+    public String getLoggerName() {
+        return delegate.getLoggerName();
+    }
+
+    @Override
+    public Marker getMarker() {
+        return delegate.getMarker();
+    }
+
+    @Override
+    public Message getMessage() {
+        return delegate.getMessage();
+    }
+
+    @Override
+    public long getTimeMillis() {
+        return delegate.getTimeMillis();
+    }
+
+    @Override
+    public Instant getInstant() {
+        return delegate.getInstant();
+    }
+
+    @Override
+    public StackTraceElement getSource() {
+        return delegate.getSource();
+    }
+
+    @Override
+    public String getThreadName() {
+        return delegate.getThreadName();
+    }
+
+    @Override
+    public long getThreadId() {
+        return delegate.getThreadId();
+    }
+
+    @Override
+    public int getThreadPriority() {
+        return delegate.getThreadPriority();
+    }
+
+    @Override
+    public Throwable getThrown() {
+        return delegate.getThrown();
+    }
+
+    @Override
+    public ThrowableProxy getThrownProxy() {
+        return delegate.getThrownProxy();
+    }
+
+    @Override
+    public boolean isEndOfBatch() {
+        return delegate.isEndOfBatch();
+    }
+
+    @Override
+    public boolean isIncludeLocation() {
+        return delegate.isIncludeLocation();
+    }
+
+    @Override
+    public void setEndOfBatch(final boolean endOfBatch) {
+        delegate.setEndOfBatch(endOfBatch);
+    }
+
+    @Override
+    public void setIncludeLocation(final boolean locationRequired) {
+        delegate.setIncludeLocation(locationRequired);
+    }
+
+    @Override
+    public long getNanoTime() {
+        return delegate.getNanoTime();
+    }
+
+}
@@ -0,0 +1,101 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonAppend;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
+import com.fasterxml.jackson.databind.introspect.AnnotationCollector;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.ser.VirtualBeanPropertyWriter;
+import com.fasterxml.jackson.databind.util.Annotations;
+
+/**
+ * This custom FasterXML Jackson {@code com.fasterxml.jackson.databind.ser.VirtualBeanPropertyWriter}
+ * appends {@code count}, {@code first_seen} and {@code last_seen} of {@link AggregatedLogEvent} at the end of JSON output.
+ * Other events are not affected.
+ * <p>
+ * Applied by mix-ins that declare it with {@code @JsonAppend}, e.g. {@link org.appenders.log4j2.elasticsearch.json.jackson.ExtendedLogEventJacksonJsonMixIn}
+ */
+public class AggregatedLogEventWriter extends VirtualBeanPropertyWriter {
+
+    /**
+     * Used by Jackson to create an unconfigured instance for {@code @JsonAppend}
+     */
+    public AggregatedLogEventWriter() {
+    }
+
+    /**
+     * This constructor should not be invoked directly and should only be used within
+     * {@link #withConfig(MapperConfig, AnnotatedClass, BeanPropertyDefinition, JavaType)} call.
+     *
+     * @param propDef property definition created by {@code by com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector}
+     * @param annotations contains only @JsonAppend at the moment
+     * @param type declared property type
+     */
+    AggregatedLogEventWriter(BeanPropertyDefinition propDef, Annotations annotations, JavaType type) {
+        super(propDef, annotations, type);
+    }
+
+    @Override
+    protected Object value(Object bean, JsonGenerator gen, SerializerProvider prov) {
+        throw new UnsupportedOperationException("Should not be used with this implementation. Use serializeAsField() to write value directly.");
+    }
+
+    @Override
+    public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+
+        if (!(bean instanceof AggregatedLogEvent)) {
+            return;
+        }
+
+        AggregatedLogEvent event = (AggregatedLogEvent) bean;
+        gen.writeNumberField(AggregatedLogEvent.COUNT_FIELD, event.getCount());
+        gen.writeNumberField(AggregatedLogEvent.FIRST_SEEN_FIELD, event.getFirstSeen());
+        gen.writeNumberField(AggregatedLogEvent.LAST_SEEN_FIELD, event.getLastSeen());
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AggregatedLogEventWriter withConfig(MapperConfig<?> config, AnnotatedClass declaringClass, BeanPropertyDefinition propDef, JavaType type) {
+        return new AggregatedLogEventWriter(
+                propDef,
+                new AnnotationCollector.OneAnnotation(
+                        declaringClass.getRawType(),
+                        declaringClass.getAnnotations().get(JsonAppend.class)
+                ),
+                type
+        );
+    }
+
+    @Override
+    public void fixAccess(SerializationConfig config) {
+        // noop - fast path as super.getMember() returns null anyway
+    }
+
+}
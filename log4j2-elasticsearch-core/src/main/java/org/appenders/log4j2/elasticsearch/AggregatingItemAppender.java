@@ -0,0 +1,303 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.message.Message;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.appenders.core.logging.InternalLogging.getLogger;
+
+/**
+ * Collapses repeated events before they're serialized.
+ * <p>
+ * Events are considered repeated if logger name, level, message template ({@link Message#getFormat()}) and throwable type are equal.
+ * First occurrence is passed to the delegate immediately. Following occurrences are counted until the end of current window.
+ * At the end of each window, one {@link AggregatedLogEvent} is passed to the delegate for each key with counted occurrences.
+ * <p>
+ * Number of tracked keys is bounded. Events with new keys are passed to the delegate as is if the limit is reached.
+ */
+public class AggregatingItemAppender implements ItemAppender<LogEvent> {
+
+    static final String THREAD_NAME = "EventAggregator";
+
+    private static final long CLOSED = -1;
+
+    private volatile State state = State.STOPPED;
+
+    private final ItemAppender<LogEvent> delegate;
+    private final long windowMillis;
+    private final int maxKeys;
+    private final ConcurrentHashMap<Key, Entry> entries;
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param delegate actual appender
+     * @param windowMillis millis between two flushes of collapsed events
+     * @param maxKeys maximum number of tracked keys
+     */
+    public AggregatingItemAppender(final ItemAppender<LogEvent> delegate, final long windowMillis, final int maxKeys) {
+        this.delegate = delegate;
+        this.windowMillis = windowMillis;
+        this.maxKeys = maxKeys;
+        this.entries = new ConcurrentHashMap<>(maxKeys);
+    }
+
+    /**
+     * Passes given event to the delegate if it's the first occurrence in current window. Counts it otherwise.
+     *
+     * @param formattedIndexName delivery target
+     * @param event event to process
+     */
+    @Override
+    public final void append(final String formattedIndexName, final LogEvent event) {
+
+        if (state != State.STARTED) {
+            delegate.append(formattedIndexName, event);
+            return;
+        }
+
+        final Key key = new Key(formattedIndexName, event);
+
+        while (true) {
+
+            final Entry entry = entries.get(key);
+            if (entry == null) {
+                if (entries.size() >= maxKeys || entries.putIfAbsent(key, new Entry(formattedIndexName)) == null) {
+                    // first occurrence or no room for new keys
+                    delegate.append(formattedIndexName, event);
+                    return;
+                }
+                // added concurrently, count it
+                continue;
+            }
+
+            if (entry.collapse(event)) {
+                return;
+            }
+
+            // flushed concurrently
+            entries.remove(key, entry);
+
+        }
+
+    }
+
+    /**
+     * @return number of tracked keys
+     */
+    public final int getKeyCount() {
+        return entries.size();
+    }
+
+    /**
+     * Passes one {@link AggregatedLogEvent} for each tracked key with collapsed events to the delegate and stops tracking all current keys
+     */
+    void flush() {
+
+        for (Key key : entries.keySet()) {
+
+            final Entry entry = entries.remove(key);
+            if (entry == null) {
+                continue;
+            }
+
+            final AggregatedLogEvent aggregated = entry.close();
+            if (aggregated == null) {
+                continue;
+            }
+
+            try {
+                delegate.append(entry.formattedIndexName, aggregated);
+            } catch (Exception e) {
+                getLogger().error("{}: Unable to append aggregated event: {}", getClass().getSimpleName(), e.getMessage());
+            }
+
+        }
+
+    }
+
+    @Override
+    public void start() {
+
+        delegate.start();
+
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::flush, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+
+        state = State.STARTED;
+
+        getLogger().debug("{} started with {} ms window", getClass().getSimpleName(), windowMillis);
+
+    }
+
+    @Override
+    public void stop() {
+
+        getLogger().debug("Stopping {}", getClass().getSimpleName());
+
+        state = State.STOPPED;
+
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(windowMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // leftovers
+        flush();
+
+        if (!delegate.isStopped()) {
+            delegate.stop();
+        }
+
+        getLogger().debug("{} stopped", getClass().getSimpleName());
+
+    }
+
+    @Override
+    public boolean isStarted() {
+        return state == State.STARTED;
+    }
+
+    @Override
+    public boolean isStopped() {
+        return state == State.STOPPED;
+    }
+
+    private static final class Key {
+
+        private final String formattedIndexName;
+        private final String loggerName;
+        private final Level level;
+        private final String template;
+        private final Class<?> throwableType;
+        private final int hashCode;
+
+        Key(final String formattedIndexName, final LogEvent event) {
+            this.formattedIndexName = formattedIndexName;
+            this.loggerName = event.getLoggerName();
+            this.level = event.getLevel();
+            final Message message = event.getMessage();
+            this.template = message == null ? null : message.getFormat();
+            this.throwableType = event.getThrown() == null ? null : event.getThrown().getClass();
+            this.hashCode = Objects.hash(formattedIndexName, loggerName, level, template, throwableType);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            final Key key = (Key) o;
+            return hashCode == key.hashCode
+                    && level == key.level
+                    && throwableType == key.throwableType
+                    && Objects.equals(template, key.template)
+                    && Objects.equals(loggerName, key.loggerName)
+                    && Objects.equals(formattedIndexName, key.formattedIndexName);
+
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+    }
+
+    private static final class Entry {
+
+        private final String formattedIndexName;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong lastSeen = new AtomicLong();
+        private final AtomicReference<LogEvent> first = new AtomicReference<>();
+
+        Entry(final String formattedIndexName) {
+            this.formattedIndexName = formattedIndexName;
+        }
+
+        /**
+         * @param event repeated event
+         * @return true, if given event was counted, false if this entry was closed
+         */
+        boolean collapse(final LogEvent event) {
+
+            if (first.get() == null) {
+                // MUST be visible before count is incremented
+                first.compareAndSet(null, event.toImmutable());
+            }
+
+            long current;
+            do {
+                current = count.get();
+                if (current == CLOSED) {
+                    return false;
+                }
+            } while (!count.compareAndSet(current, current + 1));
+
+            lastSeen.accumulateAndGet(event.getTimeMillis(), Math::max);
+            return true;
+
+        }
+
+        /**
+         * @return summary of collapsed events, null if there are none
+         */
+        AggregatedLogEvent close() {
+
+            final long collapsed = count.getAndSet(CLOSED);
+            if (collapsed <= 0) {
+                return null;
+            }
+
+            final LogEvent firstCollapsed = first.get();
+            return new AggregatedLogEvent(
+                    firstCollapsed,
+                    collapsed,
+                    firstCollapsed.getTimeMillis(),
+                    Math.max(firstCollapsed.getTimeMillis(), lastSeen.get()));
+
+        }
+
+    }
+
+}
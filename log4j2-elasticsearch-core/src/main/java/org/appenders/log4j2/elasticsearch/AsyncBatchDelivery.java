@@ -25,7 +25,10 @@ import org.appenders.log4j2.elasticsearch.failover.FailoverListener;
 import org.appenders.log4j2.elasticsearch.failover.RetryListener;
 import org.appenders.log4j2.elasticsearch.metrics.BasicMetricOutputsRegistry;
 import org.appenders.log4j2.elasticsearch.metrics.BasicMetricsRegistry;
+import org.appenders.log4j2.elasticsearch.metrics.DefaultMetricsFactory;
 import org.appenders.log4j2.elasticsearch.metrics.Measured;
+import org.appenders.log4j2.elasticsearch.metrics.MetricConfig;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsFactory;
 import org.appenders.log4j2.elasticsearch.metrics.MetricsProcessor;
 import org.appenders.log4j2.elasticsearch.metrics.MetricsRegistry;
 import org.appenders.log4j2.elasticsearch.spi.BatchEmitterServiceProvider;
@@ -34,6 +37,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static org.appenders.core.logging.InternalLogging.getLogger;
@@ -75,13 +79,47 @@ public class AsyncBatchDelivery implements BatchDelivery<String>, Measured  {
                                  final long shutdownDelayMillis,
                                  final OpSource[] setupOpSources,
                                  final MetricsProcessor metricsProcessor) {
+        this(batchSize,
+                deliveryInterval,
+                objectFactory,
+                failoverPolicy,
+                shutdownDelayMillis,
+                setupOpSources,
+                metricsProcessor,
+                AsyncBatchEmitter.class.getSimpleName(),
+                new DefaultMetricsFactory(AsyncBatchEmitter.metricConfigs(false))
+        );
+    }
+
+    /**
+     * @param batchSize number of items that triggers delivery
+     * @param deliveryInterval millis between two time-triggered deliveries
+     * @param objectFactory client-specific objects provider
+     * @param failoverPolicy sink for failed batch items
+     * @param shutdownDelayMillis millis to wait for pending items on shutdown
+     * @param setupOpSources definitions of operations to execute before first batch
+     * @param metricsProcessor metrics processor
+     * @param name {@link BatchEmitter} metrics component name
+     * @param metricsFactory {@link BatchEmitter} metrics configuration
+     */
+    protected AsyncBatchDelivery(final int batchSize,
+                                 final int deliveryInterval,
+                                 final ClientObjectFactory objectFactory,
+                                 final FailoverPolicy failoverPolicy,
+                                 final long shutdownDelayMillis,
+                                 final OpSource[] setupOpSources,
+                                 final MetricsProcessor metricsProcessor,
+                                 final String name,
+                                 final MetricsFactory metricsFactory) {
         this.batchOperations = objectFactory.createBatchOperations();
         this.batchEmitter = createBatchEmitterServiceProvider()
                 .createInstance(
                         batchSize,
                         deliveryInterval,
                         objectFactory,
-                        failoverPolicy);
+                        failoverPolicy,
+                        name,
+                        metricsFactory);
         this.objectFactory = objectFactory;
         this.failoverPolicy = failoverPolicy;
         this.shutdownDelayMillis = shutdownDelayMillis;
@@ -100,7 +138,9 @@ public class AsyncBatchDelivery implements BatchDelivery<String>, Measured  {
                 builder.failoverPolicy,
                 builder.shutdownDelayMillis,
                 builder.setupOpSources,
-                builder.metricsProcessor
+                builder.metricsProcessor,
+                builder.name,
+                builder.metricsFactory
         );
     }
 
@@ -119,6 +159,22 @@ public class AsyncBatchDelivery implements BatchDelivery<String>, Measured  {
         this.batchEmitter.add(batchOperations.createBatchItem(indexName, source));
     }
 
+    /**
+     * @return number of items queued by batch emitter and items in batches sent but not completed yet (see {@link ClientObjectFactory#getInFlightItemCount()}),
+     * -1 if batch emitter doesn't report it's backlog
+     */
+    @Override
+    public long getBacklogSize() {
+
+        final long queued = batchEmitter.getBacklogSize();
+        if (queued < 0) {
+            return queued;
+        }
+
+        return queued + objectFactory.getInFlightItemCount();
+
+    }
+
     protected BatchEmitterServiceProvider createBatchEmitterServiceProvider() {
         return new BatchEmitterServiceProvider();
     }
@@ -181,6 +237,10 @@ public class AsyncBatchDelivery implements BatchDelivery<String>, Measured  {
          */
         public static final OpSource[] DEFAULT_OP_SOURCES = new OpSource[0];
 
+        private static final AtomicInteger counter = new AtomicInteger();
+
+        protected String name = AsyncBatchDelivery.class.getSimpleName() + "-" + counter.getAndIncrement();
+
         protected ClientObjectFactory clientObjectFactory;
         protected int deliveryInterval = DEFAULT_BATCH_SIZE;
         protected int batchSize = DEFAULT_DELIVERY_INTERVAL;
@@ -189,6 +249,7 @@ public class AsyncBatchDelivery implements BatchDelivery<String>, Measured  {
         protected OpSource[] setupOpSources = DEFAULT_OP_SOURCES;
 
         protected MetricsProcessor metricsProcessor = new MetricsProcessor(new BasicMetricsRegistry(), new BasicMetricOutputsRegistry());
+        protected MetricsFactory metricsFactory = new DefaultMetricsFactory(AsyncBatchEmitter.metricConfigs(false));
 
         public AsyncBatchDelivery build() {
             if (clientObjectFactory == null) {
@@ -205,6 +266,15 @@ public class AsyncBatchDelivery implements BatchDelivery<String>, Measured  {
             return new AsyncBatchDelivery(this);
         }
 
+        /**
+         * @param name metrics component name of underlying {@link BatchEmitter}. SHOULD be unique across all configured deliveries
+         * @return this
+         */
+        public Builder withName(String name) {
+            this.name = name;
+            return this;
+        }
+
         public Builder withClientObjectFactory(ClientObjectFactory clientObjectFactory) {
             this.clientObjectFactory = clientObjectFactory;
             return this;
@@ -244,6 +314,15 @@ public class AsyncBatchDelivery implements BatchDelivery<String>, Measured  {
             return this;
         }
 
+        /**
+         * @param metricConfigs Metric configurations. Configures given metrics for {@link BatchEmitter}. See {@link MetricsFactory#configure(List)}
+         * @return this
+         */
+        public Builder withMetricConfigs(final List<MetricConfig> metricConfigs) {
+            this.metricsFactory.configure(metricConfigs);
+            return this;
+        }
+
         private OpSource[] addSetupOpSource(OpSource... indexTemplates) {
 
             List<OpSource> current = new ArrayList<>(Arrays.asList(setupOpSources));
@@ -269,7 +348,7 @@ public class AsyncBatchDelivery implements BatchDelivery<String>, Measured  {
         }
 
         for (OpSource setupOpSource : setupOpSources) {
-            objectFactory.addOperation(objectFactory.setupOperationFactory().create(setupOpSource));
+            objectFactory.addSetupOperation(setupOpSource, objectFactory.setupOperationFactory().create(setupOpSource));
         }
 
         batchEmitter.start();
@@ -301,7 +380,14 @@ public class AsyncBatchDelivery implements BatchDelivery<String>, Measured  {
         }
 
         if (!batchEmitter.isStopped()) {
+            final long start = System.currentTimeMillis();
+            // if in-flight batches are tracked, emitter doesn't have to wait for the whole delay
+            final boolean inFlightTracked = objectFactory.getInFlightCount() >= 0;
+            batchEmitter.completeShutdownWhenEmpty(inFlightTracked);
             batchEmitter.stop(shutdownDelayMillis, false);
+            if (inFlightTracked) {
+                awaitInFlightBatches(shutdownDelayMillis - (System.currentTimeMillis() - start));
+            }
         }
 
         if (!LifeCycle.of(metricsProcessor).isStopped()) {
@@ -322,6 +408,32 @@ public class AsyncBatchDelivery implements BatchDelivery<String>, Measured  {
 
     }
 
+    /**
+     * Blocks until all batches sent by {@link #objectFactory} are completed or given timeout passes, whichever happens first
+     *
+     * @param timeoutMillis max time to wait
+     */
+    private void awaitInFlightBatches(final long timeoutMillis) {
+
+        final DelayedShutdown delayedShutdown = new DelayedShutdown(() -> {})
+                .delay(timeoutMillis)
+                .completedWhen(() -> objectFactory.getInFlightCount() == 0)
+                .afterDelay(() -> {
+                    final int inFlightCount = objectFactory.getInFlightCount();
+                    if (inFlightCount > 0) {
+                        getLogger().warn("{}: {} batches not completed in {}ms", getClass().getSimpleName(), inFlightCount, shutdownDelayMillis);
+                    }
+                });
+
+        objectFactory.onBatchCompleted(delayedShutdown::signal);
+        try {
+            delayedShutdown.start(false);
+        } finally {
+            objectFactory.onBatchCompleted(() -> {});
+        }
+
+    }
+
     @Override
     public boolean isStarted() {
         return state == State.STARTED;
@@ -29,6 +29,7 @@ import org.apache.logging.log4j.core.config.plugins.PluginElement;
 import org.apache.logging.log4j.core.config.plugins.PluginFactory;
 import org.appenders.log4j2.elasticsearch.metrics.BasicMetricOutputsRegistry;
 import org.appenders.log4j2.elasticsearch.metrics.BasicMetricsRegistry;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsFactory;
 import org.appenders.log4j2.elasticsearch.metrics.MetricsProcessor;
 
 /**
@@ -47,13 +48,15 @@ public class AsyncBatchDeliveryPlugin extends AsyncBatchDelivery {
 
     @PluginFactory
     public static AsyncBatchDeliveryPlugin createAsyncBatchDelivery(
+            @PluginAttribute("name") String name,
             @PluginElement("objectFactory") ClientObjectFactory clientObjectFactory,
             @PluginAttribute("batchSize") int batchSize,
             @PluginAttribute("deliveryInterval") int deliveryInterval,
             @PluginElement("failoverPolicy") FailoverPolicy failoverPolicy,
             @PluginAttribute("shutdownDelayMillis") long shutdownDelayMillis,
             @PluginElement("setupOperation") OpSource[] setupOpSources,
-            @PluginElement("MetricsProcessor") MetricsProcessor metricsProcessor) {
+            @PluginElement("MetricsProcessor") MetricsProcessor metricsProcessor,
+            @PluginElement("metricsFactory") MetricsFactory metricsFactory) {
 
         if (clientObjectFactory == null) {
             throw new ConfigurationException("No Elasticsearch client factory [HCHttp|JestHttp|ElasticsearchBulkProcessor] provided for AsyncBatchDelivery");
@@ -68,6 +71,14 @@ public class AsyncBatchDeliveryPlugin extends AsyncBatchDelivery {
                 .withShutdownDelayMillis(shutdownDelayMillis < 0 ? Builder.DEFAULT_SHUTDOWN_DELAY : shutdownDelayMillis)
                 .withMetricProcessor(metricsProcessor == null ? new MetricsProcessor(new BasicMetricsRegistry(), new BasicMetricOutputsRegistry()) : metricsProcessor);
 
+        if (name != null) {
+            builder.withName(name);
+        }
+
+        if (metricsFactory != null) {
+            builder.withMetricConfigs(metricsFactory.getMetricConfigs());
+        }
+
         return new AsyncBatchDeliveryPlugin(builder);
 
     }
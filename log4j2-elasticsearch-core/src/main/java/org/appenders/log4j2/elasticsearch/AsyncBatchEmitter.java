@@ -20,7 +20,20 @@ package org.appenders.log4j2.elasticsearch;
  * #L%
  */
 
-
+import org.appenders.log4j2.elasticsearch.jfr.FlightRecorderEvents;
+import org.appenders.log4j2.elasticsearch.metrics.DefaultMetricsFactory;
+import org.appenders.log4j2.elasticsearch.metrics.Measured;
+import org.appenders.log4j2.elasticsearch.metrics.Metric;
+import org.appenders.log4j2.elasticsearch.metrics.MetricConfig;
+import org.appenders.log4j2.elasticsearch.metrics.MetricConfigFactory;
+import org.appenders.log4j2.elasticsearch.metrics.MetricType;
+import org.appenders.log4j2.elasticsearch.metrics.Metrics;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsFactory;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
@@ -40,7 +53,7 @@ import static org.appenders.log4j2.elasticsearch.QueueFactory.getQueueFactoryIns
  *
  * @param <BATCH_TYPE> type of processed batches
  */
-public class AsyncBatchEmitter<BATCH_TYPE> implements BatchEmitter {
+public class AsyncBatchEmitter<BATCH_TYPE> implements BatchEmitter, Measured {
 
     public static final String QUEUE_FACTORY_NAME = BulkEmitter.class.getSimpleName();
     public static final int QUEUE_INITIAL_SIZE = Integer.parseInt(System.getProperty("appenders." + BulkEmitter.class.getSimpleName() + ".initialSize", "65536"));
@@ -50,12 +63,14 @@ public class AsyncBatchEmitter<BATCH_TYPE> implements BatchEmitter {
     private final AtomicBoolean notifying = new AtomicBoolean();
 
     private volatile long lastEmittedTimestamp;
+    private volatile long oldestItemTimestamp;
     private final int deliveryInterval;
     private final BatchOperations<BATCH_TYPE> batchOperations;
     private Function<BATCH_TYPE, Boolean> listener;
 
     private final EmitterLoop emitterLoop;
     private final AtomicBoolean shuttingDown = new AtomicBoolean();
+    private final AsyncBatchEmitterMetrics metrics;
     private final ScheduledExecutorService executor;
 
     private final AtomicReference<State> state = new AtomicReference<>(State.STOPPED);
@@ -79,6 +94,50 @@ public class AsyncBatchEmitter<BATCH_TYPE> implements BatchEmitter {
     }
 
     public AsyncBatchEmitter(int atSize, int intervalInMillis, BatchOperations<BATCH_TYPE> batchOperations, Queue<Object> queue) {
+        this(atSize, intervalInMillis, batchOperations, queue, new DefaultMetricsFactory(metricConfigs(false)));
+    }
+
+    /**
+     * @param atSize number of items that triggers delivery
+     * @param intervalInMillis millis between two time-triggered deliveries
+     * @param batchOperations batch producer
+     * @param metricsFactory configured metrics. See {@link #metricConfigs(boolean)} for supported metrics
+     */
+    public AsyncBatchEmitter(final int atSize, final int intervalInMillis, final BatchOperations<BATCH_TYPE> batchOperations, final MetricsFactory metricsFactory) {
+        this(AsyncBatchEmitter.class.getSimpleName(), atSize, intervalInMillis, batchOperations, metricsFactory);
+    }
+
+    /**
+     * @param name metrics component name, SHOULD be unique across all configured emitters
+     * @param atSize number of items that triggers delivery
+     * @param intervalInMillis millis between two time-triggered deliveries
+     * @param batchOperations batch producer
+     * @param metricsFactory configured metrics. See {@link #metricConfigs(boolean)} for supported metrics
+     */
+    public AsyncBatchEmitter(final String name, final int atSize, final int intervalInMillis, final BatchOperations<BATCH_TYPE> batchOperations, final MetricsFactory metricsFactory) {
+        this(name, atSize, intervalInMillis, batchOperations, getQueueFactoryInstance(QUEUE_FACTORY_NAME).tryCreateMpmcQueue(QUEUE_INITIAL_SIZE), metricsFactory);
+    }
+
+    /**
+     * @param atSize number of items that triggers delivery
+     * @param intervalInMillis millis between two time-triggered deliveries
+     * @param batchOperations batch producer
+     * @param queue items queue
+     * @param metricsFactory configured metrics. See {@link #metricConfigs(boolean)} for supported metrics
+     */
+    public AsyncBatchEmitter(final int atSize, final int intervalInMillis, final BatchOperations<BATCH_TYPE> batchOperations, final Queue<Object> queue, final MetricsFactory metricsFactory) {
+        this(AsyncBatchEmitter.class.getSimpleName(), atSize, intervalInMillis, batchOperations, queue, metricsFactory);
+    }
+
+    /**
+     * @param name metrics component name, SHOULD be unique across all configured emitters
+     * @param atSize number of items that triggers delivery
+     * @param intervalInMillis millis between two time-triggered deliveries
+     * @param batchOperations batch producer
+     * @param queue items queue
+     * @param metricsFactory configured metrics. See {@link #metricConfigs(boolean)} for supported metrics
+     */
+    public AsyncBatchEmitter(final String name, final int atSize, final int intervalInMillis, final BatchOperations<BATCH_TYPE> batchOperations, final Queue<Object> queue, final MetricsFactory metricsFactory) {
         this.maxSize = atSize;
         this.deliveryInterval = intervalInMillis;
         this.batchOperations = batchOperations;
@@ -88,6 +147,30 @@ public class AsyncBatchEmitter<BATCH_TYPE> implements BatchEmitter {
 
         this.executor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "BatchEmitter"));
         this.emitterLoop = new EmitterLoop(deliveryInterval, this::notifyListener);
+        this.metrics = new AsyncBatchEmitterMetrics(name, metricsFactory);
+    }
+
+    /**
+     * @param enabled initial state of all metrics
+     * @return all metrics supported by this component:
+     * <ul>
+     *     <li>{@code queueSize} - number of enqueued items; earliest signal that delivery can't keep up</li>
+     *     <li>{@code oldestItemAgeMs} - millis since the oldest enqueued item was added, 0 if queue is empty</li>
+     *     <li>{@code emittedOnSize} - number of batches emitted because {@code batchSize} was reached</li>
+     *     <li>{@code emittedOnInterval} - number of batches emitted because {@code deliveryInterval} elapsed</li>
+     *     <li>{@code emittedOnShutdown} - number of batches emitted on shutdown</li>
+     *     <li>{@code itemsPerBatch} - max. number of items in emitted batch</li>
+     * </ul>
+     */
+    public static List<MetricConfig> metricConfigs(final boolean enabled) {
+        return Arrays.asList(
+                MetricConfigFactory.createSuppliedConfig(MetricType.GAUGE, enabled, "queueSize"),
+                MetricConfigFactory.createSuppliedConfig(MetricType.GAUGE, enabled, "oldestItemAgeMs"),
+                MetricConfigFactory.createCountConfig(enabled, "emittedOnSize"),
+                MetricConfigFactory.createCountConfig(enabled, "emittedOnInterval"),
+                MetricConfigFactory.createCountConfig(enabled, "emittedOnShutdown"),
+                MetricConfigFactory.createMaxConfig(enabled, "itemsPerBatch", true)
+        );
     }
 
     /**
@@ -119,17 +202,27 @@ public class AsyncBatchEmitter<BATCH_TYPE> implements BatchEmitter {
 
     public final boolean emit(int size) {
 
-        // TODO: add to metrics
         lastEmittedTimestamp = System.currentTimeMillis();
-        // TODO: add to metrics
-        this.size.addAndGet(-size);
+
+        final long batchOldestItemTimestamp = oldestItemTimestamp;
+
+        metrics.itemsPerBatch.store(size);
+
+        if (this.size.addAndGet(-size) > 0) {
+            // items left behind were added before this emission; their exact arrival times are not tracked
+            oldestItemTimestamp = lastEmittedTimestamp;
+        }
 
         // create actual batch; there's a potential to leave some items undelivered
         // but they will be delivered eventually (on next trigger)
         BatchBuilder<BATCH_TYPE> batch = batchOperations.createBatchBuilder();
+        batch.oldestItemTimestamp(batchOldestItemTimestamp);
         for (int ii = 0; ii < size; ii++) {
             batch.add(items.remove());
         }
+
+        FlightRecorderEvents.batchEmitted(size, batchOldestItemTimestamp > 0 ? lastEmittedTimestamp - batchOldestItemTimestamp : 0);
+
         return listener.apply(batch.build());
     }
 
@@ -145,12 +238,21 @@ public class AsyncBatchEmitter<BATCH_TYPE> implements BatchEmitter {
             }
 
             emit(maxSize);
+            metrics.emittedOnSize.store(1);
 
         }
 
         // emit incomplete batches on scheduled notifications or on shutdown
-        if (System.currentTimeMillis() - lastEmittedTimestamp > deliveryInterval || shuttingDown.get()) {
-            emit(items.size());
+        final boolean onShutdown = shuttingDown.get();
+        if (System.currentTimeMillis() - lastEmittedTimestamp > deliveryInterval || onShutdown) {
+
+            final int actualSize = items.size();
+            emit(actualSize);
+
+            if (actualSize > 0) {
+                (onShutdown ? metrics.emittedOnShutdown : metrics.emittedOnInterval).store(1);
+            }
+
         }
 
     }
@@ -160,6 +262,11 @@ public class AsyncBatchEmitter<BATCH_TYPE> implements BatchEmitter {
 
         final int newSize = size.incrementAndGet();
 
+        if (newSize == 1) {
+            // only the first item added to an empty queue is timed, so the clock is read once per batch, not per item
+            oldestItemTimestamp = System.currentTimeMillis();
+        }
+
         items.add(batchItem);
 
         if (newSize >= maxSize) {
@@ -178,6 +285,46 @@ public class AsyncBatchEmitter<BATCH_TYPE> implements BatchEmitter {
         this.listener = onReadyListener;
     }
 
+    /**
+     * @return number of enqueued items
+     */
+    public final int getQueueSize() {
+        return size.get();
+    }
+
+    @Override
+    public long getBacklogSize() {
+        return size.get();
+    }
+
+    @Override
+    public void completeShutdownWhenEmpty(boolean completeWhenEmpty) {
+        delayedShutdown.completedWhen(() -> completeWhenEmpty && size.get() == 0);
+    }
+
+    /**
+     * @return millis since the oldest enqueued item was added, 0 if there are no enqueued items
+     */
+    public final long getOldestItemAgeMillis() {
+
+        if (size.get() == 0) {
+            return 0;
+        }
+
+        return Math.max(0, System.currentTimeMillis() - oldestItemTimestamp);
+
+    }
+
+    @Override
+    public void register(final MetricsRegistry registry) {
+        metrics.register(registry);
+    }
+
+    @Override
+    public void deregister() {
+        metrics.deregister();
+    }
+
     /* visible for testing */
     EmitterLoop getEmitterLoop() {
         return emitterLoop;
@@ -321,4 +468,41 @@ public class AsyncBatchEmitter<BATCH_TYPE> implements BatchEmitter {
         return state.get() == State.STOPPED;
     }
 
+    final class AsyncBatchEmitterMetrics implements Metrics {
+
+        private final List<MetricsRegistry.Registration> registrations = new ArrayList<>();
+        private final Metric queueSize;
+        private final Metric oldestItemAge;
+        private final Metric emittedOnSize;
+        private final Metric emittedOnInterval;
+        private final Metric emittedOnShutdown;
+        private final Metric itemsPerBatch;
+
+        AsyncBatchEmitterMetrics(final String name, final MetricsFactory factory) {
+            this.queueSize = factory.createMetric(name, "queueSize", AsyncBatchEmitter.this::getQueueSize);
+            this.oldestItemAge = factory.createMetric(name, "oldestItemAgeMs", AsyncBatchEmitter.this::getOldestItemAgeMillis);
+            this.emittedOnSize = factory.createMetric(name, "emittedOnSize");
+            this.emittedOnInterval = factory.createMetric(name, "emittedOnInterval");
+            this.emittedOnShutdown = factory.createMetric(name, "emittedOnShutdown");
+            this.itemsPerBatch = factory.createMetric(name, "itemsPerBatch");
+        }
+
+        @Override
+        public void register(final MetricsRegistry registry) {
+            registrations.add(registry.register(queueSize));
+            registrations.add(registry.register(oldestItemAge));
+            registrations.add(registry.register(emittedOnSize));
+            registrations.add(registry.register(emittedOnInterval));
+            registrations.add(registry.register(emittedOnShutdown));
+            registrations.add(registry.register(itemsPerBatch));
+        }
+
+        @Override
+        public void deregister() {
+            registrations.forEach(MetricsRegistry.Registration::deregister);
+            registrations.clear();
+        }
+
+    }
+
 }
@@ -35,6 +35,14 @@ public interface BatchBuilder<BATCH_TYPE> {
      */
     void add(Object item);
 
+    /**
+     * Allows to record arrival time of the oldest item in current batch. No-op by default.
+     *
+     * @param timestamp epoch millis at which the oldest item of current batch was added
+     */
+    default void oldestItemTimestamp(long timestamp) {
+    }
+
     /**
      * Creates a batch object
      *
@@ -42,4 +42,11 @@ public interface BatchDelivery<T> extends LifeCycle {
      */
     void add(String indexName,  ItemSource log);
 
+    /**
+     * @return number of items added but not delivered yet, -1 if not available
+     */
+    default long getBacklogSize() {
+        return -1;
+    }
+
 }
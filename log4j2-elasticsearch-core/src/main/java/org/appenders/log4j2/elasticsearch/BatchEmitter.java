@@ -34,4 +34,19 @@ public interface BatchEmitter<T> extends LifeCycle {
      */
     void add(T batchItem);
 
+    /**
+     * @return number of items added but not emitted yet, -1 if not available
+     */
+    default long getBacklogSize() {
+        return -1;
+    }
+
+    /**
+     * Allows to end shutdown delay as soon as all enqueued items were emitted.
+     * By default, {@link #stop(long, boolean)} waits for the whole delay.
+     *
+     * @param completeWhenEmpty if true, remaining shutdown delay SHOULD be skipped once no items are enqueued
+     */
+    default void completeShutdownWhenEmpty(boolean completeWhenEmpty) {}
+
 }
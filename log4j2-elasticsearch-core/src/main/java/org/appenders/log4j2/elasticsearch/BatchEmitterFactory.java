@@ -20,6 +20,8 @@ package org.appenders.log4j2.elasticsearch;
  * #L%
  */
 
+import org.appenders.log4j2.elasticsearch.metrics.MetricsFactory;
+
 
 /**
  * SPI for all {@link BatchEmitter} factories.
@@ -69,4 +71,20 @@ public interface BatchEmitterFactory<T extends BatchEmitter> {
      */
     T createInstance(int batchSize, int deliveryInterval, ClientObjectFactory clientObjectFactory, FailoverPolicy failoverPolicy);
 
+    /**
+     * Creates an instance of {@link BatchEmitter} with given metrics. Name and metrics are ignored by default.
+     *
+     * @param batchSize           number of elements in a current batch that should trigger a delivery, regardless of
+     *                            the deliveryInterval
+     * @param deliveryInterval    number of millis between two time-triggered deliveries, regardless of the batchSize
+     * @param clientObjectFactory client-specific objects provider
+     * @param failoverPolicy      sink for failed batch items
+     * @param name                emitter metrics component name
+     * @param metricsFactory      emitter metrics configuration
+     * @return T configured and {@link BatchEmitter}
+     */
+    default T createInstance(int batchSize, int deliveryInterval, ClientObjectFactory clientObjectFactory, FailoverPolicy failoverPolicy, String name, MetricsFactory metricsFactory) {
+        return createInstance(batchSize, deliveryInterval, clientObjectFactory, failoverPolicy);
+    }
+
 }
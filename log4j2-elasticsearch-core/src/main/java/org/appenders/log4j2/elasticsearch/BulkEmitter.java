@@ -137,6 +137,16 @@ public class BulkEmitter<BATCH_TYPE> implements BatchEmitter {
 
     }
 
+    @Override
+    public long getBacklogSize() {
+        return size.get();
+    }
+
+    @Override
+    public void completeShutdownWhenEmpty(boolean completeWhenEmpty) {
+        delayedShutdown.completedWhen(() -> completeWhenEmpty && items.isEmpty());
+    }
+
     private TimerTask createNotificationTask() {
         return new TimerTask() {
             @Override
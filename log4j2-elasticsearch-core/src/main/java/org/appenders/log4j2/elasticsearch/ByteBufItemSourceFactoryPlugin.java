@@ -89,6 +89,9 @@ public class ByteBufItemSourceFactoryPlugin extends PooledItemSourceFactory<Obje
         @PluginElement("metricsFactory")
         private MetricsFactory metricsFactory;
 
+        @PluginBuilderAttribute
+        protected boolean shared;
+
         @Override
         public ByteBufItemSourceFactoryPlugin build() {
 
@@ -121,7 +124,24 @@ public class ByteBufItemSourceFactoryPlugin extends PooledItemSourceFactory<Obje
                 this.resizePolicy = resizePolicy;
             }
 
-            return new ByteBufItemSourceFactoryPlugin(configuredItemSourcePool());
+            return new ByteBufItemSourceFactoryPlugin(shared ? sharedItemSourcePool() : configuredItemSourcePool());
+
+        }
+
+        /**
+         * Acquires pool with configured {@code poolName} from {@link SharedResources}. Pool is created with this builder's config if it doesn't exist yet
+         *
+         * @return reference to shared pool
+         */
+        @SuppressWarnings("unchecked")
+        ItemSourcePool<ByteBuf> sharedItemSourcePool() {
+
+            final SharedResources sharedResources = SharedResources.getInstance();
+            final String sharedName = SharedItemSourcePool.sharedName(poolName);
+
+            final ItemSourcePool<ByteBuf> itemSourcePool = sharedResources.acquire(sharedName, ItemSourcePool.class, this::configuredItemSourcePool);
+
+            return new SharedItemSourcePool<>(sharedName, itemSourcePool, sharedResources);
 
         }
 
@@ -206,6 +226,18 @@ public class ByteBufItemSourceFactoryPlugin extends PooledItemSourceFactory<Obje
             return this;
         }
 
+        /**
+         * Default: false
+         *
+         * @param shared if true, pool with the same {@code poolName} will be shared with other {@link ByteBufItemSourceFactoryPlugin}s configured with {@code shared=true}.
+         *               Pool is created with config of the first one
+         * @return this
+         */
+        public Builder withShared(boolean shared) {
+            this.shared = shared;
+            return this;
+        }
+
         /**
          * Default: {@link #createResizePolicy()}
          *
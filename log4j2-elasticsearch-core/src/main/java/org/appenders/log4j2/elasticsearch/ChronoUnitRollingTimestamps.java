@@ -59,6 +59,7 @@ public class ChronoUnitRollingTimestamps implements RollingTimestamps {
 
     private final AtomicReference<ZonedDateTime> next;
     private final ChronoUnit rolloverUnit;
+    private final ZoneId zone;
 
     /**
      * @param initialTimestamp initial timestamp (usually System.currentTimeMillis()) will be truncated to {@code rolloverUnit} and used as {@link #current()} until first {@link #rollover()} call
@@ -91,6 +92,7 @@ public class ChronoUnitRollingTimestamps implements RollingTimestamps {
         final ZonedDateTime next = truncated.plus(1, rolloverUnit);
 
         this.rolloverUnit = rolloverUnit;
+        this.zone = zone;
         this.currentMillis = truncated.toInstant().toEpochMilli();
         this.nextMillis = next.toInstant().toEpochMilli();
         this.next = new AtomicReference<>(next);
@@ -126,4 +128,27 @@ public class ChronoUnitRollingTimestamps implements RollingTimestamps {
 
     }
 
+    /**
+     * Thread-safe. Doesn't change the state of this instance
+     *
+     * @param millis any timestamp
+     * @return given timestamp truncated to {@code rolloverUnit}
+     */
+    @Override
+    public final long windowStart(final long millis) {
+        final ZonedDateTime dateTime = ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+        return RolloverUtil.truncate(dateTime, rolloverUnit).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Thread-safe. Doesn't change the state of this instance
+     *
+     * @param windowStart result of {@link #windowStart(long)}
+     * @return given timestamp plus 1 {@code rolloverUnit}
+     */
+    @Override
+    public final long windowEnd(final long windowStart) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(windowStart), zone).plus(1, rolloverUnit).toInstant().toEpochMilli();
+    }
+
 }
@@ -54,6 +54,44 @@ public interface ClientObjectFactory<CLIENT_TYPE, BATCH_TYPE> extends LifeCycle,
     @Deprecated
     default void addOperation(Operation operation) {}
 
+    /**
+     * Allows to add setup operation created from given {@link OpSource}. Implementations MAY execute it asynchronously.
+     * <p>
+     * By default, operation is added with {@link #addOperation(Operation)}
+     *
+     * @param opSource operation definition
+     * @param operation operation created from given {@code opSource}
+     */
+    @SuppressWarnings("deprecation")
+    default void addSetupOperation(OpSource opSource, Operation operation) {
+        addOperation(operation);
+    }
+
+    /**
+     * Allows to wait for batches sent by this factory on shutdown instead of a fixed delay.
+     *
+     * @return number of batches sent but not completed yet, -1 if not tracked by this factory
+     */
+    default int getInFlightCount() {
+        return -1;
+    }
+
+    /**
+     * Allows to include items that left the batch emitter, but were not delivered yet, in {@link BatchDelivery#getBacklogSize()}.
+     *
+     * @return number of items in batches sent but not completed yet, 0 if not tracked by this factory
+     */
+    default long getInFlightItemCount() {
+        return 0;
+    }
+
+    /**
+     * Allows to get notified about completed batches. Only one listener is supported, given listener replaces the previous one.
+     *
+     * @param listener task to run each time a batch sent by this factory is completed
+     */
+    default void onBatchCompleted(Runnable listener) {}
+
     /**
      * MUST return an instance of {@link OperationFactory}
      *
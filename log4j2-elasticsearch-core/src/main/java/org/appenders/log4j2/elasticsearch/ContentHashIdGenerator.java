@@ -0,0 +1,164 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Generates document ids from 128-bit MurmurHash3 (x64 variant) of serialized item.
+ * Hash is computed over readable bytes of {@code io.netty.buffer.ByteBuf} or UTF-8 bytes of {@code java.lang.String}
+ * and encoded as 22 characters of URL-safe Base64.
+ * <p>Identical documents get identical ids, so each of them will be indexed only once.
+ */
+public class ContentHashIdGenerator implements IdGenerator {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final long seed;
+
+    public ContentHashIdGenerator() {
+        this(0);
+    }
+
+    /**
+     * @param seed hash seed
+     */
+    public ContentHashIdGenerator(final long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public String generate(final ItemSource itemSource) {
+
+        final Object source = itemSource.getSource();
+
+        if (source instanceof ByteBuf) {
+            final ByteBuf byteBuf = (ByteBuf) source;
+            return hash(byteBuf, byteBuf.readerIndex(), byteBuf.readableBytes());
+        }
+
+        if (source instanceof String) {
+            final byte[] bytes = ((String) source).getBytes(StandardCharsets.UTF_8);
+            return hash(Unpooled.wrappedBuffer(bytes), 0, bytes.length);
+        }
+
+        throw new IllegalArgumentException("Unsupported source type: " + (source == null ? null : source.getClass().getName()));
+
+    }
+
+    /**
+     * Doesn't modify reader or writer index of given buffer
+     *
+     * @param byteBuf bytes to hash
+     * @param offset first byte index
+     * @param length number of bytes to hash
+     * @return URL-safe Base64 encoded 128-bit hash
+     */
+    final String hash(final ByteBuf byteBuf, final int offset, final int length) {
+
+        long h1 = seed;
+        long h2 = seed;
+
+        final int blocks = length >>> 4;
+        int index = offset;
+
+        for (int i = 0; i < blocks; i++) {
+
+            long k1 = byteBuf.getLongLE(index);
+            long k2 = byteBuf.getLongLE(index + 8);
+            index += 16;
+
+            k1 *= C1; k1 = Long.rotateLeft(k1, 31); k1 *= C2; h1 ^= k1;
+            h1 = Long.rotateLeft(h1, 27); h1 += h2; h1 = h1 * 5 + 0x52dce729;
+
+            k2 *= C2; k2 = Long.rotateLeft(k2, 33); k2 *= C1; h2 ^= k2;
+            h2 = Long.rotateLeft(h2, 31); h2 += h1; h2 = h2 * 5 + 0x38495ab5;
+
+        }
+
+        long k1 = 0;
+        long k2 = 0;
+
+        switch (length & 15) {
+            case 15: k2 ^= ((long) byteBuf.getUnsignedByte(index + 14)) << 48;
+            case 14: k2 ^= ((long) byteBuf.getUnsignedByte(index + 13)) << 40;
+            case 13: k2 ^= ((long) byteBuf.getUnsignedByte(index + 12)) << 32;
+            case 12: k2 ^= ((long) byteBuf.getUnsignedByte(index + 11)) << 24;
+            case 11: k2 ^= ((long) byteBuf.getUnsignedByte(index + 10)) << 16;
+            case 10: k2 ^= ((long) byteBuf.getUnsignedByte(index + 9)) << 8;
+            case 9: k2 ^= byteBuf.getUnsignedByte(index + 8);
+                k2 *= C2; k2 = Long.rotateLeft(k2, 33); k2 *= C1; h2 ^= k2;
+            case 8: k1 ^= ((long) byteBuf.getUnsignedByte(index + 7)) << 56;
+            case 7: k1 ^= ((long) byteBuf.getUnsignedByte(index + 6)) << 48;
+            case 6: k1 ^= ((long) byteBuf.getUnsignedByte(index + 5)) << 40;
+            case 5: k1 ^= ((long) byteBuf.getUnsignedByte(index + 4)) << 32;
+            case 4: k1 ^= ((long) byteBuf.getUnsignedByte(index + 3)) << 24;
+            case 3: k1 ^= ((long) byteBuf.getUnsignedByte(index + 2)) << 16;
+            case 2: k1 ^= ((long) byteBuf.getUnsignedByte(index + 1)) << 8;
+            case 1: k1 ^= byteBuf.getUnsignedByte(index);
+                k1 *= C1; k1 = Long.rotateLeft(k1, 31); k1 *= C2; h1 ^= k1;
+            default:
+                break;
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+
+        h1 += h2;
+        h2 += h1;
+
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+
+        h1 += h2;
+        h2 += h1;
+
+        final byte[] bytes = new byte[16];
+        putLong(bytes, 0, h1);
+        putLong(bytes, 8, h2);
+
+        return ENCODER.encodeToString(bytes);
+
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private static void putLong(final byte[] bytes, final int offset, final long value) {
+        for (int i = 0; i < 8; i++) {
+            bytes[offset + i] = (byte) (value >>> (i << 3));
+        }
+    }
+
+}
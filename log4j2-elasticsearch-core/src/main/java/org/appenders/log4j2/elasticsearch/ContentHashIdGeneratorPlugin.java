@@ -0,0 +1,68 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
+
+/**
+ * {@inheritDoc}
+ *
+ * <p>Log4j2 Core Plugin. See <a href="https://logging.apache.org/log4j/2.x/manual/plugins.html">Log4j2 Plugins docs</a>
+ */
+@Plugin(name = ContentHashIdGeneratorPlugin.PLUGIN_NAME, category = Node.CATEGORY, elementType = IdGenerator.ELEMENT_TYPE, printObject = true)
+public class ContentHashIdGeneratorPlugin extends ContentHashIdGenerator {
+
+    public static final String PLUGIN_NAME = "ContentHashId";
+
+    protected ContentHashIdGeneratorPlugin(final long seed) {
+        super(seed);
+    }
+
+    @PluginBuilderFactory
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder implements org.apache.logging.log4j.core.util.Builder<ContentHashIdGeneratorPlugin> {
+
+        @PluginBuilderAttribute
+        protected long seed;
+
+        @Override
+        public ContentHashIdGeneratorPlugin build() {
+            return new ContentHashIdGeneratorPlugin(seed);
+        }
+
+        /**
+         * @param seed hash seed. Changing the seed changes ids of all documents
+         * @return this
+         */
+        public Builder withSeed(final long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+    }
+
+}
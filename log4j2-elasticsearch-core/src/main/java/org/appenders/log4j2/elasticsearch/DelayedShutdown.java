@@ -20,6 +20,7 @@ package org.appenders.log4j2.elasticsearch;
  * #L%
  */
 
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 
 import static org.appenders.core.logging.InternalLogging.getLogger;
@@ -42,6 +43,9 @@ import static org.appenders.core.logging.InternalLogging.getLogger;
  * <p>If {@link #onStart} takes more than {@link #delay}, it will continue until completion.
  * In this case {@link #onDecrement(Consumer)} will never be executed
  * and shutdown will proceed to {@link #afterDelay(Runnable)} immediately
+ * <p>If {@link #completedWhen(BooleanSupplier)} condition is met, remaining delay is skipped
+ * and shutdown will proceed to {@link #afterDelay(Runnable)} immediately. {@link #signal()} can be used to re-check
+ * the condition without waiting for next {@link #decrementInMillis}
  * 
  */
 public class DelayedShutdown extends Thread {
@@ -58,6 +62,9 @@ public class DelayedShutdown extends Thread {
     private Consumer<Long> onDecrement = remaining -> {};
     private Runnable afterDelay = () -> {};
     private Consumer<Exception> onError = exception -> getLogger().warn("Shutdown interrupted: {}", exception.getMessage());
+    private volatile BooleanSupplier completed = () -> false;
+
+    private final Object monitor = new Object();
 
     /**
      * @param onStart Task to execute immediately after start
@@ -123,6 +130,27 @@ public class DelayedShutdown extends Thread {
         return this;
     }
 
+    /**
+     * Allows to end the delay early. Condition is checked after {@link #onStart}, after each {@link #decrementInMillis}
+     * and on each {@link #signal()}
+     *
+     * @param completed condition that, once met, skips remaining delay
+     * @return this
+     */
+    public DelayedShutdown completedWhen(BooleanSupplier completed) {
+        this.completed = completed;
+        return this;
+    }
+
+    /**
+     * Wakes up waiting shutdown to check {@link #completedWhen(BooleanSupplier)} condition
+     */
+    public void signal() {
+        synchronized (monitor) {
+            monitor.notifyAll();
+        }
+    }
+
     /**
      * Starts synchronous execution
      */
@@ -138,10 +166,10 @@ public class DelayedShutdown extends Thread {
             long took = System.currentTimeMillis() - start;
             long remaining = delay - took;
 
-            while (remaining > 0) {
+            while (remaining > 0 && !completed.getAsBoolean()) {
                 onDecrement.accept(remaining);
-                sleep(decrementInMillis);
-                remaining -= decrementInMillis;
+                await(Math.min(decrementInMillis, remaining));
+                remaining = delay - (System.currentTimeMillis() - start);
             }
 
         } catch (InterruptedException e) {
@@ -155,6 +183,15 @@ public class DelayedShutdown extends Thread {
 
     }
 
+    private void await(long millis) throws InterruptedException {
+        synchronized (monitor) {
+            // condition MUST be checked under the lock, otherwise signal may be missed
+            if (!completed.getAsBoolean()) {
+                monitor.wait(millis);
+            }
+        }
+    }
+
     /**
      * Allows to start execution in background
      *
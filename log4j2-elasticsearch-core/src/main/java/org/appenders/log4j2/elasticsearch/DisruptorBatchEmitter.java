@@ -0,0 +1,515 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.LifecycleAware;
+import com.lmax.disruptor.LiteBlockingWaitStrategy;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.appenders.log4j2.elasticsearch.jfr.FlightRecorderEvents;
+import org.appenders.log4j2.elasticsearch.metrics.DefaultMetricsFactory;
+import org.appenders.log4j2.elasticsearch.metrics.Measured;
+import org.appenders.log4j2.elasticsearch.metrics.Metric;
+import org.appenders.log4j2.elasticsearch.metrics.MetricConfig;
+import org.appenders.log4j2.elasticsearch.metrics.Metrics;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsFactory;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import static org.appenders.core.logging.InternalLogging.getLogger;
+
+/**
+ * Size- and time-based batch scheduler backed by <a href="https://github.com/LMAX-Exchange/disruptor">LMAX Disruptor</a> ring buffer.
+ * <p>
+ * Batch items are published to preallocated ring buffer slots. Single consumer thread accumulates them in current batch and delivers the batch to provided listener:
+ * <ul>
+ *     <li>when batch reaches {@code batchSize}</li>
+ *     <li>at the end of each available sequence (Disruptor {@code endOfBatch}), if {@code deliveryInterval} elapsed since last delivery</li>
+ *     <li>every {@code deliveryInterval}, if at least one item is waiting (interval marker published by scheduler thread)</li>
+ * </ul>
+ * Memory usage is bounded: {@link #add(Object)} blocks if ring buffer is full.
+ * <p>
+ * Ring buffer size and wait strategy can be configured with {@code -Dappenders.DisruptorBatchEmitter.ringBufferSize} (default: 65536, MUST be a power of 2)
+ * and {@code -Dappenders.DisruptorBatchEmitter.waitStrategy} (default: {@code blocking}). See {@link #createWaitStrategy(String)}.
+ * <p>
+ * Shutdown waits for published items and last batch delivery no longer than {@code stop(timeout)}, but at least {@code -Dappenders.DisruptorBatchEmitter.shutdownGraceMillis} (default: 1000).
+ *
+ * @param <BATCH_TYPE> type of processed batches
+ */
+public class DisruptorBatchEmitter<BATCH_TYPE> implements BatchEmitter, Measured {
+
+    public static final int DEFAULT_RING_BUFFER_SIZE = Integer.parseInt(
+            System.getProperty("appenders." + DisruptorBatchEmitter.class.getSimpleName() + ".ringBufferSize", "65536"));
+    public static final String DEFAULT_WAIT_STRATEGY = System.getProperty(
+            "appenders." + DisruptorBatchEmitter.class.getSimpleName() + ".waitStrategy", "blocking");
+    public static final long DEFAULT_SHUTDOWN_GRACE_MILLIS = Long.parseLong(
+            System.getProperty("appenders." + DisruptorBatchEmitter.class.getSimpleName() + ".shutdownGraceMillis", "1000"));
+
+    static final String THREAD_NAME = DisruptorBatchEmitter.class.getSimpleName();
+
+    private static final Object INTERVAL_MARKER = new Object();
+    private static final EventTranslatorOneArg<Slot, Object> TRANSLATOR = (slot, sequence, item) -> slot.item = item;
+
+    private final int maxSize;
+    private final int deliveryInterval;
+    private final BatchOperations<BATCH_TYPE> batchOperations;
+    private Function<BATCH_TYPE, Boolean> listener;
+
+    private final Disruptor<Slot> disruptor;
+    private final RingBuffer<Slot> ringBuffer;
+    private final ScheduledExecutorService executor;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.STOPPED);
+    private final DelayedShutdown delayedShutdown = new DelayedShutdown(this::doStop);
+    private final CountDownLatch lastBatchDelivered = new CountDownLatch(1);
+    private volatile long shutdownDeadline;
+
+    private final DisruptorBatchEmitterMetrics metrics;
+    private volatile long publishedItemTimestamp;
+    private volatile long batchOldestItemTimestamp;
+
+    /**
+     * @param atSize number of items that triggers delivery
+     * @param intervalInMillis millis between two time-triggered deliveries
+     * @param batchOperations batch producer
+     */
+    public DisruptorBatchEmitter(final int atSize, final int intervalInMillis, final BatchOperations<BATCH_TYPE> batchOperations) {
+        this(atSize, intervalInMillis, batchOperations, DEFAULT_RING_BUFFER_SIZE, createWaitStrategy(DEFAULT_WAIT_STRATEGY));
+    }
+
+    /**
+     * @param name metrics component name, SHOULD be unique across all configured emitters
+     * @param atSize number of items that triggers delivery
+     * @param intervalInMillis millis between two time-triggered deliveries
+     * @param batchOperations batch producer
+     * @param metricsFactory configured metrics. See {@link #metricConfigs(boolean)} for supported metrics
+     */
+    public DisruptorBatchEmitter(final String name, final int atSize, final int intervalInMillis, final BatchOperations<BATCH_TYPE> batchOperations, final MetricsFactory metricsFactory) {
+        this(name, atSize, intervalInMillis, batchOperations, DEFAULT_RING_BUFFER_SIZE, createWaitStrategy(DEFAULT_WAIT_STRATEGY), metricsFactory);
+    }
+
+    /**
+     * @param atSize number of items that triggers delivery
+     * @param intervalInMillis millis between two time-triggered deliveries
+     * @param batchOperations batch producer
+     * @param ringBufferSize number of preallocated slots, MUST be a power of 2
+     * @param waitStrategy consumer thread wait strategy
+     */
+    public DisruptorBatchEmitter(
+            final int atSize,
+            final int intervalInMillis,
+            final BatchOperations<BATCH_TYPE> batchOperations,
+            final int ringBufferSize,
+            final WaitStrategy waitStrategy) {
+        this(DisruptorBatchEmitter.class.getSimpleName(), atSize, intervalInMillis, batchOperations, ringBufferSize, waitStrategy, new DefaultMetricsFactory(metricConfigs(false)));
+    }
+
+    /**
+     * @param name metrics component name, SHOULD be unique across all configured emitters
+     * @param atSize number of items that triggers delivery
+     * @param intervalInMillis millis between two time-triggered deliveries
+     * @param batchOperations batch producer
+     * @param ringBufferSize number of preallocated slots, MUST be a power of 2
+     * @param waitStrategy consumer thread wait strategy
+     * @param metricsFactory configured metrics. See {@link #metricConfigs(boolean)} for supported metrics
+     */
+    public DisruptorBatchEmitter(
+            final String name,
+            final int atSize,
+            final int intervalInMillis,
+            final BatchOperations<BATCH_TYPE> batchOperations,
+            final int ringBufferSize,
+            final WaitStrategy waitStrategy,
+            final MetricsFactory metricsFactory) {
+        this.maxSize = atSize;
+        this.deliveryInterval = intervalInMillis;
+        this.batchOperations = batchOperations;
+
+        final ThreadFactory threadFactory = r -> new Thread(r, THREAD_NAME);
+        this.disruptor = new Disruptor<>(Slot::new, ringBufferSize, threadFactory, ProducerType.MULTI, waitStrategy);
+        this.disruptor.setDefaultExceptionHandler(new LoggingExceptionHandler());
+        this.disruptor.handleEventsWith(new BatchingHandler());
+        this.ringBuffer = disruptor.getRingBuffer();
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, THREAD_NAME + "Interval"));
+
+        this.metrics = new DisruptorBatchEmitterMetrics(name, metricsFactory);
+    }
+
+    /**
+     * Same metrics as {@link AsyncBatchEmitter#metricConfigs(boolean)}, so both emitters can be configured the same way.
+     * {@code queueSize} includes items published to the ring buffer but not processed yet.
+     *
+     * @param enabled initial state of all metrics
+     * @return all metrics supported by this component
+     */
+    public static List<MetricConfig> metricConfigs(final boolean enabled) {
+        return AsyncBatchEmitter.metricConfigs(enabled);
+    }
+
+    /**
+     * @param name wait strategy name
+     * @return {@code com.lmax.disruptor.WaitStrategy} for given name:
+     * <ul>
+     *     <li>{@code blocking} - {@code BlockingWaitStrategy}, lowest CPU usage</li>
+     *     <li>{@code liteBlocking} - {@code LiteBlockingWaitStrategy}</li>
+     *     <li>{@code sleeping} - {@code SleepingWaitStrategy}</li>
+     *     <li>{@code yielding} - {@code YieldingWaitStrategy}</li>
+     *     <li>{@code busySpin} - {@code BusySpinWaitStrategy}, lowest latency, occupies one core</li>
+     * </ul>
+     * @throws IllegalArgumentException if given name is not supported
+     */
+    public static WaitStrategy createWaitStrategy(final String name) {
+        switch (name) {
+            case "blocking":
+                return new BlockingWaitStrategy();
+            case "liteBlocking":
+                return new LiteBlockingWaitStrategy();
+            case "sleeping":
+                return new SleepingWaitStrategy();
+            case "yielding":
+                return new YieldingWaitStrategy();
+            case "busySpin":
+                return new BusySpinWaitStrategy();
+            default:
+                throw new IllegalArgumentException("Unsupported waitStrategy: " + name + ". Use one of: blocking, liteBlocking, sleeping, yielding, busySpin");
+        }
+    }
+
+    /**
+     * Publishes given item to the ring buffer. Blocks if ring buffer is full.
+     *
+     * @param batchItem batch item to be processed
+     */
+    @Override
+    public void add(final Object batchItem) {
+
+        if (ringBuffer.remainingCapacity() == ringBuffer.getBufferSize()) {
+            // only items added to an empty ring buffer are timed, so the clock is not read per item
+            publishedItemTimestamp = System.currentTimeMillis();
+        }
+
+        ringBuffer.publishEvent(TRANSLATOR, batchItem);
+
+    }
+
+    /**
+     * Sets new batch listener. Currently only one listener may be set.
+     *
+     * @param onReadyListener batch-to-client handler
+     */
+    public void addListener(final Function<BATCH_TYPE, Boolean> onReadyListener) {
+        this.listener = onReadyListener;
+    }
+
+    /**
+     * @return number of published items not processed yet
+     */
+    public final long getQueueSize() {
+        return ringBuffer.getBufferSize() - ringBuffer.remainingCapacity();
+    }
+
+    @Override
+    public long getBacklogSize() {
+        return getQueueSize();
+    }
+
+    /**
+     * @return millis since the oldest published or batched item was added, 0 if there are no such items
+     */
+    public final long getOldestItemAgeMillis() {
+
+        final long batchTimestamp = batchOldestItemTimestamp;
+        final long timestamp = batchTimestamp > 0 ? batchTimestamp : getQueueSize() > 0 ? publishedItemTimestamp : 0;
+
+        if (timestamp == 0) {
+            return 0;
+        }
+
+        return Math.max(0, System.currentTimeMillis() - timestamp);
+
+    }
+
+    @Override
+    public void completeShutdownWhenEmpty(final boolean completeWhenEmpty) {
+        delayedShutdown.completedWhen(() -> completeWhenEmpty && getQueueSize() == 0);
+    }
+
+    private void publishIntervalMarker() {
+        // skip if full - ring buffer will be drained by size-triggered deliveries anyway
+        ringBuffer.tryPublishEvent(TRANSLATOR, INTERVAL_MARKER);
+    }
+
+    private static final class Slot {
+        private Object item;
+    }
+
+    private final class BatchingHandler implements EventHandler<Slot>, LifecycleAware {
+
+        private BatchBuilder<BATCH_TYPE> batch;
+        private int size;
+        private long oldestItemTimestamp;
+        private long lastEmittedTimestamp = System.currentTimeMillis();
+
+        @Override
+        public void onEvent(final Slot slot, final long sequence, final boolean endOfBatch) {
+
+            final Object item = slot.item;
+            slot.item = null;
+
+            if (item == INTERVAL_MARKER) {
+                if (size > 0) {
+                    emit();
+                    metrics.emittedOnInterval.store(1);
+                }
+                return;
+            }
+
+            if (batch == null) {
+                batch = batchOperations.createBatchBuilder();
+                oldestItemTimestamp = Math.min(System.currentTimeMillis(), publishedItemTimestamp);
+                batchOldestItemTimestamp = oldestItemTimestamp;
+            }
+
+            batch.add(item);
+
+            if (++size >= maxSize) {
+                emit();
+                metrics.emittedOnSize.store(1);
+            } else if (endOfBatch && System.currentTimeMillis() - lastEmittedTimestamp >= deliveryInterval) {
+                emit();
+                metrics.emittedOnInterval.store(1);
+            }
+
+        }
+
+        private void emit() {
+
+            final BatchBuilder<BATCH_TYPE> current = batch;
+            final int currentSize = size;
+
+            batch = null;
+            size = 0;
+            lastEmittedTimestamp = System.currentTimeMillis();
+            batchOldestItemTimestamp = 0;
+
+            if (getQueueSize() > 0) {
+                // items left behind were published before this emission; their exact arrival times are not tracked
+                publishedItemTimestamp = lastEmittedTimestamp;
+            }
+
+            current.oldestItemTimestamp(oldestItemTimestamp);
+
+            metrics.itemsPerBatch.store(currentSize);
+
+            FlightRecorderEvents.batchEmitted(currentSize, lastEmittedTimestamp - oldestItemTimestamp);
+
+            listener.apply(current.build());
+
+        }
+
+        @Override
+        public void onStart() {
+            // noop
+        }
+
+        @Override
+        public void onShutdown() {
+            try {
+                if (size > 0) {
+                    emit();
+                    metrics.emittedOnShutdown.store(1);
+                }
+            } finally {
+                lastBatchDelivered.countDown();
+            }
+        }
+
+    }
+
+    private static final class LoggingExceptionHandler implements ExceptionHandler<Slot> {
+
+        @Override
+        public void handleEventException(final Throwable ex, final long sequence, final Slot event) {
+            getLogger().error("{}: Batch processing failed: {}", THREAD_NAME, ex.getMessage());
+        }
+
+        @Override
+        public void handleOnStartException(final Throwable ex) {
+            getLogger().error("{}: Start failed: {}", THREAD_NAME, ex.getMessage());
+        }
+
+        @Override
+        public void handleOnShutdownException(final Throwable ex) {
+            getLogger().error("{}: Last batch delivery failed: {}", THREAD_NAME, ex.getMessage());
+        }
+
+    }
+
+    // ==========
+    // LIFECYCLE
+    // ==========
+
+    @Override
+    public void start() {
+
+        if (!isStarted()) {
+
+            disruptor.start();
+            executor.scheduleAtFixedRate(this::publishIntervalMarker, deliveryInterval, deliveryInterval, TimeUnit.MILLISECONDS);
+
+            state.set(State.STARTED);
+
+        }
+
+    }
+
+    @Override
+    public void stop() {
+        stop(0, false);
+    }
+
+    @Override
+    public LifeCycle stop(final long timeout, final boolean runInBackground) {
+        shutdownDeadline = System.currentTimeMillis() + Math.max(timeout, DEFAULT_SHUTDOWN_GRACE_MILLIS);
+        delayedShutdown.delay(timeout).start(runInBackground);
+        return this;
+    }
+
+    private void doStop() {
+        if (!isStopped()) {
+            getLogger().debug("Stopping {}. Flushing last batches if possible.", getClass().getSimpleName());
+
+            executor.shutdown();
+
+            // Disruptor.shutdown() ignores backlog of consumer that didn't start running yet, so let's wait for it here
+            while (getQueueSize() > 0 && remainingShutdownMillis() > 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+
+            // last batch is delivered by BatchingHandler.onShutdown()
+            try {
+                disruptor.shutdown(remainingShutdownMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                getLogger().warn("{}: Shutdown timed out. {} items not delivered", getClass().getSimpleName(), getQueueSize());
+                disruptor.halt();
+            }
+            awaitLastBatch();
+
+            state.set(State.STOPPED);
+
+            getLogger().debug("{} stopped", getClass().getSimpleName());
+        }
+    }
+
+    private long remainingShutdownMillis() {
+        return Math.max(0, shutdownDeadline - System.currentTimeMillis());
+    }
+
+    private void awaitLastBatch() {
+        try {
+            if (!lastBatchDelivered.await(remainingShutdownMillis(), TimeUnit.MILLISECONDS)) {
+                getLogger().warn("{}: Last batch delivery timed out", getClass().getSimpleName());
+            }
+        } catch (InterruptedException e) {
+            getLogger().warn("{}: Interrupted while waiting for last batch", getClass().getSimpleName());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isStarted() {
+        return state.get() == State.STARTED;
+    }
+
+    @Override
+    public boolean isStopped() {
+        return state.get() == State.STOPPED;
+    }
+
+    @Override
+    public void register(final MetricsRegistry registry) {
+        metrics.register(registry);
+    }
+
+    @Override
+    public void deregister() {
+        metrics.deregister();
+    }
+
+    final class DisruptorBatchEmitterMetrics implements Metrics {
+
+        private final List<MetricsRegistry.Registration> registrations = new ArrayList<>();
+        private final Metric queueSize;
+        private final Metric oldestItemAge;
+        private final Metric emittedOnSize;
+        private final Metric emittedOnInterval;
+        private final Metric emittedOnShutdown;
+        private final Metric itemsPerBatch;
+
+        DisruptorBatchEmitterMetrics(final String name, final MetricsFactory factory) {
+            this.queueSize = factory.createMetric(name, "queueSize", DisruptorBatchEmitter.this::getQueueSize);
+            this.oldestItemAge = factory.createMetric(name, "oldestItemAgeMs", DisruptorBatchEmitter.this::getOldestItemAgeMillis);
+            this.emittedOnSize = factory.createMetric(name, "emittedOnSize");
+            this.emittedOnInterval = factory.createMetric(name, "emittedOnInterval");
+            this.emittedOnShutdown = factory.createMetric(name, "emittedOnShutdown");
+            this.itemsPerBatch = factory.createMetric(name, "itemsPerBatch");
+        }
+
+        @Override
+        public void register(final MetricsRegistry registry) {
+            registrations.add(registry.register(queueSize));
+            registrations.add(registry.register(oldestItemAge));
+            registrations.add(registry.register(emittedOnSize));
+            registrations.add(registry.register(emittedOnInterval));
+            registrations.add(registry.register(emittedOnShutdown));
+            registrations.add(registry.register(itemsPerBatch));
+        }
+
+        @Override
+        public void deregister() {
+            registrations.forEach(MetricsRegistry.Registration::deregister);
+            registrations.clear();
+        }
+
+    }
+
+}
@@ -60,15 +60,44 @@ public class ElasticsearchAppender extends AbstractAppender {
     private final IndexNameFormatter indexNameFormatter;
     private final ItemAppender itemAppender;
     private final Layout layout;
+    private final BatchDelivery batchDelivery;
+    private final LoadSheddingPolicy loadSheddingPolicy;
 
     protected ElasticsearchAppender(String name, Filter filter, Layout layout,
             boolean ignoreExceptions, BatchDelivery batchDelivery, boolean messageOnly, IndexNameFormatter indexNameFormatter) {
         super(name, filter, layout, ignoreExceptions, Property.EMPTY_ARRAY);
         this.indexNameFormatter = indexNameFormatter;
         this.layout = layout;
+        this.batchDelivery = batchDelivery;
+        this.loadSheddingPolicy = LoadSheddingPolicy.NOOP;
         this.itemAppender = createItemAppenderFactory().createInstance(messageOnly, layout, batchDelivery);
     }
 
+    /**
+     * Allows to configure optional event processing stages:
+     * <ul>
+     * <li>{@link Builder#withAggregationWindowMillis(long)} enables {@link AggregatingItemAppender}
+     * <li>{@link Builder#withLoadSheddingPolicy(LoadSheddingPolicy)} decides whether incoming events should be dropped before serialization. Evaluated only for events forwarded by {@link AggregatingItemAppender}, if configured
+     * <li>{@link Builder#withSerializerThreads(int)} enables {@link ParallelItemAppender}
+     * </ul>
+     *
+     * @param builder validated appender configuration
+     */
+    protected ElasticsearchAppender(Builder builder) {
+        super(builder.name, builder.filter, builder.layout, builder.ignoreExceptions, Property.EMPTY_ARRAY);
+        this.indexNameFormatter = builder.indexNameFormatter;
+        this.layout = builder.layout;
+        this.batchDelivery = builder.batchDelivery;
+        this.loadSheddingPolicy = builder.loadSheddingPolicy;
+
+        Measured.of(batchDelivery).register(Measured.of(loadSheddingPolicy));
+
+        final ItemAppender itemAppender = createItemAppenderFactory().createInstance(builder.messageOnly, layout, batchDelivery);
+        final ItemAppender serializingAppender = builder.serializerThreads > 0 ? new ParallelItemAppender(itemAppender, builder.serializerThreads, builder.serializerQueueSize) : itemAppender;
+        final ItemAppender sheddingAppender = loadSheddingPolicy != LoadSheddingPolicy.NOOP ? new LoadSheddingItemAppender(serializingAppender, loadSheddingPolicy, batchDelivery) : serializingAppender;
+        this.itemAppender = builder.aggregationWindowMillis > 0 ? new AggregatingItemAppender(sheddingAppender, builder.aggregationWindowMillis, builder.aggregationMaxKeys) : sheddingAppender;
+    }
+
     /* extension point */
     protected ItemAppenderFactory createItemAppenderFactory() {
         return new ItemAppenderFactory();
@@ -91,6 +120,10 @@ public class ElasticsearchAppender extends AbstractAppender {
          */
         public static final IndexNameFormatter DEFAULT_INDEX_NAME_FORMATTER = IndexNamePlugin.newBuilder().withIndexName("log4j2").build();
 
+        public static final int DEFAULT_SERIALIZER_QUEUE_SIZE = 16384;
+
+        public static final int DEFAULT_AGGREGATION_MAX_KEYS = 1024;
+
         @PluginBuilderAttribute
         @Required(message = "No name provided for Elasticsearch appender")
         private String name;
@@ -114,6 +147,21 @@ public class ElasticsearchAppender extends AbstractAppender {
         @PluginElement("indexNameFormatter")
         private IndexNameFormatter indexNameFormatter = DEFAULT_INDEX_NAME_FORMATTER;
 
+        @PluginBuilderAttribute
+        private int serializerThreads;
+
+        @PluginBuilderAttribute
+        private int serializerQueueSize = DEFAULT_SERIALIZER_QUEUE_SIZE;
+
+        @PluginElement(LoadSheddingPolicy.ELEMENT_TYPE)
+        private LoadSheddingPolicy loadSheddingPolicy = LoadSheddingPolicy.NOOP;
+
+        @PluginBuilderAttribute
+        private long aggregationWindowMillis;
+
+        @PluginBuilderAttribute
+        private int aggregationMaxKeys = DEFAULT_AGGREGATION_MAX_KEYS;
+
         @Override
         public ElasticsearchAppender build() {
             if (name == null) {
@@ -127,7 +175,27 @@ public class ElasticsearchAppender extends AbstractAppender {
                 throw new ConfigurationException("No layout provided for Elasticsearch appender");
             }
 
-            return new ElasticsearchAppender(name, filter, layout, ignoreExceptions, batchDelivery, messageOnly, indexNameFormatter);
+            if (serializerThreads < 0) {
+                throw new ConfigurationException("serializerThreads cannot be negative for Elasticsearch appender");
+            }
+
+            if (serializerThreads > 0 && serializerQueueSize <= 0) {
+                throw new ConfigurationException("serializerQueueSize must be higher than 0 for Elasticsearch appender");
+            }
+
+            if (aggregationWindowMillis < 0) {
+                throw new ConfigurationException("aggregationWindowMillis cannot be negative for Elasticsearch appender");
+            }
+
+            if (aggregationWindowMillis > 0 && aggregationMaxKeys <= 0) {
+                throw new ConfigurationException("aggregationMaxKeys must be higher than 0 for Elasticsearch appender");
+            }
+
+            if (loadSheddingPolicy == null) {
+                loadSheddingPolicy = LoadSheddingPolicy.NOOP;
+            }
+
+            return new ElasticsearchAppender(this);
         }
 
         public Builder withName(String name) {
@@ -185,6 +253,63 @@ public class ElasticsearchAppender extends AbstractAppender {
             this.indexNameFormatter = indexNameFormatter;
             return this;
         }
+
+        /**
+         * Default: 0
+         *
+         * @param serializerThreads If greater than 0, events will be serialized by given number of {@link ParallelItemAppender} threads.
+         *                          Otherwise, events will be serialized on the calling thread
+         * @return Builder this
+         */
+        public Builder withSerializerThreads(int serializerThreads) {
+            this.serializerThreads = serializerThreads;
+            return this;
+        }
+
+        /**
+         * Default: {@link #DEFAULT_SERIALIZER_QUEUE_SIZE}
+         *
+         * @param serializerQueueSize Maximum number of events waiting for serializer threads. Events are serialized on the calling thread if exceeded
+         * @return Builder this
+         */
+        public Builder withSerializerQueueSize(int serializerQueueSize) {
+            this.serializerQueueSize = serializerQueueSize;
+            return this;
+        }
+
+        /**
+         * Default: {@link LoadSheddingPolicy#NOOP}
+         *
+         * @param loadSheddingPolicy decides whether incoming events should be dropped before serialization, e.g. {@link LevelAwareLoadSheddingPolicyPlugin}
+         * @return Builder this
+         */
+        public Builder withLoadSheddingPolicy(LoadSheddingPolicy loadSheddingPolicy) {
+            this.loadSheddingPolicy = loadSheddingPolicy;
+            return this;
+        }
+
+        /**
+         * Default: 0
+         *
+         * @param aggregationWindowMillis If greater than 0, repeated events will be collapsed by {@link AggregatingItemAppender} within windows of given length.
+         *                                Otherwise, all events will be serialized
+         * @return Builder this
+         */
+        public Builder withAggregationWindowMillis(long aggregationWindowMillis) {
+            this.aggregationWindowMillis = aggregationWindowMillis;
+            return this;
+        }
+
+        /**
+         * Default: {@link #DEFAULT_AGGREGATION_MAX_KEYS}
+         *
+         * @param aggregationMaxKeys Maximum number of tracked keys. Events with new keys are not collapsed if exceeded
+         * @return Builder this
+         */
+        public Builder withAggregationMaxKeys(int aggregationMaxKeys) {
+            this.aggregationMaxKeys = aggregationMaxKeys;
+            return this;
+        }
     }
 
     // ==========
@@ -247,6 +372,8 @@ public class ElasticsearchAppender extends AbstractAppender {
             ((LifeCycle)getLayout()).stop();
         }
 
+        Measured.of(loadSheddingPolicy).deregister();
+
         setLogger(null);
 
     }
@@ -0,0 +1,110 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.appenders.core.logging.InternalLogging.getLogger;
+
+/**
+ * Stores keys of successfully executed setup operations in a local file, one key per line.
+ * Keys survive restarts, so unchanged operations are executed only once.
+ * <p>
+ * NOTE: Keys include target cluster (see {@link SetupOperationCache#key(OpSource, Collection)}), but file is not aware of cluster state.
+ * If cluster was recreated under the same address, file has to be removed to execute setup operations again.
+ */
+public class FileSetupOperationCache implements SetupOperationCache {
+
+    private final Path path;
+    private final Set<String> keys;
+
+    /**
+     * @param path cache file. Created on first {@link #put(String)} if it doesn't exist
+     */
+    public FileSetupOperationCache(final Path path) {
+        this.path = path;
+        this.keys = Collections.synchronizedSet(load(path));
+    }
+
+    private static Set<String> load(final Path path) {
+
+        final Set<String> keys = new HashSet<>();
+
+        if (!Files.exists(path)) {
+            return keys;
+        }
+
+        try {
+            for (final String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                if (!line.isEmpty()) {
+                    keys.add(line);
+                }
+            }
+        } catch (IOException e) {
+            getLogger().warn("{}: Unable to read {}. All setup operations will be executed. Cause: {}",
+                    FileSetupOperationCache.class.getSimpleName(),
+                    path,
+                    e.getMessage());
+        }
+
+        return keys;
+
+    }
+
+    @Override
+    public boolean contains(final String key) {
+        return keys.contains(key);
+    }
+
+    @Override
+    public synchronized void put(final String key) {
+
+        if (!keys.add(key)) {
+            return;
+        }
+
+        try {
+            final Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.write(path,
+                    Collections.singletonList(key),
+                    StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            getLogger().warn("{}: Unable to write {}. Operation will be executed again on next start. Cause: {}",
+                    FileSetupOperationCache.class.getSimpleName(),
+                    path,
+                    e.getMessage());
+        }
+
+    }
+
+}
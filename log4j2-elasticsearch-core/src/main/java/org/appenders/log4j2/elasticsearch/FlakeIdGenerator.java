@@ -0,0 +1,106 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates time-ordered, unique document ids when item is created - before it's delivered for the first time.
+ * Id consists of 48 bits of timestamp in millis, 16 bits of sequence and 64 bits of node id,
+ * encoded as 22 characters of URL-safe Base64.
+ * <p>Unlike {@link ContentHashIdGenerator}, identical documents get different ids.
+ * Id has to be preserved by failover to make replays idempotent.
+ */
+public class FlakeIdGenerator implements IdGenerator {
+
+    static final int SEQUENCE_BITS = 16;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final AtomicLong last = new AtomicLong();
+    private final long nodeId;
+    private final Clock clock;
+
+    public FlakeIdGenerator() {
+        this(new SecureRandom().nextLong());
+    }
+
+    /**
+     * @param nodeId node id. MUST be unique across all instances writing to the same index
+     */
+    public FlakeIdGenerator(final long nodeId) {
+        this(nodeId, Clock.systemUTC());
+    }
+
+    FlakeIdGenerator(final long nodeId, final Clock clock) {
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    /**
+     * @param itemSource ignored
+     * @return unique id
+     */
+    @Override
+    public String generate(final ItemSource itemSource) {
+
+        final long timeAndSequence = next();
+
+        final byte[] bytes = new byte[16];
+        writeLong(bytes, 0, timeAndSequence);
+        writeLong(bytes, 8, nodeId);
+
+        return ENCODER.encodeToString(bytes);
+
+    }
+
+    /**
+     * Sequence overflow within a single milli borrows from next milli, so returned values never repeat and never go back
+     *
+     * @return timestamp in millis shifted by {@link #SEQUENCE_BITS} with sequence in lower bits
+     */
+    final long next() {
+
+        final long candidate = clock.millis() << SEQUENCE_BITS;
+
+        while (true) {
+
+            final long current = last.get();
+            final long next = candidate > current ? candidate : current + 1;
+
+            if (last.compareAndSet(current, next)) {
+                return next;
+            }
+
+        }
+
+    }
+
+    private static void writeLong(final byte[] bytes, final int offset, final long value) {
+        for (int i = 0; i < 8; i++) {
+            bytes[offset + i] = (byte) (value >>> (56 - (i << 3)));
+        }
+    }
+
+}
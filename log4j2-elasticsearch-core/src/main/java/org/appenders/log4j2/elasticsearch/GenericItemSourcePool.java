@@ -20,6 +20,7 @@ package org.appenders.log4j2.elasticsearch;
  * #L%
  */
 
+import org.appenders.log4j2.elasticsearch.jfr.FlightRecorderEvents;
 import org.appenders.log4j2.elasticsearch.metrics.DefaultMetricsFactory;
 import org.appenders.log4j2.elasticsearch.metrics.Measured;
 import org.appenders.log4j2.elasticsearch.metrics.Metric;
@@ -366,6 +367,8 @@ public class GenericItemSourcePool<T> implements ItemSourcePool<T>, Measured {
     private boolean resize(Consumer<Boolean> callback) {
 
         boolean resized = false;
+        final int oldSize = totalPoolSize.get();
+        final long start = System.nanoTime();
 
         try {
             metrics.resizeAttempt();
@@ -373,6 +376,7 @@ public class GenericItemSourcePool<T> implements ItemSourcePool<T>, Measured {
 
         } finally {
             callback.accept(resized);
+            FlightRecorderEvents.poolResized(poolName, oldSize, totalPoolSize.get(), System.nanoTime() - start);
         }
 
         return resized;
@@ -0,0 +1,38 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Implementation of this interface SHOULD produce document ids for batch items.
+ * <p>Deterministic implementations MUST return the same id for the same item,
+ * so that repeated deliveries of given item do not create duplicates.
+ */
+public interface IdGenerator {
+
+    String ELEMENT_TYPE = "idGenerator";
+
+    /**
+     * @param itemSource serialized batch item
+     * @return document id, null if id should be assigned by Elasticsearch
+     */
+    String generate(ItemSource itemSource);
+
+}
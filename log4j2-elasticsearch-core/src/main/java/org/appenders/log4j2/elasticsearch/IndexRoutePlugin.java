@@ -0,0 +1,183 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.ConfigurationException;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
+
+/**
+ * {@link RoutingIndexNamePlugin} route. Matches {@code LogEvent} if all configured conditions are met:
+ * <ul>
+ *     <li>{@code level} - event level is the same or more specific, e.g. {@code WARN} matches {@code WARN}, {@code ERROR} and {@code FATAL}</li>
+ *     <li>{@code loggerPrefix} - logger name starts with given prefix</li>
+ *     <li>{@code marker} - event marker is or has given parent marker</li>
+ *     <li>{@code mdcKey} - event context data contains given key; if {@code mdcValue} is configured, value must be equal as well</li>
+ * </ul>
+ */
+@Plugin(name = IndexRoutePlugin.PLUGIN_NAME, category = Node.CATEGORY, elementType = IndexRoutePlugin.ELEMENT_TYPE, printObject = true)
+public class IndexRoutePlugin {
+
+    static final String PLUGIN_NAME = "IndexRoute";
+    static final String ELEMENT_TYPE = "indexRoute";
+
+    private final String indexName;
+    private final Level level;
+    private final String loggerPrefix;
+    private final String marker;
+    private final String mdcKey;
+    private final String mdcValue;
+
+    protected IndexRoutePlugin(final Builder builder) {
+        this.indexName = builder.indexName;
+        this.level = builder.level == null ? null : Level.toLevel(builder.level);
+        this.loggerPrefix = builder.loggerPrefix;
+        this.marker = builder.marker;
+        this.mdcKey = builder.mdcKey;
+        this.mdcValue = builder.mdcValue;
+    }
+
+    /**
+     * @return index or data stream name of this route
+     */
+    public final String getIndexName() {
+        return indexName;
+    }
+
+    /**
+     * @param event event to check
+     * @return true, if all configured conditions are met, false otherwise
+     */
+    public final boolean matches(final LogEvent event) {
+
+        if (level != null && !event.getLevel().isMoreSpecificThan(level)) {
+            return false;
+        }
+
+        if (loggerPrefix != null) {
+            final String loggerName = event.getLoggerName();
+            if (loggerName == null || !loggerName.startsWith(loggerPrefix)) {
+                return false;
+            }
+        }
+
+        if (marker != null) {
+            final Marker eventMarker = event.getMarker();
+            if (eventMarker == null || !eventMarker.isInstanceOf(marker)) {
+                return false;
+            }
+        }
+
+        if (mdcKey != null) {
+            final Object value = event.getContextData().getValue(mdcKey);
+            return value != null && (mdcValue == null || mdcValue.equals(value));
+        }
+
+        return true;
+
+    }
+
+    @PluginBuilderFactory
+    public static IndexRoutePlugin.Builder newBuilder() {
+        return new IndexRoutePlugin.Builder();
+    }
+
+    public static class Builder implements org.apache.logging.log4j.core.util.Builder<IndexRoutePlugin> {
+
+        @PluginBuilderAttribute
+        private String indexName;
+
+        @PluginBuilderAttribute
+        private String level;
+
+        @PluginBuilderAttribute
+        private String loggerPrefix;
+
+        @PluginBuilderAttribute
+        private String marker;
+
+        @PluginBuilderAttribute
+        private String mdcKey;
+
+        @PluginBuilderAttribute
+        private String mdcValue;
+
+        @Override
+        public IndexRoutePlugin build() {
+
+            if (indexName == null) {
+                throw new ConfigurationException("No indexName provided for " + PLUGIN_NAME);
+            }
+
+            if (mdcValue != null && mdcKey == null) {
+                throw new ConfigurationException("No mdcKey provided for " + PLUGIN_NAME + " " + indexName + " with mdcValue " + mdcValue);
+            }
+
+            if (level == null && loggerPrefix == null && marker == null && mdcKey == null) {
+                throw new ConfigurationException("No conditions provided for " + PLUGIN_NAME + " " + indexName + ". Set at least one of: level, loggerPrefix, marker, mdcKey");
+            }
+
+            if (level != null && Level.toLevel(level, null) == null) {
+                throw new ConfigurationException("Unknown level provided for " + PLUGIN_NAME + " " + indexName + ": " + level);
+            }
+
+            return new IndexRoutePlugin(this);
+
+        }
+
+        public Builder withIndexName(final String indexName) {
+            this.indexName = indexName;
+            return this;
+        }
+
+        public Builder withLevel(final String level) {
+            this.level = level;
+            return this;
+        }
+
+        public Builder withLoggerPrefix(final String loggerPrefix) {
+            this.loggerPrefix = loggerPrefix;
+            return this;
+        }
+
+        public Builder withMarker(final String marker) {
+            this.marker = marker;
+            return this;
+        }
+
+        public Builder withMdcKey(final String mdcKey) {
+            this.mdcKey = mdcKey;
+            return this;
+        }
+
+        public Builder withMdcValue(final String mdcValue) {
+            this.mdcValue = mdcValue;
+            return this;
+        }
+
+    }
+
+}
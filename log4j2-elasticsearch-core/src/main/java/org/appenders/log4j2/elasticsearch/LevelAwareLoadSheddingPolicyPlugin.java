@@ -0,0 +1,393 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.ConfigurationException;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
+import org.apache.logging.log4j.core.config.plugins.PluginElement;
+import org.apache.logging.log4j.core.config.plugins.validation.constraints.Required;
+import org.appenders.log4j2.elasticsearch.metrics.DefaultMetricsFactory;
+import org.appenders.log4j2.elasticsearch.metrics.Measured;
+import org.appenders.log4j2.elasticsearch.metrics.Metric;
+import org.appenders.log4j2.elasticsearch.metrics.MetricConfig;
+import org.appenders.log4j2.elasticsearch.metrics.MetricConfigFactory;
+import org.appenders.log4j2.elasticsearch.metrics.MetricType;
+import org.appenders.log4j2.elasticsearch.metrics.Metrics;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsFactory;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounds {@link BatchDelivery#getBacklogSize()} by dropping lowest-priority events first:
+ * <ul>
+ *     <li>{@code DEBUG} and {@code TRACE} events are dropped if backlog reached {@code debugCapacityFactor} of {@code capacity}</li>
+ *     <li>{@code INFO} events are dropped if backlog reached {@code infoCapacityFactor} of {@code capacity}</li>
+ *     <li>{@code WARN} events are dropped if backlog reached {@code capacity}</li>
+ *     <li>{@code ERROR} and {@code FATAL} events are never dropped. Calling thread waits up to {@code errorWaitMillis}
+ *     for backlog to go below {@code capacity}, event is accepted afterwards</li>
+ * </ul>
+ * All events are accepted if given {@link BatchDelivery} doesn't report it's backlog.
+ *
+ * <p>Log4j2 Core Plugin. See <a href="https://logging.apache.org/log4j/2.x/manual/plugins.html">Log4j2 Plugins docs</a>
+ */
+@Plugin(name = LevelAwareLoadSheddingPolicyPlugin.PLUGIN_NAME, category = Node.CATEGORY, elementType = LoadSheddingPolicy.ELEMENT_TYPE, printObject = true)
+public class LevelAwareLoadSheddingPolicyPlugin implements LoadSheddingPolicy, Measured {
+
+    public static final String PLUGIN_NAME = "LevelAwareLoadSheddingPolicy";
+
+    private static final long WAIT_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final long capacity;
+    private final long infoCapacity;
+    private final long debugCapacity;
+    private final long errorWaitNanos;
+
+    private final LongAdder droppedTrace = new LongAdder();
+    private final LongAdder droppedDebug = new LongAdder();
+    private final LongAdder droppedInfo = new LongAdder();
+    private final LongAdder droppedWarn = new LongAdder();
+    private final LongAdder errorsOverCapacity = new LongAdder();
+
+    private final LoadSheddingMetrics metrics;
+
+    /**
+     * @param name metrics component name
+     * @param capacity max. backlog size
+     * @param infoCapacityFactor fraction of {@code capacity} at which {@code INFO} events are dropped
+     * @param debugCapacityFactor fraction of {@code capacity} at which {@code DEBUG} and {@code TRACE} events are dropped
+     * @param errorWaitMillis max. millis to wait for backlog below {@code capacity} before {@code ERROR} event is accepted
+     * @param metricsFactory configured metrics. See {@link #metricConfigs(boolean)} for supported metrics
+     */
+    protected LevelAwareLoadSheddingPolicyPlugin(
+            final String name,
+            final long capacity,
+            final double infoCapacityFactor,
+            final double debugCapacityFactor,
+            final long errorWaitMillis,
+            final MetricsFactory metricsFactory) {
+        this.capacity = capacity;
+        this.infoCapacity = (long) (capacity * infoCapacityFactor);
+        this.debugCapacity = (long) (capacity * debugCapacityFactor);
+        this.errorWaitNanos = TimeUnit.MILLISECONDS.toNanos(errorWaitMillis);
+        this.metrics = new LoadSheddingMetrics(name, metricsFactory);
+    }
+
+    /**
+     * @param enabled initial state of all metrics
+     * @return all metrics supported by this component:
+     * <ul>
+     *     <li>{@code droppedTrace} - total number of dropped {@code TRACE} events</li>
+     *     <li>{@code droppedDebug} - total number of dropped {@code DEBUG} events</li>
+     *     <li>{@code droppedInfo} - total number of dropped {@code INFO} events</li>
+     *     <li>{@code droppedWarn} - total number of dropped {@code WARN} events</li>
+     *     <li>{@code errorsOverCapacity} - total number of {@code ERROR} and {@code FATAL} events accepted after {@code errorWaitMillis} elapsed</li>
+     * </ul>
+     */
+    public static List<MetricConfig> metricConfigs(final boolean enabled) {
+        return Arrays.asList(
+                MetricConfigFactory.createSuppliedConfig(MetricType.GAUGE, enabled, "droppedTrace"),
+                MetricConfigFactory.createSuppliedConfig(MetricType.GAUGE, enabled, "droppedDebug"),
+                MetricConfigFactory.createSuppliedConfig(MetricType.GAUGE, enabled, "droppedInfo"),
+                MetricConfigFactory.createSuppliedConfig(MetricType.GAUGE, enabled, "droppedWarn"),
+                MetricConfigFactory.createSuppliedConfig(MetricType.GAUGE, enabled, "errorsOverCapacity")
+        );
+    }
+
+    @Override
+    public boolean accept(final Level level, final BatchDelivery batchDelivery) {
+
+        final long backlogSize = batchDelivery.getBacklogSize();
+        if (backlogSize < debugCapacity) {
+            return true;
+        }
+
+        final int intLevel = level.intLevel();
+        if (intLevel <= Level.ERROR.intLevel()) {
+            return awaitCapacity(batchDelivery);
+        }
+
+        if (intLevel <= Level.WARN.intLevel()) {
+            return backlogSize < capacity || drop(droppedWarn);
+        }
+
+        if (intLevel <= Level.INFO.intLevel()) {
+            return backlogSize < infoCapacity || drop(droppedInfo);
+        }
+
+        if (intLevel <= Level.DEBUG.intLevel()) {
+            return drop(droppedDebug);
+        }
+
+        return drop(droppedTrace);
+
+    }
+
+    private boolean drop(final LongAdder counter) {
+        counter.increment();
+        return false;
+    }
+
+    private boolean awaitCapacity(final BatchDelivery batchDelivery) {
+
+        if (batchDelivery.getBacklogSize() < capacity) {
+            return true;
+        }
+
+        final long deadline = System.nanoTime() + errorWaitNanos;
+        while (System.nanoTime() - deadline < 0) {
+
+            LockSupport.parkNanos(WAIT_INTERVAL_NANOS);
+
+            if (batchDelivery.getBacklogSize() < capacity) {
+                return true;
+            }
+
+        }
+
+        errorsOverCapacity.increment();
+        return true;
+
+    }
+
+    /**
+     * @return total number of dropped {@code TRACE} events
+     */
+    public final long getDroppedTrace() {
+        return droppedTrace.sum();
+    }
+
+    /**
+     * @return total number of dropped {@code DEBUG} events
+     */
+    public final long getDroppedDebug() {
+        return droppedDebug.sum();
+    }
+
+    /**
+     * @return total number of dropped {@code INFO} events
+     */
+    public final long getDroppedInfo() {
+        return droppedInfo.sum();
+    }
+
+    /**
+     * @return total number of dropped {@code WARN} events
+     */
+    public final long getDroppedWarn() {
+        return droppedWarn.sum();
+    }
+
+    /**
+     * @return total number of {@code ERROR} and {@code FATAL} events accepted after {@code errorWaitMillis} elapsed
+     */
+    public final long getErrorsOverCapacity() {
+        return errorsOverCapacity.sum();
+    }
+
+    @Override
+    public void register(final MetricsRegistry registry) {
+        metrics.register(registry);
+    }
+
+    @Override
+    public void deregister() {
+        metrics.deregister();
+    }
+
+    @PluginBuilderFactory
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder implements org.apache.logging.log4j.core.util.Builder<LevelAwareLoadSheddingPolicyPlugin> {
+
+        public static final double DEFAULT_INFO_CAPACITY_FACTOR = 0.8;
+        public static final double DEFAULT_DEBUG_CAPACITY_FACTOR = 0.5;
+        public static final long DEFAULT_ERROR_WAIT_MILLIS = 100;
+
+        private static final AtomicInteger counter = new AtomicInteger();
+
+        @PluginBuilderAttribute
+        protected String name = PLUGIN_NAME + "-" + counter.getAndIncrement();
+
+        @PluginBuilderAttribute
+        @Required(message = "No capacity provided for " + PLUGIN_NAME)
+        protected long capacity;
+
+        @PluginBuilderAttribute
+        protected double infoCapacityFactor = DEFAULT_INFO_CAPACITY_FACTOR;
+
+        @PluginBuilderAttribute
+        protected double debugCapacityFactor = DEFAULT_DEBUG_CAPACITY_FACTOR;
+
+        @PluginBuilderAttribute
+        protected long errorWaitMillis = DEFAULT_ERROR_WAIT_MILLIS;
+
+        @PluginElement("metricsFactory")
+        protected MetricsFactory metricsFactory;
+
+        @Override
+        public LevelAwareLoadSheddingPolicyPlugin build() {
+
+            if (name == null) {
+                throw new ConfigurationException("No name provided for " + PLUGIN_NAME);
+            }
+
+            if (capacity <= 0) {
+                throw new ConfigurationException("capacity must be higher than 0 for " + PLUGIN_NAME);
+            }
+
+            if (infoCapacityFactor <= 0 || infoCapacityFactor > 1) {
+                throw new ConfigurationException("infoCapacityFactor must be higher than 0 and lower or equal 1 for " + PLUGIN_NAME);
+            }
+
+            if (debugCapacityFactor <= 0 || debugCapacityFactor > infoCapacityFactor) {
+                throw new ConfigurationException("debugCapacityFactor must be higher than 0 and lower or equal infoCapacityFactor for " + PLUGIN_NAME);
+            }
+
+            if (errorWaitMillis < 0) {
+                throw new ConfigurationException("errorWaitMillis cannot be negative for " + PLUGIN_NAME);
+            }
+
+            final MetricsFactory metricsFactory = new DefaultMetricsFactory(metricConfigs(false));
+            if (this.metricsFactory != null) {
+                metricsFactory.configure(this.metricsFactory.getMetricConfigs());
+            }
+
+            return new LevelAwareLoadSheddingPolicyPlugin(name, capacity, infoCapacityFactor, debugCapacityFactor, errorWaitMillis, metricsFactory);
+
+        }
+
+        /**
+         * @param name metrics component name. SHOULD be unique if metrics of more than one {@link LevelAwareLoadSheddingPolicyPlugin} are enabled
+         * @return this
+         */
+        public Builder withName(final String name) {
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * @param capacity max. backlog size. {@code WARN} events are dropped if reached
+         * @return this
+         */
+        public Builder withCapacity(final long capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Default: {@link #DEFAULT_INFO_CAPACITY_FACTOR}
+         *
+         * @param infoCapacityFactor fraction of {@code capacity} at which {@code INFO} events are dropped
+         * @return this
+         */
+        public Builder withInfoCapacityFactor(final double infoCapacityFactor) {
+            this.infoCapacityFactor = infoCapacityFactor;
+            return this;
+        }
+
+        /**
+         * Default: {@link #DEFAULT_DEBUG_CAPACITY_FACTOR}
+         *
+         * @param debugCapacityFactor fraction of {@code capacity} at which {@code DEBUG} and {@code TRACE} events are dropped
+         * @return this
+         */
+        public Builder withDebugCapacityFactor(final double debugCapacityFactor) {
+            this.debugCapacityFactor = debugCapacityFactor;
+            return this;
+        }
+
+        /**
+         * Default: {@link #DEFAULT_ERROR_WAIT_MILLIS}
+         *
+         * @param errorWaitMillis max. millis to wait for backlog below {@code capacity} before {@code ERROR} or {@code FATAL} event is accepted
+         * @return this
+         */
+        public Builder withErrorWaitMillis(final long errorWaitMillis) {
+            this.errorWaitMillis = errorWaitMillis;
+            return this;
+        }
+
+        /**
+         * @param metricConfigs Metric configurations. Configures given metrics for current component. See {@link MetricsFactory#configure(List)}
+         * @return this
+         */
+        public Builder withMetricConfigs(final List<MetricConfig> metricConfigs) {
+
+            if (metricsFactory == null) {
+                metricsFactory = new DefaultMetricsFactory(metricConfigs(false));
+            }
+
+            this.metricsFactory.configure(metricConfigs);
+
+            return this;
+
+        }
+
+    }
+
+    private final class LoadSheddingMetrics implements Metrics {
+
+        private final List<MetricsRegistry.Registration> registrations = new ArrayList<>();
+        private final Metric droppedTrace;
+        private final Metric droppedDebug;
+        private final Metric droppedInfo;
+        private final Metric droppedWarn;
+        private final Metric errorsOverCapacity;
+
+        LoadSheddingMetrics(final String name, final MetricsFactory factory) {
+            this.droppedTrace = factory.createMetric(name, "droppedTrace", LevelAwareLoadSheddingPolicyPlugin.this::getDroppedTrace);
+            this.droppedDebug = factory.createMetric(name, "droppedDebug", LevelAwareLoadSheddingPolicyPlugin.this::getDroppedDebug);
+            this.droppedInfo = factory.createMetric(name, "droppedInfo", LevelAwareLoadSheddingPolicyPlugin.this::getDroppedInfo);
+            this.droppedWarn = factory.createMetric(name, "droppedWarn", LevelAwareLoadSheddingPolicyPlugin.this::getDroppedWarn);
+            this.errorsOverCapacity = factory.createMetric(name, "errorsOverCapacity", LevelAwareLoadSheddingPolicyPlugin.this::getErrorsOverCapacity);
+        }
+
+        @Override
+        public void register(final MetricsRegistry registry) {
+            registrations.add(registry.register(droppedTrace));
+            registrations.add(registry.register(droppedDebug));
+            registrations.add(registry.register(droppedInfo));
+            registrations.add(registry.register(droppedWarn));
+            registrations.add(registry.register(errorsOverCapacity));
+        }
+
+        @Override
+        public void deregister() {
+            registrations.forEach(MetricsRegistry.Registration::deregister);
+            registrations.clear();
+        }
+
+    }
+
+}
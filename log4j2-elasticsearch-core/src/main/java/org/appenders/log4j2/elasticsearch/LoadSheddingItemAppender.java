@@ -0,0 +1,83 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.core.LogEvent;
+
+/**
+ * Passes events to the delegate only if they're accepted by given {@link LoadSheddingPolicy}.
+ * <p>
+ * Placed after {@link AggregatingItemAppender}, so collapsed events don't consult (and MAY not wait for) the policy.
+ */
+public class LoadSheddingItemAppender implements ItemAppender<LogEvent> {
+
+    private volatile State state = State.STOPPED;
+
+    private final ItemAppender<LogEvent> delegate;
+    private final LoadSheddingPolicy loadSheddingPolicy;
+    private final BatchDelivery batchDelivery;
+
+    /**
+     * @param delegate actual appender
+     * @param loadSheddingPolicy decides whether given event should be dropped
+     * @param batchDelivery delivery that will process accepted events
+     */
+    public LoadSheddingItemAppender(final ItemAppender<LogEvent> delegate, final LoadSheddingPolicy loadSheddingPolicy, final BatchDelivery batchDelivery) {
+        this.delegate = delegate;
+        this.loadSheddingPolicy = loadSheddingPolicy;
+        this.batchDelivery = batchDelivery;
+    }
+
+    @Override
+    public final void append(final String formattedIndexName, final LogEvent event) {
+        if (loadSheddingPolicy.accept(event.getLevel(), batchDelivery)) {
+            delegate.append(formattedIndexName, event);
+        }
+    }
+
+    @Override
+    public void start() {
+        delegate.start();
+        state = State.STARTED;
+    }
+
+    @Override
+    public void stop() {
+
+        state = State.STOPPED;
+
+        if (!delegate.isStopped()) {
+            delegate.stop();
+        }
+
+    }
+
+    @Override
+    public boolean isStarted() {
+        return state == State.STARTED;
+    }
+
+    @Override
+    public boolean isStopped() {
+        return state == State.STOPPED;
+    }
+
+}
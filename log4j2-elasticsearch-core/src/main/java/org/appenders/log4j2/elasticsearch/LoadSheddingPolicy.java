@@ -0,0 +1,47 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.Level;
+
+/**
+ * Implementations of this interface MAY reject incoming events when given {@link BatchDelivery} can't keep up.
+ * Rejected events are dropped before serialization.
+ */
+public interface LoadSheddingPolicy {
+
+    String ELEMENT_TYPE = "loadSheddingPolicy";
+
+    /**
+     * Accepts all events
+     */
+    LoadSheddingPolicy NOOP = (level, batchDelivery) -> true;
+
+    /**
+     * MAY block for a limited time if event of given level should not be dropped
+     *
+     * @param level level of incoming event
+     * @param batchDelivery delivery that will process the event
+     * @return true, if event should be delivered, false if it should be dropped
+     */
+    boolean accept(Level level, BatchDelivery batchDelivery);
+
+}
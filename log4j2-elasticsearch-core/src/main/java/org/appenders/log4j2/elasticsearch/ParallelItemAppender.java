@@ -0,0 +1,200 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.core.LogEvent;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.appenders.core.logging.InternalLogging.getLogger;
+
+/**
+ * Moves {@link ItemAppender#append(String, Object)} calls (serialization and {@link BatchDelivery#add(String, ItemSource)}) off the calling thread.
+ * <p>
+ * {@link #append(String, LogEvent)} captures immutable copy of given event ({@link LogEvent#toImmutable()}) and offers it to a bounded queue.
+ * Configured number of serializer threads take captured events from the queue and pass them to the delegate.
+ * If the queue is full, given event is passed to the delegate on the calling thread.
+ * <p>
+ * NOTE: Order of events is not preserved. Delegate MUST be thread-safe (e.g. {@code JacksonJsonLayout} MUST NOT be configured with {@code singleThread="true"}).
+ */
+public class ParallelItemAppender implements ItemAppender<LogEvent> {
+
+    static final String THREAD_NAME_FORMAT = "ItemSerializer-%d";
+
+    private static final long POLL_MILLIS = 100;
+
+    private volatile State state = State.STOPPED;
+
+    private final ItemAppender<LogEvent> delegate;
+    private final int serializerThreads;
+    private final BlockingQueue<Pending> queue;
+    private Thread[] workers = new Thread[0];
+
+    /**
+     * @param delegate actual appender
+     * @param serializerThreads number of serializer threads
+     * @param queueSize maximum number of captured events waiting for serializer threads
+     */
+    public ParallelItemAppender(final ItemAppender<LogEvent> delegate, final int serializerThreads, final int queueSize) {
+        this.delegate = delegate;
+        this.serializerThreads = serializerThreads;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+    }
+
+    /**
+     * Captures given event and queues it for serializer threads. Delegates on the calling thread if queue is full or this appender is not started.
+     *
+     * @param formattedIndexName delivery target
+     * @param event event to process
+     */
+    @Override
+    public final void append(final String formattedIndexName, final LogEvent event) {
+
+        if (state == State.STARTED && queue.offer(new Pending(formattedIndexName, event.toImmutable()))) {
+            if (state == State.STOPPED) {
+                // stopped concurrently, serializer threads may be gone already
+                drain();
+            }
+            return;
+        }
+
+        delegate.append(formattedIndexName, event);
+
+    }
+
+    /**
+     * @return number of captured events waiting for serializer threads
+     */
+    public final int getQueueSize() {
+        return queue.size();
+    }
+
+    private void serialize() {
+
+        while (state == State.STARTED) {
+
+            final Pending pending;
+            try {
+                pending = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (pending != null) {
+                append(pending);
+            }
+
+        }
+
+    }
+
+    private void append(final Pending pending) {
+        try {
+            delegate.append(pending.formattedIndexName, pending.event);
+        } catch (Exception e) {
+            getLogger().error("{}: Unable to append event: {}", getClass().getSimpleName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Passes all queued events to the delegate on the calling thread
+     */
+    private void drain() {
+
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            append(pending);
+        }
+
+    }
+
+    @Override
+    public void start() {
+
+        delegate.start();
+
+        state = State.STARTED;
+
+        workers = new Thread[serializerThreads];
+        for (int i = 0; i < serializerThreads; i++) {
+            final Thread worker = new Thread(this::serialize, String.format(THREAD_NAME_FORMAT, i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers[i] = worker;
+        }
+
+        getLogger().debug("{} started with {} serializer threads", getClass().getSimpleName(), serializerThreads);
+
+    }
+
+    @Override
+    public void stop() {
+
+        getLogger().debug("Stopping {}", getClass().getSimpleName());
+
+        state = State.STOPPED;
+
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        // leftovers
+        drain();
+
+        if (!delegate.isStopped()) {
+            delegate.stop();
+        }
+
+        getLogger().debug("{} stopped", getClass().getSimpleName());
+
+    }
+
+    @Override
+    public boolean isStarted() {
+        return state == State.STARTED;
+    }
+
+    @Override
+    public boolean isStopped() {
+        return state == State.STOPPED;
+    }
+
+    private static final class Pending {
+
+        private final String formattedIndexName;
+        private final LogEvent event;
+
+        Pending(final String formattedIndexName, final LogEvent event) {
+            this.formattedIndexName = formattedIndexName;
+            this.event = event;
+        }
+
+    }
+
+}
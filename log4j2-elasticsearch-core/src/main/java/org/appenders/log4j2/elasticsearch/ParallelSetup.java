@@ -0,0 +1,356 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.appenders.core.logging.InternalLogging.getLogger;
+
+/**
+ * Executes setup operations off the batch delivery thread, in order of submission.
+ * <p>
+ * Consecutive operations of the same group (e.g. {@link OpSource#getType()}) form a stage. Operations within a stage are executed concurrently.
+ * Stages are executed sequentially, so e.g. index template is not created before component templates it's composed of.
+ * If any operation fails, failed operation and all operations of subsequent stages are handed over to given fallback, e.g. to be retried sequentially.
+ * <p>
+ * Operations that were executed successfully before, according to configured {@link SetupOperationCache}, are skipped.
+ * Batches MAY be held with {@link #awaitCompletion()} until pending operations are completed, but not longer than {@code holdTimeoutMillis} in total.
+ */
+public class ParallelSetup implements LifeCycle {
+
+    public static final String ELEMENT_TYPE = "parallelSetup";
+
+    private static final String NAME = ParallelSetup.class.getSimpleName();
+
+    private volatile State state = State.STOPPED;
+
+    private final int parallelism;
+    private final long holdTimeoutNanos;
+    private final SetupOperationCache setupOperationCache;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Object lock = new Object();
+    private volatile long holdDeadlineNanos;
+    private volatile boolean holdExpired;
+
+    // guards stage transitions
+    private final Object stageLock = new Object();
+    private Stage lastStage;
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * @param parallelism max. number of operations executed at the same time
+     * @param holdTimeoutMillis max. total time that {@link #awaitCompletion()} can wait for pending operations
+     * @param setupOperationCache successfully executed operations
+     */
+    public ParallelSetup(final int parallelism, final long holdTimeoutMillis, final SetupOperationCache setupOperationCache) {
+        this.parallelism = parallelism;
+        this.holdTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(holdTimeoutMillis);
+        this.setupOperationCache = setupOperationCache;
+    }
+
+    /**
+     * Executes given operation asynchronously, once all operations of previously submitted groups are completed, unless operation with given key was executed successfully before.
+     * <p>
+     * Given key is recorded if operation didn't throw and, if given operation is a {@link SkippingSetupStepChain}, none of its steps failed.
+     * Otherwise, given operation is passed to given fallback. Operations of subsequent groups are passed to their fallbacks without execution.
+     *
+     * @param group operations of the same group submitted one after another can be executed concurrently, e.g. {@link OpSource#getType()}
+     * @param key operation key, e.g. {@link SetupOperationCache#key(OpSource, java.util.Collection)}
+     * @param operation operation to execute
+     * @param fallback accepts operation if it was not executed successfully
+     */
+    public void submit(final String group, final String key, final Operation operation, final Consumer<Operation> fallback) {
+
+        if (setupOperationCache.contains(key)) {
+            getLogger().info("{}: {} unchanged since last successful execution. Skipping", NAME, key);
+            return;
+        }
+
+        pending.incrementAndGet();
+
+        final Task task = new Task(key, operation, fallback);
+
+        synchronized (stageLock) {
+
+            if (lastStage != null && !lastStage.completed && lastStage.group.equals(group)) {
+                lastStage.remaining++;
+                if (lastStage.started) {
+                    dispatch(lastStage, task);
+                } else {
+                    lastStage.tasks.add(task);
+                }
+                return;
+            }
+
+            final Stage stage = new Stage(group);
+            stage.tasks.add(task);
+            stage.remaining++;
+
+            final Stage previous = lastStage;
+            lastStage = stage;
+
+            if (previous == null || previous.completed) {
+                stage.skip = previous != null && (previous.failed || previous.skip);
+                startStage(stage);
+            } else {
+                previous.next = stage;
+            }
+
+        }
+
+    }
+
+    /* stageLock must be held */
+    private void startStage(final Stage stage) {
+
+        stage.started = true;
+
+        for (final Task task : stage.tasks) {
+            dispatch(stage, task);
+        }
+        stage.tasks.clear();
+
+    }
+
+    /* stageLock must be held */
+    private void dispatch(final Stage stage, final Task task) {
+
+        if (stage.skip) {
+            task.fallback.accept(task.operation);
+            stageTaskCompleted(stage);
+            return;
+        }
+
+        try {
+            executor.execute(() -> execute(stage, task));
+        } catch (RejectedExecutionException e) {
+            getLogger().warn("{}: {} rejected. {} not started", NAME, task.key, NAME);
+            stage.failed = true;
+            task.fallback.accept(task.operation);
+            stageTaskCompleted(stage);
+        }
+
+    }
+
+    private void execute(final Stage stage, final Task task) {
+
+        boolean succeeded = false;
+        try {
+
+            task.operation.execute();
+
+            succeeded = isSucceeded(task.operation);
+            if (succeeded) {
+                setupOperationCache.put(task.key);
+            } else {
+                getLogger().warn("{}: {} failed", NAME, task.key);
+            }
+
+        } catch (Exception e) {
+            getLogger().error(NAME + ": " + task.key + " failed: " + e.getMessage(), e);
+        } finally {
+
+            if (!succeeded) {
+                task.fallback.accept(task.operation);
+            }
+
+            synchronized (stageLock) {
+                if (!succeeded) {
+                    stage.failed = true;
+                }
+                stageTaskCompleted(stage);
+            }
+
+        }
+
+    }
+
+    /* stageLock must be held */
+    private void stageTaskCompleted(final Stage stage) {
+
+        if (--stage.remaining == 0) {
+
+            stage.completed = true;
+
+            final Stage next = stage.next;
+            if (next != null) {
+                next.skip = stage.failed || stage.skip;
+                startStage(next);
+            }
+
+        }
+
+        completed();
+
+    }
+
+    private static boolean isSucceeded(final Operation operation) {
+        return !(operation instanceof SkippingSetupStepChain)
+                || !Result.FAILURE.equals(((SkippingSetupStepChain<?>) operation).getResult());
+    }
+
+    private void completed() {
+        if (pending.decrementAndGet() == 0) {
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * @return number of submitted operations that are not completed yet
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Blocks until all submitted operations are completed.
+     * <p>
+     * Total time spent in this method, across all calls, is bounded by {@code holdTimeoutMillis}. Once it elapsed, this method returns immediately.
+     *
+     * @return true, if there are no pending operations, false otherwise
+     */
+    public boolean awaitCompletion() {
+
+        if (pending.get() == 0) {
+            return true;
+        }
+
+        if (holdExpired) {
+            return false;
+        }
+
+        if (holdDeadlineNanos == 0) {
+            holdDeadlineNanos = System.nanoTime() + holdTimeoutNanos;
+        }
+
+        synchronized (lock) {
+            while (pending.get() > 0) {
+
+                final long remainingNanos = holdDeadlineNanos - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    holdExpired = true;
+                    getLogger().warn("{}: {} operation(s) still pending. Batches will not be held anymore", NAME, pending.get());
+                    return false;
+                }
+
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remainingNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return pending.get() == 0;
+                }
+
+            }
+        }
+
+        return true;
+
+    }
+
+    // ==========
+    // LIFECYCLE
+    // ==========
+
+    @Override
+    public void start() {
+
+        if (isStarted()) {
+            return;
+        }
+
+        final AtomicInteger threadCounter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(parallelism, parallelism, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            final Thread thread = new Thread(r, NAME + "-" + threadCounter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // setup is done once, no need to keep idle threads
+        executor.allowCoreThreadTimeOut(true);
+
+        state = State.STARTED;
+
+    }
+
+    @Override
+    public void stop() {
+
+        if (isStopped()) {
+            return;
+        }
+
+        state = State.STOPPED;
+
+        executor.shutdownNow();
+
+    }
+
+    @Override
+    public boolean isStarted() {
+        return state == State.STARTED;
+    }
+
+    @Override
+    public boolean isStopped() {
+        return state == State.STOPPED;
+    }
+
+    private static class Stage {
+
+        private final String group;
+        private final List<Task> tasks = new ArrayList<>();
+        private int remaining;
+        private boolean started;
+        private boolean completed;
+        private boolean failed;
+        private boolean skip;
+        private Stage next;
+
+        private Stage(final String group) {
+            this.group = group;
+        }
+
+    }
+
+    private static class Task {
+
+        private final String key;
+        private final Operation operation;
+        private final Consumer<Operation> fallback;
+
+        private Task(final String key, final Operation operation, final Consumer<Operation> fallback) {
+            this.key = key;
+            this.operation = operation;
+            this.fallback = fallback;
+        }
+
+    }
+
+}
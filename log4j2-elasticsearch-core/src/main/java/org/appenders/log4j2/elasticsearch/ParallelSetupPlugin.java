@@ -0,0 +1,124 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import org.apache.logging.log4j.core.config.ConfigurationException;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
+
+import java.nio.file.Paths;
+
+/**
+ * {@inheritDoc}
+ *
+ * <p>Log4j2 Core Plugin. See <a href="https://logging.apache.org/log4j/2.x/manual/plugins.html">Log4j2 Plugins docs</a>
+ */
+@Plugin(name = ParallelSetupPlugin.PLUGIN_NAME, category = Node.CATEGORY, elementType = ParallelSetup.ELEMENT_TYPE, printObject = true)
+public class ParallelSetupPlugin extends ParallelSetup {
+
+    public static final String PLUGIN_NAME = "ParallelSetup";
+
+    protected ParallelSetupPlugin(final int parallelism, final long holdTimeoutMillis, final SetupOperationCache setupOperationCache) {
+        super(parallelism, holdTimeoutMillis, setupOperationCache);
+    }
+
+    @PluginBuilderFactory
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder implements org.apache.logging.log4j.core.util.Builder<ParallelSetupPlugin> {
+
+        public static final int DEFAULT_PARALLELISM = 4;
+        public static final long DEFAULT_HOLD_TIMEOUT_MILLIS = 30000;
+
+        @PluginBuilderAttribute
+        protected int parallelism = DEFAULT_PARALLELISM;
+
+        @PluginBuilderAttribute
+        protected long holdTimeoutMillis = DEFAULT_HOLD_TIMEOUT_MILLIS;
+
+        @PluginBuilderAttribute
+        protected String cacheFile;
+
+        @Override
+        public ParallelSetupPlugin build() {
+
+            if (parallelism <= 0) {
+                throw new ConfigurationException("parallelism must be higher than 0 for " + PLUGIN_NAME);
+            }
+
+            if (holdTimeoutMillis < 0) {
+                throw new ConfigurationException("holdTimeoutMillis cannot be negative for " + PLUGIN_NAME);
+            }
+
+            return new ParallelSetupPlugin(parallelism, holdTimeoutMillis, createSetupOperationCache());
+
+        }
+
+        /* visible for testing */
+        SetupOperationCache createSetupOperationCache() {
+
+            if (cacheFile == null || cacheFile.trim().isEmpty()) {
+                return SetupOperationCache.NOOP;
+            }
+
+            return new FileSetupOperationCache(Paths.get(cacheFile));
+
+        }
+
+        /**
+         * Default: {@link #DEFAULT_PARALLELISM}
+         *
+         * @param parallelism max. number of setup operations executed at the same time
+         * @return this
+         */
+        public Builder withParallelism(final int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Default: {@link #DEFAULT_HOLD_TIMEOUT_MILLIS}
+         *
+         * @param holdTimeoutMillis max. total time that batches can be held while setup operations are pending
+         * @return this
+         */
+        public Builder withHoldTimeoutMillis(final long holdTimeoutMillis) {
+            this.holdTimeoutMillis = holdTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * Default: none, all setup operations are executed on every start
+         *
+         * @param cacheFile file that keys of successfully executed setup operations are stored in
+         * @return this
+         */
+        public Builder withCacheFile(final String cacheFile) {
+            this.cacheFile = cacheFile;
+            return this;
+        }
+
+    }
+
+}
@@ -27,19 +27,29 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.locks.StampedLock;
 import java.util.stream.Stream;
 
 /**
  * Rolling date-time pattern formatter. Caches current formatted value between rolls to minimize overhead.
  * <p>
+ * Formatted values of a few recently used previous windows are cached, so repeated late events (e.g. replayed from failover after an outage) resolve to cached values as well.
+ * Windows are cached on rollover and when late event doesn't belong to any cached window.
+ * <p>
  * Format: {@code <prefix><separator><datePattern>}
  * <p>
  * Thread-safe
  */
 public class RollingMillisFormatter implements MillisFormatter {
 
+    /**
+     * Default number of previous windows cached for late events
+     */
+    public static final int DEFAULT_LATE_WINDOWS = Integer.parseInt(
+            System.getProperty("appenders." + RollingMillisFormatter.class.getSimpleName() + ".lateWindows", "4"));
 
     private final RollingTimestamps timestamps;
 
@@ -51,12 +61,31 @@ public class RollingMillisFormatter implements MillisFormatter {
     private final StampedLock lock = new StampedLock();
     private final AtomicReference<String> currentName;
 
+    /**
+     * Previous windows, read without locking. Oldest entry is replaced on rollover and on late event that doesn't belong to any cached window
+     */
+    private final AtomicReferenceArray<Window> lateWindows;
+    private final AtomicInteger lateWindowsCursor = new AtomicInteger();
+
     protected RollingMillisFormatter(
             final MillisFormatter formatter,
             final RollingTimestamps timestamps) {
+        this(formatter, timestamps, DEFAULT_LATE_WINDOWS);
+    }
+
+    /**
+     * @param formatter actual formatter
+     * @param timestamps rollover timestamps
+     * @param lateWindows number of previous windows to cache for late events, 0 to disable
+     */
+    protected RollingMillisFormatter(
+            final MillisFormatter formatter,
+            final RollingTimestamps timestamps,
+            final int lateWindows) {
         this.formatter = formatter;
         this.timestamps = timestamps;
         this.currentName = new AtomicReference<>(formatter.format(timestamps.current()));
+        this.lateWindows = new AtomicReferenceArray<>(lateWindows);
     }
 
     public final long getNextRolloverTime() {
@@ -66,7 +95,7 @@ public class RollingMillisFormatter implements MillisFormatter {
     /**
      * Compares given timestamp with current {@link RollingTimestamps} state: <i>current</i> and <i>next</i>, rolls forward if needed and returns result with configured format.
      * <p>
-     * This method will not allocate unless concurrent rollover is pending (usually ~1 microsecond or less) or given timestamp is lower than current rollover start time.
+     * This method will not allocate unless concurrent rollover is pending (usually ~1 microsecond or less) or given timestamp is lower than current rollover start time and doesn't belong to any cached window.
      *
      * @param millis timestamp to format
      *
@@ -77,7 +106,7 @@ public class RollingMillisFormatter implements MillisFormatter {
 
         // handle "old" events - after rollover timestamps.current() is ahead already
         if (millis < timestamps.current()) {
-            return formatter.format(millis);
+            return formatLate(millis);
         }
 
         long writeStamp = 0;
@@ -106,6 +135,30 @@ public class RollingMillisFormatter implements MillisFormatter {
 
     }
 
+    /**
+     * @param millis timestamp lower than current rollover start time
+     * @return cached value if {@code millis} belongs to one of cached previous windows, formatted and cached {@code millis} otherwise
+     */
+    private String formatLate(final long millis) {
+
+        for (int i = 0; i < lateWindows.length(); i++) {
+            final Window window = lateWindows.get(i);
+            if (window != null && window.contains(millis)) {
+                return window.name;
+            }
+        }
+
+        final String name = formatter.format(millis);
+
+        if (lateWindows.length() > 0) {
+            final long start = timestamps.windowStart(millis);
+            cacheLateWindow(new Window(start, timestamps.windowEnd(start), name));
+        }
+
+        return name;
+
+    }
+
     /**
      * Rolls if {@code millis} is higher or equal to next rollover timestamp
      *
@@ -118,6 +171,8 @@ public class RollingMillisFormatter implements MillisFormatter {
         long result;
         if (millis >= timestamps.next() && (result = lock.tryConvertToWriteLock(stamp)) != 0) {
 
+            cacheLateWindow(new Window(timestamps.current(), timestamps.next(), currentName.get()));
+
             while (millis >= timestamps.next()) {
                 timestamps.rollover();
             }
@@ -132,6 +187,42 @@ public class RollingMillisFormatter implements MillisFormatter {
 
     }
 
+    /**
+     * Stores given window in {@link #lateWindows}, replacing the oldest one
+     *
+     * @param window window to cache
+     */
+    private void cacheLateWindow(final Window window) {
+
+        if (lateWindows.length() == 0) {
+            return;
+        }
+
+        lateWindows.set(Math.floorMod(lateWindowsCursor.getAndIncrement(), lateWindows.length()), window);
+
+    }
+
+    /**
+     * Immutable {@code [start, end)} window and it's formatted value
+     */
+    private static final class Window {
+
+        private final long start;
+        private final long end;
+        private final String name;
+
+        Window(final long start, final long end, final String name) {
+            this.start = start;
+            this.end = end;
+            this.name = name;
+        }
+
+        boolean contains(final long millis) {
+            return millis >= start && millis < end;
+        }
+
+    }
+
 
     public static class Builder {
 
@@ -142,6 +233,7 @@ public class RollingMillisFormatter implements MillisFormatter {
         protected String prefix;
         protected String separator = "";
         protected String pattern;
+        protected int lateWindows = DEFAULT_LATE_WINDOWS;
 
         public RollingMillisFormatter build() {
 
@@ -159,7 +251,8 @@ public class RollingMillisFormatter implements MillisFormatter {
                 final RollingTimestamps rollingTimestamps) {
             return new RollingMillisFormatter(
                     patternFormatter,
-                    rollingTimestamps);
+                    rollingTimestamps,
+                    lateWindows);
         }
 
         public MillisFormatter createFormatter() {
@@ -204,6 +297,10 @@ public class RollingMillisFormatter implements MillisFormatter {
                 throw new IllegalArgumentException("No pattern provided for " + getClass().getSimpleName());
             }
 
+            if (lateWindows < 0) {
+                throw new IllegalArgumentException("lateWindows cannot be negative for " + getClass().getSimpleName());
+            }
+
         }
 
         public Builder withInitialTimestamp(final long initialTimestamp) {
@@ -231,6 +328,15 @@ public class RollingMillisFormatter implements MillisFormatter {
             return this;
         }
 
+        /**
+         * @param lateWindows number of previous windows to cache for late events, 0 to disable. Default: {@link #DEFAULT_LATE_WINDOWS}
+         * @return this
+         */
+        public Builder withLateWindows(final int lateWindows) {
+            this.lateWindows = lateWindows;
+            return this;
+        }
+
     }
 
 }
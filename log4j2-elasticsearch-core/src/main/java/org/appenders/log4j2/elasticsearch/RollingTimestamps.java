@@ -28,4 +28,20 @@ public interface RollingTimestamps {
 
     void rollover();
 
+    /**
+     * @param millis any timestamp, e.g. timestamp of late event
+     * @return start of the rollover window that contains given timestamp. By default, given timestamp (one millisecond window)
+     */
+    default long windowStart(long millis) {
+        return millis;
+    }
+
+    /**
+     * @param windowStart result of {@link #windowStart(long)}
+     * @return end (exclusive) of the rollover window that starts at given timestamp. By default, one millisecond after given timestamp
+     */
+    default long windowEnd(long windowStart) {
+        return windowStart + 1;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,331 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.ConfigurationException;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
+import org.apache.logging.log4j.core.config.plugins.PluginElement;
+
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.appenders.core.logging.InternalLogging.getLogger;
+
+/**
+ * Content-based index name formatter. Resolves index or data stream name from {@code LogEvent} attributes:
+ * <ol>
+ *     <li>first matching {@link IndexRoutePlugin} in order of declaration, if any</li>
+ *     <li>{@code <indexName><separator><mdcKey value>} if {@code mdcKey} is configured and present in event context data, up to {@code maxRoutes} distinct values</li>
+ *     <li>{@code indexName} (fallback route) otherwise</li>
+ * </ol>
+ * If {@code pattern} is configured, each route has it's own {@link RollingMillisFormatter}: {@code <route name><separator><datePattern>}.
+ * Formatted names are cached between rolls, so route resolution does not allocate.
+ * <p>
+ * Thread-safe
+ */
+@Plugin(name = RoutingIndexNamePlugin.PLUGIN_NAME, category = Node.CATEGORY, elementType = IndexNameFormatter.ELEMENT_TYPE, printObject = true)
+public class RoutingIndexNamePlugin implements IndexNameFormatter<LogEvent> {
+
+    static final String PLUGIN_NAME = "RoutingIndexName";
+
+    public static final String DEFAULT_SEPARATOR = "-";
+    public static final int DEFAULT_MAX_ROUTES = 100;
+
+    /**
+     * Max. length of Elasticsearch index name in bytes
+     */
+    static final int MAX_INDEX_NAME_BYTES = 255;
+
+    private static final String INVALID_MDC_VALUE_CHARS = "\\/*?\"<>|,#:%";
+
+    private final IndexRoutePlugin[] routes;
+    private final MillisFormatter[] routeFormatters;
+    private final MillisFormatter fallback;
+    private final String indexName;
+    private final String separator;
+    private final String mdcKey;
+    private final int maxRoutes;
+    private final int maxMdcValueBytes;
+    private final Builder builder;
+    private final ConcurrentMap<String, MillisFormatter> mdcRoutes = new ConcurrentHashMap<>();
+    private volatile boolean maxRoutesReached;
+    private volatile boolean invalidMdcValueReported;
+
+    protected RoutingIndexNamePlugin(final Builder builder) {
+        this.builder = builder;
+        this.indexName = builder.indexName;
+        this.separator = builder.separator;
+        this.mdcKey = builder.mdcKey;
+        this.maxRoutes = builder.maxRoutes;
+        this.maxMdcValueBytes = MAX_INDEX_NAME_BYTES
+                - utf8Length(indexName)
+                - utf8Length(separator)
+                - (builder.pattern == null ? 0 : utf8Length(separator) + utf8Length(builder.pattern));
+        this.routes = builder.routes;
+        this.routeFormatters = new MillisFormatter[routes.length];
+        for (int i = 0; i < routes.length; i++) {
+            routeFormatters[i] = builder.createFormatter(routes[i].getIndexName());
+        }
+        this.fallback = builder.createFormatter(indexName);
+    }
+
+    @Override
+    public final String format(final LogEvent event) {
+
+        final long millis = event.getTimeMillis();
+
+        for (int i = 0; i < routes.length; i++) {
+            if (routes[i].matches(event)) {
+                return routeFormatters[i].format(millis);
+            }
+        }
+
+        if (mdcKey != null) {
+            final Object value = event.getContextData().getValue(mdcKey);
+            if (value != null) {
+                final MillisFormatter formatter = mdcRouteFormatter(value.toString());
+                if (formatter != null) {
+                    return formatter.format(millis);
+                }
+            }
+        }
+
+        return fallback.format(millis);
+
+    }
+
+    /**
+     * @param millis timestamp to format
+     * @return fallback route name
+     */
+    @Override
+    public final String format(final long millis) {
+        return fallback.format(millis);
+    }
+
+    /**
+     * @return number of routes created for distinct {@code mdcKey} values
+     */
+    public final int getMdcRoutesCount() {
+        return mdcRoutes.size();
+    }
+
+    private MillisFormatter mdcRouteFormatter(final String value) {
+
+        final MillisFormatter formatter = mdcRoutes.get(value);
+        if (formatter != null || maxRoutesReached) {
+            return formatter;
+        }
+
+        if (!isValidMdcValue(value)) {
+            if (!invalidMdcValueReported) {
+                invalidMdcValueReported = true;
+                getLogger().warn("{}: {} value is not a valid index name part: '{}'. Events with invalid {} values will be routed to {}",
+                        PLUGIN_NAME,
+                        mdcKey,
+                        value,
+                        mdcKey,
+                        indexName);
+            }
+            return null;
+        }
+
+        synchronized (mdcRoutes) {
+
+            if (mdcRoutes.size() >= maxRoutes) {
+                maxRoutesReached = true;
+                getLogger().warn("{}: maxRoutes {} reached. Events with new {} values will be routed to {}",
+                        PLUGIN_NAME,
+                        maxRoutes,
+                        mdcKey,
+                        indexName);
+                return null;
+            }
+
+            return mdcRoutes.computeIfAbsent(value, key -> builder.createFormatter(indexName + separator + key));
+
+        }
+
+    }
+
+    /**
+     * MDC values become a part of index or data stream name and request path, so they have to follow Elasticsearch index name rules:
+     * not empty, lowercase only, none of {@code \ / * ? " < > | , # :}, whitespaces or control characters and limited length.
+     * {@code %} is not allowed either, so encoded characters can't reach the request path.
+     *
+     * @param value {@code mdcKey} value
+     * @return true, if given value can be used as index name part, false otherwise
+     */
+    final boolean isValidMdcValue(final String value) {
+
+        if (value.isEmpty() || utf8Length(value) > maxMdcValueBytes) {
+            return false;
+        }
+
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (Character.isUpperCase(c) || Character.isWhitespace(c) || Character.isISOControl(c) || INVALID_MDC_VALUE_CHARS.indexOf(c) >= 0) {
+                return false;
+            }
+        }
+
+        return true;
+
+    }
+
+    private static int utf8Length(final String value) {
+
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800 || Character.isSurrogate(c)) {
+                // each surrogate half counts as 2 bytes, so surrogate pair counts as 4
+                length += 2;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+
+    }
+
+    @PluginBuilderFactory
+    public static RoutingIndexNamePlugin.Builder newBuilder() {
+        return new RoutingIndexNamePlugin.Builder();
+    }
+
+    public static class Builder implements org.apache.logging.log4j.core.util.Builder<RoutingIndexNamePlugin> {
+
+        public static final String DEFAULT_TIME_ZONE = ZoneId.systemDefault().getId();
+
+        @PluginBuilderAttribute
+        private String indexName;
+
+        @PluginBuilderAttribute
+        private String pattern;
+
+        @PluginBuilderAttribute
+        private String timeZone = DEFAULT_TIME_ZONE;
+
+        @PluginBuilderAttribute
+        private String separator = DEFAULT_SEPARATOR;
+
+        @PluginBuilderAttribute
+        private String mdcKey;
+
+        @PluginBuilderAttribute
+        private int maxRoutes = DEFAULT_MAX_ROUTES;
+
+        @PluginElement(IndexRoutePlugin.ELEMENT_TYPE)
+        private IndexRoutePlugin[] routes = new IndexRoutePlugin[0];
+
+        @Override
+        public RoutingIndexNamePlugin build() {
+
+            if (indexName == null) {
+                throw new ConfigurationException("No indexName provided for " + PLUGIN_NAME);
+            }
+
+            if (routes == null) {
+                routes = new IndexRoutePlugin[0];
+            }
+
+            if (routes.length == 0 && mdcKey == null) {
+                throw new ConfigurationException("No routes provided for " + PLUGIN_NAME + ". Configure at least one " + IndexRoutePlugin.PLUGIN_NAME + " or mdcKey");
+            }
+
+            if (maxRoutes <= 0) {
+                throw new ConfigurationException("maxRoutes must be higher than 0 for " + PLUGIN_NAME);
+            }
+
+            return new RoutingIndexNamePlugin(this);
+
+        }
+
+        /**
+         * @param name route name
+         * @return {@link RollingMillisFormatter} if {@code pattern} is configured, constant name otherwise
+         */
+        MillisFormatter createFormatter(final String name) {
+
+            if (pattern == null) {
+                return millis -> name;
+            }
+
+            return new RollingMillisFormatter.Builder()
+                    .withInitialTimestamp(getInitialTimestamp())
+                    .withPrefix(name)
+                    .withSeparator(separator)
+                    .withPattern(pattern)
+                    .withTimeZone(timeZone)
+                    .build();
+
+        }
+
+        public Builder withIndexName(final String indexName) {
+            this.indexName = indexName;
+            return this;
+        }
+
+        public Builder withPattern(final String pattern) {
+            this.pattern = pattern;
+            return this;
+        }
+
+        public Builder withTimeZone(final String timeZone) {
+            this.timeZone = timeZone;
+            return this;
+        }
+
+        public Builder withSeparator(final String separator) {
+            this.separator = separator;
+            return this;
+        }
+
+        public Builder withMdcKey(final String mdcKey) {
+            this.mdcKey = mdcKey;
+            return this;
+        }
+
+        public Builder withMaxRoutes(final int maxRoutes) {
+            this.maxRoutes = maxRoutes;
+            return this;
+        }
+
+        public Builder withRoutes(final IndexRoutePlugin... routes) {
+            this.routes = routes;
+            return this;
+        }
+
+        long getInitialTimestamp() {
+            return System.currentTimeMillis();
+        }
+
+    }
+
+}
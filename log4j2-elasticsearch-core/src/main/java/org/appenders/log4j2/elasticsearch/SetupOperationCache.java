@@ -0,0 +1,111 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.TreeSet;
+
+/**
+ * Keeps track of successfully executed setup operations, so unchanged operations can be skipped.
+ */
+public interface SetupOperationCache {
+
+    /**
+     * Doesn't keep track of anything. All operations are executed
+     */
+    SetupOperationCache NOOP = new SetupOperationCache() {
+
+        @Override
+        public boolean contains(final String key) {
+            return false;
+        }
+
+        @Override
+        public void put(final String key) {
+            // noop
+        }
+
+    };
+
+    /**
+     * @param key operation key
+     * @return true, if operation with given key was executed successfully, false otherwise
+     */
+    boolean contains(String key);
+
+    /**
+     * Records successful execution of operation with given key
+     *
+     * @param key operation key
+     */
+    void put(String key);
+
+    /**
+     * Key changes whenever type, name or source of given {@link OpSource} or target cluster changes.
+     * <p>
+     * NOTE: Values resolved by {@link ValueResolver} after this key is created are not a part of it
+     *
+     * @param opSource operation definition
+     * @param serverUris target cluster, e.g. configured server URIs. Order doesn't matter
+     * @return SHA-256 based key of given {@link OpSource} executed against given cluster
+     */
+    static String key(final OpSource opSource, final Collection<String> serverUris) {
+
+        final StringBuilder sb = new StringBuilder(256)
+                .append(String.join(",", new TreeSet<>(serverUris))).append('\n')
+                .append(opSource.getType()).append('\n');
+
+        if (opSource instanceof IndexTemplate) {
+            sb.append(((IndexTemplate) opSource).getName());
+        } else if (opSource instanceof ComponentTemplate) {
+            sb.append(((ComponentTemplate) opSource).getName());
+        } else if (opSource instanceof DataStream) {
+            sb.append(((DataStream) opSource).getName());
+        } else if (opSource instanceof ILMPolicy) {
+            final ILMPolicy ilmPolicy = (ILMPolicy) opSource;
+            sb.append(ilmPolicy.getName()).append('\n')
+                    .append(ilmPolicy.getRolloverAlias()).append('\n')
+                    .append(ilmPolicy.isCreateBootstrapIndex());
+        }
+
+        sb.append('\n').append(opSource.getSource());
+
+        final byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        final StringBuilder key = new StringBuilder(opSource.getType().length() + 1 + digest.length * 2)
+                .append(opSource.getType()).append(':');
+        for (final byte b : digest) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16))
+                    .append(Character.forDigit(b & 0xF, 16));
+        }
+
+        return key.toString();
+
+    }
+
+}
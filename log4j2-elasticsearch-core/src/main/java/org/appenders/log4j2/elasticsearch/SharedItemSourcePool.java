@@ -0,0 +1,163 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.appenders.log4j2.elasticsearch.metrics.Measured;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsRegistry;
+
+/**
+ * Reference to {@link ItemSourcePool} registered at {@link SharedResources}.
+ * <p>
+ * Underlying pool is stopped when the last reference is stopped.
+ * Pool metrics are registered once per shared pool, see {@link SharedResources#register(String, Object, MetricsRegistry)}.
+ *
+ * @param <T> pooled item type
+ */
+public class SharedItemSourcePool<T> implements ItemSourcePool<T>, Measured {
+
+    private volatile State state = State.STOPPED;
+
+    private final String sharedName;
+    private final ItemSourcePool<T> delegate;
+    private final SharedResources sharedResources;
+
+    /**
+     * @param sharedName name of given pool at given {@link SharedResources}
+     * @param delegate acquired pool
+     * @param sharedResources registry that given pool was acquired from
+     */
+    public SharedItemSourcePool(final String sharedName, final ItemSourcePool<T> delegate, final SharedResources sharedResources) {
+        this.sharedName = sharedName;
+        this.delegate = delegate;
+        this.sharedResources = sharedResources;
+    }
+
+    /**
+     * @param poolName pool name
+     * @return name of pool with given name at {@link SharedResources}
+     */
+    public static String sharedName(final String poolName) {
+        return ItemSourcePool.class.getSimpleName() + ":" + poolName;
+    }
+
+    @Override
+    public void incrementPoolSize(final int delta) {
+        delegate.incrementPoolSize(delta);
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public void incrementPoolSize() {
+        delegate.incrementPoolSize();
+    }
+
+    @Override
+    public ItemSource<T> getPooled() throws PoolResourceException {
+        return delegate.getPooled();
+    }
+
+    @Override
+    public ItemSource<T> getPooledOrNull() {
+        return delegate.getPooledOrNull();
+    }
+
+    @Override
+    public boolean remove() {
+        return delegate.remove();
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public int getInitialSize() {
+        return delegate.getInitialSize();
+    }
+
+    @Override
+    public int getTotalSize() {
+        return delegate.getTotalSize();
+    }
+
+    @Override
+    public int getAvailableSize() {
+        return delegate.getAvailableSize();
+    }
+
+    /**
+     * Noop. Underlying pool is shut down when the last reference is stopped.
+     */
+    @Override
+    public void shutdown() {
+        // noop
+    }
+
+    @Override
+    public void register(final MetricsRegistry registry) {
+        sharedResources.register(sharedName, this, registry);
+    }
+
+    @Override
+    public void deregister() {
+        sharedResources.deregister(sharedName, this);
+    }
+
+    @Override
+    public void start() {
+
+        if (!delegate.isStarted()) {
+            delegate.start();
+        }
+
+        state = State.STARTED;
+
+    }
+
+    @Override
+    public void stop() {
+
+        if (isStopped()) {
+            return;
+        }
+
+        deregister();
+
+        if (sharedResources.release(sharedName, delegate) && !delegate.isStopped()) {
+            delegate.stop();
+        }
+
+        state = State.STOPPED;
+
+    }
+
+    @Override
+    public boolean isStarted() {
+        return state == State.STARTED;
+    }
+
+    @Override
+    public boolean isStopped() {
+        return state == State.STOPPED;
+    }
+
+}
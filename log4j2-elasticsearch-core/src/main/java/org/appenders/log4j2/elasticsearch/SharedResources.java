@@ -0,0 +1,178 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.appenders.log4j2.elasticsearch.metrics.Measured;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsRegistry;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * JVM-wide registry of named, reference-counted resources that can be shared by multiple appenders, e.g. HTTP clients or pools.
+ * <p>
+ * {@link #acquire(String, Class, Supplier)} creates the resource on first call and increments its reference count on each call.
+ * {@link #release(String, Object)} decrements it. Caller that released the last reference is responsible for closing the resource.
+ * <p>
+ * Metrics of shared resources are registered with {@link #register(String, Object, MetricsRegistry)}, so they're reported and reset by one {@link MetricsRegistry} only.
+ */
+public class SharedResources {
+
+    private static final SharedResources INSTANCE = new SharedResources();
+
+    private final Map<String, Shared> resources = new HashMap<>();
+
+    /* visible for testing */
+    SharedResources() {
+    }
+
+    public static SharedResources getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param name resource name
+     * @param type resource type
+     * @param factory creates the resource if there's no resource with given name yet
+     * @param <T> resource type
+     * @return resource registered with given name
+     * @throws IllegalStateException if resource registered with given name is not an instance of given type
+     */
+    public synchronized <T> T acquire(final String name, final Class<T> type, final Supplier<T> factory) {
+
+        final Shared shared = resources.get(name);
+        if (shared == null) {
+            final T resource = factory.get();
+            resources.put(name, new Shared(resource));
+            return resource;
+        }
+
+        if (!type.isInstance(shared.resource)) {
+            throw new IllegalStateException(String.format("Shared resource [%s] is not an instance of %s: %s",
+                    name,
+                    type.getSimpleName(),
+                    shared.resource.getClass().getSimpleName()));
+        }
+
+        shared.references++;
+        return type.cast(shared.resource);
+
+    }
+
+    /**
+     * @param name resource name
+     * @param resource previously acquired resource
+     * @return true, if last reference to given resource was released, false otherwise
+     */
+    public synchronized boolean release(final String name, final Object resource) {
+
+        final Shared shared = resources.get(name);
+        if (shared == null || shared.resource != resource) {
+            return false;
+        }
+
+        if (--shared.references > 0) {
+            return false;
+        }
+
+        resources.remove(name);
+        return true;
+
+    }
+
+    /**
+     * Registers metrics of resource with given name on behalf of given reference.
+     * <p>
+     * Metrics are registered only once, at registry of the first reference. Registries of subsequent references are kept
+     * and take over if previous owner deregisters with {@link #deregister(String, Object)}.
+     *
+     * @param name resource name
+     * @param reference object that uses the resource, e.g. {@link SharedItemSourcePool}
+     * @param registry registry of given reference
+     */
+    public synchronized void register(final String name, final Object reference, final MetricsRegistry registry) {
+
+        final Shared shared = resources.get(name);
+        if (shared == null || shared.registries.containsKey(reference)) {
+            return;
+        }
+
+        shared.registries.put(reference, registry);
+        if (shared.registries.size() == 1) {
+            Measured.of(shared.resource).register(registry);
+        }
+
+    }
+
+    /**
+     * Removes registration of given reference. If given reference owned resource metrics, they're deregistered and registered at registry of the next reference, if any.
+     *
+     * @param name resource name
+     * @param reference object that registered resource metrics with {@link #register(String, Object, MetricsRegistry)}
+     */
+    public synchronized void deregister(final String name, final Object reference) {
+
+        final Shared shared = resources.get(name);
+        if (shared == null || !shared.registries.containsKey(reference)) {
+            return;
+        }
+
+        final boolean owner = shared.registries.keySet().iterator().next() == reference;
+        shared.registries.remove(reference);
+
+        if (!owner) {
+            return;
+        }
+
+        final Measured measured = Measured.of(shared.resource);
+        measured.deregister();
+
+        if (!shared.registries.isEmpty()) {
+            measured.register(shared.registries.values().iterator().next());
+        }
+
+    }
+
+    /**
+     * @param name resource name
+     * @return number of references to resource registered with given name, 0 if there's no such resource
+     */
+    public synchronized int getReferenceCount(final String name) {
+        final Shared shared = resources.get(name);
+        return shared == null ? 0 : shared.references;
+    }
+
+    private static final class Shared {
+
+        private final Object resource;
+        private int references = 1;
+        // reference -> registry; resource metrics are registered at registry of the first entry only
+        private final Map<Object, MetricsRegistry> registries = new LinkedHashMap<>();
+
+        Shared(final Object resource) {
+            this.resource = resource;
+        }
+
+    }
+
+}
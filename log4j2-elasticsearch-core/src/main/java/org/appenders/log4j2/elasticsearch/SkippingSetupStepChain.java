@@ -34,6 +34,8 @@ public class SkippingSetupStepChain<T extends SetupStep<?, ?>> implements Operat
     protected final Collection<T> steps;
     protected final StepProcessor<T> stepProcessor;
 
+    private volatile Result result;
+
     /**
      * @param steps {@link SetupStep}s to process
      * @param stepProcessor called for each {@link SetupStep}
@@ -55,11 +57,24 @@ public class SkippingSetupStepChain<T extends SetupStep<?, ?>> implements Operat
     @Override
     public void execute() {
         SetupContext setupContext = new SetupContext(Result.SUCCESS);
+        Result result = Result.SUCCESS;
         for (T step : steps) {
             if (step.shouldProcess(setupContext)) {
                 setupContext.setLatestResult(stepProcessor.process(step));
+                if (Result.FAILURE.equals(setupContext.getLatestResult())) {
+                    result = Result.FAILURE;
+                }
             }
         }
+        this.result = result;
+    }
+
+    /**
+     * @return {@link Result#FAILURE} if any of processed steps failed during last {@link #execute()} call, {@link Result#SUCCESS} otherwise.
+     *         <i>null</i> if not executed yet
+     */
+    public Result getResult() {
+        return result;
     }
 
 }
@@ -27,6 +27,7 @@ import org.appenders.log4j2.elasticsearch.DelayedShutdown;
 import org.appenders.log4j2.elasticsearch.FailoverPolicy;
 import org.appenders.log4j2.elasticsearch.ItemSource;
 import org.appenders.log4j2.elasticsearch.LifeCycle;
+import org.appenders.log4j2.elasticsearch.jfr.FlightRecorderEvents;
 
 import java.io.File;
 import java.io.IOException;
@@ -132,11 +133,13 @@ public class ChronicleMapRetryFailoverPolicy implements FailoverPolicy<FailedIte
 
         try {
             failedItems.put(key, failedItem);
+            FlightRecorderEvents.failover(FlightRecorderEvents.FAILOVER_SPILL, 1, true);
             return true;
         } catch (Exception e) {
             // TODO: add to metrics
             storeFailureCount.incrementAndGet();
             getLogger().error("Unable to store {}. Cause: {}", failedItem.getClass().getSimpleName(), e.getMessage());
+            FlightRecorderEvents.failover(FlightRecorderEvents.FAILOVER_SPILL, 1, false);
             return false;
         }
 
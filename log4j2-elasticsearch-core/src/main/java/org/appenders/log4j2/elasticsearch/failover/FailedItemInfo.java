@@ -28,9 +28,19 @@ package org.appenders.log4j2.elasticsearch.failover;
 public class FailedItemInfo {
 
     private final String targetName;
+    private final String id;
 
     public FailedItemInfo(String targetName) {
+        this(targetName, null);
+    }
+
+    /**
+     * @param targetName item target name
+     * @param id item document ID, may be null
+     */
+    public FailedItemInfo(String targetName, String id) {
         this.targetName = targetName;
+        this.id = id;
     }
 
     /**
@@ -40,4 +50,11 @@ public class FailedItemInfo {
         return targetName;
     }
 
+    /**
+     * @return item document ID assigned before delivery, null if not assigned
+     */
+    public String getId() {
+        return id;
+    }
+
 }
@@ -27,7 +27,8 @@ public abstract class FailedItemInfoMixIn {
 
     @JsonCreator
     public FailedItemInfoMixIn(
-            @JsonProperty(value = "targetName", required = true) String targetName
+            @JsonProperty(value = "targetName", required = true) String targetName,
+            @JsonProperty(value = "id") String id
     ) {}
 
 }
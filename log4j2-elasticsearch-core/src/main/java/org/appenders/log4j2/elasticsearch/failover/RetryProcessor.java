@@ -21,6 +21,7 @@ package org.appenders.log4j2.elasticsearch.failover;
  */
 
 import org.appenders.log4j2.elasticsearch.ItemSource;
+import org.appenders.log4j2.elasticsearch.jfr.FlightRecorderEvents;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -125,16 +126,21 @@ class RetryProcessor implements Runnable {
         LockSupport.parkNanos(backoffMillis);
 
         Iterator<CharSequence> selectedKeys = selectedKeysList.iterator();
+        int retried = 0;
+        boolean succeeded = false;
         try {
             while (selectedKeys.hasNext()) {
                 CharSequence next = selectedKeys.next();
                 retry(next);
+                retried++;
             }
+            succeeded = true;
         } catch (Exception e) {
             readFailureCount.incrementAndGet();
             getLogger().error("Retry failed. Item may be lost. Cause: {}", e.getMessage());
         } finally {
             selectedKeysList.clear();
+            FlightRecorderEvents.failover(FlightRecorderEvents.FAILOVER_REPLAY, retried, succeeded);
         }
 
         // consider explicit update() on success
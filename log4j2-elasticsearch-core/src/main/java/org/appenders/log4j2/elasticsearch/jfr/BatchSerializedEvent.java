@@ -0,0 +1,51 @@
+package org.appenders.log4j2.elasticsearch.jfr;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Batch written into a request buffer.
+ */
+@Name(JfrEventWriter.NAME_PREFIX + "BatchSerialized")
+@Label("Batch Serialized")
+@Category(JfrEventWriter.CATEGORY)
+@Description("Batch written into a request buffer.")
+final class BatchSerializedEvent extends Event {
+
+    @Label("Size")
+    int size;
+
+    @Label("Bytes")
+    @DataAmount
+    int bytes;
+
+    @Label("Serialize Duration")
+    @Timespan
+    long serializeDuration;
+
+}
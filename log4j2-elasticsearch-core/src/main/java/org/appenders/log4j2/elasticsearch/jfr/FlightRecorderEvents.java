@@ -0,0 +1,126 @@
+package org.appenders.log4j2.elasticsearch.jfr;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.appenders.core.logging.InternalLogging.getLogger;
+
+/**
+ * Emits Java Flight Recorder events of batch lifecycle: batch emission, batch serialization, bulk request completion, pool resize and failover spill and replay.
+ * <p>Disabled by default. Use {@code -Dappenders.FlightRecorderEvents.enabled=true} to enable. When disabled (or if {@code jdk.jfr} is not available),
+ * each call is a single check of a constant, so it can be optimized out completely. When enabled, events are recorded only if they're enabled
+ * in current recording. All events are in "Log4j2 Elasticsearch" category.
+ * <p>Caller MUST NOT reference {@code jdk.jfr} types directly, so this class can be safely used on JVMs without JFR.
+ */
+public final class FlightRecorderEvents {
+
+    public static final String ENABLED_PROPERTY_NAME = "appenders." + FlightRecorderEvents.class.getSimpleName() + ".enabled";
+
+    public static final boolean ENABLED = isAvailable(Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY_NAME, "false")));
+
+    public static final String FAILOVER_SPILL = "spill";
+    public static final String FAILOVER_REPLAY = "replay";
+
+    private FlightRecorderEvents() {
+        // static only
+    }
+
+    static boolean isAvailable(final boolean enabled) {
+
+        if (!enabled) {
+            return false;
+        }
+
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (ClassNotFoundException e) {
+            getLogger().warn("{}: jdk.jfr not available. Events will not be recorded",
+                    FlightRecorderEvents.class.getSimpleName());
+            return false;
+        }
+
+    }
+
+    /**
+     * @param size number of items in emitted batch
+     * @param oldestItemAgeMillis age of the oldest item in emitted batch, 0 if not known
+     */
+    public static void batchEmitted(final int size, final long oldestItemAgeMillis) {
+        if (ENABLED) {
+            JfrEventWriter.batchEmitted(size, oldestItemAgeMillis);
+        }
+    }
+
+    /**
+     * @param size number of items in serialized batch
+     * @param bytes size of serialized batch
+     * @param durationNanos serialization time
+     */
+    public static void batchSerialized(final int size, final int bytes, final long durationNanos) {
+        if (ENABLED) {
+            JfrEventWriter.batchSerialized(size, bytes, durationNanos);
+        }
+    }
+
+    /**
+     * @param node address of the server the request was sent to, null if request failed before any server was acquired
+     * @param statusCode HTTP status code, 0 if request failed before response was received
+     * @param tookMillis time reported by the server
+     * @param latencyMillis time between request sent and response received
+     * @param size number of items in the request
+     * @param succeeded true, if all items were delivered, false otherwise
+     */
+    public static void bulkRequestCompleted(
+            final String node,
+            final int statusCode,
+            final int tookMillis,
+            final long latencyMillis,
+            final int size,
+            final boolean succeeded) {
+        if (ENABLED) {
+            JfrEventWriter.bulkRequestCompleted(node, statusCode, tookMillis, latencyMillis, size, succeeded);
+        }
+    }
+
+    /**
+     * @param poolName pool name
+     * @param oldSize total pool size before resize
+     * @param newSize total pool size after resize
+     * @param durationNanos resize time. Threads waiting for pooled elements wait at least this long
+     */
+    public static void poolResized(final String poolName, final int oldSize, final int newSize, final long durationNanos) {
+        if (ENABLED) {
+            JfrEventWriter.poolResized(poolName, oldSize, newSize, durationNanos);
+        }
+    }
+
+    /**
+     * @param operation {@link #FAILOVER_SPILL} or {@link #FAILOVER_REPLAY}
+     * @param size number of items stored or replayed
+     * @param succeeded false, if operation failed, true otherwise
+     */
+    public static void failover(final String operation, final int size, final boolean succeeded) {
+        if (ENABLED) {
+            JfrEventWriter.failover(operation, size, succeeded);
+        }
+    }
+
+}
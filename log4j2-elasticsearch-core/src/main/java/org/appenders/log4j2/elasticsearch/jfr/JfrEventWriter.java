@@ -0,0 +1,104 @@
+package org.appenders.log4j2.elasticsearch.jfr;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Creates and commits {@code jdk.jfr.Event}s. Loaded only if {@link FlightRecorderEvents#ENABLED}.
+ */
+final class JfrEventWriter {
+
+    static final String NAME_PREFIX = "org.appenders.log4j2.elasticsearch.";
+    static final String CATEGORY = "Log4j2 Elasticsearch";
+
+    private JfrEventWriter() {
+        // static only
+    }
+
+    static void batchEmitted(final int size, final long oldestItemAgeMillis) {
+
+        final BatchEmittedEvent event = new BatchEmittedEvent();
+        if (event.isEnabled()) {
+            event.size = size;
+            event.oldestItemAge = oldestItemAgeMillis;
+            event.commit();
+        }
+
+    }
+
+    static void batchSerialized(final int size, final int bytes, final long durationNanos) {
+
+        final BatchSerializedEvent event = new BatchSerializedEvent();
+        if (event.isEnabled()) {
+            event.size = size;
+            event.bytes = bytes;
+            event.serializeDuration = durationNanos;
+            event.commit();
+        }
+
+    }
+
+    static void bulkRequestCompleted(
+            final String node,
+            final int statusCode,
+            final int tookMillis,
+            final long latencyMillis,
+            final int size,
+            final boolean succeeded) {
+
+        final BulkRequestCompletedEvent event = new BulkRequestCompletedEvent();
+        if (event.isEnabled()) {
+            event.node = node;
+            event.statusCode = statusCode;
+            event.took = tookMillis;
+            event.latency = latencyMillis;
+            event.size = size;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+
+    }
+
+    static void poolResized(final String poolName, final int oldSize, final int newSize, final long durationNanos) {
+
+        final PoolResizedEvent event = new PoolResizedEvent();
+        if (event.isEnabled()) {
+            event.poolName = poolName;
+            event.oldSize = oldSize;
+            event.newSize = newSize;
+            event.resizeDuration = durationNanos;
+            event.commit();
+        }
+
+    }
+
+    static void failover(final String operation, final int size, final boolean succeeded) {
+
+        final FailoverEvent event = new FailoverEvent();
+        if (event.isEnabled()) {
+            event.operation = operation;
+            event.size = size;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+
+    }
+
+}
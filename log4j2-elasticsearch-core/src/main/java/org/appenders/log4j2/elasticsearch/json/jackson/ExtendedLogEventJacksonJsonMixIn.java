@@ -21,6 +21,7 @@ package org.appenders.log4j2.elasticsearch.json.jackson;
  */
 
 import com.fasterxml.jackson.databind.annotation.JsonAppend;
+import org.appenders.log4j2.elasticsearch.AggregatedLogEventWriter;
 import org.appenders.log4j2.elasticsearch.VirtualPropertiesWriter;
 import org.appenders.log4j2.elasticsearch.VirtualProperty;
 import org.appenders.log4j2.elasticsearch.thirdparty.LogEventJacksonJsonMixIn;
@@ -30,6 +31,11 @@ import org.appenders.log4j2.elasticsearch.thirdparty.LogEventJacksonJsonMixIn;
                 name = "virtualProperties", // irrelevant at runtime
                 type = VirtualProperty[].class, // irrelevant at runtime
                 value = VirtualPropertiesWriter.class
+        ),
+        @JsonAppend.Prop(
+                name = "aggregatedLogEvent", // irrelevant at runtime
+                type = Long.class, // irrelevant at runtime
+                value = AggregatedLogEventWriter.class
         )
 })
 public abstract class ExtendedLogEventJacksonJsonMixIn extends LogEventJacksonJsonMixIn {
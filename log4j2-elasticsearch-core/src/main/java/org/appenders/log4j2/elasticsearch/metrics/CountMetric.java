@@ -20,19 +20,21 @@ package org.appenders.log4j2.elasticsearch.metrics;
  * #L%
  */
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 /**
- * Resettable, {@code java.util.concurrent.atomic.AtomicLong}-based metric
- * <p>Both {@link #store(long)} and {@link #store(int)} add to the same, shared atomic variable.
+ * Resettable, {@code java.util.concurrent.atomic.LongAdder}-based metric
+ * <p>Both {@link #store(long)} and {@link #store(int)} add to the same, shared, striped adder, so concurrent writers do not contend on a single variable.
+ * <p>{@link #reset()} does not clear the adder. Instead, it remembers the sum it returned, so values stored while resetting are not lost.
  * <p><i>Thread-safe</i>
  */
 public class CountMetric implements Metric {
 
     private final Metric.Key key;
     private final long initialValue;
-    private final AtomicLong value;
+    private final LongAdder value = new LongAdder();
+    private long resetSum;
     private final Consumer<MetricCollector> consumer;
 
     /**
@@ -52,7 +54,6 @@ public class CountMetric implements Metric {
     public CountMetric(final Metric.Key key, final long initialValue, final boolean reset) {
         this.key = key;
         this.initialValue = initialValue;
-        this.value = new AtomicLong(initialValue);
         this.consumer = createMetricCollectorConsumer(reset);
     }
 
@@ -76,8 +77,11 @@ public class CountMetric implements Metric {
      * @return previous value
      */
     @Override
-    public long reset() {
-        return value.getAndSet(initialValue);
+    public synchronized long reset() {
+        final long sum = value.sum();
+        final long previous = initialValue + sum - resetSum;
+        resetSum = sum;
+        return previous;
     }
 
     /**
@@ -87,7 +91,7 @@ public class CountMetric implements Metric {
      */
     @Override
     public void store(final long value) {
-        this.value.addAndGet(value);
+        this.value.add(value);
     }
 
     /**
@@ -97,15 +101,15 @@ public class CountMetric implements Metric {
      */
     @Override
     public void store(final int value) {
-        this.value.addAndGet(value);
+        this.value.add(value);
     }
 
     /**
      * @return current value
      */
     @Override
-    public long getValue() {
-        return value.longValue();
+    public synchronized long getValue() {
+        return initialValue + value.sum() - resetSum;
     }
 
     /**
@@ -34,7 +34,9 @@ import static org.appenders.core.logging.InternalLogging.getLogger;
  *     <li>noop</li>
  *     <li>max</li>
  *     <li>count</li>
+ *     <li>histogram</li>
  * </ul>
+ * and non-resettable gauge
  */
 public class DefaultMetricsFactory implements MetricsFactory {
 
@@ -137,6 +139,12 @@ public class DefaultMetricsFactory implements MetricsFactory {
             case MAX: {
                 return new MaxLongMetric(new Metric.Key(componentName, metricName, "max"), 0L, metricConfig.isReset());
             }
+            case HISTOGRAM: {
+                return new HistogramMetric(new Metric.Key(componentName, metricName, "histogram"), metricConfig.isReset());
+            }
+            case GAUGE: {
+                return new GaugeMetric(new Metric.Key(componentName, metricName, "gauge"));
+            }
             default:
             case COUNT: {
                 return new CountMetric(new Metric.Key(componentName, metricName, "count"), 0L, metricConfig.isReset());
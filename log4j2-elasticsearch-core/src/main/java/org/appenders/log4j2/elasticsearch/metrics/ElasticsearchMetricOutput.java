@@ -0,0 +1,266 @@
+package org.appenders.log4j2.elasticsearch.metrics;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.appenders.log4j2.elasticsearch.BatchDelivery;
+import org.appenders.log4j2.elasticsearch.ItemSource;
+import org.appenders.log4j2.elasticsearch.ItemSourceFactory;
+import org.appenders.log4j2.elasticsearch.LifeCycle;
+import org.appenders.log4j2.elasticsearch.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.appenders.core.logging.InternalLogging.getLogger;
+
+/**
+ * Elasticsearch metric output.
+ * <p>Aggregates all values written during one collection cycle into a single document per component, e.g.:
+ * <pre>{"timeMillis":1650000000000,"component":"HCHttp-1","metrics":{"itemsSent.count":1000,"serverTookMs.max":12}}</pre>
+ * and hands it over to given {@link BatchDelivery} on {@link #flush()}.
+ * <p>Documents are serialized with given {@link ItemSourceFactory}, so pooled buffers can be used.
+ * <p>NOT thread-safe. Designed to be called by {@link MetricsProcessor} only.
+ */
+public class ElasticsearchMetricOutput implements MetricOutput, LifeCycle {
+
+    private volatile State state = State.STOPPED;
+
+    private final String name;
+    private final String indexName;
+    private final BatchDelivery<?> batchDelivery;
+    private final ItemSourceFactory<Object, ?> itemSourceFactory;
+    private final MetricFilter filter;
+    private final Serializer<Object> serializer = new ComponentMetricsSerializer();
+
+    private final Map<String, ComponentMetrics> components = new LinkedHashMap<>();
+
+    /**
+     * @param name output name
+     * @param indexName target index
+     * @param batchDelivery delivery of serialized documents
+     * @param itemSourceFactory {@link ItemSource} provider
+     * @param filter metric key filter
+     */
+    public ElasticsearchMetricOutput(
+            final String name,
+            final String indexName,
+            final BatchDelivery<?> batchDelivery,
+            final ItemSourceFactory<Object, ?> itemSourceFactory,
+            final MetricFilter filter) {
+        this.name = name;
+        this.indexName = indexName;
+        this.batchDelivery = batchDelivery;
+        this.itemSourceFactory = itemSourceFactory;
+        this.filter = filter;
+    }
+
+    /**
+     * Effectively, instance id.
+     *
+     * @return output name
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param key metric key
+     *
+     * @return <i>true</i>, if given {@link Metric.Key} is accepted by this output, <i>false</i> otherwise.
+     */
+    @Override
+    public final boolean accepts(final Metric.Key key) {
+        return filter.accepts(key);
+    }
+
+    /**
+     * Adds given value to current document of {@link Metric.Key#getComponentNamePart()} component
+     *
+     * @param timestamp timestamp
+     * @param key metric key
+     * @param value value to be written
+     */
+    @Override
+    public final void write(final long timestamp, final Metric.Key key, final long value) {
+        components.computeIfAbsent(key.getComponentNamePart(), ComponentMetrics::new)
+                .add(timestamp, key, value);
+    }
+
+    /**
+     * Delivers one document per component written since last call
+     */
+    @Override
+    public final void flush() {
+
+        for (ComponentMetrics componentMetrics : components.values()) {
+
+            if (componentMetrics.size == 0) {
+                continue;
+            }
+
+            try {
+                final ItemSource itemSource = itemSourceFactory.create(componentMetrics, serializer);
+                if (itemSource != null) {
+                    batchDelivery.add(indexName, itemSource);
+                } else {
+                    getLogger().warn("{}: Unable to create document. Metrics of {} dropped", name, componentMetrics.component);
+                }
+            } catch (Exception e) {
+                getLogger().error("{}: Unable to deliver metrics of {}: {}", name, componentMetrics.component, e.getMessage());
+            } finally {
+                componentMetrics.clear();
+            }
+
+        }
+
+    }
+
+    /**
+     * Values of one component collected in current cycle. Reused across cycles.
+     */
+    static class ComponentMetrics {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final String component;
+        private long timestamp;
+        private String[] names = new String[INITIAL_CAPACITY];
+        private long[] values = new long[INITIAL_CAPACITY];
+        private int size;
+
+        ComponentMetrics(final String component) {
+            this.component = component;
+        }
+
+        void add(final long timestamp, final Metric.Key key, final long value) {
+
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size << 1);
+                values = Arrays.copyOf(values, size << 1);
+            }
+
+            this.timestamp = timestamp;
+            names[size] = key.getMetricNamePart() + "." + key.getMetricTypePart();
+            values[size] = value;
+            size++;
+
+        }
+
+        void clear() {
+            Arrays.fill(names, 0, size, null);
+            size = 0;
+        }
+
+    }
+
+    private static class ComponentMetricsSerializer implements Serializer<Object> {
+
+        private final JsonFactory jsonFactory = new JsonFactory();
+
+        @Override
+        public void write(final OutputStream outputStream, final Object source) throws Exception {
+
+            final ComponentMetrics componentMetrics = (ComponentMetrics) source;
+
+            try (JsonGenerator generator = jsonFactory.createGenerator(outputStream)) {
+
+                generator.writeStartObject();
+                generator.writeNumberField("timeMillis", componentMetrics.timestamp);
+                generator.writeStringField("component", componentMetrics.component);
+                generator.writeObjectFieldStart("metrics");
+                for (int i = 0; i < componentMetrics.size; i++) {
+                    generator.writeNumberField(componentMetrics.names[i], componentMetrics.values[i]);
+                }
+                generator.writeEndObject();
+                generator.writeEndObject();
+
+            }
+
+        }
+
+        @Override
+        public byte[] writeAsBytes(final Object source) throws Exception {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(256);
+            write(outputStream, source);
+            return outputStream.toByteArray();
+        }
+
+        @Override
+        public String writeAsString(final Object source) throws Exception {
+            return new String(writeAsBytes(source), StandardCharsets.UTF_8);
+        }
+
+    }
+
+    // ==========
+    // LIFECYCLE
+    // ==========
+
+    @Override
+    public void start() {
+
+        if (isStarted()) {
+            return;
+        }
+
+        LifeCycle.of(itemSourceFactory).start();
+        batchDelivery.start();
+
+        state = State.STARTED;
+
+    }
+
+    @Override
+    public void stop() {
+
+        if (isStopped()) {
+            return;
+        }
+
+        getLogger().debug("{}: Stopping", name);
+
+        batchDelivery.stop();
+        LifeCycle.of(itemSourceFactory).stop();
+
+        state = State.STOPPED;
+
+        getLogger().debug("{}: Stopped", name);
+
+    }
+
+    @Override
+    public boolean isStarted() {
+        return state == State.STARTED;
+    }
+
+    @Override
+    public boolean isStopped() {
+        return state == State.STOPPED;
+    }
+
+}
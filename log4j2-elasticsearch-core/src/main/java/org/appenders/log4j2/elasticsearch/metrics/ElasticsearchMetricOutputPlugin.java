@@ -0,0 +1,155 @@
+package org.appenders.log4j2.elasticsearch.metrics;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.core.config.ConfigurationException;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
+import org.apache.logging.log4j.core.config.plugins.PluginElement;
+import org.appenders.log4j2.elasticsearch.BatchDelivery;
+import org.appenders.log4j2.elasticsearch.ItemSourceFactory;
+import org.appenders.log4j2.elasticsearch.StringItemSourceFactory;
+import org.appenders.log4j2.elasticsearch.util.SplitUtil;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * {@inheritDoc}
+ *
+ * <p>Log4j2 Core Plugin. See <a href="https://logging.apache.org/log4j/2.x/manual/plugins.html">Log4j2 Plugins docs</a>
+ */
+@Plugin(name = ElasticsearchMetricOutputPlugin.PLUGIN_NAME, category = Node.CATEGORY, elementType = ElasticsearchMetricOutputPlugin.ELEMENT_TYPE, printObject = true)
+public final class ElasticsearchMetricOutputPlugin extends ElasticsearchMetricOutput {
+
+    static final String PLUGIN_NAME = "ElasticsearchMetricOutput";
+    static final String ELEMENT_TYPE = "metricOutput";
+
+    /**
+     * @param name output name
+     * @param indexName target index
+     * @param batchDelivery delivery of serialized documents
+     * @param itemSourceFactory {@link org.appenders.log4j2.elasticsearch.ItemSource} provider
+     * @param filter metric key filter
+     */
+    public ElasticsearchMetricOutputPlugin(
+            final String name,
+            final String indexName,
+            final BatchDelivery<?> batchDelivery,
+            final ItemSourceFactory<Object, ?> itemSourceFactory,
+            final MetricFilter filter) {
+        super(name, indexName, batchDelivery, itemSourceFactory, filter);
+    }
+
+    @PluginBuilderFactory
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder implements org.apache.logging.log4j.core.util.Builder<ElasticsearchMetricOutputPlugin> {
+
+        @PluginBuilderAttribute
+        private String name;
+
+        @PluginBuilderAttribute
+        private String indexName;
+
+        @PluginBuilderAttribute
+        private String includes;
+
+        @PluginBuilderAttribute
+        private String excludes;
+
+        @PluginElement(BatchDelivery.ELEMENT_TYPE)
+        private BatchDelivery<?> batchDelivery;
+
+        @PluginElement(ItemSourceFactory.ELEMENT_TYPE)
+        private ItemSourceFactory<Object, ?> itemSourceFactory;
+
+        private final Set<String> includesSet = new TreeSet<>();
+        private final Set<String> excludesSet = new TreeSet<>();
+
+        @Override
+        public ElasticsearchMetricOutputPlugin build() {
+
+            if (name == null) {
+                throw new ConfigurationException("No name provided for " + PLUGIN_NAME);
+            }
+
+            if (indexName == null) {
+                throw new ConfigurationException("No indexName provided for " + PLUGIN_NAME);
+            }
+
+            if (batchDelivery == null) {
+                throw new ConfigurationException("No batchDelivery provided for " + PLUGIN_NAME);
+            }
+
+            includesSet.addAll(SplitUtil.split(includes));
+            excludesSet.addAll(SplitUtil.split(excludes));
+
+            return new ElasticsearchMetricOutputPlugin(
+                    name,
+                    indexName,
+                    batchDelivery,
+                    itemSourceFactory == null ? StringItemSourceFactory.newBuilder().build() : itemSourceFactory,
+                    new IncludeExclude(
+                            new ArrayList<>(includesSet),
+                            new ArrayList<>(excludesSet)
+                    )
+            );
+        }
+
+        public Builder withName(final String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder withIndexName(final String indexName) {
+            this.indexName = indexName;
+            return this;
+        }
+
+        public Builder withIncludes(final String includes) {
+            this.includes = includes;
+            return this;
+        }
+
+        public Builder withExcludes(final String excludes) {
+            this.excludes = excludes;
+            return this;
+        }
+
+        public Builder withBatchDelivery(final BatchDelivery<?> batchDelivery) {
+            this.batchDelivery = batchDelivery;
+            return this;
+        }
+
+        public Builder withItemSourceFactory(final ItemSourceFactory<Object, ?> itemSourceFactory) {
+            this.itemSourceFactory = itemSourceFactory;
+            return this;
+        }
+
+    }
+
+}
@@ -0,0 +1,111 @@
+package org.appenders.log4j2.elasticsearch.metrics;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Non-resettable, {@code java.util.concurrent.atomic.LongAdder}-based metric
+ * <p>Both {@link #store(long)} and {@link #store(int)} add given value (positive or negative) to the same, shared, striped adder,
+ * so it can track current level of a resource, e.g. number of items in use, without contention between writers.
+ * <p>{@link #reset()} and {@link #accept(MetricCollector)} do not change current value.
+ * <p><i>Thread-safe</i>
+ */
+public class GaugeMetric implements Metric {
+
+    private final Metric.Key key;
+    private final LongAdder value = new LongAdder();
+
+    /**
+     * 0 by default.
+     *
+     * @param key metric key
+     */
+    public GaugeMetric(final Metric.Key key) {
+        this(key, 0L);
+    }
+
+    /**
+     * @param key metric key
+     * @param initialValue initial value
+     */
+    public GaugeMetric(final Metric.Key key, final long initialValue) {
+        this.key = key;
+        this.value.add(initialValue);
+    }
+
+    /**
+     * @return metric key
+     */
+    @Override
+    public Metric.Key getKey() {
+        return key;
+    }
+
+    /**
+     * Gauge is never reset
+     *
+     * @return current value
+     */
+    @Override
+    public long reset() {
+        return getValue();
+    }
+
+    /**
+     * Adds given {@code long} value
+     *
+     * @param value value to add, MAY be negative
+     */
+    @Override
+    public void store(final long value) {
+        this.value.add(value);
+    }
+
+    /**
+     * Adds given {@code int} value
+     *
+     * @param value value to add, MAY be negative
+     */
+    @Override
+    public void store(final int value) {
+        this.value.add(value);
+    }
+
+    /**
+     * @return current value
+     */
+    @Override
+    public long getValue() {
+        return value.sum();
+    }
+
+    /**
+     * Passes current value to given {@code metricCollector}
+     *
+     * @param metricCollector metric value consumer
+     */
+    @Override
+    public void accept(final MetricCollector metricCollector) {
+        metricCollector.collect(key, getValue());
+    }
+
+}
@@ -0,0 +1,297 @@
+package org.appenders.log4j2.elasticsearch.metrics;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Resettable, fixed-memory histogram. Values are counted in log-linear buckets: exact up to {@code 63},
+ * then {@code 32} buckets per power of 2 (less than 3.2% relative error).
+ * <p>{@link #accept(MetricCollector)} collects {@code p50}, {@code p90}, {@code p99}, {@code p999}, {@code max} and {@code count}
+ * of values stored since last collection (or since creation, if constructed with {@code reset=false}).
+ * <p>Negative values are stored as 0.
+ * <p><i>Thread-safe</i>. {@link #store(long)} is wait-free. Collection waits for in-flight {@link #store(long)} calls to complete.
+ */
+public class HistogramMetric implements Metric {
+
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static final int BUCKET_COUNT = SUB_BUCKET_COUNT * (64 - SUB_BUCKET_BITS);
+
+    private static final double[] PERCENTILES = new double[] { 50.0, 90.0, 99.0, 99.9 };
+    private static final String[] PERCENTILE_TYPE_PARTS = new String[] { "p50", "p90", "p99", "p999" };
+
+    private final Metric.Key key;
+    private final Metric.Key[] keys;
+    private final boolean reset;
+
+    // writer-reader phaser
+    private final AtomicLong startEpoch = new AtomicLong(0);
+    private final AtomicLong evenEndEpoch = new AtomicLong(0);
+    private final AtomicLong oddEndEpoch = new AtomicLong(Long.MIN_VALUE);
+
+    private volatile Interval active = new Interval();
+    private Interval inactive = new Interval();
+
+    // reader-side state, guarded by this
+    private final long[] snapshot = new long[BUCKET_COUNT];
+    private long snapshotMax;
+
+    /**
+     * @param key metric key
+     * @param reset if <i>true</i>, reset on each {@link #accept(MetricCollector)} call
+     */
+    public HistogramMetric(final Metric.Key key, final boolean reset) {
+        this.key = key;
+        this.reset = reset;
+        this.keys = new Metric.Key[PERCENTILE_TYPE_PARTS.length + 2];
+        for (int i = 0; i < PERCENTILE_TYPE_PARTS.length; i++) {
+            keys[i] = createKey(key, PERCENTILE_TYPE_PARTS[i]);
+        }
+        keys[PERCENTILE_TYPE_PARTS.length] = createKey(key, "max");
+        keys[PERCENTILE_TYPE_PARTS.length + 1] = createKey(key, "count");
+    }
+
+    private static Metric.Key createKey(final Metric.Key key, final String metricTypePart) {
+        return new Metric.Key(key.getComponentNamePart(), key.getMetricNamePart(), metricTypePart);
+    }
+
+    @Override
+    public Metric.Key getKey() {
+        return key;
+    }
+
+    /**
+     * @return {@code p50}, {@code p90}, {@code p99}, {@code p999}, {@code max} and {@code count} keys
+     */
+    @Override
+    public Metric.Key[] getKeys() {
+        return keys;
+    }
+
+    /**
+     * Stores given value in matching bucket.
+     *
+     * <p>Shares store with {@link #store(int)}
+     *
+     * @param value value to store
+     */
+    @Override
+    public void store(final long value) {
+
+        final long epoch = startEpoch.getAndIncrement();
+        try {
+            active.record(value < 0 ? 0 : value);
+        } finally {
+            (epoch < 0 ? oddEndEpoch : evenEndEpoch).getAndIncrement();
+        }
+
+    }
+
+    /**
+     * Stores given value in matching bucket.
+     *
+     * <p>Shares store with {@link #store(long)}
+     *
+     * @param value value to store
+     */
+    @Override
+    public void store(final int value) {
+        store((long) value);
+    }
+
+    /**
+     * @return number of values stored since last reset
+     */
+    @Override
+    public synchronized long getValue() {
+        return count(snapshot) + active.count();
+    }
+
+    /**
+     * Resets this instance regardless of {@code reset} setting.
+     *
+     * @return number of values stored since last reset
+     */
+    @Override
+    public synchronized long reset() {
+
+        snapshot();
+
+        final long count = count(snapshot);
+        clearSnapshot();
+
+        return count;
+
+    }
+
+    /**
+     * Passes {@code p50}, {@code p90}, {@code p99}, {@code p999}, {@code max} and {@code count} to given {@link MetricCollector}, then resets if needed.
+     *
+     * @param metricCollector metric value consumer
+     */
+    @Override
+    public synchronized void accept(final MetricCollector metricCollector) {
+
+        snapshot();
+
+        final long count = count(snapshot);
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            metricCollector.collect(keys[i], valueAtPercentile(count, PERCENTILES[i]));
+        }
+        metricCollector.collect(keys[PERCENTILES.length], snapshotMax);
+        metricCollector.collect(keys[PERCENTILES.length + 1], count);
+
+        if (reset) {
+            clearSnapshot();
+        }
+
+    }
+
+    /**
+     * Swaps intervals, waits for in-flight writes to complete and adds inactive interval to {@link #snapshot}
+     */
+    private void snapshot() {
+
+        final Interval previous = active;
+        active = inactive;
+        inactive = previous;
+
+        final boolean nextPhaseIsEven = startEpoch.get() < 0;
+        final long initialStartValue = nextPhaseIsEven ? 0 : Long.MIN_VALUE;
+
+        (nextPhaseIsEven ? evenEndEpoch : oddEndEpoch).set(initialStartValue);
+        final long startValueAtFlip = startEpoch.getAndSet(initialStartValue);
+
+        final AtomicLong previousEndEpoch = nextPhaseIsEven ? oddEndEpoch : evenEndEpoch;
+        while (previousEndEpoch.get() != startValueAtFlip) {
+            Thread.yield();
+        }
+
+        previous.drainTo(snapshot);
+        snapshotMax = Math.max(snapshotMax, previous.max.getAndSet(0));
+
+    }
+
+    private void clearSnapshot() {
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = 0;
+        }
+        snapshotMax = 0;
+    }
+
+    private long valueAtPercentile(final long count, final double percentile) {
+
+        if (count == 0) {
+            return 0;
+        }
+
+        final long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                return Math.min(highestEquivalentValue(i), snapshotMax);
+            }
+        }
+
+        return snapshotMax;
+
+    }
+
+    private static long count(final long[] counts) {
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            count += counts[i];
+        }
+        return count;
+    }
+
+    /**
+     * @param value non-negative value
+     * @return bucket index
+     */
+    static int bucketIndex(final long value) {
+
+        if (value < SUB_BUCKET_COUNT << 1) {
+            return (int) value;
+        }
+
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKET_COUNT * (shift + 1) + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+
+    }
+
+    /**
+     * @param bucketIndex bucket index
+     * @return highest value counted in given bucket
+     */
+    static long highestEquivalentValue(final int bucketIndex) {
+
+        if (bucketIndex < SUB_BUCKET_COUNT << 1) {
+            return bucketIndex;
+        }
+
+        final int shift = bucketIndex / SUB_BUCKET_COUNT - 1;
+        final long top = bucketIndex % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((top + 1) << shift) - 1;
+
+    }
+
+    private static class Interval {
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong max = new AtomicLong();
+
+        void record(final long value) {
+
+            counts.getAndIncrement(bucketIndex(value));
+
+            long current = max.get();
+            while (value > current && !max.compareAndSet(current, value)) {
+                current = max.get();
+            }
+
+        }
+
+        long count() {
+            long count = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                count += counts.get(i);
+            }
+            return count;
+        }
+
+        void drainTo(final long[] target) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                final long count = counts.get(i);
+                if (count != 0) {
+                    target[i] += count;
+                    counts.set(i, 0);
+                }
+            }
+        }
+
+    }
+
+}
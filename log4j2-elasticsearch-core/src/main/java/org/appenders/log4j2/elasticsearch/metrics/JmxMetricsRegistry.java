@@ -0,0 +1,182 @@
+package org.appenders.log4j2.elasticsearch.metrics;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import static org.appenders.core.logging.InternalLogging.getLogger;
+
+/**
+ * {@link MetricsRegistry} decorator exposing registered metrics via JMX.
+ * <p>{@link ComponentMetricsMXBean} is registered when the first metric of given component is registered (usually on {@link Measured#register(MetricsRegistry)})
+ * and unregistered when the last metric of given component is deregistered.
+ * <p>MBeans are registered as {@code org.appenders.log4j2.elasticsearch:type=Metrics,component=<quoted component name>}.
+ * <p>Values are read on demand and do not interfere with {@link MetricsProcessor} collection. See {@link MetricsSnapshot}.
+ */
+public class JmxMetricsRegistry implements MetricsRegistry {
+
+    static final String DOMAIN = "org.appenders.log4j2.elasticsearch";
+    private static final String SIMPLE_NAME = JmxMetricsRegistry.class.getSimpleName();
+
+    private final MetricsRegistry metrics;
+    private final MBeanServer mBeanServer;
+    private final Map<String, ObjectName> registered = new ConcurrentHashMap<>();
+
+    /**
+     * @param metrics registered metrics store
+     */
+    public JmxMetricsRegistry(final MetricsRegistry metrics) {
+        this(metrics, ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /**
+     * @param metrics registered metrics store
+     * @param mBeanServer {@link ComponentMetricsMXBean}s target
+     */
+    public JmxMetricsRegistry(final MetricsRegistry metrics, final MBeanServer mBeanServer) {
+        this.metrics = metrics;
+        this.mBeanServer = mBeanServer;
+    }
+
+    @Override
+    public long version() {
+        return metrics.version();
+    }
+
+    @Override
+    public Registration register(final Metric metric) {
+
+        metrics.register(metric);
+        registered.computeIfAbsent(metric.getKey().getComponentNamePart(), this::registerMBean);
+
+        return () -> this.deregister(metric);
+
+    }
+
+    @Override
+    public void deregister(final Metric metric) {
+
+        metrics.deregister(metric);
+
+        final String componentName = metric.getKey().getComponentNamePart();
+        registered.computeIfPresent(componentName, (name, objectName) -> {
+            if (metrics.getMetrics(byComponent(name)).isEmpty()) {
+                unregisterMBean(objectName);
+                return null;
+            }
+            return objectName;
+        });
+
+    }
+
+    @Override
+    public Set<Metric> getMetrics(final Predicate<Metric> predicate) {
+        return metrics.getMetrics(predicate);
+    }
+
+    @Override
+    public void clear() {
+
+        metrics.clear();
+
+        registered.keySet().forEach(componentName -> registered.computeIfPresent(componentName, (name, objectName) -> {
+            unregisterMBean(objectName);
+            return null;
+        }));
+
+    }
+
+    /**
+     * @param componentName component name
+     * @return MBean name of given component
+     */
+    public static ObjectName objectName(final String componentName) {
+        try {
+            return new ObjectName(DOMAIN + ":type=Metrics,component=" + ObjectName.quote(componentName));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid component name: " + componentName, e);
+        }
+    }
+
+    private ObjectName registerMBean(final String componentName) {
+
+        final ObjectName objectName = objectName(componentName);
+        try {
+            mBeanServer.registerMBean(new ComponentMetrics(componentName, metrics), objectName);
+            getLogger().debug("{}: Registered {}", SIMPLE_NAME, objectName);
+            return objectName;
+        } catch (InstanceAlreadyExistsException e) {
+            getLogger().warn("{}: {} already registered", SIMPLE_NAME, objectName);
+        } catch (Exception e) {
+            getLogger().error("{}: Unable to register {}: {}", SIMPLE_NAME, objectName, e.getMessage());
+        }
+
+        // not stored, next registration of this component will try again
+        return null;
+
+    }
+
+    private void unregisterMBean(final ObjectName objectName) {
+        try {
+            mBeanServer.unregisterMBean(objectName);
+            getLogger().debug("{}: Unregistered {}", SIMPLE_NAME, objectName);
+        } catch (InstanceNotFoundException e) {
+            // already gone, nothing to do
+        } catch (Exception e) {
+            getLogger().error("{}: Unable to unregister {}: {}", SIMPLE_NAME, objectName, e.getMessage());
+        }
+    }
+
+    private static Predicate<Metric> byComponent(final String componentName) {
+        return metric -> componentName.equals(metric.getKey().getComponentNamePart());
+    }
+
+    static class ComponentMetrics implements ComponentMetricsMXBean {
+
+        private final String componentName;
+        private final MetricsRegistry metrics;
+
+        ComponentMetrics(final String componentName, final MetricsRegistry metrics) {
+            this.componentName = componentName;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public String getComponentName() {
+            return componentName;
+        }
+
+        @Override
+        public Map<String, Long> getValues() {
+            return MetricsSnapshot.of(metrics, byComponent(componentName)).getValues(componentName);
+        }
+
+    }
+
+}
@@ -34,6 +34,13 @@ public interface Metric {
 
     Metric.Key getKey();
 
+    /**
+     * @return keys of all values passed to {@link MetricCollector} on {@link #accept(MetricCollector)}, in the same order. {@link #getKey()} by default
+     */
+    default Metric.Key[] getKeys() {
+        return new Metric.Key[] { getKey() };
+    }
+
     /**
      * SHOULD store given {@code long} value
      *
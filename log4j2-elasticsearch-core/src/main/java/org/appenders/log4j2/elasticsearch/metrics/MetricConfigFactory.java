@@ -46,6 +46,22 @@ public class MetricConfigFactory {
         return new MetricConfig(MetricType.COUNT, name, enabled, reset);
     }
 
+    public static MetricConfig createHistogramConfig(final String name, final boolean reset) {
+        return createHistogramConfig(true, name, reset);
+    }
+
+    public static MetricConfig createHistogramConfig(final boolean enabled, final String name, final boolean reset) {
+        return new MetricConfig(MetricType.HISTOGRAM, name, enabled, reset);
+    }
+
+    public static MetricConfig createGaugeConfig(final String name) {
+        return createGaugeConfig(true, name);
+    }
+
+    public static MetricConfig createGaugeConfig(final boolean enabled, final String name) {
+        return new MetricConfig(MetricType.GAUGE, name, enabled, false);
+    }
+
     public static MetricConfig createSuppliedConfig(final MetricType metricType, final boolean enabled, final String name) {
         return new SuppliedMetricConfig(metricType, name, enabled);
     }
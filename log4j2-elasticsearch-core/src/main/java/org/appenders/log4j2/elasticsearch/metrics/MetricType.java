@@ -23,5 +23,7 @@ package org.appenders.log4j2.elasticsearch.metrics;
 public enum MetricType {
     MAX,
     COUNT,
+    HISTOGRAM,
+    GAUGE,
     SUPPLIED
 }
@@ -24,6 +24,7 @@ import org.appenders.log4j2.elasticsearch.LifeCycle;
 
 import java.time.Clock;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -94,6 +95,15 @@ public class MetricsProcessor implements Measured, LifeCycle {
         measured.register(metrics);
     }
 
+    /**
+     * Reads current values of all registered metrics on demand. Does NOT reset any metric, so it can be safely used alongside {@link #process()}.
+     *
+     * @return current values of all registered metrics
+     */
+    public MetricsSnapshot snapshot() {
+        return MetricsSnapshot.of(metrics);
+    }
+
     /**
      * Removes all registered metrics from {@link MetricsRegistry}. Next {@link #process()} will not collect any metrics or write to any {@link MetricOutput}s.
      *
@@ -115,7 +125,7 @@ public class MetricsProcessor implements Measured, LifeCycle {
         private Collector(final Clock clock, final Set<Metric> metrics) {
             this.clock = clock;
             this.iterator = new Itr<>(metrics.stream()
-                    .map(Metric::getKey)
+                    .flatMap(metric -> Arrays.stream(metric.getKeys()))
                     .map(CollectedValue::new)
                     .toArray(CollectedValue[]::new));
         }
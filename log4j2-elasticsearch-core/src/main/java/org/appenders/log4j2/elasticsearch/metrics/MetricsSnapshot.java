@@ -0,0 +1,105 @@
+package org.appenders.log4j2.elasticsearch.metrics;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Point-in-time, read-only view of {@link Metric} values stored in {@link MetricsRegistry}.
+ * <p>Values are read with {@link Metric#getValue()}, so taking a snapshot does NOT reset any metric and does NOT interfere with {@link MetricsProcessor} collection.
+ * <p>Metrics of type {@code noop} are omitted.
+ */
+public final class MetricsSnapshot {
+
+    private static final String NOOP_TYPE = "noop";
+
+    private final long timestamp;
+    private final Map<String, Map<String, Long>> components;
+
+    MetricsSnapshot(final long timestamp, final Map<String, Map<String, Long>> components) {
+        this.timestamp = timestamp;
+        this.components = components;
+    }
+
+    /**
+     * @param registry metrics store
+     * @return values of all metrics registered with given registry
+     */
+    public static MetricsSnapshot of(final MetricsRegistry registry) {
+        return of(registry, metric -> true);
+    }
+
+    /**
+     * @param registry metrics store
+     * @param predicate metrics matcher
+     * @return values of metrics registered with given registry and matching given predicate
+     */
+    public static MetricsSnapshot of(final MetricsRegistry registry, final Predicate<Metric> predicate) {
+
+        final Set<Metric> metrics = registry.getMetrics(metric -> !NOOP_TYPE.equals(metric.getKey().getMetricTypePart()) && predicate.test(metric));
+
+        final Map<String, Map<String, Long>> components = new LinkedHashMap<>();
+        for (final Metric metric : metrics) {
+            final Metric.Key key = metric.getKey();
+            components.computeIfAbsent(key.getComponentNamePart(), componentName -> new LinkedHashMap<>())
+                    .put(key.getMetricNamePart(), metric.getValue());
+        }
+
+        return new MetricsSnapshot(System.currentTimeMillis(), components);
+
+    }
+
+    /**
+     * @return millis when this snapshot was taken
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return names of components with at least one metric in this snapshot
+     */
+    public Set<String> getComponentNames() {
+        return Collections.unmodifiableSet(components.keySet());
+    }
+
+    /**
+     * @param componentName component name
+     * @return metric name to value mappings of given component, empty if component is not known
+     */
+    public Map<String, Long> getValues(final String componentName) {
+        return Collections.unmodifiableMap(components.getOrDefault(componentName, Collections.emptyMap()));
+    }
+
+    /**
+     * @param componentName component name
+     * @param metricName metric name
+     * @return value of given metric, {@code null} if metric is not known
+     */
+    public Long getValue(final String componentName, final String metricName) {
+        return getValues(componentName).get(metricName);
+    }
+
+}
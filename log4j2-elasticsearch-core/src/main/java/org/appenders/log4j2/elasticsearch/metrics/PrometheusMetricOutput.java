@@ -0,0 +1,435 @@
+package org.appenders.log4j2.elasticsearch.metrics;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.appenders.log4j2.elasticsearch.LifeCycle;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.appenders.core.logging.InternalLogging.getLogger;
+
+/**
+ * Prometheus metric output.
+ * <p>Renders all values written during one collection cycle in <a href="https://prometheus.io/docs/instrumenting/exposition_formats/">Prometheus text format</a>, e.g.:
+ * <pre>
+ * # TYPE log4j2_elasticsearch_available gauge
+ * log4j2_elasticsearch_available{component="itemPool",type="max"} 100
+ * </pre>
+ * Metric name is derived from {@link Metric.Key#getMetricNamePart()}, component and metric type are exposed as labels.
+ * <p>Rendered page is published on {@link #flush()} and double-buffered, so {@link #writeTo(OutputStream)} and scrapes never block {@link MetricsProcessor} and do not allocate.
+ * <p>If configured with positive {@code port}, serves the latest page at {@code http://<host>:<port><path>} with embedded JDK {@code HttpServer}.
+ * <p>{@link #write(long, Metric.Key, long)} and {@link #flush()} are NOT thread-safe. Designed to be called by {@link MetricsProcessor} only.
+ */
+public class PrometheusMetricOutput implements MetricOutput, LifeCycle {
+
+    static final String NAME_PREFIX = "log4j2_elasticsearch_";
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private volatile State state = State.STOPPED;
+
+    private final String name;
+    private final String host;
+    private final int port;
+    private final String path;
+    private final MetricFilter filter;
+
+    private final Map<String, Family> families = new LinkedHashMap<>();
+    private final Map<String, byte[]> samplePrefixes = new HashMap<>();
+
+    private volatile Page front = new Page(0);
+    private Page back = new Page(1024);
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * @param name output name
+     * @param host embedded endpoint host
+     * @param port embedded endpoint port. Endpoint is NOT started if {@code port <= 0}
+     * @param path embedded endpoint path
+     * @param filter metric key filter
+     */
+    public PrometheusMetricOutput(
+            final String name,
+            final String host,
+            final int port,
+            final String path,
+            final MetricFilter filter) {
+        this.name = name;
+        this.host = host;
+        this.port = port;
+        this.path = path;
+        this.filter = filter;
+    }
+
+    /**
+     * Effectively, instance id.
+     *
+     * @return output name
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param key metric key
+     *
+     * @return <i>true</i>, if given {@link Metric.Key} is accepted by this output, <i>false</i> otherwise.
+     */
+    @Override
+    public final boolean accepts(final Metric.Key key) {
+        return filter.accepts(key);
+    }
+
+    /**
+     * Adds given value to the page rendered in current cycle
+     *
+     * @param timestamp timestamp
+     * @param key metric key
+     * @param value value to be written
+     */
+    @Override
+    public final void write(final long timestamp, final Metric.Key key, final long value) {
+
+        Family family = families.get(key.getMetricNamePart());
+        if (family == null) {
+            family = new Family(sanitize(NAME_PREFIX + key.getMetricNamePart()));
+            families.put(key.getMetricNamePart(), family);
+        }
+
+        byte[] samplePrefix = samplePrefixes.get(key.toString());
+        if (samplePrefix == null) {
+            samplePrefix = samplePrefix(family.name, key);
+            samplePrefixes.put(key.toString(), samplePrefix);
+        }
+
+        family.samples.write(samplePrefix).writeLong(value).write('\n');
+
+    }
+
+    /**
+     * Publishes the page rendered since last call
+     */
+    @Override
+    public final void flush() {
+
+        final Buffer page = back.buffer;
+        page.reset();
+
+        for (Family family : families.values()) {
+
+            if (family.samples.length == 0) {
+                continue;
+            }
+
+            page.write(family.header).write(family.samples.bytes, family.samples.length);
+            family.samples.reset();
+
+        }
+
+        final Page published = front;
+        front = back;
+
+        // reuse previous page only if no reader holds it, otherwise it will be garbage collected once released
+        back = published.readers.get() == 0 ? published : new Page(published.buffer.bytes.length);
+
+    }
+
+    /**
+     * Writes the latest published page to given stream
+     *
+     * @param outputStream target
+     * @throws IOException if write fails
+     */
+    public void writeTo(final OutputStream outputStream) throws IOException {
+
+        final Page page = acquire();
+        try {
+            page.buffer.writeTo(outputStream);
+        } finally {
+            page.readers.decrementAndGet();
+        }
+
+    }
+
+    private Page acquire() {
+
+        while (true) {
+            final Page page = front;
+            page.readers.incrementAndGet();
+            if (page == front) {
+                return page;
+            }
+            // page swapped in the meantime, it may be reused by next flush()
+            page.readers.decrementAndGet();
+        }
+
+    }
+
+    static String sanitize(final String metricName) {
+
+        final StringBuilder sb = new StringBuilder(metricName.length());
+        for (int i = 0; i < metricName.length(); i++) {
+            final char c = metricName.charAt(i);
+            final boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == ':' || (i > 0 && c >= '0' && c <= '9');
+            sb.append(valid ? c : '_');
+        }
+        return sb.toString();
+
+    }
+
+    private static byte[] samplePrefix(final String familyName, final Metric.Key key) {
+
+        final StringBuilder sb = new StringBuilder(familyName.length() + 64)
+                .append(familyName)
+                .append("{component=\"");
+        appendLabelValue(sb, key.getComponentNamePart())
+                .append("\",type=\"");
+        appendLabelValue(sb, key.getMetricTypePart())
+                .append("\"} ");
+
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+
+    }
+
+    private static StringBuilder appendLabelValue(final StringBuilder sb, final String value) {
+
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb;
+
+    }
+
+    /**
+     * All samples of one metric name. Reused across cycles.
+     */
+    private static class Family {
+
+        private final String name;
+        private final byte[] header;
+        private final Buffer samples = new Buffer(256);
+
+        private Family(final String name) {
+            this.name = name;
+            this.header = ("# TYPE " + name + " gauge\n").getBytes(StandardCharsets.UTF_8);
+        }
+
+    }
+
+    /**
+     * Rendered page. Reused once no readers hold it.
+     */
+    private static class Page {
+
+        private final Buffer buffer;
+        private final AtomicInteger readers = new AtomicInteger();
+
+        private Page(final int initialCapacity) {
+            this.buffer = new Buffer(initialCapacity);
+        }
+
+    }
+
+    /**
+     * Growable byte buffer.
+     */
+    static class Buffer {
+
+        private byte[] bytes;
+        private int length;
+
+        Buffer(final int initialCapacity) {
+            this.bytes = new byte[initialCapacity];
+        }
+
+        Buffer write(final byte[] source) {
+            return write(source, source.length);
+        }
+
+        Buffer write(final byte[] source, final int sourceLength) {
+            ensureCapacity(sourceLength);
+            System.arraycopy(source, 0, bytes, length, sourceLength);
+            length += sourceLength;
+            return this;
+        }
+
+        Buffer write(final char c) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) c;
+            return this;
+        }
+
+        Buffer writeLong(final long value) {
+
+            if (value == Long.MIN_VALUE) {
+                return write(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+            }
+
+            long remaining = value;
+            if (remaining < 0) {
+                write('-');
+                remaining = -remaining;
+            }
+
+            int digits = 1;
+            for (long i = remaining; i >= 10; i /= 10) {
+                digits++;
+            }
+
+            ensureCapacity(digits);
+            for (int i = length + digits - 1; i >= length; i--) {
+                bytes[i] = (byte) ('0' + (remaining % 10));
+                remaining /= 10;
+            }
+            length += digits;
+
+            return this;
+
+        }
+
+        void writeTo(final OutputStream outputStream) throws IOException {
+            outputStream.write(bytes, 0, length);
+        }
+
+        void reset() {
+            length = 0;
+        }
+
+        private void ensureCapacity(final int additional) {
+            if (length + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, length + additional));
+            }
+        }
+
+    }
+
+    private class ScrapeHandler implements HttpHandler {
+
+        @Override
+        public void handle(final HttpExchange exchange) throws IOException {
+
+            final Page page = acquire();
+            try {
+                exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, page.buffer.length == 0 ? -1 : page.buffer.length);
+                if (page.buffer.length > 0) {
+                    page.buffer.writeTo(exchange.getResponseBody());
+                }
+            } finally {
+                page.readers.decrementAndGet();
+                exchange.close();
+            }
+
+        }
+
+    }
+
+    private static Thread newThread(final Runnable r) {
+        final Thread t = new Thread(r);
+        t.setDaemon(true);
+        t.setName(PrometheusMetricOutput.class.getSimpleName());
+        return t;
+    }
+
+    // ==========
+    // LIFECYCLE
+    // ==========
+
+    @Override
+    public void start() {
+
+        if (isStarted()) {
+            return;
+        }
+
+        if (port > 0) {
+            try {
+                executor = Executors.newSingleThreadExecutor(PrometheusMetricOutput::newThread);
+                server = HttpServer.create(new InetSocketAddress(host, port), 0);
+                server.createContext(path, new ScrapeHandler());
+                server.setExecutor(executor);
+                server.start();
+                getLogger().info("{}: Serving metrics at http://{}:{}{}", name, host, port, path);
+            } catch (IOException e) {
+                executor.shutdownNow();
+                throw new IllegalStateException(name + ": Unable to start endpoint at " + host + ":" + port, e);
+            }
+        }
+
+        state = State.STARTED;
+
+    }
+
+    @Override
+    public void stop() {
+
+        if (isStopped()) {
+            return;
+        }
+
+        getLogger().debug("{}: Stopping", name);
+
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+            executor = null;
+        }
+
+        state = State.STOPPED;
+
+        getLogger().debug("{}: Stopped", name);
+
+    }
+
+    @Override
+    public boolean isStarted() {
+        return state == State.STARTED;
+    }
+
+    @Override
+    public boolean isStopped() {
+        return state == State.STOPPED;
+    }
+
+}
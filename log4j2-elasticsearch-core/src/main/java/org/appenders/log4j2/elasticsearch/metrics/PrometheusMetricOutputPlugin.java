@@ -0,0 +1,155 @@
+package org.appenders.log4j2.elasticsearch.metrics;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.core.config.ConfigurationException;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
+import org.appenders.log4j2.elasticsearch.util.SplitUtil;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * {@inheritDoc}
+ *
+ * <p>Log4j2 Core Plugin. See <a href="https://logging.apache.org/log4j/2.x/manual/plugins.html">Log4j2 Plugins docs</a>
+ */
+@Plugin(name = PrometheusMetricOutputPlugin.PLUGIN_NAME, category = Node.CATEGORY, elementType = PrometheusMetricOutputPlugin.ELEMENT_TYPE, printObject = true)
+public final class PrometheusMetricOutputPlugin extends PrometheusMetricOutput {
+
+    static final String PLUGIN_NAME = "PrometheusMetricOutput";
+    static final String ELEMENT_TYPE = "metricOutput";
+
+    /**
+     * @param name output name
+     * @param host embedded endpoint host
+     * @param port embedded endpoint port. Endpoint is NOT started if {@code port <= 0}
+     * @param path embedded endpoint path
+     * @param filter metric key filter
+     */
+    public PrometheusMetricOutputPlugin(
+            final String name,
+            final String host,
+            final int port,
+            final String path,
+            final MetricFilter filter) {
+        super(name, host, port, path, filter);
+    }
+
+    @PluginBuilderFactory
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder implements org.apache.logging.log4j.core.util.Builder<PrometheusMetricOutputPlugin> {
+
+        static final String DEFAULT_HOST = "0.0.0.0";
+        static final int DEFAULT_PORT = -1;
+        static final String DEFAULT_PATH = "/metrics";
+
+        @PluginBuilderAttribute
+        private String name;
+
+        @PluginBuilderAttribute
+        private String host = DEFAULT_HOST;
+
+        @PluginBuilderAttribute
+        private int port = DEFAULT_PORT;
+
+        @PluginBuilderAttribute
+        private String path = DEFAULT_PATH;
+
+        @PluginBuilderAttribute
+        private String includes;
+
+        @PluginBuilderAttribute
+        private String excludes;
+
+        private final Set<String> includesSet = new TreeSet<>();
+        private final Set<String> excludesSet = new TreeSet<>();
+
+        @Override
+        public PrometheusMetricOutputPlugin build() {
+
+            if (name == null) {
+                throw new ConfigurationException("No name provided for " + PLUGIN_NAME);
+            }
+
+            if (port > 0 && host == null) {
+                throw new ConfigurationException("No host provided for " + PLUGIN_NAME);
+            }
+
+            if (port > 0 && (path == null || !path.startsWith("/"))) {
+                throw new ConfigurationException("path must start with '/' for " + PLUGIN_NAME);
+            }
+
+            includesSet.addAll(SplitUtil.split(includes));
+            excludesSet.addAll(SplitUtil.split(excludes));
+
+            return new PrometheusMetricOutputPlugin(
+                    name,
+                    host,
+                    port,
+                    path,
+                    new IncludeExclude(
+                            new ArrayList<>(includesSet),
+                            new ArrayList<>(excludesSet)
+                    )
+            );
+        }
+
+        public Builder withName(final String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder withHost(final String host) {
+            this.host = host;
+            return this;
+        }
+
+        public Builder withPort(final int port) {
+            this.port = port;
+            return this;
+        }
+
+        public Builder withPath(final String path) {
+            this.path = path;
+            return this;
+        }
+
+        public Builder withIncludes(final String includes) {
+            this.includes = includes;
+            return this;
+        }
+
+        public Builder withExcludes(final String excludes) {
+            this.excludes = excludes;
+            return this;
+        }
+
+    }
+
+}
@@ -75,6 +75,9 @@ public class ScheduledMetricsProcessorPlugin extends ScheduledMetricsProcessor i
         @PluginBuilderAttribute
         private long interval = DEFAULT_INTERVAL;
 
+        @PluginBuilderAttribute
+        private boolean jmx;
+
         private Clock clock = Clock.systemDefaultZone();
 
         private MetricsRegistry metricRegistry = new BasicMetricsRegistry();
@@ -100,7 +103,7 @@ public class ScheduledMetricsProcessorPlugin extends ScheduledMetricsProcessor i
             return new ScheduledMetricsProcessorPlugin(initialDelay,
                     interval,
                     clock,
-                    metricRegistry,
+                    jmx ? new JmxMetricsRegistry(metricRegistry) : metricRegistry,
                     new BasicMetricOutputsRegistry(metricOutputs));
 
         }
@@ -123,6 +126,15 @@ public class ScheduledMetricsProcessorPlugin extends ScheduledMetricsProcessor i
             return this;
         }
 
+        /**
+         * @param jmx if {@code true}, registered metrics will be exposed via JMX. See {@link JmxMetricsRegistry}
+         * @return this
+         */
+        public Builder withJmx(final boolean jmx) {
+            this.jmx = jmx;
+            return this;
+        }
+
         /**
          * @param clock metric timestamp source
          * @return this
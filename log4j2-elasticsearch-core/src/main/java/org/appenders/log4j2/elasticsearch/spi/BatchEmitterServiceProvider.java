@@ -25,6 +25,8 @@ import org.appenders.log4j2.elasticsearch.BatchEmitter;
 import org.appenders.log4j2.elasticsearch.BatchEmitterFactory;
 import org.appenders.log4j2.elasticsearch.ClientObjectFactory;
 import org.appenders.log4j2.elasticsearch.FailoverPolicy;
+import org.appenders.log4j2.elasticsearch.metrics.DefaultMetricsFactory;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsFactory;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -82,6 +84,29 @@ public class BatchEmitterServiceProvider {
                                        int deliveryInterval,
                                        ClientObjectFactory clientObjectFactory,
                                        FailoverPolicy failoverPolicy) {
+        return createInstance(batchSize, deliveryInterval, clientObjectFactory, failoverPolicy, BatchEmitter.class.getSimpleName(), new DefaultMetricsFactory());
+    }
+
+    /**
+     * Creates an instance of {@link BatchEmitter} using one of available {@link BatchEmitterFactory} services.
+     * See {@link #createInstance(int, int, ClientObjectFactory, FailoverPolicy)}.
+     *
+     * @param batchSize           number of elements in a current batch that should trigger a delivery, regardless of
+     *                            the delivery interval value
+     * @param deliveryInterval    number of millis between two time-triggered deliveries, regardless of the batch size
+     *                            value
+     * @param clientObjectFactory client-specific objects provider
+     * @param failoverPolicy      sink for failed batch items
+     * @param name                emitter metrics component name
+     * @param metricsFactory      emitter metrics configuration
+     * @return T configured {@link BatchEmitter}
+     */
+    public BatchEmitter createInstance(int batchSize,
+                                       int deliveryInterval,
+                                       ClientObjectFactory clientObjectFactory,
+                                       FailoverPolicy failoverPolicy,
+                                       String name,
+                                       MetricsFactory metricsFactory) {
 
         final Set<BatchEmitterFactory> batchEmitterFactories = new TreeSet<>(LOADING_ORDER);
 
@@ -95,7 +120,7 @@ public class BatchEmitterServiceProvider {
 
         for (BatchEmitterFactory factory : batchEmitterFactories) {
 
-            BatchEmitter batchEmitter = factory.createInstance(batchSize, deliveryInterval, clientObjectFactory, failoverPolicy);
+            BatchEmitter batchEmitter = factory.createInstance(batchSize, deliveryInterval, clientObjectFactory, failoverPolicy, name, metricsFactory);
             if (batchEmitter != null) {
                 getLogger().info("Using {} as {}", factory.getClass().getName(), getClass().getSimpleName());
                 return batchEmitter;
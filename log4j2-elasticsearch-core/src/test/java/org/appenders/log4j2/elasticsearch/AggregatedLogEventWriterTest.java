@@ -0,0 +1,125 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClassResolver;
+import com.fasterxml.jackson.databind.introspect.VirtualAnnotatedMember;
+import com.fasterxml.jackson.databind.util.SimpleBeanPropertyDefinition;
+import org.apache.logging.log4j.core.LogEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+public class AggregatedLogEventWriterTest {
+
+    @Test
+    public void valueIsNotSupported() {
+
+        // given
+        AggregatedLogEventWriter writer = new AggregatedLogEventWriter();
+
+        // when
+        final UnsupportedOperationException exception = assertThrows(UnsupportedOperationException.class, () -> writer.value(null, null, null));
+
+        // then
+        assertNotNull(exception);
+
+    }
+
+    @Test
+    public void withConfigReturnsNewWriter() {
+
+        // given
+        ObjectMapper objectMapper = new ObjectMapper();
+        SerializationConfig config = objectMapper.getSerializationConfig();
+
+        AggregatedLogEventWriter writer = new AggregatedLogEventWriter();
+
+        JavaType javaType = config.constructType(LogEvent.class);
+        AnnotatedClass annotatedClass = AnnotatedClassResolver.resolve(config, javaType, null);
+
+        SimpleBeanPropertyDefinition propertyDefinition = SimpleBeanPropertyDefinition.construct(
+                config,
+                new VirtualAnnotatedMember(annotatedClass, LogEvent.class, "aggregatedLogEvent", javaType)
+        );
+
+        // when
+        AggregatedLogEventWriter result = writer.withConfig(
+                config,
+                annotatedClass,
+                propertyDefinition,
+                config.constructType(Long.class)
+        );
+
+        // then
+        assertNotNull(result);
+        assertNotSame(writer, result);
+
+    }
+
+    @Test
+    public void serializeAsFieldWritesAggregatedFieldsOfAggregatedLogEvent() throws Exception {
+
+        // given
+        AggregatedLogEventWriter writer = new AggregatedLogEventWriter();
+
+        AggregatedLogEvent event = new AggregatedLogEvent(mock(LogEvent.class), 3, 1L, 2L);
+        JsonGenerator jsonGenerator = mock(JsonGenerator.class);
+
+        // when
+        writer.serializeAsField(event, jsonGenerator, mock(SerializerProvider.class));
+
+        // then
+        verify(jsonGenerator).writeNumberField(eq(AggregatedLogEvent.COUNT_FIELD), eq(3L));
+        verify(jsonGenerator).writeNumberField(eq(AggregatedLogEvent.FIRST_SEEN_FIELD), eq(1L));
+        verify(jsonGenerator).writeNumberField(eq(AggregatedLogEvent.LAST_SEEN_FIELD), eq(2L));
+
+    }
+
+    @Test
+    public void serializeAsFieldDoesNotWriteAnythingForOtherEvents() throws Exception {
+
+        // given
+        AggregatedLogEventWriter writer = new AggregatedLogEventWriter();
+
+        JsonGenerator jsonGenerator = mock(JsonGenerator.class);
+
+        // when
+        writer.serializeAsField(mock(LogEvent.class), jsonGenerator, mock(SerializerProvider.class));
+
+        // then
+        verifyNoInteractions(jsonGenerator);
+
+    }
+
+}
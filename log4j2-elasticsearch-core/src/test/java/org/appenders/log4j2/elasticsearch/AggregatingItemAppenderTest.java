@@ -0,0 +1,340 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import static org.appenders.log4j2.elasticsearch.mock.LifecycleTestHelper.falseOnlyOnce;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AggregatingItemAppenderTest {
+
+    public static final String TEST_INDEX_NAME = "testIndexName";
+    public static final long TEST_WINDOW_MILLIS = 60000;
+
+    @Test
+    public void appendsFirstOccurrenceImmediately() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+        final AggregatingItemAppender appender = new AggregatingItemAppender(delegate, TEST_WINDOW_MILLIS, 10);
+        appender.start();
+
+        final LogEvent event = createTestLogEvent("test {}", "value1", 1L);
+
+        // when
+        appender.append(TEST_INDEX_NAME, event);
+
+        // then
+        verify(delegate).append(eq(TEST_INDEX_NAME), eq(event));
+        assertEquals(1, appender.getKeyCount());
+
+        appender.stop();
+
+    }
+
+    @Test
+    public void collapsesRepeatedEventsWithDifferentParameters() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+        final AggregatingItemAppender appender = new AggregatingItemAppender(delegate, TEST_WINDOW_MILLIS, 10);
+        appender.start();
+
+        final LogEvent first = createTestLogEvent("test {}", "value1", 1L);
+
+        // when
+        appender.append(TEST_INDEX_NAME, first);
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("test {}", "value2", 2L));
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("test {}", "value3", 3L));
+
+        // then
+        verify(delegate).append(eq(TEST_INDEX_NAME), any());
+        verify(delegate).append(eq(TEST_INDEX_NAME), eq(first));
+
+        appender.stop();
+
+    }
+
+    @Test
+    public void doesNotCollapseEventsWithDifferentKeys() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+        final AggregatingItemAppender appender = new AggregatingItemAppender(delegate, TEST_WINDOW_MILLIS, 10);
+        appender.start();
+
+        // when
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("test {}", "value1", 1L));
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("other {}", "value1", 1L));
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("test {}", "value1", 1L, Level.WARN, null));
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("test {}", "value1", 1L, Level.INFO, new IllegalStateException()));
+        appender.append("otherIndexName", createTestLogEvent("test {}", "value1", 1L));
+
+        // then
+        verify(delegate, times(4)).append(eq(TEST_INDEX_NAME), any());
+        verify(delegate).append(eq("otherIndexName"), any());
+        assertEquals(5, appender.getKeyCount());
+
+        appender.stop();
+
+    }
+
+    @Test
+    public void flushAppendsAggregatedEvent() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+        final AggregatingItemAppender appender = new AggregatingItemAppender(delegate, TEST_WINDOW_MILLIS, 10);
+        appender.start();
+
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("test {}", "value1", 1L));
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("test {}", "value2", 2L));
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("test {}", "value3", 4L));
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("test {}", "value4", 3L));
+
+        // when
+        appender.flush();
+
+        // then
+        final ArgumentCaptor<LogEvent> captor = ArgumentCaptor.forClass(LogEvent.class);
+        verify(delegate, times(2)).append(eq(TEST_INDEX_NAME), captor.capture());
+
+        final List<LogEvent> appended = captor.getAllValues();
+        assertFalse(appended.get(0) instanceof AggregatedLogEvent);
+
+        final AggregatedLogEvent aggregated = (AggregatedLogEvent) appended.get(1);
+        assertEquals(3, aggregated.getCount());
+        assertEquals(2L, aggregated.getFirstSeen());
+        assertEquals(4L, aggregated.getLastSeen());
+        assertEquals("test value2", aggregated.getMessage().getFormattedMessage());
+        assertEquals(0, appender.getKeyCount());
+
+        appender.stop();
+
+    }
+
+    @Test
+    public void flushDoesNotAppendAnythingIfThereWereNoRepeatedEvents() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+        final AggregatingItemAppender appender = new AggregatingItemAppender(delegate, TEST_WINDOW_MILLIS, 10);
+        appender.start();
+
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("test {}", "value1", 1L));
+
+        // when
+        appender.flush();
+
+        // then
+        verify(delegate, times(1)).append(eq(TEST_INDEX_NAME), any());
+        assertEquals(0, appender.getKeyCount());
+
+        appender.stop();
+
+    }
+
+    @Test
+    public void firstOccurrenceAfterFlushIsAppendedImmediately() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+        final AggregatingItemAppender appender = new AggregatingItemAppender(delegate, TEST_WINDOW_MILLIS, 10);
+        appender.start();
+
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("test {}", "value1", 1L));
+        appender.flush();
+
+        final LogEvent event = createTestLogEvent("test {}", "value2", 2L);
+
+        // when
+        appender.append(TEST_INDEX_NAME, event);
+
+        // then
+        verify(delegate).append(eq(TEST_INDEX_NAME), eq(event));
+
+        appender.stop();
+
+    }
+
+    @Test
+    public void flushesPeriodically() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+        final AggregatingItemAppender appender = new AggregatingItemAppender(delegate, 10, 10);
+        appender.start();
+
+        // when
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("test {}", "value1", 1L));
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("test {}", "value2", 2L));
+
+        // then
+        verify(delegate, timeout(1000)).append(eq(TEST_INDEX_NAME), any(AggregatedLogEvent.class));
+
+        appender.stop();
+
+    }
+
+    @Test
+    public void appendsEventsWithNewKeysIfMaxKeysIsReached() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+        final AggregatingItemAppender appender = new AggregatingItemAppender(delegate, TEST_WINDOW_MILLIS, 1);
+        appender.start();
+
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("test {}", "value1", 1L));
+
+        // when
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("other {}", "value1", 1L));
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("other {}", "value2", 2L));
+
+        // then
+        verify(delegate, times(3)).append(eq(TEST_INDEX_NAME), any());
+        assertEquals(1, appender.getKeyCount());
+
+        appender.stop();
+
+    }
+
+    @Test
+    public void appendsAsIsIfNotStarted() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+        final AggregatingItemAppender appender = new AggregatingItemAppender(delegate, TEST_WINDOW_MILLIS, 10);
+
+        // when
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("test {}", "value1", 1L));
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("test {}", "value2", 2L));
+
+        // then
+        verify(delegate, times(2)).append(eq(TEST_INDEX_NAME), any());
+        assertEquals(0, appender.getKeyCount());
+
+    }
+
+    @Test
+    public void stopFlushesCollapsedEvents() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+        final AggregatingItemAppender appender = new AggregatingItemAppender(delegate, TEST_WINDOW_MILLIS, 10);
+        appender.start();
+
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("test {}", "value1", 1L));
+        appender.append(TEST_INDEX_NAME, createTestLogEvent("test {}", "value2", 2L));
+
+        // when
+        appender.stop();
+
+        // then
+        verify(delegate).append(eq(TEST_INDEX_NAME), any(AggregatedLogEvent.class));
+
+    }
+
+    @Test
+    public void aggregatedEventIsImmutable() {
+
+        // given
+        final AggregatedLogEvent event = new AggregatedLogEvent(mock(LogEvent.class), 1, 1L, 1L);
+
+        // when
+        final LogEvent result = event.toImmutable();
+
+        // then
+        assertSame(event, result);
+
+    }
+
+    @Test
+    public void lifecycleStartStartsDelegate() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+        final AggregatingItemAppender appender = new AggregatingItemAppender(delegate, TEST_WINDOW_MILLIS, 10);
+
+        // when
+        appender.start();
+
+        // then
+        verify(delegate).start();
+        assertTrue(appender.isStarted());
+
+        appender.stop();
+
+    }
+
+    @Test
+    public void lifecycleStopStopsDelegateOnlyOnce() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+        when(delegate.isStopped()).thenAnswer(falseOnlyOnce());
+
+        final AggregatingItemAppender appender = new AggregatingItemAppender(delegate, TEST_WINDOW_MILLIS, 10);
+
+        // when
+        appender.stop();
+        appender.stop();
+
+        // then
+        verify(delegate).stop();
+        verify(delegate, never()).append(any(), any());
+        assertTrue(appender.isStopped());
+
+    }
+
+    private LogEvent createTestLogEvent(final String template, final String param, final long timeMillis) {
+        return createTestLogEvent(template, param, timeMillis, Level.INFO, null);
+    }
+
+    private LogEvent createTestLogEvent(final String template, final String param, final long timeMillis, final Level level, final Throwable thrown) {
+        return Log4jLogEvent.newBuilder()
+                .setLoggerName("testLogger")
+                .setLevel(level)
+                .setMessage(new ParameterizedMessage(template, param))
+                .setThrown(thrown)
+                .setTimeMillis(timeMillis)
+                .build();
+    }
+
+}
@@ -0,0 +1,246 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.sun.management.ThreadMXBean;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.appenders.log4j2.elasticsearch.ecs.LogEventJacksonEcsJsonMixIn;
+import org.appenders.log4j2.elasticsearch.jmh.MockBulkServer;
+import org.appenders.log4j2.elasticsearch.json.jackson.ExtendedLog4j2JsonModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Guards steady-state allocation of {@link ElasticsearchAppender#append(LogEvent)} path:
+ * {@link GenericItemSourceLayout#serialize(LogEvent)}, {@link BatchDelivery#add(String, ItemSource)} and {@link BatchEmitter#add(Object)}.
+ * <p>Bytes allocated by appending thread are measured with {@link ThreadMXBean#getThreadAllocatedBytes(long)} after warmup
+ * and compared with per-event budget of given {@link LayoutType}. Background threads (batch emission, HTTP client) are not measured.
+ * <p>Client modules provide client-specific components and budgets.
+ * Number of warmup and measured events can be overridden with {@code appenders.alloc.warmupEvents} and {@code appenders.alloc.measuredEvents} system properties.
+ */
+public abstract class AllocationBudgetTestBase {
+
+    public static final String INDEX_NAME = "log4j2-elasticsearch-alloc";
+
+    private static final int WARMUP_EVENTS = Integer.parseInt(System.getProperty("appenders.alloc.warmupEvents", "100000"));
+    private static final int MEASURED_EVENTS = Integer.parseInt(System.getProperty("appenders.alloc.measuredEvents", "100000"));
+
+    protected static final int BATCH_SIZE = 1000;
+    protected static final int EVENT_SIZE_IN_BYTES = 512;
+    protected static final int ITEM_SIZE_IN_BYTES = EVENT_SIZE_IN_BYTES + 1024; // event message + serialized LogEvent fields and virtual properties
+
+    public enum LayoutType {
+        DEFAULT,
+        ECS,
+        VIRTUAL_PROPERTIES
+    }
+
+    private MockBulkServer server;
+    private ElasticsearchAppender appender;
+
+    @AfterEach
+    public void tearDown() {
+
+        if (appender != null) {
+            appender.stop();
+        }
+        if (server != null) {
+            server.stop();
+        }
+
+    }
+
+    /**
+     * @param serverUri {@link MockBulkServer} URI
+     * @param estimatedBatchSizeInBytes {@code BATCH_SIZE * ITEM_SIZE_IN_BYTES}
+     * @return client-specific {@link ClientObjectFactory} with pooled batch buffers
+     */
+    protected abstract ClientObjectFactory<?, ?> createClientObjectFactory(String serverUri, int estimatedBatchSizeInBytes);
+
+    /**
+     * @param itemSizeInBytes estimated size of serialized event
+     * @return client-specific, pooled layout {@link ItemSourceFactory}
+     */
+    protected abstract ItemSourceFactory<Object, ?> createItemSourceFactory(int itemSizeInBytes);
+
+    /**
+     * @param layoutType layout under test
+     * @return max. average number of bytes allocated by appending thread per event
+     */
+    protected abstract long allocationBudget(LayoutType layoutType);
+
+    @ParameterizedTest
+    @EnumSource(LayoutType.class)
+    public void appendAllocatesWithinBudget(final LayoutType layoutType) {
+
+        assumeTrue(isThreadAllocatedMemorySupported(), "Thread allocated memory measurement not supported");
+
+        // given
+        server = new MockBulkServer(0, 0.0, 0.0).start();
+        appender = createAppender(layoutType);
+        appender.start();
+
+        final LogEvent logEvent = createLogEvent();
+
+        appendAll(logEvent, WARMUP_EVENTS);
+
+        // when
+        final ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+
+        final long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        appendAll(logEvent, MEASURED_EVENTS);
+        final long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+        // then
+        final long budget = allocationBudget(layoutType);
+        final double perEvent = (double) allocated / MEASURED_EVENTS;
+        assertTrue(perEvent <= budget,
+                String.format("%s: %.1f bytes allocated per event. Budget: %d bytes", layoutType, perEvent, budget));
+
+    }
+
+    /**
+     * Appends given number of events. Waits for the server after each batch, so pools are not exhausted
+     * and their resize (expected allocation) is not measured.
+     */
+    private void appendAll(final LogEvent logEvent, final int count) {
+
+        final long expectedItems = server.getItems();
+
+        for (int i = 1; i <= count; i++) {
+
+            appender.append(logEvent);
+
+            if (i % BATCH_SIZE == 0) {
+                awaitItems(expectedItems + i - BATCH_SIZE);
+            }
+
+        }
+
+        awaitItems(expectedItems + count);
+
+    }
+
+    private void awaitItems(final long expectedItems) {
+
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (server.getItems() < expectedItems) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Timed out waiting for " + expectedItems + " items. " + server);
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+    }
+
+    private ElasticsearchAppender createAppender(final LayoutType layoutType) {
+
+        final AsyncBatchDelivery batchDelivery = AsyncBatchDelivery.newBuilder()
+                .withClientObjectFactory(createClientObjectFactory(server.getServerUri(), BATCH_SIZE * ITEM_SIZE_IN_BYTES))
+                .withBatchSize(BATCH_SIZE)
+                .withDeliveryInterval(100)
+                .withShutdownDelayMillis(0)
+                .build();
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        final GenericItemSourceLayout.Builder layoutBuilder = new GenericItemSourceLayout.Builder()
+                .withSerializer(createSerializer(layoutType))
+                .withItemSourceFactory(createItemSourceFactory(ITEM_SIZE_IN_BYTES));
+
+        //noinspection unchecked
+        return ElasticsearchAppender.newBuilder()
+                .withName("alloc-test")
+                .withBatchDelivery(batchDelivery)
+                .withIndexNameFormatter(new SimpleIndexName.Builder<>().withIndexName(INDEX_NAME).build())
+                .withLayout(new JacksonJsonLayoutPlugin<>(layoutBuilder))
+                .withMessageOnly(false)
+                .withIgnoreExceptions(false)
+                .build();
+
+    }
+
+    private Serializer<Object> createSerializer(final LayoutType layoutType) {
+
+        final JacksonSerializer.Builder<Object> builder = new JacksonSerializer.Builder<>()
+                .withJacksonModules(new ExtendedLog4j2JsonModule());
+
+        if (layoutType == LayoutType.ECS) {
+            builder.withMixins(new JacksonMixIn.Builder()
+                    .withMixInClass(LogEventJacksonEcsJsonMixIn.class.getName())
+                    .withTargetClass(LogEvent.class.getName())
+                    .build());
+        }
+
+        if (layoutType == LayoutType.VIRTUAL_PROPERTIES) {
+            builder.withVirtualProperties(
+                    new VirtualProperty("hostname", "localhost", false),
+                    new VirtualProperty("env", "${sys:java.version}", true))
+                    .withValueResolver(new Log4j2Lookup(LoggerContext.getContext(false).getConfiguration().getStrSubstitutor()));
+        }
+
+        return builder.build();
+
+    }
+
+    private LogEvent createLogEvent() {
+
+        final Random random = new Random();
+        final char[] chars = new char[EVENT_SIZE_IN_BYTES];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+
+        return Log4jLogEvent.newBuilder()
+                .setLoggerName(AllocationBudgetTestBase.class.getName())
+                .setLevel(Level.INFO)
+                .setThreadName(Thread.currentThread().getName())
+                .setTimeMillis(System.currentTimeMillis())
+                .setMessage(new SimpleMessage(new String(chars)))
+                .build();
+
+    }
+
+    private static boolean isThreadAllocatedMemorySupported() {
+
+        if (!(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean)) {
+            return false;
+        }
+
+        final ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled();
+
+    }
+
+}
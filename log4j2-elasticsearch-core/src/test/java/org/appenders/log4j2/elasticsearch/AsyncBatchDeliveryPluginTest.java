@@ -76,13 +76,15 @@ public class AsyncBatchDeliveryPluginTest {
     /* To make testing easier and break when changed */
     private AsyncBatchDelivery invokePluginFactory(AsyncBatchDelivery.Builder builder) {
         return AsyncBatchDeliveryPlugin.createAsyncBatchDelivery(
+                builder.name,
                 builder.clientObjectFactory,
                 builder.deliveryInterval,
                 builder.batchSize,
                 builder.failoverPolicy,
                 builder.shutdownDelayMillis,
                 builder.setupOpSources,
-                builder.metricsProcessor);
+                builder.metricsProcessor,
+                builder.metricsFactory);
     }
 
     @Test
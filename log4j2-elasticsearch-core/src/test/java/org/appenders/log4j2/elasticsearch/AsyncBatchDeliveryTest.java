@@ -43,6 +43,10 @@ import org.mockito.ArgumentCaptor;
 import java.util.Collections;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 import static org.appenders.log4j2.elasticsearch.mock.LifecycleTestHelper.falseOnlyOnce;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -54,7 +58,9 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -244,6 +250,30 @@ public class AsyncBatchDeliveryTest {
 
     }
 
+    @Test
+    public void builderPassesNameToBatchEmitterFactory() {
+
+        // given
+        final String expectedName = UUID.randomUUID().toString();
+        final TestBatchEmitterFactory batchEmitterFactory = spy(new TestBatchEmitterFactory());
+
+        final Builder builder = AsyncBatchDelivery.newBuilder()
+                .withName(expectedName)
+                .withClientObjectFactory(createTestObjectFactoryBuilder().build());
+
+        // when
+        new AsyncBatchDelivery(builder) {
+            @Override
+            protected BatchEmitterServiceProvider createBatchEmitterServiceProvider() {
+                return batchEmitterFactory;
+            }
+        };
+
+        // then
+        verify(batchEmitterFactory).createInstance(anyInt(), anyInt(), any(), any(), eq(expectedName), any());
+
+    }
+
     @Test
     public void constructorWithNoMetricsProcessorCreatesDefault() {
 
@@ -548,6 +578,114 @@ public class AsyncBatchDeliveryTest {
 
     }
 
+    @Test
+    public void getBacklogSizeDelegatesToBatchEmitter() {
+
+        // given
+        BatchEmitter batchEmitter = mock(BatchEmitter.class);
+        when(batchEmitter.getBacklogSize()).thenReturn(10L);
+
+        BatchEmitterServiceProvider batchEmitterFactory = new TestBatchEmitterFactory() {
+            @Override
+            public BatchEmitter createInstance(int batchSize, int deliveryInterval, ClientObjectFactory clientObjectFactory, FailoverPolicy failoverPolicy) {
+                return batchEmitter;
+            }
+        };
+
+        TestAsyncBatchDelivery batchDelivery = new TestAsyncBatchDelivery(
+                TEST_BATCH_SIZE,
+                TEST_DELIVERY_INTERVAL,
+                createTestObjectFactoryBuilder().build(),
+                new NoopFailoverPolicy(),
+                null) {
+            @Override
+            protected BatchEmitterServiceProvider createBatchEmitterServiceProvider() {
+                return batchEmitterFactory;
+            }
+        };
+
+        // when
+        long backlogSize = batchDelivery.getBacklogSize();
+
+        // then
+        assertEquals(10L, backlogSize);
+
+    }
+
+    @Test
+    public void getBacklogSizeIncludesInFlightItems() {
+
+        // given
+        BatchEmitter batchEmitter = mock(BatchEmitter.class);
+        when(batchEmitter.getBacklogSize()).thenReturn(10L);
+
+        BatchEmitterServiceProvider batchEmitterFactory = new TestBatchEmitterFactory() {
+            @Override
+            public BatchEmitter createInstance(int batchSize, int deliveryInterval, ClientObjectFactory clientObjectFactory, FailoverPolicy failoverPolicy) {
+                return batchEmitter;
+            }
+        };
+
+        TestHttpObjectFactory objectFactory = spy(createTestObjectFactoryBuilder().build());
+        when(objectFactory.getInFlightItemCount()).thenReturn(5L);
+
+        TestAsyncBatchDelivery batchDelivery = new TestAsyncBatchDelivery(
+                TEST_BATCH_SIZE,
+                TEST_DELIVERY_INTERVAL,
+                objectFactory,
+                new NoopFailoverPolicy(),
+                null) {
+            @Override
+            protected BatchEmitterServiceProvider createBatchEmitterServiceProvider() {
+                return batchEmitterFactory;
+            }
+        };
+
+        // when
+        long backlogSize = batchDelivery.getBacklogSize();
+
+        // then
+        assertEquals(15L, backlogSize);
+
+    }
+
+    @Test
+    public void getBacklogSizeIsNotAvailableIfBatchEmitterDoesNotReportBacklog() {
+
+        // given
+        BatchEmitter batchEmitter = mock(BatchEmitter.class);
+        when(batchEmitter.getBacklogSize()).thenReturn(-1L);
+
+        BatchEmitterServiceProvider batchEmitterFactory = new TestBatchEmitterFactory() {
+            @Override
+            public BatchEmitter createInstance(int batchSize, int deliveryInterval, ClientObjectFactory clientObjectFactory, FailoverPolicy failoverPolicy) {
+                return batchEmitter;
+            }
+        };
+
+        TestHttpObjectFactory objectFactory = spy(createTestObjectFactoryBuilder().build());
+        when(objectFactory.getInFlightItemCount()).thenReturn(5L);
+
+        TestAsyncBatchDelivery batchDelivery = new TestAsyncBatchDelivery(
+                TEST_BATCH_SIZE,
+                TEST_DELIVERY_INTERVAL,
+                objectFactory,
+                new NoopFailoverPolicy(),
+                null) {
+            @Override
+            protected BatchEmitterServiceProvider createBatchEmitterServiceProvider() {
+                return batchEmitterFactory;
+            }
+        };
+
+        // when
+        long backlogSize = batchDelivery.getBacklogSize();
+
+        // then
+        assertEquals(-1L, backlogSize);
+
+    }
+
     @Test
     public void lifecycleStopStopsBatchEmitterOnlyOnce() {
 
@@ -622,6 +760,105 @@ public class AsyncBatchDeliveryTest {
 
     }
 
+    @Test
+    public void lifecycleStopCompletesOnceInFlightBatchesAreCompleted() {
+
+        // given
+        AtomicInteger inFlightCount = new AtomicInteger(1);
+        AtomicReference<Runnable> onBatchCompleted = new AtomicReference<>(() -> {});
+
+        TestHttpObjectFactory objectFactory = spy(createTestObjectFactoryBuilder().build());
+        when(objectFactory.getInFlightCount()).thenAnswer(invocation -> inFlightCount.get());
+        doAnswer(invocation -> {
+            onBatchCompleted.set(invocation.getArgument(0));
+            return null;
+        }).when(objectFactory).onBatchCompleted(any());
+
+        BatchDelivery batchDelivery = createTestBatchDeliveryBuilder()
+                .withClientObjectFactory(objectFactory)
+                .withShutdownDelayMillis(10000)
+                .build();
+
+        batchDelivery.start();
+
+        new Thread(() -> {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+            inFlightCount.set(0);
+            onBatchCompleted.get().run();
+        }).start();
+
+        long start = System.currentTimeMillis();
+
+        // when
+        batchDelivery.stop();
+
+        // then
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertTrue(batchDelivery.isStopped());
+
+    }
+
+    @Test
+    public void lifecycleStopWaitsForInFlightBatchesNotLongerThanShutdownDelay() {
+
+        // given
+        TestHttpObjectFactory objectFactory = spy(createTestObjectFactoryBuilder().build());
+        when(objectFactory.getInFlightCount()).thenReturn(1);
+
+        BatchDelivery batchDelivery = createTestBatchDeliveryBuilder()
+                .withClientObjectFactory(objectFactory)
+                .withShutdownDelayMillis(100)
+                .build();
+
+        batchDelivery.start();
+
+        long start = System.currentTimeMillis();
+
+        // when
+        batchDelivery.stop();
+
+        // then
+        assertTrue(System.currentTimeMillis() - start >= 100);
+        assertTrue(batchDelivery.isStopped());
+        verify(objectFactory, times(2)).onBatchCompleted(any());
+
+    }
+
+    @Test
+    public void lifecycleStopDoesNotCompleteShutdownEarlyIfInFlightBatchesAreNotTracked() {
+
+        // given
+        BatchEmitter batchEmitter = mock(BatchEmitter.class);
+        when(batchEmitter.isStopped()).thenAnswer(falseOnlyOnce());
+
+        BatchEmitterServiceProvider batchEmitterFactory = new TestBatchEmitterFactory() {
+            @Override
+            public BatchEmitter createInstance(int batchSize, int deliveryInterval, ClientObjectFactory clientObjectFactory, FailoverPolicy failoverPolicy) {
+                return batchEmitter;
+            }
+        };
+        TestHttpObjectFactory objectFactory = spy(createTestObjectFactoryBuilder().build());
+        TestAsyncBatchDelivery batchDelivery = new TestAsyncBatchDelivery(
+                TEST_BATCH_SIZE,
+                TEST_DELIVERY_INTERVAL,
+                objectFactory,
+                new NoopFailoverPolicy(),
+                null) {
+            @Override
+            protected BatchEmitterServiceProvider createBatchEmitterServiceProvider() {
+                return batchEmitterFactory;
+            }
+        };
+
+        // when
+        batchDelivery.stop();
+
+        // then
+        verify(batchEmitter).completeShutdownWhenEmpty(false);
+        verify(objectFactory, never()).onBatchCompleted(any());
+
+    }
+
     @Test
     public void lifecycleStartStartsFailoverPolicyOnlyOnce() {
 
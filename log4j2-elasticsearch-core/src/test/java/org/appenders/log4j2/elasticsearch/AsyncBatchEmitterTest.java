@@ -23,6 +23,14 @@ package org.appenders.log4j2.elasticsearch;
 
 import edu.emory.mathcs.backport.java.util.concurrent.CountDownLatch;
 import org.appenders.core.logging.Logger;
+import org.appenders.log4j2.elasticsearch.metrics.BasicMetricOutputsRegistry;
+import org.appenders.log4j2.elasticsearch.metrics.BasicMetricsRegistry;
+import org.appenders.log4j2.elasticsearch.metrics.DefaultMetricsFactory;
+import org.appenders.log4j2.elasticsearch.metrics.Metric;
+import org.appenders.log4j2.elasticsearch.metrics.MetricOutput;
+import org.appenders.log4j2.elasticsearch.metrics.MetricOutputTest;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsProcessor;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -42,11 +50,14 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class AsyncBatchEmitterTest {
 
@@ -116,6 +127,63 @@ public class AsyncBatchEmitterTest {
 
     }
 
+    @Test
+    public void passesOldestItemTimestampToBatchBuilder() {
+
+        // given
+        BatchOperations batchOperations = spy(new TestBatchOperations());
+        BatchBuilder batchBuilder = spy(new TestBatchBuilder());
+        when(batchOperations.createBatchBuilder()).thenReturn(batchBuilder);
+
+        AsyncBatchEmitter emitter = createTestBulkEmitter(TEST_BATCH_SIZE, TEST_DELIVERY_INTERVAL, batchOperations);
+        emitter.addListener(dummyObserver());
+
+        long before = System.currentTimeMillis();
+        emitter.add(new TestBatchItem(TEST_DATA));
+        long after = System.currentTimeMillis();
+        emitter.add(new TestBatchItem(TEST_DATA));
+
+        // when
+        emitter.emit(TEST_BATCH_SIZE);
+
+        // then
+        ArgumentCaptor<Long> captor = ArgumentCaptor.forClass(Long.class);
+        verify(batchBuilder).oldestItemTimestamp(captor.capture());
+        assertTrue(captor.getValue() >= before);
+        assertTrue(captor.getValue() <= after);
+
+    }
+
+    @Test
+    public void passesPreviousEmissionTimestampIfItemsWereLeftBehind() {
+
+        // given
+        BatchOperations batchOperations = spy(new TestBatchOperations());
+        BatchBuilder batchBuilder = spy(new TestBatchBuilder());
+
+        AsyncBatchEmitter emitter = createTestBulkEmitter(TEST_BATCH_SIZE, TEST_DELIVERY_INTERVAL, batchOperations);
+        emitter.addListener(dummyObserver());
+
+        emitter.add(new TestBatchItem(TEST_DATA));
+        emitter.add(new TestBatchItem(TEST_DATA));
+
+        long before = System.currentTimeMillis();
+        emitter.emit(1);
+        long after = System.currentTimeMillis();
+
+        when(batchOperations.createBatchBuilder()).thenReturn(batchBuilder);
+
+        // when
+        emitter.emit(1);
+
+        // then
+        ArgumentCaptor<Long> captor = ArgumentCaptor.forClass(Long.class);
+        verify(batchBuilder).oldestItemTimestamp(captor.capture());
+        assertTrue(captor.getValue() >= before);
+        assertTrue(captor.getValue() <= after);
+
+    }
+
     @Test
     public void listenerIsNotNotifiedWhenThereNoItemsToBatch() {
 
@@ -360,6 +428,33 @@ public class AsyncBatchEmitterTest {
 
     }
 
+    @Test
+    public void stopSkipsRemainingDelayIfCompleteShutdownWhenEmptyIsEnabled() {
+
+        // given
+        final Logger logger = mockTestLogger();
+
+        AsyncBatchEmitter emitter = createTestBulkEmitter(TEST_BATCH_SIZE, 10000, new TestBatchOperations());
+        emitter.addListener(dummyObserver());
+        emitter.completeShutdownWhenEmpty(true);
+
+        emitter.start();
+        emitter.add(new Object());
+
+        long start = System.currentTimeMillis();
+
+        // when
+        emitter.stop(10000, false);
+
+        // then
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertEquals(0, emitter.getBacklogSize());
+        verify(logger).info("Dummy notified");
+
+        setLogger(null);
+
+    }
+
     @Test
     public void listenerExceptionsAreHandled() {
 
@@ -478,6 +573,162 @@ public class AsyncBatchEmitterTest {
 
     }
 
+    @Test
+    public void registersAllEnabledMetrics() {
+
+        // given
+        final AsyncBatchEmitter emitter = createTestBulkEmitter(TEST_BATCH_SIZE, TEST_DELIVERY_INTERVAL, new TestBatchOperations(), true);
+        final MetricsRegistry registry = new BasicMetricsRegistry();
+
+        // when
+        emitter.register(registry);
+
+        // then
+        assertEquals(AsyncBatchEmitter.metricConfigs(true).size(), registry.getMetrics(metric -> true).size());
+
+    }
+
+    @Test
+    public void metricsOfEmittersWithDifferentNamesDoNotCollide() {
+
+        // given
+        final AsyncBatchEmitter emitter1 = createTestBulkEmitter("emitter1", new TestBatchOperations());
+        final AsyncBatchEmitter emitter2 = createTestBulkEmitter("emitter2", new TestBatchOperations());
+        final MetricsRegistry registry = new BasicMetricsRegistry();
+
+        // when
+        emitter1.register(registry);
+        emitter2.register(registry);
+
+        // then
+        assertEquals(AsyncBatchEmitter.metricConfigs(true).size() * 2, registry.getMetrics(metric -> true).size());
+        assertEquals(1, registry.getMetrics(metric -> metric.getKey().equals(new Metric.Key("emitter1", "queueSize", "gauge"))).size());
+        assertEquals(1, registry.getMetrics(metric -> metric.getKey().equals(new Metric.Key("emitter2", "queueSize", "gauge"))).size());
+
+    }
+
+    @Test
+    public void deregistersAllMetrics() {
+
+        // given
+        final AsyncBatchEmitter emitter = createTestBulkEmitter(TEST_BATCH_SIZE, TEST_DELIVERY_INTERVAL, new TestBatchOperations(), true);
+        final MetricsRegistry registry = new BasicMetricsRegistry();
+        emitter.register(registry);
+
+        // when
+        emitter.deregister();
+
+        // then
+        assertEquals(0, registry.getMetrics(metric -> true).size());
+
+    }
+
+    @Test
+    public void reportsQueueSizeAndOldestItemAge() {
+
+        // given
+        final AsyncBatchEmitter emitter = createTestBulkEmitter(10, TEST_DELIVERY_INTERVAL, new TestBatchOperations(), true);
+        final MetricOutput metricOutput = spy(MetricOutputTest.dummy());
+        final MetricsProcessor metricsProcessor = createTestMetricsProcessor(emitter, metricOutput);
+
+        final String componentName = AsyncBatchEmitter.class.getSimpleName();
+
+        assertEquals(0, emitter.getOldestItemAgeMillis());
+
+        emitter.add(new TestBatchItem(TEST_DATA));
+        emitter.add(new TestBatchItem(TEST_DATA));
+        emitter.add(new TestBatchItem(TEST_DATA));
+
+        // when
+        metricsProcessor.process();
+
+        // then
+        assertEquals(3, emitter.getQueueSize());
+        assertTrue(emitter.getOldestItemAgeMillis() >= 0);
+        verify(metricOutput).write(anyLong(), eq(new Metric.Key(componentName, "queueSize", "gauge")), eq(3L));
+        verify(metricOutput).write(anyLong(), eq(new Metric.Key(componentName, "oldestItemAgeMs", "gauge")), anyLong());
+
+    }
+
+    @Test
+    public void reportsEmissionsOnSize() {
+
+        // given
+        final AsyncBatchEmitter emitter = createTestBulkEmitter(TEST_BATCH_SIZE, TEST_DELIVERY_INTERVAL, new TestBatchOperations(), true);
+        emitter.addListener(dummyObserver());
+
+        final MetricOutput metricOutput = spy(MetricOutputTest.dummy());
+        final MetricsProcessor metricsProcessor = createTestMetricsProcessor(emitter, metricOutput);
+
+        final String componentName = AsyncBatchEmitter.class.getSimpleName();
+
+        // lastEmittedTimestamp is set by the first emission, so interval-triggered emission is consumed here
+        emitter.add(new TestBatchItem(TEST_DATA));
+        emitter.notifyListener();
+
+        for (int i = 0; i < TEST_BATCH_SIZE * 2 + 1; i++) {
+            emitter.add(new TestBatchItem(TEST_DATA));
+        }
+
+        // when
+        emitter.notifyListener();
+        metricsProcessor.process();
+
+        // then
+        assertEquals(1, emitter.getQueueSize());
+        verify(metricOutput).write(anyLong(), eq(new Metric.Key(componentName, "emittedOnSize", "count")), eq(2L));
+        verify(metricOutput).write(anyLong(), eq(new Metric.Key(componentName, "emittedOnInterval", "count")), eq(1L));
+        verify(metricOutput).write(anyLong(), eq(new Metric.Key(componentName, "emittedOnShutdown", "count")), eq(0L));
+        verify(metricOutput).write(anyLong(), eq(new Metric.Key(componentName, "itemsPerBatch", "max")), eq((long) TEST_BATCH_SIZE));
+
+    }
+
+    @Test
+    public void reportsEmissionsOnShutdown() {
+
+        // given
+        final AsyncBatchEmitter emitter = createTestBulkEmitter(10, TEST_DELIVERY_INTERVAL, new TestBatchOperations(), true);
+        emitter.addListener(dummyObserver());
+
+        final MetricOutput metricOutput = spy(MetricOutputTest.dummy());
+        final MetricsProcessor metricsProcessor = createTestMetricsProcessor(emitter, metricOutput);
+
+        final String componentName = AsyncBatchEmitter.class.getSimpleName();
+
+        // lastEmittedTimestamp is set by the first emission, so interval-triggered emission is consumed here
+        emitter.add(new TestBatchItem(TEST_DATA));
+        emitter.notifyListener();
+
+        emitter.start();
+
+        emitter.add(new TestBatchItem(TEST_DATA));
+        emitter.add(new TestBatchItem(TEST_DATA));
+        emitter.add(new TestBatchItem(TEST_DATA));
+
+        // when
+        emitter.stop();
+        metricsProcessor.process();
+
+        // then
+        assertEquals(0, emitter.getQueueSize());
+        verify(metricOutput).write(anyLong(), eq(new Metric.Key(componentName, "emittedOnSize", "count")), eq(0L));
+        verify(metricOutput).write(anyLong(), eq(new Metric.Key(componentName, "emittedOnInterval", "count")), eq(1L));
+        verify(metricOutput).write(anyLong(), eq(new Metric.Key(componentName, "emittedOnShutdown", "count")), eq(1L));
+        verify(metricOutput).write(anyLong(), eq(new Metric.Key(componentName, "itemsPerBatch", "max")), eq(3L));
+
+    }
+
+    private MetricsProcessor createTestMetricsProcessor(final AsyncBatchEmitter emitter, final MetricOutput metricOutput) {
+
+        when(metricOutput.accepts(any())).thenReturn(true);
+
+        final MetricsRegistry registry = new BasicMetricsRegistry();
+        emitter.register(registry);
+
+        return new MetricsProcessor(registry, new BasicMetricOutputsRegistry(metricOutput));
+
+    }
+
     private AsyncBatchEmitter createLifeCycleTestObject() {
         return createTestBulkEmitter(TEST_BATCH_SIZE, TEST_DELIVERY_INTERVAL, new TestBatchOperations());
     }
@@ -486,6 +737,14 @@ public class AsyncBatchEmitterTest {
         return new AsyncBatchEmitter(batchSize, interval, batchOperations);
     }
 
+    public static AsyncBatchEmitter createTestBulkEmitter(int batchSize, int interval, BatchOperations batchOperations, boolean metricsEnabled) {
+        return new AsyncBatchEmitter(batchSize, interval, batchOperations, new DefaultMetricsFactory(AsyncBatchEmitter.metricConfigs(metricsEnabled)));
+    }
+
+    private static AsyncBatchEmitter createTestBulkEmitter(final String name, final BatchOperations batchOperations) {
+        return new AsyncBatchEmitter(name, TEST_BATCH_SIZE, TEST_DELIVERY_INTERVAL, batchOperations, new DefaultMetricsFactory(AsyncBatchEmitter.metricConfigs(true)));
+    }
+
     private BatchOperations<Collection> createDummyBatchOperations() {
         return new BatchOperations<Collection>() {
             @Override
@@ -47,6 +47,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -427,6 +428,67 @@ public class ByteBufItemSourceFactoryPluginTest {
 
     }
 
+    @Test
+    public void sharedFactoriesWithTheSamePoolNameShareThePool() {
+
+        // given
+        final String poolName = UUID.randomUUID().toString();
+
+        final ByteBufItemSourceFactoryPlugin factory1 = createDefaultTestSourceFactoryConfig()
+                .withShared(true)
+                .withPoolName(poolName)
+                .build();
+        final ByteBufItemSourceFactoryPlugin factory2 = createDefaultTestSourceFactoryConfig()
+                .withShared(true)
+                .withPoolName(poolName)
+                .build();
+
+        factory1.start();
+        factory2.start();
+
+        final SharedItemSourcePool<ByteBuf> pool1 = (SharedItemSourcePool<ByteBuf>) factory1.bufferedItemSourcePool;
+        final SharedItemSourcePool<ByteBuf> pool2 = (SharedItemSourcePool<ByteBuf>) factory2.bufferedItemSourcePool;
+
+        // when
+        final ItemSource<ByteBuf> itemSource = factory1.createEmptySource();
+
+        // then
+        assertEquals(DEFAULT_TEST_POOL_SIZE - 1, pool2.getAvailableSize());
+        assertEquals(2, SharedResources.getInstance().getReferenceCount(SharedItemSourcePool.sharedName(poolName)));
+
+        itemSource.release();
+        factory1.stop();
+
+        assertTrue(pool1.isStopped());
+        assertTrue(pool2.isStarted());
+        assertNotNull(factory2.createEmptySource());
+
+        factory2.stop();
+        assertEquals(0, SharedResources.getInstance().getReferenceCount(SharedItemSourcePool.sharedName(poolName)));
+
+    }
+
+    @Test
+    public void nonSharedFactoriesWithTheSamePoolNameDoNotShareThePool() {
+
+        // given
+        final String poolName = UUID.randomUUID().toString();
+
+        // when
+        final ByteBufItemSourceFactoryPlugin factory1 = createDefaultTestSourceFactoryConfig()
+                .withPoolName(poolName)
+                .build();
+        final ByteBufItemSourceFactoryPlugin factory2 = createDefaultTestSourceFactoryConfig()
+                .withPoolName(poolName)
+                .build();
+
+        // then
+        assertNotSame(factory1.bufferedItemSourcePool, factory2.bufferedItemSourcePool);
+        assertFalse(factory1.bufferedItemSourcePool instanceof SharedItemSourcePool);
+        assertEquals(0, SharedResources.getInstance().getReferenceCount(SharedItemSourcePool.sharedName(poolName)));
+
+    }
+
     // =========
     // LIFECYCLE
     // =========
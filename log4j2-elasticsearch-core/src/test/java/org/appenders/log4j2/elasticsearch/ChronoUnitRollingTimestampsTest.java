@@ -33,6 +33,7 @@ import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAdjusters;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.containsString;
@@ -53,6 +54,25 @@ public class ChronoUnitRollingTimestampsTest {
 
     public final ZoneId testZone = testZones.get(0);
 
+    @Test
+    public void windowOfGivenTimestampIsTruncatedToRolloverUnit() {
+
+        // given
+        final long initialTimestamp = System.currentTimeMillis();
+        final RollingTimestamps timestamps = new ChronoUnitRollingTimestamps(initialTimestamp, "yyyy-MM-dd-HH", testZone);
+
+        final long lateTimestamp = initialTimestamp - TimeUnit.HOURS.toMillis(5);
+
+        // when
+        final long windowStart = timestamps.windowStart(lateTimestamp);
+        final long windowEnd = timestamps.windowEnd(windowStart);
+
+        // then
+        assertEquals(timestamps.current() - TimeUnit.HOURS.toMillis(5), windowStart);
+        assertEquals(windowStart + TimeUnit.HOURS.toMillis(1), windowEnd);
+
+    }
+
     @Test
     public void rolloverMovesCurrentMillisForwardByOneUnit() {
 
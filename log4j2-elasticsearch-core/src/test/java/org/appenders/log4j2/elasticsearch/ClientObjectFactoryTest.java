@@ -26,6 +26,9 @@ import java.util.Collection;
 import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 public class ClientObjectFactoryTest {
 
@@ -72,4 +75,52 @@ public class ClientObjectFactoryTest {
 
     }
 
+    @Test
+    public void addSetupOperationDelegatesToAddOperationByDefault() {
+
+        // given
+        ClientObjectFactory factory = spy(new ClientObjectFactory() {
+
+            @Override
+            public Collection<String> getServerList() {
+                return null;
+            }
+
+            @Override
+            public Object createClient() {
+                return null;
+            }
+
+            @Override
+            public Function createBatchListener(FailoverPolicy failoverPolicy) {
+                return null;
+            }
+
+            @Override
+            public Function createFailureHandler(FailoverPolicy failover) {
+                return null;
+            }
+
+            @Override
+            public BatchOperations createBatchOperations() {
+                return null;
+            }
+
+            @Override
+            public OperationFactory setupOperationFactory() {
+                return null;
+            }
+
+        });
+
+        final Operation operation = () -> {};
+
+        // when
+        factory.addSetupOperation(mock(OpSource.class), operation);
+
+        // then
+        verify(factory).addOperation(operation);
+
+    }
+
 }
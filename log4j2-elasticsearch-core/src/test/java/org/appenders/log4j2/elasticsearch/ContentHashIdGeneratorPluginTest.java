@@ -0,0 +1,59 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class ContentHashIdGeneratorPluginTest {
+
+    @Test
+    public void builderBuildsSuccessfully() {
+
+        // given
+        ContentHashIdGeneratorPlugin.Builder builder = ContentHashIdGeneratorPlugin.newBuilder();
+
+        // when
+        ContentHashIdGeneratorPlugin generator = builder.build();
+
+        // then
+        assertNotNull(generator);
+
+    }
+
+    @Test
+    public void builderSetsSeed() {
+
+        // given
+        StringItemSource itemSource = new StringItemSource("test");
+
+        // when
+        String id1 = ContentHashIdGeneratorPlugin.newBuilder().build().generate(itemSource);
+        String id2 = ContentHashIdGeneratorPlugin.newBuilder().withSeed(1).build().generate(itemSource);
+
+        // then
+        assertNotEquals(id1, id2);
+
+    }
+
+}
@@ -0,0 +1,150 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ContentHashIdGeneratorTest {
+
+    private static final String TEST_TEXT = "The quick brown fox jumps over the lazy dog";
+
+    @Test
+    public void generatesMurmur3x64128HashOfByteBufSource() {
+
+        // given
+        ContentHashIdGenerator generator = new ContentHashIdGenerator();
+        ByteBuf byteBuf = Unpooled.wrappedBuffer(TEST_TEXT.getBytes(StandardCharsets.UTF_8));
+
+        // when
+        String id = generator.generate(new ByteBufItemSource(byteBuf, mock(ReleaseCallback.class)));
+
+        // then
+        assertEquals(22, id.length());
+        assertEquals("6c1b07bc7bbc4be347939ac4a93c437a", toHex(Base64.getUrlDecoder().decode(id)));
+
+    }
+
+    @Test
+    public void generatesSameIdForStringAndByteBufSources() {
+
+        // given
+        ContentHashIdGenerator generator = new ContentHashIdGenerator();
+        ByteBuf byteBuf = Unpooled.wrappedBuffer(TEST_TEXT.getBytes(StandardCharsets.UTF_8));
+
+        // when
+        String fromByteBuf = generator.generate(new ByteBufItemSource(byteBuf, mock(ReleaseCallback.class)));
+        String fromString = generator.generate(new StringItemSource(TEST_TEXT));
+
+        // then
+        assertEquals(fromByteBuf, fromString);
+
+    }
+
+    @Test
+    public void hashesAllTailLengths() {
+
+        // given
+        ContentHashIdGenerator generator = new ContentHashIdGenerator();
+
+        // when
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i <= 32; i++) {
+            ids.add(generator.generate(new StringItemSource(TEST_TEXT.substring(0, i))));
+        }
+
+        // then
+        assertEquals(33, ids.size());
+
+    }
+
+    @Test
+    public void doesNotModifyByteBufIndices() {
+
+        // given
+        ContentHashIdGenerator generator = new ContentHashIdGenerator();
+        ByteBuf byteBuf = Unpooled.buffer(64).writeBytes(TEST_TEXT.getBytes(StandardCharsets.UTF_8));
+        byteBuf.readerIndex(4);
+
+        int expectedReaderIndex = byteBuf.readerIndex();
+        int expectedWriterIndex = byteBuf.writerIndex();
+
+        // when
+        String id = generator.generate(new ByteBufItemSource(byteBuf, mock(ReleaseCallback.class)));
+
+        // then
+        assertEquals(expectedReaderIndex, byteBuf.readerIndex());
+        assertEquals(expectedWriterIndex, byteBuf.writerIndex());
+        assertEquals(generator.generate(new StringItemSource(TEST_TEXT.substring(4))), id);
+
+    }
+
+    @Test
+    public void differentSeedsProduceDifferentIds() {
+
+        // given
+        StringItemSource itemSource = new StringItemSource(TEST_TEXT);
+
+        // when
+        String id1 = new ContentHashIdGenerator(0).generate(itemSource);
+        String id2 = new ContentHashIdGenerator(1).generate(itemSource);
+
+        // then
+        assertNotEquals(id1, id2);
+
+    }
+
+    @Test
+    public void throwsOnUnsupportedSource() {
+
+        // given
+        ContentHashIdGenerator generator = new ContentHashIdGenerator();
+        ItemSource<Object> itemSource = Object::new;
+
+        // when
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> generator.generate(itemSource));
+
+        // then
+        assertTrue(exception.getMessage().contains("Unsupported source type"));
+
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+}
@@ -24,6 +24,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -31,6 +32,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -160,6 +162,77 @@ public class DelayedShutdownTest {
 
     }
 
+    @Test
+    public void skipsRemainingDelayIfCompleted() {
+
+        // given
+        Runnable delayedTask = mock(Runnable.class);
+        Consumer<Long> notExpectedTask = mock(Consumer.class);
+
+        DelayedShutdown shutdown = createDefaultDelayedShutdown()
+                .delay(10000)
+                .decrementInMillis(10)
+                .completedWhen(() -> true)
+                .onDecrement(notExpectedTask)
+                .afterDelay(delayedTask);
+
+        // when
+        shutdown.start(false);
+
+        // then
+        verify(notExpectedTask, never()).accept(any());
+        verify(delayedTask).run();
+
+    }
+
+    @Test
+    public void signalSkipsRemainingDelayIfCompleted() {
+
+        // given
+        Runnable delayedTask = mock(Runnable.class);
+        AtomicBoolean completed = new AtomicBoolean();
+
+        DelayedShutdown shutdown = createDefaultDelayedShutdown()
+                .delay(10000)
+                .decrementInMillis(10000)
+                .completedWhen(completed::get)
+                .afterDelay(delayedTask);
+
+        shutdown.start(true);
+        verify(delayedTask, never()).run();
+
+        // when
+        completed.set(true);
+        shutdown.signal();
+
+        // then
+        verify(delayedTask, timeout(1000)).run();
+
+    }
+
+    @Test
+    public void signalDoesNotSkipRemainingDelayIfNotCompleted() {
+
+        // given
+        Runnable delayedTask = mock(Runnable.class);
+
+        DelayedShutdown shutdown = createDefaultDelayedShutdown()
+                .delay(500)
+                .decrementInMillis(500)
+                .completedWhen(() -> false)
+                .afterDelay(delayedTask);
+
+        shutdown.start(true);
+
+        // when
+        shutdown.signal();
+
+        // then
+        verify(delayedTask, timeout(100).times(0)).run();
+        verify(delayedTask, timeout(2000)).run();
+
+    }
+
     @Test
     public void handlesInterruptedExceptions()  {
 
@@ -0,0 +1,342 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.LiteBlockingWaitStrategy;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import org.appenders.log4j2.elasticsearch.AsyncBatchEmitterTest.TestBatch;
+import org.appenders.log4j2.elasticsearch.AsyncBatchEmitterTest.TestBatchOperations;
+import org.appenders.log4j2.elasticsearch.metrics.BasicMetricOutputsRegistry;
+import org.appenders.log4j2.elasticsearch.metrics.BasicMetricsRegistry;
+import org.appenders.log4j2.elasticsearch.metrics.DefaultMetricsFactory;
+import org.appenders.log4j2.elasticsearch.metrics.Metric;
+import org.appenders.log4j2.elasticsearch.metrics.MetricOutput;
+import org.appenders.log4j2.elasticsearch.metrics.MetricOutputTest;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsProcessor;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DisruptorBatchEmitterTest {
+
+    private static final int TEST_RING_BUFFER_SIZE = 1024;
+    private static final int LONG_INTERVAL = 60000;
+
+    @Test
+    public void deliversBatchWhenBatchSizeIsReached() {
+
+        // given
+        final Function<TestBatch, Boolean> listener = mock(Function.class);
+        final DisruptorBatchEmitter<TestBatch> emitter = createTestEmitter(2, LONG_INTERVAL, listener);
+        emitter.start();
+
+        // when
+        emitter.add(new Object());
+        emitter.add(new Object());
+
+        // then
+        final ArgumentCaptor<TestBatch> captor = ArgumentCaptor.forClass(TestBatch.class);
+        verify(listener, timeout(1000)).apply(captor.capture());
+        assertEquals(2, captor.getValue().items.size());
+
+        emitter.stop();
+
+    }
+
+    @Test
+    public void deliversIncompleteBatchOnInterval() {
+
+        // given
+        final Function<TestBatch, Boolean> listener = mock(Function.class);
+        final DisruptorBatchEmitter<TestBatch> emitter = createTestEmitter(100, 50, listener);
+        emitter.start();
+
+        // when
+        emitter.add(new Object());
+
+        // then
+        final ArgumentCaptor<TestBatch> captor = ArgumentCaptor.forClass(TestBatch.class);
+        verify(listener, timeout(1000)).apply(captor.capture());
+        assertEquals(1, captor.getValue().items.size());
+
+        emitter.stop();
+
+    }
+
+    @Test
+    public void doesNotDeliverIncompleteBatchBeforeInterval() {
+
+        // given
+        final Function<TestBatch, Boolean> listener = mock(Function.class);
+        final DisruptorBatchEmitter<TestBatch> emitter = createTestEmitter(100, LONG_INTERVAL, listener);
+        emitter.start();
+
+        // when
+        emitter.add(new Object());
+
+        // then
+        verify(listener, after(200).never()).apply(any());
+
+        emitter.stop();
+
+    }
+
+    @Test
+    public void deliversLastBatchOnStop() {
+
+        // given
+        final Function<TestBatch, Boolean> listener = mock(Function.class);
+        final DisruptorBatchEmitter<TestBatch> emitter = createTestEmitter(100, LONG_INTERVAL, listener);
+        emitter.start();
+
+        emitter.add(new Object());
+        emitter.add(new Object());
+        emitter.add(new Object());
+
+        // when
+        emitter.stop();
+
+        // then
+        final ArgumentCaptor<TestBatch> captor = ArgumentCaptor.forClass(TestBatch.class);
+        verify(listener).apply(captor.capture());
+        assertEquals(3, captor.getValue().items.size());
+
+    }
+
+    @Test
+    public void deliversSubsequentBatchesAfterListenerException() {
+
+        // given
+        final Function<TestBatch, Boolean> listener = mock(Function.class);
+        when(listener.apply(any()))
+                .thenThrow(new IllegalStateException("test exception"))
+                .thenReturn(true);
+
+        final DisruptorBatchEmitter<TestBatch> emitter = createTestEmitter(1, LONG_INTERVAL, listener);
+        emitter.start();
+
+        // when
+        emitter.add(new Object());
+        emitter.add(new Object());
+
+        // then
+        verify(listener, timeout(1000).times(2)).apply(any());
+
+        emitter.stop();
+
+    }
+
+    @Test
+    public void createsSupportedWaitStrategies() {
+
+        // then
+        assertThat(DisruptorBatchEmitter.createWaitStrategy("blocking"), instanceOf(BlockingWaitStrategy.class));
+        assertThat(DisruptorBatchEmitter.createWaitStrategy("liteBlocking"), instanceOf(LiteBlockingWaitStrategy.class));
+        assertThat(DisruptorBatchEmitter.createWaitStrategy("sleeping"), instanceOf(SleepingWaitStrategy.class));
+        assertThat(DisruptorBatchEmitter.createWaitStrategy("yielding"), instanceOf(YieldingWaitStrategy.class));
+        assertThat(DisruptorBatchEmitter.createWaitStrategy("busySpin"), instanceOf(BusySpinWaitStrategy.class));
+
+    }
+
+    @Test
+    public void throwsOnUnsupportedWaitStrategy() {
+
+        // when
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> DisruptorBatchEmitter.createWaitStrategy("unknown"));
+
+        // then
+        assertThat(exception.getMessage(), containsString("Unsupported waitStrategy: unknown"));
+
+    }
+
+    @Test
+    public void queueSizeReflectsUnprocessedItems() {
+
+        // given
+        final Function<TestBatch, Boolean> listener = mock(Function.class);
+        final DisruptorBatchEmitter<TestBatch> emitter = createTestEmitter(100, LONG_INTERVAL, listener);
+
+        // when
+        emitter.add(new Object());
+        emitter.add(new Object());
+
+        // then
+        assertEquals(2, emitter.getQueueSize());
+        verify(listener, never()).apply(any());
+
+        emitter.start();
+        emitter.stop();
+
+        verify(listener, times(1)).apply(any());
+
+    }
+
+    @Test
+    public void reportsEmissionsOnSizeAndShutdown() {
+
+        // given
+        final DisruptorBatchEmitter<TestBatch> emitter = new DisruptorBatchEmitter<>(
+                "test-emitter",
+                2,
+                LONG_INTERVAL,
+                new TestBatchOperations(),
+                TEST_RING_BUFFER_SIZE,
+                new BlockingWaitStrategy(),
+                new DefaultMetricsFactory(DisruptorBatchEmitter.metricConfigs(true)));
+        emitter.addListener(mock(Function.class));
+
+        final MetricOutput metricOutput = spy(MetricOutputTest.dummy());
+        when(metricOutput.accepts(any())).thenReturn(true);
+
+        final MetricsRegistry registry = new BasicMetricsRegistry();
+        emitter.register(registry);
+        final MetricsProcessor metricsProcessor = new MetricsProcessor(registry, new BasicMetricOutputsRegistry(metricOutput));
+
+        emitter.start();
+
+        for (int i = 0; i < 5; i++) {
+            emitter.add(new Object());
+        }
+
+        // when
+        emitter.stop();
+        metricsProcessor.process();
+
+        // then
+        verify(metricOutput).write(anyLong(), eq(new Metric.Key("test-emitter", "queueSize", "gauge")), eq(0L));
+        verify(metricOutput).write(anyLong(), eq(new Metric.Key("test-emitter", "oldestItemAgeMs", "gauge")), eq(0L));
+        verify(metricOutput).write(anyLong(), eq(new Metric.Key("test-emitter", "emittedOnSize", "count")), eq(2L));
+        verify(metricOutput).write(anyLong(), eq(new Metric.Key("test-emitter", "emittedOnShutdown", "count")), eq(1L));
+        verify(metricOutput).write(anyLong(), eq(new Metric.Key("test-emitter", "itemsPerBatch", "max")), eq(2L));
+
+    }
+
+    @Test
+    public void stopDoesNotWaitForStalledListenerLongerThanTimeout() throws InterruptedException {
+
+        // given
+        final CountDownLatch stalled = new CountDownLatch(1);
+        final Function<TestBatch, Boolean> listener = batch -> {
+            try {
+                stalled.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        };
+
+        final DisruptorBatchEmitter<TestBatch> emitter = createTestEmitter(1, LONG_INTERVAL, listener);
+        emitter.start();
+
+        emitter.add(new Object());
+        emitter.add(new Object());
+
+        final long timeout = DisruptorBatchEmitter.DEFAULT_SHUTDOWN_GRACE_MILLIS + 100;
+
+        // when
+        final long start = System.currentTimeMillis();
+        emitter.stop(timeout, false);
+        final long elapsed = System.currentTimeMillis() - start;
+
+        // then
+        assertTrue(emitter.isStopped());
+        assertTrue(elapsed < timeout + 1000, "Stop took " + elapsed + "ms");
+
+        stalled.countDown();
+
+    }
+
+    @Test
+    public void lifecycleStart() {
+
+        // given
+        final LifeCycle lifeCycle = createTestEmitter(1, LONG_INTERVAL, mock(Function.class));
+
+        assertTrue(lifeCycle.isStopped());
+
+        // when
+        lifeCycle.start();
+
+        // then
+        assertFalse(lifeCycle.isStopped());
+        assertTrue(lifeCycle.isStarted());
+
+        lifeCycle.stop();
+
+    }
+
+    @Test
+    public void lifecycleStop() {
+
+        // given
+        final LifeCycle lifeCycle = createTestEmitter(1, LONG_INTERVAL, mock(Function.class));
+
+        lifeCycle.start();
+        assertTrue(lifeCycle.isStarted());
+
+        // when
+        lifeCycle.stop();
+
+        // then
+        assertFalse(lifeCycle.isStarted());
+        assertTrue(lifeCycle.isStopped());
+
+    }
+
+    private DisruptorBatchEmitter<TestBatch> createTestEmitter(final int batchSize, final int deliveryInterval, final Function<TestBatch, Boolean> listener) {
+        final DisruptorBatchEmitter<TestBatch> emitter = new DisruptorBatchEmitter<>(
+                batchSize,
+                deliveryInterval,
+                new TestBatchOperations(),
+                TEST_RING_BUFFER_SIZE,
+                new BlockingWaitStrategy());
+        emitter.addListener(listener);
+        return emitter;
+    }
+
+}
@@ -58,6 +58,8 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
@@ -124,6 +126,206 @@ public class ElasticsearchAppenderTest {
 
     }
 
+    @Test
+    public void builderFailsWhenSerializerThreadsIsNegative() {
+
+        // given
+        ElasticsearchAppender.Builder builder = createTestElasticsearchAppenderBuilder();
+        builder.withSerializerThreads(-1);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("serializerThreads cannot be negative"));
+
+    }
+
+    @Test
+    public void builderFailsWhenSerializerQueueSizeIsNotPositiveAndSerializerThreadsAreConfigured() {
+
+        // given
+        ElasticsearchAppender.Builder builder = createTestElasticsearchAppenderBuilder();
+        builder.withSerializerThreads(1);
+        builder.withSerializerQueueSize(0);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("serializerQueueSize must be higher than 0"));
+
+    }
+
+    @Test
+    public void appenderDeliversFromSerializerThreadsIfSerializerThreadsAreConfigured() {
+
+        // given
+        BatchDelivery<String> batchDelivery = mock(BatchDelivery.class);
+
+        ElasticsearchAppender.Builder builder = ElasticsearchAppenderTest.createTestElasticsearchAppenderBuilder();
+        builder.withBatchDelivery(batchDelivery);
+        builder.withSerializerThreads(2);
+
+        ElasticsearchAppender appender = builder.build();
+        appender.start();
+
+        // when
+        appender.append(createTestLogEvent());
+
+        // then
+        verify(batchDelivery, timeout(1000)).add(eq("testIndexName"), any(ItemSource.class));
+
+        appender.stop();
+
+    }
+
+    @Test
+    public void builderFailsWhenAggregationWindowMillisIsNegative() {
+
+        // given
+        ElasticsearchAppender.Builder builder = createTestElasticsearchAppenderBuilder();
+        builder.withAggregationWindowMillis(-1);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("aggregationWindowMillis cannot be negative"));
+
+    }
+
+    @Test
+    public void builderFailsWhenAggregationMaxKeysIsNotPositiveAndAggregationIsConfigured() {
+
+        // given
+        ElasticsearchAppender.Builder builder = createTestElasticsearchAppenderBuilder();
+        builder.withAggregationWindowMillis(1000);
+        builder.withAggregationMaxKeys(0);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("aggregationMaxKeys must be higher than 0"));
+
+    }
+
+    @Test
+    public void appenderCollapsesRepeatedEventsIfAggregationIsConfigured() {
+
+        // given
+        BatchDelivery<String> batchDelivery = mock(BatchDelivery.class);
+
+        ElasticsearchAppender.Builder builder = ElasticsearchAppenderTest.createTestElasticsearchAppenderBuilder();
+        builder.withBatchDelivery(batchDelivery);
+        builder.withAggregationWindowMillis(60000);
+
+        ElasticsearchAppender appender = builder.build();
+        appender.start();
+
+        // when
+        appender.append(createTestLogEvent());
+        appender.append(createTestLogEvent());
+        appender.append(createTestLogEvent());
+
+        // then
+        verify(batchDelivery).add(eq("testIndexName"), any(ItemSource.class));
+
+        appender.stop();
+
+        verify(batchDelivery, times(2)).add(eq("testIndexName"), any(ItemSource.class));
+
+    }
+
+    @Test
+    public void appenderDropsEventsRejectedByLoadSheddingPolicy() {
+
+        // given
+        BatchDelivery<String> batchDelivery = mock(BatchDelivery.class);
+        LoadSheddingPolicy loadSheddingPolicy = mock(LoadSheddingPolicy.class);
+
+        ElasticsearchAppender.Builder builder = ElasticsearchAppenderTest.createTestElasticsearchAppenderBuilder();
+        builder.withBatchDelivery(batchDelivery);
+        builder.withLoadSheddingPolicy(loadSheddingPolicy);
+
+        ElasticsearchAppender appender = builder.build();
+        appender.start();
+
+        LogEvent logEvent = createTestLogEvent();
+        when(loadSheddingPolicy.accept(logEvent.getLevel(), batchDelivery)).thenReturn(false);
+
+        // when
+        appender.append(logEvent);
+
+        // then
+        verify(batchDelivery, never()).add(anyString(), any(ItemSource.class));
+
+        appender.stop();
+
+    }
+
+    @Test
+    public void appenderDeliversEventsAcceptedByLoadSheddingPolicy() {
+
+        // given
+        BatchDelivery<String> batchDelivery = mock(BatchDelivery.class);
+        LoadSheddingPolicy loadSheddingPolicy = mock(LoadSheddingPolicy.class);
+
+        ElasticsearchAppender.Builder builder = ElasticsearchAppenderTest.createTestElasticsearchAppenderBuilder();
+        builder.withBatchDelivery(batchDelivery);
+        builder.withLoadSheddingPolicy(loadSheddingPolicy);
+
+        ElasticsearchAppender appender = builder.build();
+        appender.start();
+
+        LogEvent logEvent = createTestLogEvent();
+        when(loadSheddingPolicy.accept(logEvent.getLevel(), batchDelivery)).thenReturn(true);
+
+        // when
+        appender.append(logEvent);
+
+        // then
+        verify(batchDelivery).add(eq("testIndexName"), any(ItemSource.class));
+
+        appender.stop();
+
+    }
+
+    @Test
+    public void appenderConsultsLoadSheddingPolicyOnlyForEventsForwardedByAggregation() {
+
+        // given
+        BatchDelivery<String> batchDelivery = mock(BatchDelivery.class);
+        LoadSheddingPolicy loadSheddingPolicy = mock(LoadSheddingPolicy.class);
+
+        ElasticsearchAppender.Builder builder = ElasticsearchAppenderTest.createTestElasticsearchAppenderBuilder();
+        builder.withBatchDelivery(batchDelivery);
+        builder.withLoadSheddingPolicy(loadSheddingPolicy);
+        builder.withAggregationWindowMillis(60000);
+
+        ElasticsearchAppender appender = builder.build();
+        appender.start();
+
+        LogEvent logEvent = createTestLogEvent();
+        when(loadSheddingPolicy.accept(logEvent.getLevel(), batchDelivery)).thenReturn(true);
+
+        // when
+        appender.append(logEvent);
+        appender.append(logEvent);
+        appender.append(logEvent);
+
+        // then
+        verify(loadSheddingPolicy, times(1)).accept(logEvent.getLevel(), batchDelivery);
+        verify(batchDelivery, times(1)).add(eq("testIndexName"), any(ItemSource.class));
+
+        appender.stop();
+
+        // collapsed events are forwarded once, as a summary
+        verify(loadSheddingPolicy, times(2)).accept(logEvent.getLevel(), batchDelivery);
+
+    }
+
     @Test
     public void appenderDelegatesToItemAppender() {
 
@@ -0,0 +1,103 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FileSetupOperationCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void doesNotContainAnyKeysIfFileDoesNotExist() {
+
+        // given
+        final FileSetupOperationCache setupOperationCache = new FileSetupOperationCache(tempDir.resolve("setup.cache"));
+
+        // when
+        final boolean result = setupOperationCache.contains("test");
+
+        // then
+        assertFalse(result);
+
+    }
+
+    @Test
+    public void keysSurviveRestarts() {
+
+        // given
+        final Path path = tempDir.resolve("nested").resolve("setup.cache");
+        new FileSetupOperationCache(path).put("test1");
+        new FileSetupOperationCache(path).put("test2");
+
+        // when
+        final FileSetupOperationCache setupOperationCache = new FileSetupOperationCache(path);
+
+        // then
+        assertTrue(setupOperationCache.contains("test1"));
+        assertTrue(setupOperationCache.contains("test2"));
+        assertFalse(setupOperationCache.contains("test3"));
+
+    }
+
+    @Test
+    public void putWritesKeyOnlyOnce() throws IOException {
+
+        // given
+        final Path path = tempDir.resolve("setup.cache");
+        final FileSetupOperationCache setupOperationCache = new FileSetupOperationCache(path);
+
+        // when
+        setupOperationCache.put("test");
+        setupOperationCache.put("test");
+
+        // then
+        assertEquals(Arrays.asList("test"), Files.readAllLines(path, StandardCharsets.UTF_8));
+
+    }
+
+    @Test
+    public void putDoesNotThrowIfFileCannotBeReadOrWritten() throws IOException {
+
+        // given
+        final Path directory = Files.createDirectory(tempDir.resolve("directory"));
+        final FileSetupOperationCache setupOperationCache = new FileSetupOperationCache(directory);
+
+        // when
+        setupOperationCache.put("test");
+
+        // then
+        assertTrue(setupOperationCache.contains("test"));
+
+    }
+
+}
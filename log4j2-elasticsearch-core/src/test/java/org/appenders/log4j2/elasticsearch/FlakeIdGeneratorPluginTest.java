@@ -0,0 +1,63 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class FlakeIdGeneratorPluginTest {
+
+    @Test
+    public void builderBuildsSuccessfully() {
+
+        // given
+        FlakeIdGeneratorPlugin.Builder builder = FlakeIdGeneratorPlugin.newBuilder();
+
+        // when
+        FlakeIdGeneratorPlugin generator = builder.build();
+
+        // then
+        assertNotNull(generator);
+
+    }
+
+    @Test
+    public void builderSetsNodeId() {
+
+        // given
+        long expectedNodeId = 123;
+
+        // when
+        String id = FlakeIdGeneratorPlugin.newBuilder().withNodeId(expectedNodeId).build().generate(new StringItemSource("test"));
+
+        // then
+        ByteBuffer bytes = ByteBuffer.wrap(Base64.getUrlDecoder().decode(id));
+        bytes.getLong();
+        assertEquals(expectedNodeId, bytes.getLong());
+
+    }
+
+}
@@ -0,0 +1,169 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FlakeIdGeneratorTest {
+
+    @Test
+    public void generatesDifferentIdsForSameItem() {
+
+        // given
+        FlakeIdGenerator generator = new FlakeIdGenerator();
+        StringItemSource itemSource = new StringItemSource("test");
+
+        // when
+        String id1 = generator.generate(itemSource);
+        String id2 = generator.generate(itemSource);
+
+        // then
+        assertEquals(22, id1.length());
+        assertNotEquals(id1, id2);
+
+    }
+
+    @Test
+    public void generatedIdContainsTimestampSequenceAndNodeId() {
+
+        // given
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(1000L);
+
+        long nodeId = 123;
+        FlakeIdGenerator generator = new FlakeIdGenerator(nodeId, clock);
+
+        // when
+        generator.generate(new StringItemSource("test"));
+        ByteBuffer id = ByteBuffer.wrap(Base64.getUrlDecoder().decode(generator.generate(new StringItemSource("test"))));
+
+        // then
+        long timeAndSequence = id.getLong();
+        assertEquals(1000L, timeAndSequence >>> FlakeIdGenerator.SEQUENCE_BITS);
+        assertEquals(1, timeAndSequence & 0xFFFF);
+        assertEquals(nodeId, id.getLong());
+
+    }
+
+    @Test
+    public void sequenceResetsWhenClockMovesForward() {
+
+        // given
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(1000L, 1000L, 1001L);
+
+        FlakeIdGenerator generator = new FlakeIdGenerator(0, clock);
+
+        // when
+        generator.next();
+        generator.next();
+        long result = generator.next();
+
+        // then
+        assertEquals(1001L << FlakeIdGenerator.SEQUENCE_BITS, result);
+
+    }
+
+    @Test
+    public void doesNotGoBackWhenClockMovesBackwards() {
+
+        // given
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(1000L, 999L);
+
+        FlakeIdGenerator generator = new FlakeIdGenerator(0, clock);
+
+        // when
+        long first = generator.next();
+        long second = generator.next();
+
+        // then
+        assertEquals(first + 1, second);
+
+    }
+
+    @Test
+    public void sequenceOverflowBorrowsFromNextMilli() {
+
+        // given
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(1000L);
+
+        FlakeIdGenerator generator = new FlakeIdGenerator(0, clock);
+
+        long result = 0;
+
+        // when
+        for (int i = 0; i <= 1 << FlakeIdGenerator.SEQUENCE_BITS; i++) {
+            result = generator.next();
+        }
+
+        // then
+        assertEquals(1001L << FlakeIdGenerator.SEQUENCE_BITS, result);
+
+    }
+
+    @Test
+    public void generatesUniqueIdsConcurrently() throws InterruptedException {
+
+        // given
+        FlakeIdGenerator generator = new FlakeIdGenerator();
+        StringItemSource itemSource = new StringItemSource("test");
+
+        int threads = 4;
+        int idsPerThread = 10000;
+        Set<String> ids = Collections.synchronizedSet(new HashSet<>());
+
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(() -> {
+                for (int j = 0; j < idsPerThread; j++) {
+                    ids.add(generator.generate(itemSource));
+                }
+            });
+        }
+
+        // when
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        // then
+        assertEquals(threads * idsPerThread, ids.size());
+
+    }
+
+}
@@ -0,0 +1,248 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.ConfigurationException;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.util.SortedArrayStringMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IndexRoutePluginTest {
+
+    private static final String TEST_INDEX_NAME = "testIndexName";
+
+    public static IndexRoutePlugin.Builder createTestIndexRouteBuilder() {
+        return IndexRoutePlugin.newBuilder()
+                .withIndexName(TEST_INDEX_NAME);
+    }
+
+    public static Log4jLogEvent.Builder createTestLogEventBuilder() {
+        return Log4jLogEvent.newBuilder()
+                .setLevel(Level.INFO)
+                .setLoggerName("org.appenders.test.Logger")
+                .setTimeMillis(System.currentTimeMillis());
+    }
+
+    public static Log4jLogEvent.Builder withMdc(final Log4jLogEvent.Builder builder, final String key, final String value) {
+        final SortedArrayStringMap contextData = new SortedArrayStringMap();
+        contextData.putValue(key, value);
+        return builder.setContextData(contextData);
+    }
+
+    @Test
+    public void builderThrowsWhenIndexNameIsNull() {
+
+        // given
+        final IndexRoutePlugin.Builder builder = createTestIndexRouteBuilder()
+                .withLevel("ERROR")
+                .withIndexName(null);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("No indexName provided for IndexRoute"));
+
+    }
+
+    @Test
+    public void builderThrowsWhenNoConditionsAreConfigured() {
+
+        // given
+        final IndexRoutePlugin.Builder builder = createTestIndexRouteBuilder();
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("No conditions provided for IndexRoute"));
+
+    }
+
+    @Test
+    public void builderThrowsWhenLevelIsUnknown() {
+
+        // given
+        final IndexRoutePlugin.Builder builder = createTestIndexRouteBuilder()
+                .withLevel("NOT_A_LEVEL");
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("Unknown level provided for IndexRoute"));
+
+    }
+
+    @Test
+    public void builderThrowsWhenMdcValueIsConfiguredWithoutMdcKey() {
+
+        // given
+        final IndexRoutePlugin.Builder builder = createTestIndexRouteBuilder()
+                .withMdcValue(UUID.randomUUID().toString());
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("No mdcKey provided for IndexRoute"));
+
+    }
+
+    @Test
+    public void matchesSameOrMoreSpecificLevel() {
+
+        // given
+        final IndexRoutePlugin route = createTestIndexRouteBuilder()
+                .withLevel("warn")
+                .build();
+
+        // when
+        final boolean info = route.matches(createTestLogEventBuilder().setLevel(Level.INFO).build());
+        final boolean warn = route.matches(createTestLogEventBuilder().setLevel(Level.WARN).build());
+        final boolean error = route.matches(createTestLogEventBuilder().setLevel(Level.ERROR).build());
+
+        // then
+        assertFalse(info);
+        assertTrue(warn);
+        assertTrue(error);
+
+    }
+
+    @Test
+    public void matchesLoggerPrefix() {
+
+        // given
+        final IndexRoutePlugin route = createTestIndexRouteBuilder()
+                .withLoggerPrefix("org.appenders.audit")
+                .build();
+
+        // when
+        final boolean matching = route.matches(createTestLogEventBuilder().setLoggerName("org.appenders.audit.Service").build());
+        final boolean notMatching = route.matches(createTestLogEventBuilder().setLoggerName("org.appenders.Service").build());
+        final boolean noLoggerName = route.matches(createTestLogEventBuilder().setLoggerName(null).build());
+
+        // then
+        assertTrue(matching);
+        assertFalse(notMatching);
+        assertFalse(noLoggerName);
+
+    }
+
+    @Test
+    public void matchesMarkerAndParentMarker() {
+
+        // given
+        final String parentName = UUID.randomUUID().toString();
+        final IndexRoutePlugin route = createTestIndexRouteBuilder()
+                .withMarker(parentName)
+                .build();
+
+        final String childName = UUID.randomUUID().toString();
+        MarkerManager.getMarker(childName).setParents(MarkerManager.getMarker(parentName));
+
+        // when
+        final boolean parent = route.matches(createTestLogEventBuilder().setMarker(MarkerManager.getMarker(parentName)).build());
+        final boolean child = route.matches(createTestLogEventBuilder().setMarker(MarkerManager.getMarker(childName)).build());
+        final boolean other = route.matches(createTestLogEventBuilder().setMarker(MarkerManager.getMarker(UUID.randomUUID().toString())).build());
+        final boolean noMarker = route.matches(createTestLogEventBuilder().build());
+
+        // then
+        assertTrue(parent);
+        assertTrue(child);
+        assertFalse(other);
+        assertFalse(noMarker);
+
+    }
+
+    @Test
+    public void matchesMdcKeyPresence() {
+
+        // given
+        final String mdcKey = UUID.randomUUID().toString();
+        final IndexRoutePlugin route = createTestIndexRouteBuilder()
+                .withMdcKey(mdcKey)
+                .build();
+
+        // when
+        final boolean present = route.matches(withMdc(createTestLogEventBuilder(), mdcKey, UUID.randomUUID().toString()).build());
+        final boolean absent = route.matches(withMdc(createTestLogEventBuilder(), UUID.randomUUID().toString(), UUID.randomUUID().toString()).build());
+
+        // then
+        assertTrue(present);
+        assertFalse(absent);
+
+    }
+
+    @Test
+    public void matchesMdcValue() {
+
+        // given
+        final String mdcKey = UUID.randomUUID().toString();
+        final String mdcValue = UUID.randomUUID().toString();
+        final IndexRoutePlugin route = createTestIndexRouteBuilder()
+                .withMdcKey(mdcKey)
+                .withMdcValue(mdcValue)
+                .build();
+
+        // when
+        final boolean sameValue = route.matches(withMdc(createTestLogEventBuilder(), mdcKey, mdcValue).build());
+        final boolean otherValue = route.matches(withMdc(createTestLogEventBuilder(), mdcKey, UUID.randomUUID().toString()).build());
+
+        // then
+        assertTrue(sameValue);
+        assertFalse(otherValue);
+
+    }
+
+    @Test
+    public void matchesOnlyIfAllConditionsAreMet() {
+
+        // given
+        final IndexRoutePlugin route = createTestIndexRouteBuilder()
+                .withLevel("ERROR")
+                .withLoggerPrefix("org.appenders.audit")
+                .build();
+
+        // when
+        final LogEvent errorFromOtherLogger = createTestLogEventBuilder().setLevel(Level.ERROR).build();
+        final LogEvent infoFromAuditLogger = createTestLogEventBuilder().setLoggerName("org.appenders.audit.Service").build();
+        final LogEvent errorFromAuditLogger = createTestLogEventBuilder().setLevel(Level.ERROR).setLoggerName("org.appenders.audit.Service").build();
+
+        // then
+        assertFalse(route.matches(errorFromOtherLogger));
+        assertFalse(route.matches(infoFromAuditLogger));
+        assertTrue(route.matches(errorFromAuditLogger));
+
+    }
+
+}
@@ -157,6 +157,25 @@ public class JacksonJsonLayoutTest {
 
     }
 
+    @Test
+    public void layoutWritesAggregatedFieldsOfAggregatedLogEvent() {
+
+        // given
+        JacksonJsonLayout layout = createDefaultTestBuilder().build();
+
+        LogEvent logEvent = new AggregatedLogEvent(new Log4jLogEvent(), 3, 1L, 2L);
+
+        // when
+        ItemSource itemSource = layout.toSerializable(logEvent);
+
+        // then
+        String json = (String) itemSource.getSource();
+        assertTrue(json.contains("\"count\":3"));
+        assertTrue(json.contains("\"first_seen\":1"));
+        assertTrue(json.contains("\"last_seen\":2"));
+
+    }
+
     @Test
     public void builderBuildsMapperWithAfterburnerIfConfigured() {
 
@@ -0,0 +1,361 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.ConfigurationException;
+import org.appenders.log4j2.elasticsearch.metrics.BasicMetricsRegistry;
+import org.appenders.log4j2.elasticsearch.metrics.Metric;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LevelAwareLoadSheddingPolicyPluginTest {
+
+    private static final long TEST_CAPACITY = 100;
+
+    public static LevelAwareLoadSheddingPolicyPlugin.Builder createDefaultTestLoadSheddingPolicyBuilder() {
+        return LevelAwareLoadSheddingPolicyPlugin.newBuilder()
+                .withCapacity(TEST_CAPACITY)
+                .withInfoCapacityFactor(0.8)
+                .withDebugCapacityFactor(0.5)
+                .withErrorWaitMillis(0);
+    }
+
+    @Test
+    public void builderBuildsSuccessfully() {
+
+        // given
+        final LevelAwareLoadSheddingPolicyPlugin.Builder builder = createDefaultTestLoadSheddingPolicyBuilder();
+
+        // when
+        final LoadSheddingPolicy policy = builder.build();
+
+        // then
+        assertNotNull(policy);
+
+    }
+
+    @Test
+    public void builderThrowsWhenNameIsNull() {
+
+        // given
+        final LevelAwareLoadSheddingPolicyPlugin.Builder builder = createDefaultTestLoadSheddingPolicyBuilder()
+                .withName(null);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("No name provided"));
+
+    }
+
+    @Test
+    public void builderThrowsWhenCapacityIsNotPositive() {
+
+        // given
+        final LevelAwareLoadSheddingPolicyPlugin.Builder builder = createDefaultTestLoadSheddingPolicyBuilder()
+                .withCapacity(0);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("capacity must be higher than 0"));
+
+    }
+
+    @Test
+    public void builderThrowsWhenInfoCapacityFactorIsHigherThanOne() {
+
+        // given
+        final LevelAwareLoadSheddingPolicyPlugin.Builder builder = createDefaultTestLoadSheddingPolicyBuilder()
+                .withInfoCapacityFactor(1.1);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("infoCapacityFactor must be higher than 0 and lower or equal 1"));
+
+    }
+
+    @Test
+    public void builderThrowsWhenDebugCapacityFactorIsHigherThanInfoCapacityFactor() {
+
+        // given
+        final LevelAwareLoadSheddingPolicyPlugin.Builder builder = createDefaultTestLoadSheddingPolicyBuilder()
+                .withDebugCapacityFactor(0.9);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("debugCapacityFactor must be higher than 0 and lower or equal infoCapacityFactor"));
+
+    }
+
+    @Test
+    public void builderThrowsWhenErrorWaitMillisIsNegative() {
+
+        // given
+        final LevelAwareLoadSheddingPolicyPlugin.Builder builder = createDefaultTestLoadSheddingPolicyBuilder()
+                .withErrorWaitMillis(-1);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("errorWaitMillis cannot be negative"));
+
+    }
+
+    @Test
+    public void acceptsAllLevelsIfBacklogSizeIsNotAvailable() {
+
+        // given
+        final LevelAwareLoadSheddingPolicyPlugin policy = createDefaultTestLoadSheddingPolicyBuilder().build();
+        final BatchDelivery batchDelivery = mockedBatchDelivery(-1);
+
+        // when
+        final boolean accepted = policy.accept(Level.TRACE, batchDelivery);
+
+        // then
+        assertTrue(accepted);
+
+    }
+
+    @Test
+    public void acceptsAllLevelsIfBacklogSizeIsBelowDebugCapacity() {
+
+        // given
+        final LevelAwareLoadSheddingPolicyPlugin policy = createDefaultTestLoadSheddingPolicyBuilder().build();
+        final BatchDelivery batchDelivery = mockedBatchDelivery(49);
+
+        // when
+        final boolean trace = policy.accept(Level.TRACE, batchDelivery);
+        final boolean debug = policy.accept(Level.DEBUG, batchDelivery);
+        final boolean info = policy.accept(Level.INFO, batchDelivery);
+
+        // then
+        assertTrue(trace);
+        assertTrue(debug);
+        assertTrue(info);
+
+    }
+
+    @Test
+    public void dropsTraceAndDebugFirst() {
+
+        // given
+        final LevelAwareLoadSheddingPolicyPlugin policy = createDefaultTestLoadSheddingPolicyBuilder().build();
+        final BatchDelivery batchDelivery = mockedBatchDelivery(50);
+
+        // when
+        final boolean trace = policy.accept(Level.TRACE, batchDelivery);
+        final boolean debug = policy.accept(Level.DEBUG, batchDelivery);
+        final boolean info = policy.accept(Level.INFO, batchDelivery);
+        final boolean warn = policy.accept(Level.WARN, batchDelivery);
+
+        // then
+        assertFalse(trace);
+        assertFalse(debug);
+        assertTrue(info);
+        assertTrue(warn);
+        assertEquals(1, policy.getDroppedTrace());
+        assertEquals(1, policy.getDroppedDebug());
+        assertEquals(0, policy.getDroppedInfo());
+
+    }
+
+    @Test
+    public void dropsInfoIfBacklogSizeReachedInfoCapacity() {
+
+        // given
+        final LevelAwareLoadSheddingPolicyPlugin policy = createDefaultTestLoadSheddingPolicyBuilder().build();
+        final BatchDelivery batchDelivery = mockedBatchDelivery(80);
+
+        // when
+        final boolean info = policy.accept(Level.INFO, batchDelivery);
+        final boolean warn = policy.accept(Level.WARN, batchDelivery);
+
+        // then
+        assertFalse(info);
+        assertTrue(warn);
+        assertEquals(1, policy.getDroppedInfo());
+        assertEquals(0, policy.getDroppedWarn());
+
+    }
+
+    @Test
+    public void dropsWarnIfBacklogSizeReachedCapacity() {
+
+        // given
+        final LevelAwareLoadSheddingPolicyPlugin policy = createDefaultTestLoadSheddingPolicyBuilder().build();
+        final BatchDelivery batchDelivery = mockedBatchDelivery(TEST_CAPACITY);
+
+        // when
+        final boolean warn = policy.accept(Level.WARN, batchDelivery);
+
+        // then
+        assertFalse(warn);
+        assertEquals(1, policy.getDroppedWarn());
+
+    }
+
+    @Test
+    public void acceptsErrorAndFatalIfBacklogSizeReachedCapacity() {
+
+        // given
+        final LevelAwareLoadSheddingPolicyPlugin policy = createDefaultTestLoadSheddingPolicyBuilder().build();
+        final BatchDelivery batchDelivery = mockedBatchDelivery(TEST_CAPACITY);
+
+        // when
+        final boolean error = policy.accept(Level.ERROR, batchDelivery);
+        final boolean fatal = policy.accept(Level.FATAL, batchDelivery);
+
+        // then
+        assertTrue(error);
+        assertTrue(fatal);
+        assertEquals(2, policy.getErrorsOverCapacity());
+
+    }
+
+    @Test
+    public void errorWaitsForCapacityUpToErrorWaitMillis() {
+
+        // given
+        final long errorWaitMillis = 50;
+        final LevelAwareLoadSheddingPolicyPlugin policy = createDefaultTestLoadSheddingPolicyBuilder()
+                .withErrorWaitMillis(errorWaitMillis)
+                .build();
+        final BatchDelivery batchDelivery = mockedBatchDelivery(TEST_CAPACITY);
+
+        final long start = System.nanoTime();
+
+        // when
+        final boolean accepted = policy.accept(Level.ERROR, batchDelivery);
+
+        // then
+        assertTrue(accepted);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= errorWaitMillis);
+        assertEquals(1, policy.getErrorsOverCapacity());
+
+    }
+
+    @Test
+    public void errorIsAcceptedAsSoonAsBacklogSizeIsBelowCapacity() {
+
+        // given
+        final LevelAwareLoadSheddingPolicyPlugin policy = createDefaultTestLoadSheddingPolicyBuilder()
+                .withErrorWaitMillis(TimeUnit.SECONDS.toMillis(10))
+                .build();
+        final BatchDelivery batchDelivery = mock(BatchDelivery.class);
+        when(batchDelivery.getBacklogSize()).thenReturn(TEST_CAPACITY, TEST_CAPACITY, TEST_CAPACITY, TEST_CAPACITY - 1);
+
+        // when
+        final boolean accepted = policy.accept(Level.ERROR, batchDelivery);
+
+        // then
+        assertTrue(accepted);
+        assertEquals(0, policy.getErrorsOverCapacity());
+
+    }
+
+    @Test
+    public void registersAllEnabledMetrics() {
+
+        // given
+        final LevelAwareLoadSheddingPolicyPlugin policy = createDefaultTestLoadSheddingPolicyBuilder()
+                .withMetricConfigs(LevelAwareLoadSheddingPolicyPlugin.metricConfigs(true))
+                .build();
+        final MetricsRegistry registry = new BasicMetricsRegistry();
+
+        // when
+        policy.register(registry);
+
+        // then
+        assertEquals(LevelAwareLoadSheddingPolicyPlugin.metricConfigs(true).size(), registry.getMetrics(metric -> true).size());
+
+    }
+
+    @Test
+    public void metricsOfPoliciesWithDifferentNamesDoNotCollide() {
+
+        // given
+        final LevelAwareLoadSheddingPolicyPlugin policy1 = createDefaultTestLoadSheddingPolicyBuilder()
+                .withName("policy1")
+                .withMetricConfigs(LevelAwareLoadSheddingPolicyPlugin.metricConfigs(true))
+                .build();
+        final LevelAwareLoadSheddingPolicyPlugin policy2 = createDefaultTestLoadSheddingPolicyBuilder()
+                .withName("policy2")
+                .withMetricConfigs(LevelAwareLoadSheddingPolicyPlugin.metricConfigs(true))
+                .build();
+        final MetricsRegistry registry = new BasicMetricsRegistry();
+
+        // when
+        policy1.register(registry);
+        policy2.register(registry);
+
+        // then
+        assertEquals(LevelAwareLoadSheddingPolicyPlugin.metricConfigs(true).size() * 2, registry.getMetrics(metric -> true).size());
+        assertEquals(1, registry.getMetrics(metric -> metric.getKey().equals(new Metric.Key("policy1", "droppedInfo", "gauge"))).size());
+        assertEquals(1, registry.getMetrics(metric -> metric.getKey().equals(new Metric.Key("policy2", "droppedInfo", "gauge"))).size());
+
+    }
+
+    @Test
+    public void deregistersAllMetrics() {
+
+        // given
+        final LevelAwareLoadSheddingPolicyPlugin policy = createDefaultTestLoadSheddingPolicyBuilder()
+                .withMetricConfigs(LevelAwareLoadSheddingPolicyPlugin.metricConfigs(true))
+                .build();
+        final MetricsRegistry registry = new BasicMetricsRegistry();
+        policy.register(registry);
+
+        // when
+        policy.deregister();
+
+        // then
+        assertEquals(0, registry.getMetrics(metric -> true).size());
+
+    }
+
+    private BatchDelivery mockedBatchDelivery(final long backlogSize) {
+        final BatchDelivery batchDelivery = mock(BatchDelivery.class);
+        when(batchDelivery.getBacklogSize()).thenReturn(backlogSize);
+        return batchDelivery;
+    }
+
+}
@@ -0,0 +1,122 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.appenders.log4j2.elasticsearch.mock.LifecycleTestHelper.falseOnlyOnce;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LoadSheddingItemAppenderTest {
+
+    public static final String TEST_INDEX_NAME = "testIndexName";
+
+    @Test
+    public void dropsEventsRejectedByPolicy() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+        final LoadSheddingPolicy policy = mock(LoadSheddingPolicy.class);
+        final BatchDelivery batchDelivery = mock(BatchDelivery.class);
+        when(policy.accept(Level.DEBUG, batchDelivery)).thenReturn(false);
+
+        final LoadSheddingItemAppender appender = new LoadSheddingItemAppender(delegate, policy, batchDelivery);
+
+        // when
+        appender.append(TEST_INDEX_NAME, createTestLogEvent(Level.DEBUG));
+
+        // then
+        verify(delegate, never()).append(any(), any());
+
+    }
+
+    @Test
+    public void passesEventsAcceptedByPolicyToDelegate() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+        final LoadSheddingPolicy policy = mock(LoadSheddingPolicy.class);
+        final BatchDelivery batchDelivery = mock(BatchDelivery.class);
+        when(policy.accept(Level.ERROR, batchDelivery)).thenReturn(true);
+
+        final LoadSheddingItemAppender appender = new LoadSheddingItemAppender(delegate, policy, batchDelivery);
+        final LogEvent event = createTestLogEvent(Level.ERROR);
+
+        // when
+        appender.append(TEST_INDEX_NAME, event);
+
+        // then
+        verify(delegate).append(eq(TEST_INDEX_NAME), eq(event));
+
+    }
+
+    @Test
+    public void lifecycleStartStartsDelegate() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+        final LoadSheddingItemAppender appender = new LoadSheddingItemAppender(delegate, LoadSheddingPolicy.NOOP, mock(BatchDelivery.class));
+
+        // when
+        appender.start();
+
+        // then
+        verify(delegate).start();
+        assertTrue(appender.isStarted());
+
+    }
+
+    @Test
+    public void lifecycleStopStopsDelegateOnlyOnce() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+        when(delegate.isStopped()).thenAnswer(falseOnlyOnce());
+
+        final LoadSheddingItemAppender appender = new LoadSheddingItemAppender(delegate, LoadSheddingPolicy.NOOP, mock(BatchDelivery.class));
+
+        // when
+        appender.stop();
+        appender.stop();
+
+        // then
+        verify(delegate).stop();
+        assertTrue(appender.isStopped());
+
+    }
+
+    private LogEvent createTestLogEvent(final Level level) {
+        return Log4jLogEvent.newBuilder()
+                .setLoggerName(LoadSheddingItemAppenderTest.class.getName())
+                .setLevel(level)
+                .build();
+    }
+
+}
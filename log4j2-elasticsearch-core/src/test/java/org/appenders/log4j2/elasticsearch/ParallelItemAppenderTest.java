@@ -0,0 +1,262 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.core.LogEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.appenders.log4j2.elasticsearch.mock.LifecycleTestHelper.falseOnlyOnce;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ParallelItemAppenderTest {
+
+    public static final String TEST_INDEX_NAME = "testIndexName";
+
+    @Test
+    public void appendsImmutableCopyOnSerializerThread() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+        final AtomicReference<String> threadName = new AtomicReference<>();
+        doAnswer(invocation -> {
+            threadName.set(Thread.currentThread().getName());
+            return null;
+        }).when(delegate).append(any(), any());
+
+        final LogEvent copy = mock(LogEvent.class);
+        final LogEvent event = createTestLogEvent(copy);
+
+        final ParallelItemAppender appender = new ParallelItemAppender(delegate, 2, 10);
+        appender.start();
+
+        // when
+        appender.append(TEST_INDEX_NAME, event);
+
+        // then
+        verify(delegate, timeout(1000)).append(eq(TEST_INDEX_NAME), eq(copy));
+        assertTrue(threadName.get().startsWith("ItemSerializer-"));
+
+        appender.stop();
+
+    }
+
+    @Test
+    public void appendsOnCallingThreadIfNotStarted() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+        final LogEvent event = createTestLogEvent(mock(LogEvent.class));
+
+        final ParallelItemAppender appender = new ParallelItemAppender(delegate, 1, 10);
+
+        // when
+        appender.append(TEST_INDEX_NAME, event);
+
+        // then
+        verify(delegate).append(eq(TEST_INDEX_NAME), eq(event));
+        assertEquals(0, appender.getQueueSize());
+
+    }
+
+    @Test
+    public void appendsOnCallingThreadIfQueueIsFull() throws InterruptedException {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+
+        final CountDownLatch serializing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final LogEvent blockingCopy = mock(LogEvent.class);
+        doAnswer(invocation -> {
+            serializing.countDown();
+            release.await(1000, TimeUnit.MILLISECONDS);
+            return null;
+        }).when(delegate).append(any(), eq(blockingCopy));
+
+        final ParallelItemAppender appender = new ParallelItemAppender(delegate, 1, 1);
+        appender.start();
+
+        appender.append(TEST_INDEX_NAME, createTestLogEvent(blockingCopy));
+        assertTrue(serializing.await(1000, TimeUnit.MILLISECONDS));
+
+        final LogEvent queuedCopy = mock(LogEvent.class);
+        appender.append(TEST_INDEX_NAME, createTestLogEvent(queuedCopy));
+        assertEquals(1, appender.getQueueSize());
+
+        final LogEvent event = createTestLogEvent(mock(LogEvent.class));
+
+        // when
+        appender.append(TEST_INDEX_NAME, event);
+
+        // then
+        verify(delegate).append(eq(TEST_INDEX_NAME), eq(event));
+
+        release.countDown();
+        verify(delegate, timeout(1000)).append(eq(TEST_INDEX_NAME), eq(queuedCopy));
+
+        appender.stop();
+
+    }
+
+    @Test
+    public void serializerThreadSurvivesDelegateExceptions() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+
+        final LogEvent failingCopy = mock(LogEvent.class);
+        doThrow(new IllegalStateException("test exception")).when(delegate).append(any(), eq(failingCopy));
+
+        final ParallelItemAppender appender = new ParallelItemAppender(delegate, 1, 10);
+        appender.start();
+
+        final LogEvent copy = mock(LogEvent.class);
+
+        // when
+        appender.append(TEST_INDEX_NAME, createTestLogEvent(failingCopy));
+        appender.append(TEST_INDEX_NAME, createTestLogEvent(copy));
+
+        // then
+        verify(delegate, timeout(1000)).append(eq(TEST_INDEX_NAME), eq(copy));
+
+        appender.stop();
+
+    }
+
+    @Test
+    public void stopAppendsQueuedEvents() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+
+        final ParallelItemAppender appender = new ParallelItemAppender(delegate, 0, 10);
+        appender.start();
+
+        final LogEvent copy = mock(LogEvent.class);
+        appender.append(TEST_INDEX_NAME, createTestLogEvent(copy));
+        appender.append(TEST_INDEX_NAME, createTestLogEvent(copy));
+
+        verify(delegate, never()).append(any(), any());
+
+        // when
+        appender.stop();
+
+        // then
+        verify(delegate, times(2)).append(eq(TEST_INDEX_NAME), eq(copy));
+        assertEquals(0, appender.getQueueSize());
+
+    }
+
+    @Test
+    public void lifecycleStart() {
+
+        // given
+        final ParallelItemAppender appender = new ParallelItemAppender(mock(ItemAppender.class), 1, 10);
+
+        assertTrue(appender.isStopped());
+
+        // when
+        appender.start();
+
+        // then
+        assertFalse(appender.isStopped());
+        assertTrue(appender.isStarted());
+
+        appender.stop();
+
+    }
+
+    @Test
+    public void lifecycleStop() {
+
+        // given
+        final ParallelItemAppender appender = new ParallelItemAppender(mock(ItemAppender.class), 1, 10);
+
+        appender.start();
+        assertTrue(appender.isStarted());
+
+        // when
+        appender.stop();
+
+        // then
+        assertFalse(appender.isStarted());
+        assertTrue(appender.isStopped());
+
+    }
+
+    @Test
+    public void lifecycleStartStartsDelegate() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+        final ParallelItemAppender appender = new ParallelItemAppender(delegate, 1, 10);
+
+        // when
+        appender.start();
+
+        // then
+        verify(delegate).start();
+
+        appender.stop();
+
+    }
+
+    @Test
+    public void lifecycleStopStopsDelegateOnlyOnce() {
+
+        // given
+        final ItemAppender<LogEvent> delegate = mock(ItemAppender.class);
+        when(delegate.isStopped()).thenAnswer(falseOnlyOnce());
+
+        final ParallelItemAppender appender = new ParallelItemAppender(delegate, 1, 10);
+
+        // when
+        appender.stop();
+        appender.stop();
+
+        // then
+        verify(delegate).stop();
+
+    }
+
+    private LogEvent createTestLogEvent(final LogEvent immutableCopy) {
+        final LogEvent event = mock(LogEvent.class);
+        when(event.toImmutable()).thenReturn(immutableCopy);
+        return event;
+    }
+
+}
@@ -0,0 +1,111 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import org.apache.logging.log4j.core.config.ConfigurationException;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParallelSetupPluginTest {
+
+    public static ParallelSetupPlugin.Builder createDefaultTestParallelSetupBuilder() {
+        return ParallelSetupPlugin.newBuilder();
+    }
+
+    @Test
+    public void builderBuildsSuccessfully() {
+
+        // given
+        final ParallelSetupPlugin.Builder builder = createDefaultTestParallelSetupBuilder();
+
+        // when
+        final ParallelSetupPlugin parallelSetup = builder.build();
+
+        // then
+        assertNotNull(parallelSetup);
+
+    }
+
+    @Test
+    public void builderThrowsIfParallelismIsZero() {
+
+        // given
+        final ParallelSetupPlugin.Builder builder = createDefaultTestParallelSetupBuilder()
+                .withParallelism(0);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("parallelism must be higher than 0"));
+
+    }
+
+    @Test
+    public void builderThrowsIfHoldTimeoutMillisIsNegative() {
+
+        // given
+        final ParallelSetupPlugin.Builder builder = createDefaultTestParallelSetupBuilder()
+                .withHoldTimeoutMillis(-1);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("holdTimeoutMillis cannot be negative"));
+
+    }
+
+    @Test
+    public void builderCreatesNoopCacheIfCacheFileIsNotConfigured() {
+
+        // given
+        final ParallelSetupPlugin.Builder builder = createDefaultTestParallelSetupBuilder();
+
+        // when
+        final SetupOperationCache setupOperationCache = builder.createSetupOperationCache();
+
+        // then
+        assertSame(SetupOperationCache.NOOP, setupOperationCache);
+
+    }
+
+    @Test
+    public void builderCreatesFileCacheIfCacheFileIsConfigured() {
+
+        // given
+        final ParallelSetupPlugin.Builder builder = createDefaultTestParallelSetupBuilder()
+                .withCacheFile("target/test-setup.cache");
+
+        // when
+        final SetupOperationCache setupOperationCache = builder.createSetupOperationCache();
+
+        // then
+        assertTrue(setupOperationCache instanceof FileSetupOperationCache);
+
+    }
+
+}
@@ -0,0 +1,328 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ParallelSetupTest {
+
+    private static final Consumer<Operation> NOOP_FALLBACK = operation -> {};
+
+    @Test
+    public void executesOperationsConcurrently() throws InterruptedException {
+
+        // given
+        final ParallelSetup parallelSetup = new ParallelSetup(2, 1000, SetupOperationCache.NOOP);
+        parallelSetup.start();
+
+        final CountDownLatch bothStarted = new CountDownLatch(2);
+        final Operation operation = () -> {
+            bothStarted.countDown();
+            bothStarted.await(1, TimeUnit.SECONDS);
+        };
+
+        // when
+        parallelSetup.submit("group", "test1", operation, NOOP_FALLBACK);
+        parallelSetup.submit("group", "test2", operation, NOOP_FALLBACK);
+
+        // then
+        assertTrue(bothStarted.await(1, TimeUnit.SECONDS));
+        assertTrue(parallelSetup.awaitCompletion());
+        assertEquals(0, parallelSetup.getPendingCount());
+
+        parallelSetup.stop();
+
+    }
+
+    @Test
+    public void executesOperationsOfSubsequentGroupAfterPreviousGroupIsCompleted() throws InterruptedException {
+
+        // given
+        final ParallelSetup parallelSetup = new ParallelSetup(4, 1000, SetupOperationCache.NOOP);
+        parallelSetup.start();
+
+        final CountDownLatch firstGroupReleased = new CountDownLatch(1);
+        final AtomicInteger firstGroupCompleted = new AtomicInteger();
+        final Operation firstGroupOperation = () -> {
+            firstGroupReleased.await(1, TimeUnit.SECONDS);
+            firstGroupCompleted.incrementAndGet();
+        };
+
+        final List<Integer> observed = Collections.synchronizedList(new ArrayList<>());
+        final Operation secondGroupOperation = () -> observed.add(firstGroupCompleted.get());
+
+        // when
+        parallelSetup.submit("group1", "test1", firstGroupOperation, NOOP_FALLBACK);
+        parallelSetup.submit("group1", "test2", firstGroupOperation, NOOP_FALLBACK);
+        parallelSetup.submit("group2", "test3", secondGroupOperation, NOOP_FALLBACK);
+
+        Thread.sleep(100);
+        final boolean secondGroupStartedEarly = !observed.isEmpty();
+        firstGroupReleased.countDown();
+
+        // then
+        assertTrue(parallelSetup.awaitCompletion());
+        assertFalse(secondGroupStartedEarly);
+        assertEquals(Collections.singletonList(2), observed);
+
+        parallelSetup.stop();
+
+    }
+
+    @Test
+    public void passesFailedAndSubsequentOperationsToFallbackInOrder() throws Exception {
+
+        // given
+        final ParallelSetup parallelSetup = new ParallelSetup(1, 1000, SetupOperationCache.NOOP);
+        parallelSetup.start();
+
+        final List<Operation> fallbackOperations = Collections.synchronizedList(new ArrayList<>());
+        final Consumer<Operation> fallback = fallbackOperations::add;
+
+        final Operation succeeding = mock(Operation.class);
+        final Operation failing = () -> {
+            throw new Exception("test exception");
+        };
+        final Operation subsequent1 = mock(Operation.class);
+        final Operation subsequent2 = mock(Operation.class);
+
+        // when
+        parallelSetup.submit("group1", "test1", succeeding, fallback);
+        parallelSetup.submit("group2", "test2", failing, fallback);
+        parallelSetup.submit("group3", "test3", subsequent1, fallback);
+        parallelSetup.submit("group4", "test4", subsequent2, fallback);
+
+        // then
+        assertTrue(parallelSetup.awaitCompletion());
+        verify(succeeding).execute();
+        verify(subsequent1, never()).execute();
+        verify(subsequent2, never()).execute();
+        assertEquals(Arrays.asList(failing, subsequent1, subsequent2), fallbackOperations);
+
+        parallelSetup.stop();
+
+    }
+
+    @Test
+    public void skipsOperationsExecutedSuccessfullyBefore() throws Exception {
+
+        // given
+        final SetupOperationCache setupOperationCache = mock(SetupOperationCache.class);
+        when(setupOperationCache.contains("test")).thenReturn(true);
+
+        final ParallelSetup parallelSetup = new ParallelSetup(1, 1000, setupOperationCache);
+        parallelSetup.start();
+
+        final Operation operation = mock(Operation.class);
+
+        // when
+        parallelSetup.submit("group", "test", operation, NOOP_FALLBACK);
+
+        // then
+        assertTrue(parallelSetup.awaitCompletion());
+        verify(operation, never()).execute();
+
+        parallelSetup.stop();
+
+    }
+
+    @Test
+    public void recordsSuccessfulOperations() {
+
+        // given
+        final SetupOperationCache setupOperationCache = mock(SetupOperationCache.class);
+
+        final ParallelSetup parallelSetup = new ParallelSetup(1, 1000, setupOperationCache);
+        parallelSetup.start();
+
+        final Consumer<Operation> fallback = mock(Consumer.class);
+
+        // when
+        parallelSetup.submit("group", "test", () -> {}, fallback);
+
+        // then
+        verify(setupOperationCache, timeout(500)).put("test");
+        assertTrue(parallelSetup.awaitCompletion());
+        verify(fallback, never()).accept(any());
+
+        parallelSetup.stop();
+
+    }
+
+    @Test
+    public void doesNotRecordOperationsThatThrow() {
+
+        // given
+        final SetupOperationCache setupOperationCache = mock(SetupOperationCache.class);
+
+        final ParallelSetup parallelSetup = new ParallelSetup(1, 1000, setupOperationCache);
+        parallelSetup.start();
+
+        final Consumer<Operation> fallback = mock(Consumer.class);
+        final Operation operation = () -> {
+            throw new Exception("test exception");
+        };
+
+        // when
+        parallelSetup.submit("group", "test", operation, fallback);
+
+        // then
+        assertTrue(parallelSetup.awaitCompletion());
+        verify(setupOperationCache, never()).put("test");
+        verify(fallback).accept(operation);
+
+        parallelSetup.stop();
+
+    }
+
+    @Test
+    public void doesNotRecordChainsWithFailedSteps() {
+
+        // given
+        final SetupOperationCache setupOperationCache = mock(SetupOperationCache.class);
+
+        final ParallelSetup parallelSetup = new ParallelSetup(1, 1000, setupOperationCache);
+        parallelSetup.start();
+
+        final SkippingSetupStepChain<SetupStep<Object, Object>> chain = new SkippingSetupStepChain<>(
+                Arrays.asList(SetupStepTest.createTestSetupStep(Result.SUCCESS, Result.FAILURE)),
+                step -> step.onResponse(null));
+
+        final Consumer<Operation> fallback = mock(Consumer.class);
+
+        // when
+        parallelSetup.submit("group", "test", chain, fallback);
+
+        // then
+        assertTrue(parallelSetup.awaitCompletion());
+        assertEquals(Result.FAILURE, chain.getResult());
+        verify(setupOperationCache, never()).put("test");
+        verify(fallback).accept(chain);
+
+        parallelSetup.stop();
+
+    }
+
+    @Test
+    public void awaitCompletionDoesNotWaitLongerThanHoldTimeoutInTotal() throws InterruptedException {
+
+        // given
+        final ParallelSetup parallelSetup = new ParallelSetup(1, 100, SetupOperationCache.NOOP);
+        parallelSetup.start();
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        parallelSetup.submit("group", "test", latch::await, NOOP_FALLBACK);
+
+        // when
+        final long start = System.currentTimeMillis();
+        final boolean firstResult = parallelSetup.awaitCompletion();
+        final boolean secondResult = parallelSetup.awaitCompletion();
+        final long elapsed = System.currentTimeMillis() - start;
+
+        // then
+        assertFalse(firstResult);
+        assertFalse(secondResult);
+        assertTrue(elapsed >= 100);
+        assertTrue(elapsed < 1000);
+        assertEquals(1, parallelSetup.getPendingCount());
+
+        latch.countDown();
+        parallelSetup.stop();
+
+    }
+
+    @Test
+    public void submitIsRejectedAfterStop() {
+
+        // given
+        final ParallelSetup parallelSetup = new ParallelSetup(1, 1000, SetupOperationCache.NOOP);
+        parallelSetup.start();
+        parallelSetup.stop();
+
+        final Consumer<Operation> fallback = mock(Consumer.class);
+        final Operation operation = mock(Operation.class);
+
+        // when
+        parallelSetup.submit("group", "test", operation, fallback);
+
+        // then
+        assertEquals(0, parallelSetup.getPendingCount());
+        assertTrue(parallelSetup.awaitCompletion());
+        verify(fallback).accept(operation);
+
+    }
+
+    @Test
+    public void lifecycleStart() {
+
+        // given
+        final ParallelSetup parallelSetup = new ParallelSetup(1, 1000, SetupOperationCache.NOOP);
+
+        assertTrue(parallelSetup.isStopped());
+
+        // when
+        parallelSetup.start();
+
+        // then
+        assertFalse(parallelSetup.isStopped());
+        assertTrue(parallelSetup.isStarted());
+
+        parallelSetup.stop();
+
+    }
+
+    @Test
+    public void lifecycleStop() {
+
+        // given
+        final ParallelSetup parallelSetup = new ParallelSetup(1, 1000, SetupOperationCache.NOOP);
+        parallelSetup.start();
+
+        assertTrue(parallelSetup.isStarted());
+
+        // when
+        parallelSetup.stop();
+
+        // then
+        assertFalse(parallelSetup.isStarted());
+        assertTrue(parallelSetup.isStopped());
+
+    }
+
+}
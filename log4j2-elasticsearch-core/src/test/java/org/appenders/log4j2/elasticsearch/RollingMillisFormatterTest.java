@@ -35,6 +35,8 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
@@ -399,6 +401,155 @@ public class RollingMillisFormatterTest {
 
     }
 
+    @Test
+    public void builderThrowsWhenLateWindowsIsNegative() {
+
+        // given
+        final RollingMillisFormatter.Builder builder = createTimeBasedRollingIndexNameFormatterBuilder()
+                .withLateWindows(-1);
+
+        // when
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("lateWindows cannot be negative for " + RollingMillisFormatter.class.getSimpleName()));
+
+    }
+
+    @Test
+    public void returnsCachedValueIfEventTimeIsWithinPreviousWindow() {
+
+        // given
+        final RollingMillisFormatter formatter = createTimeBasedRollingIndexNameFormatterBuilder()
+                .withSeparator(DEFAULT_SEPARATOR)
+                .build();
+
+        final String previousName = formatter.format(DEFAULT_TEST_TIME_IN_MILLIS);
+        formatter.format(DEFAULT_TEST_TIME_IN_MILLIS + TimeUnit.MINUTES.toMillis(1));
+
+        // when
+        final String lateName1 = formatter.format(DEFAULT_TEST_TIME_IN_MILLIS + TimeUnit.SECONDS.toMillis(30));
+        final String lateName2 = formatter.format(DEFAULT_TEST_TIME_IN_MILLIS + TimeUnit.SECONDS.toMillis(59));
+
+        // then
+        assertEquals("testPrefix-2021-11-30-23.57", lateName1);
+        assertSame(previousName, lateName1);
+        assertSame(previousName, lateName2);
+
+    }
+
+    @Test
+    public void returnsCachedValuesIfEventTimeIsWithinOneOfLateWindows() {
+
+        // given
+        final RollingMillisFormatter formatter = createTimeBasedRollingIndexNameFormatterBuilder()
+                .withSeparator(DEFAULT_SEPARATOR)
+                .withLateWindows(2)
+                .build();
+
+        final String name1 = formatter.format(DEFAULT_TEST_TIME_IN_MILLIS);
+        final String name2 = formatter.format(DEFAULT_TEST_TIME_IN_MILLIS + TimeUnit.MINUTES.toMillis(1));
+        formatter.format(DEFAULT_TEST_TIME_IN_MILLIS + TimeUnit.MINUTES.toMillis(2));
+
+        // when
+        final String lateName1 = formatter.format(DEFAULT_TEST_TIME_IN_MILLIS + 1);
+        final String lateName2 = formatter.format(DEFAULT_TEST_TIME_IN_MILLIS + TimeUnit.MINUTES.toMillis(1) + 1);
+
+        // then
+        assertSame(name1, lateName1);
+        assertSame(name2, lateName2);
+
+    }
+
+    @Test
+    public void evictsOldestLateWindowOnRollover() {
+
+        // given
+        final RollingMillisFormatter formatter = createTimeBasedRollingIndexNameFormatterBuilder()
+                .withSeparator(DEFAULT_SEPARATOR)
+                .withLateWindows(1)
+                .build();
+
+        final String name1 = formatter.format(DEFAULT_TEST_TIME_IN_MILLIS);
+        final String name2 = formatter.format(DEFAULT_TEST_TIME_IN_MILLIS + TimeUnit.MINUTES.toMillis(1));
+        formatter.format(DEFAULT_TEST_TIME_IN_MILLIS + TimeUnit.MINUTES.toMillis(2));
+
+        // when
+        final String lateName2 = formatter.format(DEFAULT_TEST_TIME_IN_MILLIS + TimeUnit.MINUTES.toMillis(1) + 1);
+        final String lateName1 = formatter.format(DEFAULT_TEST_TIME_IN_MILLIS + 1);
+
+        // then
+        assertEquals(name1, lateName1);
+        assertNotSame(name1, lateName1);
+        assertSame(name2, lateName2);
+
+    }
+
+    @Test
+    public void cachesLateWindowOlderThanFirstWindowSinceStartup() {
+
+        // given
+        final RollingMillisFormatter formatter = createTimeBasedRollingIndexNameFormatterBuilder()
+                .withSeparator(DEFAULT_SEPARATOR)
+                .build();
+
+        final long lateTimestamp = DEFAULT_TEST_TIME_IN_MILLIS - TimeUnit.HOURS.toMillis(3);
+
+        // when
+        final String lateName1 = formatter.format(lateTimestamp);
+        final String lateName2 = formatter.format(lateTimestamp + 1);
+
+        // then
+        assertEquals("testPrefix-2021-11-30-20.57", lateName1);
+        assertSame(lateName1, lateName2);
+
+    }
+
+    @Test
+    public void cachesLateWindowOlderThanCachedWindows() {
+
+        // given
+        final RollingMillisFormatter formatter = createTimeBasedRollingIndexNameFormatterBuilder()
+                .withSeparator(DEFAULT_SEPARATOR)
+                .withLateWindows(1)
+                .build();
+
+        formatter.format(DEFAULT_TEST_TIME_IN_MILLIS);
+        formatter.format(DEFAULT_TEST_TIME_IN_MILLIS + TimeUnit.MINUTES.toMillis(10));
+
+        final long lateTimestamp = DEFAULT_TEST_TIME_IN_MILLIS + TimeUnit.MINUTES.toMillis(5);
+
+        // when
+        final String lateName1 = formatter.format(lateTimestamp);
+        final String lateName2 = formatter.format(lateTimestamp + TimeUnit.SECONDS.toMillis(30));
+
+        // then
+        assertEquals("testPrefix-2021-12-01-00.02", lateName1);
+        assertSame(lateName1, lateName2);
+
+    }
+
+    @Test
+    public void formatsLateEventsIfLateWindowsAreDisabled() {
+
+        // given
+        final RollingMillisFormatter formatter = createTimeBasedRollingIndexNameFormatterBuilder()
+                .withSeparator(DEFAULT_SEPARATOR)
+                .withLateWindows(0)
+                .build();
+
+        final String previousName = formatter.format(DEFAULT_TEST_TIME_IN_MILLIS);
+        formatter.format(DEFAULT_TEST_TIME_IN_MILLIS + TimeUnit.MINUTES.toMillis(1));
+
+        // when
+        final String lateName = formatter.format(DEFAULT_TEST_TIME_IN_MILLIS + 1);
+
+        // then
+        assertEquals(previousName, lateName);
+        assertNotSame(previousName, lateName);
+
+    }
+
     private RollingMillisFormatter createTestFormatter(final RollingTimestamps rollingTimestamps) {
 
         return new RollingMillisFormatter.Builder() {
@@ -0,0 +1,306 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.ConfigurationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.appenders.log4j2.elasticsearch.IndexRoutePluginTest.createTestLogEventBuilder;
+import static org.appenders.log4j2.elasticsearch.IndexRoutePluginTest.withMdc;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+public class RoutingIndexNamePluginTest {
+
+    private static final String TEST_INDEX_NAME = "testIndexName";
+    private static final String TEST_DATE_PATTERN = "yyyy-MM-dd";
+    private static final ZoneId TEST_TIME_ZONE = ZoneId.of(RoutingIndexNamePlugin.Builder.DEFAULT_TIME_ZONE);
+    private static final long DEFAULT_TEST_TIME_IN_MILLIS = LocalDateTime.of(2021, 11, 30, 23, 54, 0, 0)
+            .atZone(TEST_TIME_ZONE)
+            .toInstant().toEpochMilli();
+
+    public static RoutingIndexNamePlugin.Builder createRoutingIndexNamePluginBuilder() {
+
+        final RoutingIndexNamePlugin.Builder builder = spy(RoutingIndexNamePlugin.newBuilder())
+                .withIndexName(TEST_INDEX_NAME)
+                .withTimeZone(TEST_TIME_ZONE.getId())
+                .withRoutes(IndexRoutePlugin.newBuilder()
+                        .withIndexName("errors")
+                        .withLevel("ERROR")
+                        .build());
+
+        when(builder.getInitialTimestamp()).thenReturn(DEFAULT_TEST_TIME_IN_MILLIS);
+
+        return builder;
+
+    }
+
+    @Test
+    public void builderThrowsWhenIndexNameIsNull() {
+
+        // given
+        final RoutingIndexNamePlugin.Builder builder = createRoutingIndexNamePluginBuilder()
+                .withIndexName(null);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("No indexName provided for RoutingIndexName"));
+
+    }
+
+    @Test
+    public void builderThrowsWhenNoRoutesAreConfigured() {
+
+        // given
+        final RoutingIndexNamePlugin.Builder builder = createRoutingIndexNamePluginBuilder()
+                .withRoutes();
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("No routes provided for RoutingIndexName"));
+
+    }
+
+    @Test
+    public void builderThrowsWhenMaxRoutesIsNotPositive() {
+
+        // given
+        final RoutingIndexNamePlugin.Builder builder = createRoutingIndexNamePluginBuilder()
+                .withMaxRoutes(0);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("maxRoutes must be higher than 0"));
+
+    }
+
+    @Test
+    public void formatsFirstMatchingRoute() {
+
+        // given
+        final RoutingIndexNamePlugin formatter = createRoutingIndexNamePluginBuilder()
+                .withRoutes(
+                        IndexRoutePlugin.newBuilder().withIndexName("audit").withLoggerPrefix("org.appenders.audit").build(),
+                        IndexRoutePlugin.newBuilder().withIndexName("errors").withLevel("ERROR").build()
+                )
+                .build();
+
+        // when
+        final String audit = formatter.format(createTestLogEventBuilder().setLevel(Level.ERROR).setLoggerName("org.appenders.audit.Service").build());
+        final String errors = formatter.format(createTestLogEventBuilder().setLevel(Level.ERROR).build());
+
+        // then
+        assertEquals("audit", audit);
+        assertEquals("errors", errors);
+
+    }
+
+    @Test
+    public void formatsFallbackIfNoRouteMatches() {
+
+        // given
+        final RoutingIndexNamePlugin formatter = createRoutingIndexNamePluginBuilder().build();
+
+        // when
+        final String result = formatter.format(createTestLogEventBuilder().setLevel(Level.INFO).build());
+
+        // then
+        assertEquals(TEST_INDEX_NAME, result);
+        assertEquals(TEST_INDEX_NAME, formatter.format(DEFAULT_TEST_TIME_IN_MILLIS));
+
+    }
+
+    @Test
+    public void formatsRollingNamePerRouteIfPatternIsConfigured() {
+
+        // given
+        final RoutingIndexNamePlugin formatter = createRoutingIndexNamePluginBuilder()
+                .withPattern(TEST_DATE_PATTERN)
+                .withSeparator(".")
+                .build();
+
+        final long nextDay = DEFAULT_TEST_TIME_IN_MILLIS + TimeUnit.DAYS.toMillis(1);
+
+        // when
+        final String errors = formatter.format(createTestLogEventBuilder().setLevel(Level.ERROR).setTimeMillis(DEFAULT_TEST_TIME_IN_MILLIS).build());
+        final String fallback = formatter.format(createTestLogEventBuilder().setTimeMillis(DEFAULT_TEST_TIME_IN_MILLIS).build());
+        final String errorsNextDay = formatter.format(createTestLogEventBuilder().setLevel(Level.ERROR).setTimeMillis(nextDay).build());
+
+        // then
+        assertEquals("errors.2021-11-30", errors);
+        assertEquals(TEST_INDEX_NAME + ".2021-11-30", fallback);
+        assertEquals("errors.2021-12-01", errorsNextDay);
+
+    }
+
+    @Test
+    public void reusesFormattedNameBetweenRolls() {
+
+        // given
+        final RoutingIndexNamePlugin formatter = createRoutingIndexNamePluginBuilder()
+                .withPattern(TEST_DATE_PATTERN)
+                .build();
+
+        final LogEvent event = createTestLogEventBuilder().setLevel(Level.ERROR).setTimeMillis(DEFAULT_TEST_TIME_IN_MILLIS + 1).build();
+
+        // when
+        final String first = formatter.format(event);
+        final String second = formatter.format(event);
+
+        // then
+        assertSame(first, second);
+
+    }
+
+    @Test
+    public void formatsMdcRouteIfNoRouteMatches() {
+
+        // given
+        final String mdcKey = UUID.randomUUID().toString();
+        final RoutingIndexNamePlugin formatter = createRoutingIndexNamePluginBuilder()
+                .withMdcKey(mdcKey)
+                .build();
+
+        // when
+        final String tenant1 = formatter.format(withMdc(createTestLogEventBuilder(), mdcKey, "tenant1").build());
+        final String tenant2 = formatter.format(withMdc(createTestLogEventBuilder(), mdcKey, "tenant2").build());
+        final String error = formatter.format(withMdc(createTestLogEventBuilder(), mdcKey, "tenant2").setLevel(Level.ERROR).build());
+        final String noMdc = formatter.format(createTestLogEventBuilder().build());
+
+        // then
+        assertEquals(TEST_INDEX_NAME + "-tenant1", tenant1);
+        assertEquals(TEST_INDEX_NAME + "-tenant2", tenant2);
+        assertEquals("errors", error);
+        assertEquals(TEST_INDEX_NAME, noMdc);
+        assertEquals(2, formatter.getMdcRoutesCount());
+
+    }
+
+    @Test
+    public void formatsFallbackIfMdcValueIsNotValidIndexNamePart() {
+
+        // given
+        final String mdcKey = UUID.randomUUID().toString();
+        final RoutingIndexNamePlugin formatter = createRoutingIndexNamePluginBuilder()
+                .withMdcKey(mdcKey)
+                .build();
+
+        final String[] invalidValues = {
+                "", "Tenant1", "tenant 1", "tenant\t1", "../_all", "tenant\\1", "tenant*", "tenant?pretty", "tenant\"1",
+                "<tenant>", "tenant|1", "tenant,1", "tenant#1", "tenant:1", "tenant%2F1"
+        };
+
+        for (String invalidValue : invalidValues) {
+
+            // when
+            final String result = formatter.format(withMdc(createTestLogEventBuilder(), mdcKey, invalidValue).build());
+
+            // then
+            assertEquals(TEST_INDEX_NAME, result, "Invalid value: " + invalidValue);
+
+        }
+
+        assertEquals(0, formatter.getMdcRoutesCount());
+
+    }
+
+    @Test
+    public void formatsFallbackIfMdcRouteNameIsLongerThanMaxIndexNameBytes() {
+
+        // given
+        final String mdcKey = UUID.randomUUID().toString();
+        final RoutingIndexNamePlugin formatter = createRoutingIndexNamePluginBuilder()
+                .withMdcKey(mdcKey)
+                .withPattern(TEST_DATE_PATTERN)
+                .build();
+
+        final int maxValueBytes = RoutingIndexNamePlugin.MAX_INDEX_NAME_BYTES
+                - TEST_INDEX_NAME.length()
+                - RoutingIndexNamePlugin.DEFAULT_SEPARATOR.length() * 2
+                - TEST_DATE_PATTERN.length();
+
+        final String longestValue = createString('a', maxValueBytes);
+        final String tooLongValue = createString('a', maxValueBytes + 1);
+        final String tooLongMultiByteValue = createString('\u0105', maxValueBytes / 2 + 1);
+
+        // when
+        final String longest = formatter.format(withMdc(createTestLogEventBuilder(), mdcKey, longestValue).setTimeMillis(DEFAULT_TEST_TIME_IN_MILLIS).build());
+        final String tooLong = formatter.format(withMdc(createTestLogEventBuilder(), mdcKey, tooLongValue).setTimeMillis(DEFAULT_TEST_TIME_IN_MILLIS).build());
+        final String tooLongMultiByte = formatter.format(withMdc(createTestLogEventBuilder(), mdcKey, tooLongMultiByteValue).setTimeMillis(DEFAULT_TEST_TIME_IN_MILLIS).build());
+
+        // then
+        assertEquals(RoutingIndexNamePlugin.MAX_INDEX_NAME_BYTES, longest.getBytes(StandardCharsets.UTF_8).length);
+        assertEquals(TEST_INDEX_NAME + "-2021-11-30", tooLong);
+        assertEquals(TEST_INDEX_NAME + "-2021-11-30", tooLongMultiByte);
+        assertEquals(1, formatter.getMdcRoutesCount());
+
+    }
+
+    @Test
+    public void formatsFallbackIfMaxRoutesReached() {
+
+        // given
+        final String mdcKey = UUID.randomUUID().toString();
+        final RoutingIndexNamePlugin formatter = createRoutingIndexNamePluginBuilder()
+                .withMdcKey(mdcKey)
+                .withMaxRoutes(1)
+                .build();
+
+        // when
+        final String tenant1 = formatter.format(withMdc(createTestLogEventBuilder(), mdcKey, "tenant1").build());
+        final String tenant2 = formatter.format(withMdc(createTestLogEventBuilder(), mdcKey, "tenant2").build());
+        final String tenant1Again = formatter.format(withMdc(createTestLogEventBuilder(), mdcKey, "tenant1").build());
+
+        // then
+        assertEquals(TEST_INDEX_NAME + "-tenant1", tenant1);
+        assertEquals(TEST_INDEX_NAME, tenant2);
+        assertEquals(TEST_INDEX_NAME + "-tenant1", tenant1Again);
+        assertEquals(1, formatter.getMdcRoutesCount());
+
+    }
+
+    private static String createString(final char c, final int length) {
+        final char[] chars = new char[length];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+}
@@ -0,0 +1,147 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class SetupOperationCacheTest {
+
+    private static final List<String> SERVER_URIS = Collections.singletonList("http://localhost:9200");
+
+    @Test
+    public void keyChangesWhenTargetClusterChanges() {
+
+        // given
+        final IndexTemplate indexTemplate = new IndexTemplate("test", "{}");
+
+        // when
+        final String key1 = SetupOperationCache.key(indexTemplate, Collections.singletonList("http://cluster1:9200"));
+        final String key2 = SetupOperationCache.key(indexTemplate, Collections.singletonList("http://cluster2:9200"));
+
+        // then
+        assertNotEquals(key1, key2);
+
+    }
+
+    @Test
+    public void keyDoesNotDependOnServerUrisOrder() {
+
+        // given
+        final IndexTemplate indexTemplate = new IndexTemplate("test", "{}");
+
+        // when
+        final String key1 = SetupOperationCache.key(indexTemplate, Arrays.asList("http://node1:9200", "http://node2:9200"));
+        final String key2 = SetupOperationCache.key(indexTemplate, Arrays.asList("http://node2:9200", "http://node1:9200"));
+
+        // then
+        assertEquals(key1, key2);
+
+    }
+
+    @Test
+    public void keyIsTheSameForEqualOpSources() {
+
+        // given
+        final IndexTemplate indexTemplate1 = new IndexTemplate("test", "{}");
+        final IndexTemplate indexTemplate2 = new IndexTemplate("test", "{}");
+
+        // when
+        final String key1 = SetupOperationCache.key(indexTemplate1, SERVER_URIS);
+        final String key2 = SetupOperationCache.key(indexTemplate2, SERVER_URIS);
+
+        // then
+        assertEquals(key1, key2);
+        assertThat(key1, startsWith(IndexTemplate.TYPE_NAME + ":"));
+
+    }
+
+    @Test
+    public void keyChangesWhenSourceChanges() {
+
+        // given
+        final IndexTemplate indexTemplate1 = new IndexTemplate("test", "{}");
+        final IndexTemplate indexTemplate2 = new IndexTemplate("test", "{\"changed\":true}");
+
+        // when
+        final String key1 = SetupOperationCache.key(indexTemplate1, SERVER_URIS);
+        final String key2 = SetupOperationCache.key(indexTemplate2, SERVER_URIS);
+
+        // then
+        assertNotEquals(key1, key2);
+
+    }
+
+    @Test
+    public void keyChangesWhenNameChanges() {
+
+        // given
+        final IndexTemplate indexTemplate1 = new IndexTemplate("test1", "{}");
+        final IndexTemplate indexTemplate2 = new IndexTemplate("test2", "{}");
+
+        // when
+        final String key1 = SetupOperationCache.key(indexTemplate1, SERVER_URIS);
+        final String key2 = SetupOperationCache.key(indexTemplate2, SERVER_URIS);
+
+        // then
+        assertNotEquals(key1, key2);
+
+    }
+
+    @Test
+    public void keyChangesWhenRolloverAliasChanges() {
+
+        // given
+        final ILMPolicy ilmPolicy1 = new ILMPolicy("test", "alias1", true, "{}");
+        final ILMPolicy ilmPolicy2 = new ILMPolicy("test", "alias2", true, "{}");
+
+        // when
+        final String key1 = SetupOperationCache.key(ilmPolicy1, SERVER_URIS);
+        final String key2 = SetupOperationCache.key(ilmPolicy2, SERVER_URIS);
+
+        // then
+        assertNotEquals(key1, key2);
+
+    }
+
+    @Test
+    public void noopDoesNotContainAnyKeys() {
+
+        // given
+        final SetupOperationCache setupOperationCache = SetupOperationCache.NOOP;
+
+        // when
+        setupOperationCache.put("test");
+
+        // then
+        assertFalse(setupOperationCache.contains("test"));
+
+    }
+
+}
@@ -0,0 +1,190 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import org.appenders.log4j2.elasticsearch.metrics.Measured;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class SharedItemSourcePoolTest {
+
+    @Test
+    public void startStartsDelegateIfNotStarted() {
+
+        // given
+        final ItemSourcePool<Object> delegate = mock(ItemSourcePool.class);
+        final SharedItemSourcePool<Object> pool = new SharedItemSourcePool<>("test", delegate, new SharedResources());
+
+        // when
+        pool.start();
+
+        // then
+        verify(delegate).start();
+        assertTrue(pool.isStarted());
+
+    }
+
+    @Test
+    public void startDoesNotStartDelegateIfAlreadyStarted() {
+
+        // given
+        final ItemSourcePool<Object> delegate = mock(ItemSourcePool.class);
+        when(delegate.isStarted()).thenReturn(true);
+        final SharedItemSourcePool<Object> pool = new SharedItemSourcePool<>("test", delegate, new SharedResources());
+
+        // when
+        pool.start();
+
+        // then
+        verify(delegate, never()).start();
+        assertTrue(pool.isStarted());
+
+    }
+
+    @Test
+    public void stopDoesNotStopDelegateIfOtherReferencesExist() {
+
+        // given
+        final SharedResources sharedResources = new SharedResources();
+        final String sharedName = SharedItemSourcePool.sharedName(UUID.randomUUID().toString());
+        final ItemSourcePool<Object> delegate = mock(ItemSourcePool.class);
+
+        final SharedItemSourcePool<Object> pool1 = new SharedItemSourcePool<>(sharedName, sharedResources.acquire(sharedName, ItemSourcePool.class, () -> delegate), sharedResources);
+        new SharedItemSourcePool<>(sharedName, sharedResources.acquire(sharedName, ItemSourcePool.class, () -> delegate), sharedResources);
+        pool1.start();
+
+        // when
+        pool1.stop();
+
+        // then
+        verify(delegate, never()).stop();
+        assertTrue(pool1.isStopped());
+        assertEquals(1, sharedResources.getReferenceCount(sharedName));
+
+    }
+
+    @Test
+    public void stopStopsDelegateOnLastReference() {
+
+        // given
+        final SharedResources sharedResources = new SharedResources();
+        final String sharedName = SharedItemSourcePool.sharedName(UUID.randomUUID().toString());
+        final ItemSourcePool<Object> delegate = mock(ItemSourcePool.class);
+
+        final SharedItemSourcePool<Object> pool1 = new SharedItemSourcePool<>(sharedName, sharedResources.acquire(sharedName, ItemSourcePool.class, () -> delegate), sharedResources);
+        final SharedItemSourcePool<Object> pool2 = new SharedItemSourcePool<>(sharedName, sharedResources.acquire(sharedName, ItemSourcePool.class, () -> delegate), sharedResources);
+        pool1.start();
+        pool2.start();
+
+        // when
+        pool1.stop();
+        pool2.stop();
+
+        // then
+        verify(delegate).stop();
+        assertEquals(0, sharedResources.getReferenceCount(sharedName));
+
+    }
+
+    @Test
+    public void stopIsIdempotent() {
+
+        // given
+        final SharedResources sharedResources = new SharedResources();
+        final String sharedName = SharedItemSourcePool.sharedName(UUID.randomUUID().toString());
+        final ItemSourcePool<Object> delegate = mock(ItemSourcePool.class);
+
+        final SharedItemSourcePool<Object> pool1 = new SharedItemSourcePool<>(sharedName, sharedResources.acquire(sharedName, ItemSourcePool.class, () -> delegate), sharedResources);
+        final SharedItemSourcePool<Object> pool2 = new SharedItemSourcePool<>(sharedName, sharedResources.acquire(sharedName, ItemSourcePool.class, () -> delegate), sharedResources);
+        pool1.start();
+        pool2.start();
+
+        // when
+        pool1.stop();
+        pool1.stop();
+
+        // then
+        verify(delegate, never()).stop();
+        assertTrue(pool2.isStarted());
+        assertEquals(1, sharedResources.getReferenceCount(sharedName));
+
+    }
+
+    @Test
+    public void shutdownDoesNotShutdownDelegate() {
+
+        // given
+        final ItemSourcePool<Object> delegate = mock(ItemSourcePool.class);
+        final SharedItemSourcePool<Object> pool = new SharedItemSourcePool<>("test", delegate, new SharedResources());
+
+        // when
+        pool.shutdown();
+
+        // then
+        verify(delegate, times(0)).shutdown();
+
+    }
+
+    @Test
+    public void poolMetricsAreRegisteredOnlyOnceAndMovedToNextReferenceOnStop() {
+
+        // given
+        final SharedResources sharedResources = new SharedResources();
+        final String sharedName = SharedItemSourcePool.sharedName(UUID.randomUUID().toString());
+        final ItemSourcePool<Object> delegate = mock(ItemSourcePool.class, withSettings().extraInterfaces(Measured.class));
+
+        final SharedItemSourcePool<Object> pool1 = new SharedItemSourcePool<>(sharedName, sharedResources.acquire(sharedName, ItemSourcePool.class, () -> delegate), sharedResources);
+        final SharedItemSourcePool<Object> pool2 = new SharedItemSourcePool<>(sharedName, sharedResources.acquire(sharedName, ItemSourcePool.class, () -> delegate), sharedResources);
+        pool1.start();
+        pool2.start();
+
+        final MetricsRegistry registry1 = mock(MetricsRegistry.class);
+        final MetricsRegistry registry2 = mock(MetricsRegistry.class);
+
+        pool1.register(registry1);
+        pool2.register(registry2);
+
+        // when
+        pool1.stop();
+        pool2.stop();
+
+        // then
+        final InOrder inOrder = inOrder(delegate);
+        inOrder.verify((Measured) delegate).register(registry1);
+        inOrder.verify((Measured) delegate).deregister();
+        inOrder.verify((Measured) delegate).register(registry2);
+        inOrder.verify((Measured) delegate).deregister();
+
+    }
+
+}
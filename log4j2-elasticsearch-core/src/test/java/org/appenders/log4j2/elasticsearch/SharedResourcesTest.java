@@ -0,0 +1,235 @@
+package org.appenders.log4j2.elasticsearch;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import org.appenders.log4j2.elasticsearch.metrics.Measured;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class SharedResourcesTest {
+
+    @Test
+    public void acquireCreatesResourceOnlyOnce() {
+
+        // given
+        final SharedResources sharedResources = new SharedResources();
+        final String name = UUID.randomUUID().toString();
+        final AtomicInteger created = new AtomicInteger();
+
+        // when
+        final Object resource1 = sharedResources.acquire(name, Object.class, () -> create(created));
+        final Object resource2 = sharedResources.acquire(name, Object.class, () -> create(created));
+
+        // then
+        assertSame(resource1, resource2);
+        assertEquals(1, created.get());
+        assertEquals(2, sharedResources.getReferenceCount(name));
+
+    }
+
+    @Test
+    public void acquireThrowsOnTypeMismatch() {
+
+        // given
+        final SharedResources sharedResources = new SharedResources();
+        final String name = UUID.randomUUID().toString();
+        sharedResources.acquire(name, String.class, () -> "test");
+
+        // when
+        final IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> sharedResources.acquire(name, Integer.class, () -> 1));
+
+        // then
+        assertThat(exception.getMessage(), containsString("is not an instance of Integer: String"));
+        assertEquals(1, sharedResources.getReferenceCount(name));
+
+    }
+
+    @Test
+    public void releaseReturnsTrueOnlyOnLastReference() {
+
+        // given
+        final SharedResources sharedResources = new SharedResources();
+        final String name = UUID.randomUUID().toString();
+        final Object resource = new Object();
+
+        sharedResources.acquire(name, Object.class, () -> resource);
+        sharedResources.acquire(name, Object.class, () -> resource);
+
+        // when
+        final boolean first = sharedResources.release(name, resource);
+        final boolean last = sharedResources.release(name, resource);
+
+        // then
+        assertFalse(first);
+        assertTrue(last);
+        assertEquals(0, sharedResources.getReferenceCount(name));
+
+    }
+
+    @Test
+    public void releaseReturnsFalseForUnknownName() {
+
+        // given
+        final SharedResources sharedResources = new SharedResources();
+
+        // when
+        final boolean result = sharedResources.release(UUID.randomUUID().toString(), new Object());
+
+        // then
+        assertFalse(result);
+
+    }
+
+    @Test
+    public void releaseReturnsFalseForDifferentResource() {
+
+        // given
+        final SharedResources sharedResources = new SharedResources();
+        final String name = UUID.randomUUID().toString();
+        sharedResources.acquire(name, Object.class, Object::new);
+
+        // when
+        final boolean result = sharedResources.release(name, new Object());
+
+        // then
+        assertFalse(result);
+        assertEquals(1, sharedResources.getReferenceCount(name));
+
+    }
+
+    @Test
+    public void acquireCreatesNewResourceAfterLastRelease() {
+
+        // given
+        final SharedResources sharedResources = new SharedResources();
+        final String name = UUID.randomUUID().toString();
+        final Object resource1 = sharedResources.acquire(name, Object.class, Object::new);
+        sharedResources.release(name, resource1);
+
+        // when
+        final Object resource2 = sharedResources.acquire(name, Object.class, Object::new);
+
+        // then
+        assertNotSame(resource1, resource2);
+        assertEquals(1, sharedResources.getReferenceCount(name));
+
+    }
+
+    @Test
+    public void registerRegistersResourceMetricsOnlyAtRegistryOfFirstReference() {
+
+        // given
+        final SharedResources sharedResources = new SharedResources();
+        final String name = UUID.randomUUID().toString();
+        final Measured resource = mock(Measured.class);
+        sharedResources.acquire(name, Measured.class, () -> resource);
+        sharedResources.acquire(name, Measured.class, () -> resource);
+
+        final MetricsRegistry registry1 = mock(MetricsRegistry.class);
+        final MetricsRegistry registry2 = mock(MetricsRegistry.class);
+
+        // when
+        sharedResources.register(name, "reference1", registry1);
+        sharedResources.register(name, "reference2", registry2);
+        sharedResources.register(name, "reference1", registry1);
+
+        // then
+        verify(resource).register(registry1);
+        verify(resource, never()).register(registry2);
+
+    }
+
+    @Test
+    public void deregisterOfOwnerMovesResourceMetricsToRegistryOfNextReference() {
+
+        // given
+        final SharedResources sharedResources = new SharedResources();
+        final String name = UUID.randomUUID().toString();
+        final Measured resource = mock(Measured.class);
+        sharedResources.acquire(name, Measured.class, () -> resource);
+        sharedResources.acquire(name, Measured.class, () -> resource);
+
+        final MetricsRegistry registry1 = mock(MetricsRegistry.class);
+        final MetricsRegistry registry2 = mock(MetricsRegistry.class);
+
+        sharedResources.register(name, "reference1", registry1);
+        sharedResources.register(name, "reference2", registry2);
+
+        // when
+        sharedResources.deregister(name, "reference1");
+
+        // then
+        final InOrder inOrder = inOrder(resource);
+        inOrder.verify(resource).register(registry1);
+        inOrder.verify(resource).deregister();
+        inOrder.verify(resource).register(registry2);
+
+    }
+
+    @Test
+    public void deregisterOfNonOwnerDoesNotDeregisterResourceMetrics() {
+
+        // given
+        final SharedResources sharedResources = new SharedResources();
+        final String name = UUID.randomUUID().toString();
+        final Measured resource = mock(Measured.class);
+        sharedResources.acquire(name, Measured.class, () -> resource);
+        sharedResources.acquire(name, Measured.class, () -> resource);
+
+        final MetricsRegistry registry1 = mock(MetricsRegistry.class);
+        final MetricsRegistry registry2 = mock(MetricsRegistry.class);
+
+        sharedResources.register(name, "reference1", registry1);
+        sharedResources.register(name, "reference2", registry2);
+
+        // when
+        sharedResources.deregister(name, "reference2");
+        sharedResources.deregister(name, "reference2");
+
+        // then
+        verify(resource, never()).deregister();
+        verify(resource, never()).register(registry2);
+
+    }
+
+    private static Object create(final AtomicInteger created) {
+        created.incrementAndGet();
+        return new Object();
+    }
+
+}
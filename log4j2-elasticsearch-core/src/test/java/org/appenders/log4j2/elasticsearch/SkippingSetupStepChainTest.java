@@ -27,6 +27,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -97,6 +98,61 @@ public class SkippingSetupStepChainTest {
 
     }
 
+    @Test
+    public void resultIsNullIfNotExecuted() {
+
+        // given
+        SkippingSetupStepChain<SetupStep<Object, Object>> skippingSetupStepChain = new SkippingSetupStepChain<>(
+                Arrays.asList(SetupStepTest.createTestSetupStep(Result.SUCCESS, Result.SUCCESS)), new ResultCapturingStepProcessor()
+        );
+
+        // when
+        Result result = skippingSetupStepChain.getResult();
+
+        // then
+        assertNull(result);
+
+    }
+
+    @Test
+    public void resultIsFailureIfAnyProcessedStepFailed() {
+
+        // given
+        SetupStep<Object, Object> step1 = SetupStepTest.createTestSetupStep(Result.SUCCESS, Result.FAILURE);
+        SetupStep<Object, Object> step2 = SetupStepTest.createTestSetupStep(Result.FAILURE, Result.SUCCESS);
+
+        SkippingSetupStepChain<SetupStep<Object, Object>> skippingSetupStepChain = new SkippingSetupStepChain<>(
+                Arrays.asList(step1, step2), new ResultCapturingStepProcessor()
+        );
+
+        // when
+        skippingSetupStepChain.execute();
+
+        // then
+        assertEquals(Result.FAILURE, skippingSetupStepChain.getResult());
+
+    }
+
+    @Test
+    public void resultIsSuccessIfNoneOfProcessedStepsFailed() {
+
+        // given
+        SetupStep<Object, Object> step1 = SetupStepTest.createTestSetupStep(Result.SUCCESS, Result.SKIP);
+        SetupStep<Object, Object> notProcessed = SetupStepTest.createTestSetupStep(Result.SUCCESS, Result.FAILURE);
+        SetupStep<Object, Object> step2 = SetupStepTest.createTestSetupStep(Result.SKIP, Result.SUCCESS);
+
+        SkippingSetupStepChain<SetupStep<Object, Object>> skippingSetupStepChain = new SkippingSetupStepChain<>(
+                Arrays.asList(step1, notProcessed, step2), new ResultCapturingStepProcessor()
+        );
+
+        // when
+        skippingSetupStepChain.execute();
+
+        // then
+        assertEquals(Result.SUCCESS, skippingSetupStepChain.getResult());
+
+    }
+
     private static class ResultCapturingStepProcessor implements StepProcessor<SetupStep<Object, Object>> {
 
         private final List<Result> resultList = new ArrayList<>();
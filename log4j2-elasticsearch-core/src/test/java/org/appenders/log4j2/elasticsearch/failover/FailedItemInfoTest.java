@@ -25,6 +25,7 @@ import org.junit.jupiter.api.Test;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 public class FailedItemInfoTest {
 
@@ -43,4 +44,33 @@ public class FailedItemInfoTest {
 
     }
 
+    @Test
+    public void idDoesNotChange() {
+
+        // given
+        String expectedId = UUID.randomUUID().toString();
+        FailedItemInfo failedItemInfo = new FailedItemInfo(UUID.randomUUID().toString(), expectedId);
+
+        // when
+        String result = failedItemInfo.getId();
+
+        // then
+        assertEquals(expectedId, result);
+
+    }
+
+    @Test
+    public void idIsNullByDefault() {
+
+        // given
+        FailedItemInfo failedItemInfo = new FailedItemInfo(UUID.randomUUID().toString());
+
+        // when
+        String result = failedItemInfo.getId();
+
+        // then
+        assertNull(result);
+
+    }
+
 }
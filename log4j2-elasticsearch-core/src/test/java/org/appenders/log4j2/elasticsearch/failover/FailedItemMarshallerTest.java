@@ -43,6 +43,7 @@ import static org.appenders.log4j2.elasticsearch.failover.FailedItemSourceTest.c
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -211,4 +212,39 @@ public class FailedItemMarshallerTest {
         assertDoesNotThrow(deserialized::release);
 
     }
+
+    @Test
+    public void failedItemInfoIdSurvivesMarshalling() throws IOException {
+
+        // given
+        FailedItemMarshaller failedItemMarshaller = new FailedItemMarshaller();
+        FailedItemInfo expected = new FailedItemInfo(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+
+        // when
+        String json = failedItemMarshaller.objectMapper().writeValueAsString(expected);
+        FailedItemInfo result = failedItemMarshaller.objectMapper().readValue(json, FailedItemInfo.class);
+
+        // then
+        assertEquals(expected.getTargetName(), result.getTargetName());
+        assertEquals(expected.getId(), result.getId());
+
+    }
+
+    @Test
+    public void failedItemInfoWithoutIdCanBeUnmarshalled() throws IOException {
+
+        // given
+        FailedItemMarshaller failedItemMarshaller = new FailedItemMarshaller();
+        String expectedTargetName = UUID.randomUUID().toString();
+
+        // when
+        FailedItemInfo result = failedItemMarshaller.objectMapper()
+                .readValue("{\"targetName\":\"" + expectedTargetName + "\"}", FailedItemInfo.class);
+
+        // then
+        assertEquals(expectedTargetName, result.getTargetName());
+        assertNull(result.getId());
+
+    }
+
 }
@@ -0,0 +1,188 @@
+package org.appenders.log4j2.elasticsearch.jfr;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JfrEventWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void isNotAvailableIfNotEnabled() {
+        assertFalse(FlightRecorderEvents.isAvailable(false));
+    }
+
+    @Test
+    public void isAvailableIfEnabledAndJfrIsPresent() {
+        assertTrue(FlightRecorderEvents.isAvailable(true));
+    }
+
+    @Test
+    public void recordsBatchEmitted() throws IOException {
+
+        // given
+        final Recording recording = startRecording(BatchEmittedEvent.class);
+
+        // when
+        JfrEventWriter.batchEmitted(100, 10);
+
+        // then
+        final RecordedEvent event = singleEvent(recording, "BatchEmitted");
+        assertEquals(100, event.getInt("size"));
+        assertEquals(Duration.ofMillis(10), event.getDuration("oldestItemAge"));
+
+    }
+
+    @Test
+    public void recordsBatchSerialized() throws IOException {
+
+        // given
+        final Recording recording = startRecording(BatchSerializedEvent.class);
+
+        // when
+        JfrEventWriter.batchSerialized(100, 1024, 2000);
+
+        // then
+        final RecordedEvent event = singleEvent(recording, "BatchSerialized");
+        assertEquals(100, event.getInt("size"));
+        assertEquals(1024, event.getInt("bytes"));
+        assertEquals(Duration.ofNanos(2000), event.getDuration("serializeDuration"));
+
+    }
+
+    @Test
+    public void recordsBulkRequestCompleted() throws IOException {
+
+        // given
+        final Recording recording = startRecording(BulkRequestCompletedEvent.class);
+
+        // when
+        JfrEventWriter.bulkRequestCompleted("http://localhost:9200", 200, 5, 10, 100, true);
+
+        // then
+        final RecordedEvent event = singleEvent(recording, "BulkRequestCompleted");
+        assertEquals("http://localhost:9200", event.getString("node"));
+        assertEquals(200, event.getInt("statusCode"));
+        assertEquals(Duration.ofMillis(5), event.getDuration("took"));
+        assertEquals(Duration.ofMillis(10), event.getDuration("latency"));
+        assertEquals(100, event.getInt("size"));
+        assertTrue(event.getBoolean("succeeded"));
+
+    }
+
+    @Test
+    public void recordsPoolResized() throws IOException {
+
+        // given
+        final Recording recording = startRecording(PoolResizedEvent.class);
+
+        // when
+        JfrEventWriter.poolResized("testPool", 10, 20, 3000);
+
+        // then
+        final RecordedEvent event = singleEvent(recording, "PoolResized");
+        assertEquals("testPool", event.getString("poolName"));
+        assertEquals(10, event.getInt("oldSize"));
+        assertEquals(20, event.getInt("newSize"));
+        assertEquals(Duration.ofNanos(3000), event.getDuration("resizeDuration"));
+
+    }
+
+    @Test
+    public void recordsFailover() throws IOException {
+
+        // given
+        final Recording recording = startRecording(FailoverEvent.class);
+
+        // when
+        JfrEventWriter.failover(FlightRecorderEvents.FAILOVER_REPLAY, 5, false);
+
+        // then
+        final RecordedEvent event = singleEvent(recording, "Failover");
+        assertEquals(FlightRecorderEvents.FAILOVER_REPLAY, event.getString("operation"));
+        assertEquals(5, event.getInt("size"));
+        assertFalse(event.getBoolean("succeeded"));
+
+    }
+
+    @Test
+    public void doesNotRecordIfEventIsDisabled() throws IOException {
+
+        // given
+        final Recording recording = startRecording(BatchEmittedEvent.class);
+        recording.disable(FailoverEvent.class);
+
+        // when
+        JfrEventWriter.failover(FlightRecorderEvents.FAILOVER_SPILL, 1, true);
+
+        // then
+        assertEquals(0, events(recording, "Failover").size());
+
+    }
+
+    private Recording startRecording(final Class<? extends jdk.jfr.Event> eventClass) {
+
+        final Recording recording = new Recording();
+        recording.enable(eventClass);
+        recording.start();
+        return recording;
+
+    }
+
+    private RecordedEvent singleEvent(final Recording recording, final String name) throws IOException {
+
+        final List<RecordedEvent> events = events(recording, name);
+        assertEquals(1, events.size());
+        return events.get(0);
+
+    }
+
+    private List<RecordedEvent> events(final Recording recording, final String name) throws IOException {
+
+        recording.stop();
+
+        final Path file = tempDir.resolve(name + ".jfr");
+        recording.dump(file);
+        recording.close();
+
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(JfrEventWriter.NAME_PREFIX + name))
+                .collect(Collectors.toList());
+
+    }
+
+}
@@ -0,0 +1,207 @@
+package org.appenders.log4j2.elasticsearch.jmh;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.appenders.log4j2.elasticsearch.AsyncBatchDelivery;
+import org.appenders.log4j2.elasticsearch.ClientObjectFactory;
+import org.appenders.log4j2.elasticsearch.ElasticsearchAppender;
+import org.appenders.log4j2.elasticsearch.GenericItemSourceLayout;
+import org.appenders.log4j2.elasticsearch.ItemSourceFactory;
+import org.appenders.log4j2.elasticsearch.JacksonJsonLayoutPlugin;
+import org.appenders.log4j2.elasticsearch.JacksonMixIn;
+import org.appenders.log4j2.elasticsearch.JacksonSerializer;
+import org.appenders.log4j2.elasticsearch.Serializer;
+import org.appenders.log4j2.elasticsearch.SimpleIndexName;
+import org.appenders.log4j2.elasticsearch.ecs.LogEventJacksonEcsJsonMixIn;
+import org.appenders.log4j2.elasticsearch.json.jackson.ExtendedLog4j2JsonModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link ElasticsearchAppender} benchmark against in-process {@link MockBulkServer}.
+ * <p>Measures {@link ElasticsearchAppender#append(LogEvent)} throughput and latency distribution (incl. p99) of the full path: layout, item pools, batching, serialization, HTTP client and response handling.
+ * <p>Client modules provide client-specific components only. See {@link EndToEndBenchmarkRunner} for thread counts and profilers.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {
+        "-Xmx4g",
+        "-Xms4g",
+        "-XX:+AlwaysPreTouch",
+}
+)
+public abstract class EndToEndBenchmarkBase {
+
+    public static final String INDEX_NAME = "log4j2-elasticsearch-jmh";
+
+    @Param({
+            "256",
+            "1024",
+            "4096",
+    })
+    public int eventSizeInBytes;
+
+    @Param({
+            "default",
+            "ecs",
+    })
+    public String layout;
+
+    @Param({
+            "0",
+            "10",
+    })
+    public long latencyMillis;
+
+    @Param({
+            "0.0",
+    })
+    public double errorRate;
+
+    @Param({
+            "0.0",
+            "0.1",
+    })
+    public double partialFailureRate;
+
+    @Param({
+            "5000",
+    })
+    public int batchSize;
+
+    private MockBulkServer server;
+    private ElasticsearchAppender appender;
+    private LogEvent logEvent;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+
+        server = new MockBulkServer(latencyMillis, errorRate, partialFailureRate).start();
+
+        final int itemSizeInBytes = eventSizeInBytes + 512; // event message + serialized LogEvent fields
+
+        final AsyncBatchDelivery batchDelivery = AsyncBatchDelivery.newBuilder()
+                .withClientObjectFactory(createClientObjectFactory(server.getServerUri(), batchSize * itemSizeInBytes))
+                .withBatchSize(batchSize)
+                .withDeliveryInterval(1000)
+                .withShutdownDelayMillis(1000)
+                .build();
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        final GenericItemSourceLayout.Builder layoutBuilder = new GenericItemSourceLayout.Builder()
+                .withSerializer(createSerializer())
+                .withItemSourceFactory(createItemSourceFactory(itemSizeInBytes));
+
+        //noinspection unchecked
+        appender = ElasticsearchAppender.newBuilder()
+                .withName("jmh-e2e")
+                .withBatchDelivery(batchDelivery)
+                .withIndexNameFormatter(new SimpleIndexName.Builder<>().withIndexName(INDEX_NAME).build())
+                .withLayout(new JacksonJsonLayoutPlugin<>(layoutBuilder))
+                .withMessageOnly(false)
+                .withIgnoreExceptions(true)
+                .build();
+
+        appender.start();
+
+        logEvent = Log4jLogEvent.newBuilder()
+                .setLoggerName("jmh")
+                .setLevel(org.apache.logging.log4j.Level.INFO)
+                .setThreadName("jmh")
+                .setTimeMillis(System.currentTimeMillis())
+                .setMessage(new SimpleMessage(randomMessage(eventSizeInBytes)))
+                .build();
+
+    }
+
+    @Benchmark
+    public void append() {
+        appender.append(logEvent);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        appender.stop();
+        server.stop();
+        System.out.println(server);
+    }
+
+    /**
+     * @param serverUri {@link MockBulkServer} URI
+     * @param estimatedBatchSizeInBytes {@code batchSize * itemSizeInBytes}
+     * @return client-specific {@link ClientObjectFactory}
+     */
+    protected abstract ClientObjectFactory<?, ?> createClientObjectFactory(String serverUri, int estimatedBatchSizeInBytes);
+
+    /**
+     * @param itemSizeInBytes estimated size of serialized event
+     * @return client-specific layout {@link ItemSourceFactory}
+     */
+    protected abstract ItemSourceFactory<Object, ?> createItemSourceFactory(int itemSizeInBytes);
+
+    protected Serializer<Object> createSerializer() {
+
+        final JacksonSerializer.Builder<Object> builder = new JacksonSerializer.Builder<>()
+                .withJacksonModules(new ExtendedLog4j2JsonModule());
+
+        if ("ecs".equals(layout)) {
+            builder.withMixins(new JacksonMixIn.Builder()
+                    .withMixInClass(LogEventJacksonEcsJsonMixIn.class.getName())
+                    .withTargetClass(LogEvent.class.getName())
+                    .build());
+        }
+
+        return builder.build();
+
+    }
+
+    private static String randomMessage(final int size) {
+
+        final Random random = new Random();
+        final char[] chars = new char[size];
+        for (int i = 0; i < size; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+
+    }
+
+}
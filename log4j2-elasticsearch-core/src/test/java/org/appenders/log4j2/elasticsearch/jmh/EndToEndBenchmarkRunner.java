@@ -0,0 +1,61 @@
+package org.appenders.log4j2.elasticsearch.jmh;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs given {@link EndToEndBenchmarkBase} for each configured thread count with {@link GCProfiler} (allocation rate) enabled.
+ * <p>Thread counts can be configured with {@code -Djmh.e2e.threads} (comma-separated, default: {@code 1,4,16}).
+ * <p>Results are written to {@code target/jmh-<benchmark>-t<threads>.json}.
+ * <p>Additional JMH command line options can be passed as {@code args}, e.g. {@code -p eventSizeInBytes=1024 -p layout=ecs}.
+ */
+public class EndToEndBenchmarkRunner {
+
+    public static void run(final Class<? extends EndToEndBenchmarkBase> benchmark, final String[] args) throws RunnerException, CommandLineOptionException {
+
+        final String[] threadCounts = System.getProperty("jmh.e2e.threads", "1,4,16").split(",");
+
+        for (String threadCount : threadCounts) {
+
+            final int threads = Integer.parseInt(threadCount.trim());
+            final ChainedOptionsBuilder options = new OptionsBuilder()
+                    .parent(new CommandLineOptions(args))
+                    .include(benchmark.getName())
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("target/jmh-" + benchmark.getSimpleName() + "-t" + threads + ".json");
+
+            new Runner(options.build()).run();
+
+        }
+
+    }
+
+}
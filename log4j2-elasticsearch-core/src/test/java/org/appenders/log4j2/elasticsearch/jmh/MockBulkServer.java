@@ -0,0 +1,331 @@
+package org.appenders.log4j2.elasticsearch.jmh;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process fake of Elasticsearch {@code /_bulk} endpoint. Minimal HTTP/1.1 server: keep-alive, {@code Content-Length} and chunked request bodies.
+ * <p>Responds to {@code /_bulk} requests after configured latency with:
+ * <ul>
+ *     <li>HTTP 503 for {@code errorRate} fraction of requests</li>
+ *     <li>{@code "errors":true} and every other item rejected with 429 for {@code partialFailureRate} fraction of requests</li>
+ *     <li>{@code "errors":false} otherwise</li>
+ * </ul>
+ * <p>Responds to all other requests (setup operations) with HTTP 200 and empty JSON object.
+ */
+public class MockBulkServer {
+
+    private static final byte[] EMPTY_OBJECT = "{}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SUCCEEDED = "{\"took\":1,\"errors\":false,\"items\":[]}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FAILED = "{\"error\":{\"type\":\"mock_exception\",\"reason\":\"injected failure\"},\"status\":503}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CONTINUE = "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final String ITEM_SUCCEEDED = "{\"index\":{\"status\":201}}";
+    private static final String ITEM_REJECTED = "{\"index\":{\"status\":429,\"error\":{\"type\":\"es_rejected_execution_exception\",\"reason\":\"injected rejection\"}}}";
+
+    private final long latencyMillis;
+    private final double errorRate;
+    private final double partialFailureRate;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong items = new AtomicLong();
+    private final AtomicLong rejectedItems = new AtomicLong();
+    private final AtomicLong failedRequests = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    private volatile boolean running;
+    private ServerSocket serverSocket;
+    private ExecutorService executor;
+
+    /**
+     * @param latencyMillis delay before each {@code /_bulk} response
+     * @param errorRate fraction of {@code /_bulk} requests failed with HTTP 503
+     * @param partialFailureRate fraction of {@code /_bulk} requests with rejected items
+     */
+    public MockBulkServer(final long latencyMillis, final double errorRate, final double partialFailureRate) {
+        this.latencyMillis = latencyMillis;
+        this.errorRate = errorRate;
+        this.partialFailureRate = partialFailureRate;
+    }
+
+    public MockBulkServer start() {
+
+        try {
+            serverSocket = new ServerSocket(0, 1024, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to start " + MockBulkServer.class.getSimpleName(), e);
+        }
+
+        running = true;
+        executor = Executors.newCachedThreadPool(r -> {
+            final Thread thread = new Thread(r, MockBulkServer.class.getSimpleName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this::accept);
+
+        return this;
+
+    }
+
+    public void stop() {
+
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // ignore
+        }
+        executor.shutdownNow();
+
+    }
+
+    /**
+     * @return base URI of started server, e.g. {@code http://127.0.0.1:12345}
+     */
+    public String getServerUri() {
+        return "http://127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return number of items received in all /_bulk requests so far
+     */
+    public long getItems() {
+        return items.get();
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                final Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                // closed on stop()
+            }
+        }
+    }
+
+    private void serve(final Socket socket) {
+
+        try (Socket closeable = socket;
+             InputStream in = new BufferedInputStream(closeable.getInputStream(), 65536);
+             OutputStream out = new BufferedOutputStream(closeable.getOutputStream(), 8192)) {
+
+            final StringBuilder line = new StringBuilder(256);
+            while (running) {
+
+                final String requestLine = readLine(in, line);
+                if (requestLine == null) {
+                    return;
+                }
+
+                long contentLength = 0;
+                boolean chunked = false;
+                boolean close = false;
+                String header;
+                while ((header = readLine(in, line)) != null && !header.isEmpty()) {
+                    final String lowerCase = header.toLowerCase(Locale.ROOT);
+                    if (lowerCase.startsWith("content-length:")) {
+                        contentLength = Long.parseLong(header.substring(15).trim());
+                    } else if (lowerCase.startsWith("transfer-encoding:") && lowerCase.contains("chunked")) {
+                        chunked = true;
+                    } else if (lowerCase.startsWith("connection:") && lowerCase.contains("close")) {
+                        close = true;
+                    } else if (lowerCase.startsWith("expect:") && lowerCase.contains("100-continue")) {
+                        out.write(CONTINUE);
+                        out.flush();
+                    }
+                }
+
+                final int lines = chunked ? drainChunked(in, line) : drain(in, contentLength);
+
+                handle(requestLine, lines, out);
+                out.flush();
+
+                if (close) {
+                    return;
+                }
+
+            }
+
+        } catch (IOException e) {
+            // connection closed by client or on stop()
+        }
+
+    }
+
+    private void handle(final String requestLine, final int lines, final OutputStream out) throws IOException {
+
+        final int pathStart = requestLine.indexOf(' ') + 1;
+        final int pathEnd = requestLine.indexOf(' ', pathStart);
+        final String target = requestLine.substring(pathStart, pathEnd);
+        final int queryStart = target.indexOf('?');
+        final String path = queryStart == -1 ? target : target.substring(0, queryStart);
+
+        if (!path.endsWith("/_bulk")) {
+            respond(out, 200, "OK", EMPTY_OBJECT);
+            return;
+        }
+
+        requests.incrementAndGet();
+
+        if (latencyMillis > 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        }
+
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (errorRate > 0 && random.nextDouble() < errorRate) {
+            failedRequests.incrementAndGet();
+            respond(out, 503, "Service Unavailable", FAILED);
+            return;
+        }
+
+        // action and document line per item
+        final int itemCount = lines / 2;
+        items.addAndGet(itemCount);
+
+        if (partialFailureRate > 0 && random.nextDouble() < partialFailureRate) {
+            respond(out, 200, "OK", partialFailure(itemCount));
+            return;
+        }
+
+        respond(out, 200, "OK", SUCCEEDED);
+
+    }
+
+    private byte[] partialFailure(final int itemCount) {
+
+        final StringBuilder sb = new StringBuilder(64 + itemCount * ITEM_REJECTED.length())
+                .append("{\"took\":1,\"errors\":true,\"items\":[");
+
+        for (int i = 0; i < itemCount; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            if (i % 2 == 0) {
+                sb.append(ITEM_REJECTED);
+                rejectedItems.incrementAndGet();
+            } else {
+                sb.append(ITEM_SUCCEEDED);
+            }
+        }
+
+        return sb.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+
+    }
+
+    private void respond(final OutputStream out, final int status, final String reason, final byte[] body) throws IOException {
+        out.write(("HTTP/1.1 " + status + " " + reason + "\r\n" +
+                "Content-Type: application/json\r\n" +
+                "Content-Length: " + body.length + "\r\n" +
+                "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(body);
+    }
+
+    private int drain(final InputStream in, final long length) throws IOException {
+
+        int lines = 0;
+        for (long i = 0; i < length; i++) {
+            final int b = in.read();
+            if (b == -1) {
+                throw new IOException("Unexpected end of stream");
+            }
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        bytesReceived.addAndGet(length);
+        return lines;
+
+    }
+
+    private int drainChunked(final InputStream in, final StringBuilder line) throws IOException {
+
+        int lines = 0;
+        while (true) {
+            final String sizeLine = readLine(in, line);
+            if (sizeLine == null) {
+                throw new IOException("Unexpected end of stream");
+            }
+            final int extension = sizeLine.indexOf(';');
+            final long size = Long.parseLong((extension == -1 ? sizeLine : sizeLine.substring(0, extension)).trim(), 16);
+            if (size == 0) {
+                // trailers
+                String trailer;
+                while ((trailer = readLine(in, line)) != null && !trailer.isEmpty()) {
+                    // ignore
+                }
+                return lines;
+            }
+            lines += drain(in, size);
+            readLine(in, line); // chunk CRLF
+        }
+
+    }
+
+    private static String readLine(final InputStream in, final StringBuilder line) throws IOException {
+
+        line.setLength(0);
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                final int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+                return line.toString();
+            }
+            line.append((char) b);
+        }
+
+        return line.length() == 0 ? null : line.toString();
+
+    }
+
+    @Override
+    public String toString() {
+        return MockBulkServer.class.getSimpleName() + "{" +
+                "requests=" + requests.get() +
+                ", failedRequests=" + failedRequests.get() +
+                ", items=" + items.get() +
+                ", rejectedItems=" + rejectedItems.get() +
+                ", bytesReceived=" + bytesReceived.get() +
+                '}';
+    }
+
+}
@@ -23,6 +23,10 @@ package org.appenders.log4j2.elasticsearch.metrics;
 import org.junit.jupiter.api.Test;
 
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -166,4 +170,40 @@ public class CountMetricTest {
 
     }
 
+    @Test
+    public void resetDoesNotLoseValuesStoredConcurrently() throws InterruptedException {
+
+        // given
+        final Metric metric = new CountMetric(TEST_METRIC_KEY, 0, true);
+
+        final int threads = 4;
+        final int iterations = 100000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch latch = new CountDownLatch(threads);
+
+        long collected = 0;
+
+        // when
+        for (int ii = 0; ii < threads; ii++) {
+            executor.execute(() -> {
+                for (int jj = 0; jj < iterations; jj++) {
+                    metric.store(1);
+                }
+                latch.countDown();
+            });
+        }
+
+        while (latch.getCount() > 0) {
+            collected += metric.reset();
+        }
+        collected += metric.reset();
+
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+
+        // then
+        assertEquals((long) threads * iterations, collected);
+
+    }
+
 }
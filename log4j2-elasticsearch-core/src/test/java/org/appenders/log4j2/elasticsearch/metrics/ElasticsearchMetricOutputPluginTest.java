@@ -0,0 +1,120 @@
+package org.appenders.log4j2.elasticsearch.metrics;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.core.config.ConfigurationException;
+import org.appenders.log4j2.elasticsearch.BatchDelivery;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+public class ElasticsearchMetricOutputPluginTest {
+
+    static ElasticsearchMetricOutputPlugin.Builder createDefaultTestBuilder() {
+        return ElasticsearchMetricOutputPlugin.newBuilder()
+                .withName("test-output")
+                .withIndexName("test-metrics")
+                .withBatchDelivery(mock(BatchDelivery.class));
+    }
+
+    @Test
+    public void builderBuildsSuccessfully() {
+
+        // given
+        final ElasticsearchMetricOutputPlugin.Builder builder = createDefaultTestBuilder();
+
+        // when
+        final ElasticsearchMetricOutputPlugin output = builder.build();
+
+        // then
+        assertNotNull(output);
+        assertEquals("test-output", output.getName());
+
+    }
+
+    @Test
+    public void builderThrowsIfNameIsNull() {
+
+        // given
+        final ElasticsearchMetricOutputPlugin.Builder builder = createDefaultTestBuilder()
+                .withName(null);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("No name provided for " + ElasticsearchMetricOutputPlugin.PLUGIN_NAME));
+
+    }
+
+    @Test
+    public void builderThrowsIfIndexNameIsNull() {
+
+        // given
+        final ElasticsearchMetricOutputPlugin.Builder builder = createDefaultTestBuilder()
+                .withIndexName(null);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("No indexName provided for " + ElasticsearchMetricOutputPlugin.PLUGIN_NAME));
+
+    }
+
+    @Test
+    public void builderThrowsIfBatchDeliveryIsNull() {
+
+        // given
+        final ElasticsearchMetricOutputPlugin.Builder builder = createDefaultTestBuilder()
+                .withBatchDelivery(null);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("No batchDelivery provided for " + ElasticsearchMetricOutputPlugin.PLUGIN_NAME));
+
+    }
+
+    @Test
+    public void builderSetsFilter() {
+
+        // given
+        final ElasticsearchMetricOutputPlugin.Builder builder = createDefaultTestBuilder()
+                .withIncludes("test-metric-1")
+                .withExcludes("test-metric-2");
+
+        // when
+        final ElasticsearchMetricOutputPlugin output = builder.build();
+
+        // then
+        assertFalse(output.accepts(new Metric.Key("test-component", "test-metric-2", "count")));
+
+    }
+
+}
@@ -0,0 +1,194 @@
+package org.appenders.log4j2.elasticsearch.metrics;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.appenders.log4j2.elasticsearch.BatchDelivery;
+import org.appenders.log4j2.elasticsearch.ItemSource;
+import org.appenders.log4j2.elasticsearch.StringItemSourceFactory;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ElasticsearchMetricOutputTest {
+
+    private static final String TEST_INDEX_NAME = "test-metrics";
+
+    static ElasticsearchMetricOutput createTestMetricOutput(final BatchDelivery<?> batchDelivery) {
+        return new ElasticsearchMetricOutput(
+                "test-output",
+                TEST_INDEX_NAME,
+                batchDelivery,
+                StringItemSourceFactory.newBuilder().build(),
+                new IncludeExclude(Collections.emptyList(), Collections.emptyList()));
+    }
+
+    @Test
+    public void flushDeliversOneDocumentPerComponent() {
+
+        // given
+        final BatchDelivery<?> batchDelivery = mock(BatchDelivery.class);
+        final ElasticsearchMetricOutput output = createTestMetricOutput(batchDelivery);
+
+        output.write(1L, new Metric.Key("component-1", "itemsSent", "count"), 10L);
+        output.write(1L, new Metric.Key("component-1", "serverTookMs", "max"), 20L);
+        output.write(1L, new Metric.Key("component-2", "itemsSent", "count"), 30L);
+
+        // when
+        output.flush();
+
+        // then
+        final ArgumentCaptor<ItemSource> captor = ArgumentCaptor.forClass(ItemSource.class);
+        verify(batchDelivery, times(2)).add(eq(TEST_INDEX_NAME), captor.capture());
+
+        final List<ItemSource> documents = captor.getAllValues();
+        assertEquals("{\"timeMillis\":1,\"component\":\"component-1\",\"metrics\":{\"itemsSent.count\":10,\"serverTookMs.max\":20}}", documents.get(0).getSource());
+        assertEquals("{\"timeMillis\":1,\"component\":\"component-2\",\"metrics\":{\"itemsSent.count\":30}}", documents.get(1).getSource());
+
+    }
+
+    @Test
+    public void flushDeliversOnlyValuesWrittenSincePreviousFlush() {
+
+        // given
+        final BatchDelivery<?> batchDelivery = mock(BatchDelivery.class);
+        final ElasticsearchMetricOutput output = createTestMetricOutput(batchDelivery);
+
+        output.write(1L, new Metric.Key("component-1", "itemsSent", "count"), 10L);
+        output.write(1L, new Metric.Key("component-2", "itemsSent", "count"), 20L);
+        output.flush();
+
+        output.write(2L, new Metric.Key("component-1", "itemsSent", "count"), 30L);
+
+        // when
+        output.flush();
+
+        // then
+        final ArgumentCaptor<ItemSource> captor = ArgumentCaptor.forClass(ItemSource.class);
+        verify(batchDelivery, times(3)).add(eq(TEST_INDEX_NAME), captor.capture());
+
+        assertEquals("{\"timeMillis\":2,\"component\":\"component-1\",\"metrics\":{\"itemsSent.count\":30}}", captor.getAllValues().get(2).getSource());
+
+    }
+
+    @Test
+    public void flushGrowsDocumentIfNeeded() {
+
+        // given
+        final BatchDelivery<?> batchDelivery = mock(BatchDelivery.class);
+        final ElasticsearchMetricOutput output = createTestMetricOutput(batchDelivery);
+
+        final int expectedSize = 100;
+        for (int i = 0; i < expectedSize; i++) {
+            output.write(1L, new Metric.Key("component-1", "metric-" + i, "count"), i);
+        }
+
+        // when
+        output.flush();
+
+        // then
+        final ArgumentCaptor<ItemSource> captor = ArgumentCaptor.forClass(ItemSource.class);
+        verify(batchDelivery).add(eq(TEST_INDEX_NAME), captor.capture());
+        assertTrue(((String) captor.getValue().getSource()).endsWith("\"metric-99.count\":99}}"));
+
+    }
+
+    @Test
+    public void flushIsNoopIfNothingWasWritten() {
+
+        // given
+        final BatchDelivery<?> batchDelivery = mock(BatchDelivery.class);
+        final ElasticsearchMetricOutput output = createTestMetricOutput(batchDelivery);
+
+        // when
+        output.flush();
+
+        // then
+        verify(batchDelivery, never()).add(anyString(), any(ItemSource.class));
+
+    }
+
+    @Test
+    public void acceptsDelegatesToFilter() {
+
+        // given
+        final Metric.Key key = new Metric.Key("test-component", "test-metric", "test");
+        final ElasticsearchMetricOutput output = new ElasticsearchMetricOutput(
+                "test-output",
+                TEST_INDEX_NAME,
+                mock(BatchDelivery.class),
+                StringItemSourceFactory.newBuilder().build(),
+                new IncludeExclude(Collections.emptyList(), Collections.singletonList("test-metric")));
+
+        // when
+        final boolean accepted = output.accepts(key);
+
+        // then
+        assertFalse(accepted);
+
+    }
+
+    @Test
+    public void lifecycleStartStartsBatchDelivery() {
+
+        // given
+        final BatchDelivery<?> batchDelivery = mock(BatchDelivery.class);
+        final ElasticsearchMetricOutput output = createTestMetricOutput(batchDelivery);
+
+        // when
+        output.start();
+
+        // then
+        verify(batchDelivery).start();
+        assertTrue(output.isStarted());
+
+    }
+
+    @Test
+    public void lifecycleStopStopsBatchDelivery() {
+
+        // given
+        final BatchDelivery<?> batchDelivery = mock(BatchDelivery.class);
+        final ElasticsearchMetricOutput output = createTestMetricOutput(batchDelivery);
+        output.start();
+
+        // when
+        output.stop();
+
+        // then
+        verify(batchDelivery).stop();
+        assertTrue(output.isStopped());
+
+    }
+
+}
@@ -0,0 +1,126 @@
+package org.appenders.log4j2.elasticsearch.metrics;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class GaugeMetricTest {
+
+    static final Metric.Key TEST_METRIC_KEY = new Metric.Key("test-component", "test-metric", "test");
+
+    private final Random random = new Random();
+
+    @Test
+    public void storesLong() {
+
+        // given
+        final Metric metric = new GaugeMetric(TEST_METRIC_KEY);
+
+        final long expected = random.nextLong();
+
+        // when
+        metric.store(expected);
+
+        // then
+        assertEquals(expected, metric.getValue());
+
+    }
+
+    @Test
+    public void storesInt() {
+
+        // given
+        final Metric metric = new GaugeMetric(TEST_METRIC_KEY);
+
+        final int expected = random.nextInt();
+
+        // when
+        metric.store(expected);
+
+        // then
+        assertEquals(expected, metric.getValue());
+
+    }
+
+    @Test
+    public void negativeValuesDecrementCurrentValue() {
+
+        // given
+        final long initialValue = random.nextInt(1000);
+        final Metric metric = new GaugeMetric(TEST_METRIC_KEY, initialValue);
+
+        // when
+        metric.store(5);
+        metric.store(-3L);
+        metric.store(-2);
+
+        // then
+        assertEquals(initialValue, metric.getValue());
+
+    }
+
+    @Test
+    public void resetRetainsCurrentValue() {
+
+        // given
+        final long initialValue = random.nextInt(1000);
+        final Metric metric = new GaugeMetric(TEST_METRIC_KEY, initialValue);
+
+        final long expected = initialValue + 10;
+        metric.store(10);
+
+        // when
+        final long result = metric.reset();
+
+        // then
+        assertEquals(expected, result);
+        assertEquals(expected, metric.getValue());
+
+    }
+
+    @Test
+    public void consumerRetainsCurrentValue() {
+
+        // given
+        final Metric metric = new GaugeMetric(TEST_METRIC_KEY);
+        final MetricCollector metricCollector = mock(MetricCollector.class);
+
+        final long expected = random.nextInt(1000);
+        metric.store(expected);
+
+        // when
+        metric.accept(metricCollector);
+        metric.accept(metricCollector);
+
+        // then
+        verify(metricCollector, times(2)).collect(eq(TEST_METRIC_KEY), eq(expected));
+
+    }
+
+}
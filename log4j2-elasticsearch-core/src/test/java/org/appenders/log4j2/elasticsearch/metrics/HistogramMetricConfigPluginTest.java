@@ -0,0 +1,112 @@
+package org.appenders.log4j2.elasticsearch.metrics;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.core.config.ConfigurationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HistogramMetricConfigPluginTest {
+
+    private static final String DEFAULT_TEST_NAME = "testMetricName";
+
+    static HistogramMetricConfigPlugin.Builder createDefaultTestBuilder() {
+        return HistogramMetricConfigPlugin.newBuilder();
+    }
+
+    @Test
+    public void defaultBuilderThrows() {
+
+        // given
+        final HistogramMetricConfigPlugin.Builder builder = createDefaultTestBuilder();
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("No name provided for Histogram metric"));
+
+    }
+
+    @Test
+    public void builderBuildsSuccessfully() {
+
+        // given
+        final HistogramMetricConfigPlugin.Builder builder = createDefaultTestBuilder()
+                .withName(DEFAULT_TEST_NAME);
+
+        // when
+        final HistogramMetricConfigPlugin result = builder.build();
+
+        // then
+        assertNotNull(result);
+        assertEquals(MetricType.HISTOGRAM, result.getMetricType());
+
+    }
+
+    @Test
+    public void builderSetsAllFields() {
+
+        // given
+        final HistogramMetricConfigPlugin.Builder builder = createDefaultTestBuilder()
+                .withName(DEFAULT_TEST_NAME)
+                .enabled(false)
+                .withResetOnCollect(false);
+
+        // when
+        final HistogramMetricConfigPlugin result = builder.build();
+
+        // then
+        assertFalse(result.isEnabled());
+        assertFalse(result.isReset());
+        assertEquals(DEFAULT_TEST_NAME, result.getName());
+
+    }
+
+    @Test
+    public void createsHistogramMetric() {
+
+        // given
+        final String expectedName = UUID.randomUUID().toString();
+
+        final MetricsFactory metricsFactory = new DefaultMetricsFactory(Collections.emptyList());
+        metricsFactory.configure(createDefaultTestBuilder().withName(expectedName).build());
+
+        // when
+        final Metric metric = metricsFactory.createMetric("test-component", expectedName);
+
+        // then
+        assertTrue(metric instanceof HistogramMetric);
+        assertEquals("test-component." + expectedName + ".histogram", metric.getKey().toString());
+
+    }
+
+}
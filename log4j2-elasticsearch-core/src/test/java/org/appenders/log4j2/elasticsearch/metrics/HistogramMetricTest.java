@@ -0,0 +1,284 @@
+package org.appenders.log4j2.elasticsearch.metrics;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class HistogramMetricTest {
+
+    static final Metric.Key TEST_METRIC_KEY = new Metric.Key("test-component", "test-metric", "histogram");
+
+    @Test
+    public void getKeysReturnsAllCollectedKeys() {
+
+        // given
+        final Metric metric = new HistogramMetric(TEST_METRIC_KEY, true);
+
+        // when
+        final Metric.Key[] keys = metric.getKeys();
+
+        // then
+        assertEquals(6, keys.length);
+        assertEquals("test-component.test-metric.p50", keys[0].toString());
+        assertEquals("test-component.test-metric.p90", keys[1].toString());
+        assertEquals("test-component.test-metric.p99", keys[2].toString());
+        assertEquals("test-component.test-metric.p999", keys[3].toString());
+        assertEquals("test-component.test-metric.max", keys[4].toString());
+        assertEquals("test-component.test-metric.count", keys[5].toString());
+
+    }
+
+    @Test
+    public void collectsPercentilesMaxAndCount() {
+
+        // given
+        final Metric metric = new HistogramMetric(TEST_METRIC_KEY, true);
+        for (int i = 1; i <= 1000; i++) {
+            metric.store(i);
+        }
+
+        // when
+        final long[] result = collect(metric);
+
+        // then
+        assertWithinError(500, result[0]);
+        assertWithinError(900, result[1]);
+        assertWithinError(990, result[2]);
+        assertWithinError(999, result[3]);
+        assertEquals(1000, result[4]);
+        assertEquals(1000, result[5]);
+
+    }
+
+    @Test
+    public void valuesBelowSubBucketThresholdAreExact() {
+
+        // given
+        final Metric metric = new HistogramMetric(TEST_METRIC_KEY, true);
+        for (int i = 0; i < 10; i++) {
+            metric.store(i % 2 == 0 ? 7 : 42);
+        }
+
+        // when
+        final long[] result = collect(metric);
+
+        // then
+        assertEquals(7, result[0]);
+        assertEquals(42, result[1]);
+        assertEquals(42, result[4]);
+        assertEquals(10, result[5]);
+
+    }
+
+    @Test
+    public void storesIntAndLongInTheSameHistogram() {
+
+        // given
+        final Metric metric = new HistogramMetric(TEST_METRIC_KEY, true);
+
+        // when
+        metric.store(1);
+        metric.store(Long.MAX_VALUE);
+
+        // then
+        final long[] result = collect(metric);
+        assertEquals(2, result[5]);
+        assertEquals(Long.MAX_VALUE, result[4]);
+
+    }
+
+    @Test
+    public void storesNegativeValuesAsZero() {
+
+        // given
+        final Metric metric = new HistogramMetric(TEST_METRIC_KEY, true);
+
+        // when
+        metric.store(-10L);
+
+        // then
+        final long[] result = collect(metric);
+        assertEquals(0, result[0]);
+        assertEquals(0, result[4]);
+        assertEquals(1, result[5]);
+
+    }
+
+    @Test
+    public void resetsOnCollectIfConfigured() {
+
+        // given
+        final Metric metric = new HistogramMetric(TEST_METRIC_KEY, true);
+        metric.store(100);
+        collect(metric);
+
+        // when
+        final long[] result = collect(metric);
+
+        // then
+        assertEquals(0, result[0]);
+        assertEquals(0, result[4]);
+        assertEquals(0, result[5]);
+
+    }
+
+    @Test
+    public void accumulatesOnCollectIfNotConfiguredToReset() {
+
+        // given
+        final Metric metric = new HistogramMetric(TEST_METRIC_KEY, false);
+        metric.store(100);
+        collect(metric);
+        metric.store(10);
+
+        // when
+        final long[] result = collect(metric);
+
+        // then
+        assertEquals(10, result[0]);
+        assertEquals(100, result[4]);
+        assertEquals(2, result[5]);
+
+    }
+
+    @Test
+    public void resetReturnsCountAndResets() {
+
+        // given
+        final Metric metric = new HistogramMetric(TEST_METRIC_KEY, false);
+        metric.store(100);
+        metric.store(200);
+
+        // when
+        final long result = metric.reset();
+
+        // then
+        assertEquals(2, result);
+        assertEquals(0, metric.getValue());
+
+    }
+
+    @Test
+    public void getValueReturnsCountOfStoredValues() {
+
+        // given
+        final Metric metric = new HistogramMetric(TEST_METRIC_KEY, false);
+        metric.store(100);
+        collect(metric);
+        metric.store(200);
+
+        // when
+        final long result = metric.getValue();
+
+        // then
+        assertEquals(2, result);
+
+    }
+
+    @Test
+    public void bucketIndexIsContinuousAndMonotonic() {
+
+        // given
+        int previous = HistogramMetric.bucketIndex(0);
+
+        // when
+        for (long value = 1; value < 1 << 20; value++) {
+
+            final int current = HistogramMetric.bucketIndex(value);
+
+            // then
+            assertTrue(current == previous || current == previous + 1, "Gap at " + value);
+            assertTrue(HistogramMetric.highestEquivalentValue(current) >= value);
+            previous = current;
+
+        }
+
+        assertEquals(HistogramMetric.BUCKET_COUNT - 1, HistogramMetric.bucketIndex(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, HistogramMetric.highestEquivalentValue(HistogramMetric.BUCKET_COUNT - 1));
+
+    }
+
+    @Test
+    public void doesNotLoseValuesStoredConcurrentlyWithCollection() throws InterruptedException {
+
+        // given
+        final Metric metric = new HistogramMetric(TEST_METRIC_KEY, true);
+
+        final int threads = 4;
+        final int valuesPerThread = 100000;
+        final CountDownLatch latch = new CountDownLatch(threads);
+
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                for (int j = 0; j < valuesPerThread; j++) {
+                    metric.store(j);
+                }
+                latch.countDown();
+            }).start();
+        }
+
+        long total = 0;
+
+        // when
+        while (latch.getCount() > 0) {
+            total += collect(metric)[5];
+        }
+        total += collect(metric)[5];
+
+        // then
+        assertEquals(threads * valuesPerThread, total);
+
+    }
+
+    private static void assertWithinError(final long expected, final long actual) {
+        final double error = Math.abs(actual - expected) / (double) expected;
+        assertTrue(error < 0.032, "Expected " + expected + " but was " + actual);
+    }
+
+    private static long[] collect(final Metric metric) {
+
+        final MetricCollector metricCollector = mock(MetricCollector.class);
+        metric.accept(metricCollector);
+
+        final ArgumentCaptor<Long> valueCaptor = ArgumentCaptor.forClass(Long.class);
+        verify(metricCollector, times(6)).collect(any(), valueCaptor.capture());
+
+        final List<Long> values = valueCaptor.getAllValues();
+        final long[] result = new long[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+
+    }
+
+}
@@ -0,0 +1,155 @@
+package org.appenders.log4j2.elasticsearch.metrics;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JmxMetricsRegistryTest {
+
+    @Test
+    public void registersMBeanOnFirstComponentMetricRegistration() {
+
+        // given
+        final MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+        final JmxMetricsRegistry registry = new JmxMetricsRegistry(new BasicMetricsRegistry(), mBeanServer);
+
+        final String componentName = UUID.randomUUID().toString();
+
+        // when
+        registry.register(new CountMetric(new Metric.Key(componentName, "metric1", "count")));
+        registry.register(new CountMetric(new Metric.Key(componentName, "metric2", "count")));
+
+        // then
+        assertTrue(mBeanServer.isRegistered(JmxMetricsRegistry.objectName(componentName)));
+        assertEquals(2, registry.getMetrics(metric -> true).size());
+
+    }
+
+    @Test
+    public void unregistersMBeanOnLastComponentMetricDeregistration() {
+
+        // given
+        final MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+        final JmxMetricsRegistry registry = new JmxMetricsRegistry(new BasicMetricsRegistry(), mBeanServer);
+
+        final String componentName = UUID.randomUUID().toString();
+        final Metric metric1 = new CountMetric(new Metric.Key(componentName, "metric1", "count"));
+        final Metric metric2 = new CountMetric(new Metric.Key(componentName, "metric2", "count"));
+
+        final MetricsRegistry.Registration registration = registry.register(metric1);
+        registry.register(metric2);
+
+        final ObjectName objectName = JmxMetricsRegistry.objectName(componentName);
+
+        // when
+        registration.deregister();
+
+        // then
+        assertTrue(mBeanServer.isRegistered(objectName));
+
+        // when
+        registry.deregister(metric2);
+
+        // then
+        assertFalse(mBeanServer.isRegistered(objectName));
+
+    }
+
+    @Test
+    public void unregistersAllMBeansOnClear() {
+
+        // given
+        final MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+        final JmxMetricsRegistry registry = new JmxMetricsRegistry(new BasicMetricsRegistry(), mBeanServer);
+
+        final String componentName1 = UUID.randomUUID().toString();
+        final String componentName2 = UUID.randomUUID().toString();
+        registry.register(new CountMetric(new Metric.Key(componentName1, "metric", "count")));
+        registry.register(new CountMetric(new Metric.Key(componentName2, "metric", "count")));
+
+        // when
+        registry.clear();
+
+        // then
+        assertFalse(mBeanServer.isRegistered(JmxMetricsRegistry.objectName(componentName1)));
+        assertFalse(mBeanServer.isRegistered(JmxMetricsRegistry.objectName(componentName2)));
+        assertTrue(registry.getMetrics(metric -> true).isEmpty());
+
+    }
+
+    @Test
+    public void mBeanExposesCurrentValues() throws Exception {
+
+        // given
+        final MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+        final JmxMetricsRegistry registry = new JmxMetricsRegistry(new BasicMetricsRegistry(), mBeanServer);
+
+        final String componentName = UUID.randomUUID().toString();
+        final Metric metric = new GaugeMetric(new Metric.Key(componentName, "available", "gauge"));
+        registry.register(metric);
+
+        metric.store(10);
+
+        final ObjectName objectName = JmxMetricsRegistry.objectName(componentName);
+
+        // when
+        final String name = (String) mBeanServer.getAttribute(objectName, "ComponentName");
+        final TabularData values = (TabularData) mBeanServer.getAttribute(objectName, "Values");
+
+        // then
+        assertEquals(componentName, name);
+        final CompositeData row = values.get(new Object[] { "available" });
+        assertEquals(10L, row.get("value"));
+
+    }
+
+    @Test
+    public void doesNotThrowIfMBeanAlreadyRegistered() {
+
+        // given
+        final MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+        final JmxMetricsRegistry registry1 = new JmxMetricsRegistry(new BasicMetricsRegistry(), mBeanServer);
+        final JmxMetricsRegistry registry2 = new JmxMetricsRegistry(new BasicMetricsRegistry(), mBeanServer);
+
+        final String componentName = UUID.randomUUID().toString();
+        registry1.register(new CountMetric(new Metric.Key(componentName, "metric", "count")));
+
+        // when
+        registry2.register(new CountMetric(new Metric.Key(componentName, "metric", "count")));
+
+        // then
+        assertEquals(1, registry2.getMetrics(metric -> true).size());
+        assertTrue(mBeanServer.isRegistered(JmxMetricsRegistry.objectName(componentName)));
+
+    }
+
+}
@@ -34,13 +34,16 @@ import java.util.UUID;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -85,6 +88,43 @@ public class MetricsProcessorTest {
 
     }
 
+    @Test
+    public void writesAllValuesOfMultiValueMetric() {
+
+        // given
+        long expectedTimestamp = System.currentTimeMillis();
+        final String expectedName = UUID.randomUUID().toString();
+
+        final MetricConfig metricConfig = MetricConfigFactory.createHistogramConfig(expectedName, true);
+        final MetricsFactory metricsFactory = new DefaultMetricsFactory(Collections.singletonList(metricConfig));
+        final Metric metric = metricsFactory.createMetric("test-component", expectedName);
+
+        final MetricOutput metricOutput = spy(MetricOutputTest.dummy());
+        when(metricOutput.accepts(any())).thenReturn(true);
+
+        final MetricsRegistry metricsRegistry = new BasicMetricsRegistry();
+        metricsRegistry.register(metric);
+
+        final Clock clock = TestClock.createTestClock(expectedTimestamp);
+
+        final MetricsProcessor processor = createTestProcessor(clock, metricsRegistry, metricOutput);
+
+        // when
+        metric.store(10L);
+        processor.process();
+
+        // then
+        final ArgumentCaptor<Metric.Key> keyCaptor = ArgumentCaptor.forClass(Metric.Key.class);
+        final ArgumentCaptor<Long> valueCaptor = ArgumentCaptor.forClass(Long.class);
+        verify(metricOutput, times(6)).write(eq(expectedTimestamp), keyCaptor.capture(), valueCaptor.capture());
+
+        assertEquals("test-component." + expectedName + ".p50", keyCaptor.getAllValues().get(0).toString());
+        assertEquals("test-component." + expectedName + ".count", keyCaptor.getAllValues().get(5).toString());
+        assertEquals(10L, (long) valueCaptor.getAllValues().get(0));
+        assertEquals(1L, (long) valueCaptor.getAllValues().get(5));
+
+    }
+
     @Test
     public void writesWithDefaultClock() {
 
@@ -495,4 +535,32 @@ public class MetricsProcessorTest {
 
     }
 
+    @Test
+    public void snapshotDoesNotAffectCollectedValues() {
+
+        // given
+        final MetricOutput metricOutput = spy(MetricOutputTest.dummy());
+        when(metricOutput.accepts(any())).thenReturn(true);
+
+        final String expectedName = UUID.randomUUID().toString();
+        final MetricsFactory metricsFactory = new DefaultMetricsFactory(Collections.emptyList());
+        final Metric metric = createTestMetric(metricsFactory, expectedName);
+
+        final MetricsRegistry registry = new BasicMetricsRegistry();
+        registry.register(metric);
+
+        final MetricsProcessor processor = new MetricsProcessor(registry, new BasicMetricOutputsRegistry(metricOutput));
+
+        metric.store(3);
+
+        // when
+        final MetricsSnapshot snapshot = processor.snapshot();
+        processor.process();
+
+        // then
+        assertEquals(3L, snapshot.getValue("test-component", expectedName));
+        verify(metricOutput).write(anyLong(), eq(metric.getKey()), eq(3L));
+
+    }
+
 }
@@ -0,0 +1,131 @@
+package org.appenders.log4j2.elasticsearch.metrics;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricsSnapshotTest {
+
+    public static final String TEST_COMPONENT_NAME = "metrics-snapshot-test";
+
+    @Test
+    public void containsValuesOfRegisteredMetrics() {
+
+        // given
+        final MetricsRegistry registry = new BasicMetricsRegistry();
+
+        final Metric count = new CountMetric(new Metric.Key(TEST_COMPONENT_NAME, "count-metric", "count"), 0, true);
+        final Metric max = new MaxLongMetric(new Metric.Key(TEST_COMPONENT_NAME, "max-metric", "max"), true);
+        registry.register(count);
+        registry.register(max);
+
+        count.store(3);
+        max.store(7);
+
+        // when
+        final MetricsSnapshot snapshot = MetricsSnapshot.of(registry);
+
+        // then
+        final Map<String, Long> values = snapshot.getValues(TEST_COMPONENT_NAME);
+        assertEquals(2, values.size());
+        assertEquals(3L, values.get("count-metric"));
+        assertEquals(7L, snapshot.getValue(TEST_COMPONENT_NAME, "max-metric"));
+
+    }
+
+    @Test
+    public void doesNotResetMetrics() {
+
+        // given
+        final MetricsRegistry registry = new BasicMetricsRegistry();
+
+        final Metric metric = new CountMetric(new Metric.Key(TEST_COMPONENT_NAME, "count-metric", "count"), 0, true);
+        registry.register(metric);
+
+        metric.store(5);
+
+        // when
+        MetricsSnapshot.of(registry);
+        final MetricsSnapshot snapshot = MetricsSnapshot.of(registry);
+
+        // then
+        assertEquals(5L, snapshot.getValue(TEST_COMPONENT_NAME, "count-metric"));
+        assertEquals(5L, metric.getValue());
+
+    }
+
+    @Test
+    public void omitsNoopMetrics() {
+
+        // given
+        final MetricsRegistry registry = new BasicMetricsRegistry();
+        registry.register(new NoopMetric(TEST_COMPONENT_NAME, "noop-metric"));
+
+        // when
+        final MetricsSnapshot snapshot = MetricsSnapshot.of(registry);
+
+        // then
+        assertTrue(snapshot.getComponentNames().isEmpty());
+        assertNull(snapshot.getValue(TEST_COMPONENT_NAME, "noop-metric"));
+
+    }
+
+    @Test
+    public void containsMatchingMetricsOnly() {
+
+        // given
+        final MetricsRegistry registry = new BasicMetricsRegistry();
+        registry.register(new GaugeMetric(new Metric.Key(TEST_COMPONENT_NAME, "gauge-metric", "gauge")));
+        registry.register(new GaugeMetric(new Metric.Key(TEST_COMPONENT_NAME + 2, "gauge-metric", "gauge")));
+
+        // when
+        final MetricsSnapshot snapshot = MetricsSnapshot.of(registry,
+                metric -> TEST_COMPONENT_NAME.equals(metric.getKey().getComponentNamePart()));
+
+        // then
+        assertEquals(1, snapshot.getComponentNames().size());
+        assertTrue(snapshot.getComponentNames().contains(TEST_COMPONENT_NAME));
+        assertFalse(snapshot.getComponentNames().contains(TEST_COMPONENT_NAME + 2));
+
+    }
+
+    @Test
+    public void returnsEmptyValuesForUnknownComponent() {
+
+        // given
+        final MetricsSnapshot snapshot = MetricsSnapshot.of(new BasicMetricsRegistry());
+
+        // when
+        final Map<String, Long> values = snapshot.getValues(TEST_COMPONENT_NAME);
+
+        // then
+        assertTrue(values.isEmpty());
+
+    }
+
+}
@@ -0,0 +1,121 @@
+package org.appenders.log4j2.elasticsearch.metrics;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.core.config.ConfigurationException;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrometheusMetricOutputPluginTest {
+
+    static PrometheusMetricOutputPlugin.Builder createDefaultTestBuilder() {
+        return PrometheusMetricOutputPlugin.newBuilder()
+                .withName("test-output");
+    }
+
+    @Test
+    public void builderBuildsSuccessfully() {
+
+        // given
+        final PrometheusMetricOutputPlugin.Builder builder = createDefaultTestBuilder();
+
+        // when
+        final PrometheusMetricOutputPlugin output = builder.build();
+
+        // then
+        assertNotNull(output);
+        assertEquals("test-output", output.getName());
+
+    }
+
+    @Test
+    public void builderThrowsIfNameIsNull() {
+
+        // given
+        final PrometheusMetricOutputPlugin.Builder builder = createDefaultTestBuilder()
+                .withName(null);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("No name provided for " + PrometheusMetricOutputPlugin.PLUGIN_NAME));
+
+    }
+
+    @Test
+    public void builderThrowsIfHostIsNullAndPortIsSet() {
+
+        // given
+        final PrometheusMetricOutputPlugin.Builder builder = createDefaultTestBuilder()
+                .withPort(9464)
+                .withHost(null);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("No host provided for " + PrometheusMetricOutputPlugin.PLUGIN_NAME));
+
+    }
+
+    @Test
+    public void builderThrowsIfPathIsInvalidAndPortIsSet() {
+
+        // given
+        final PrometheusMetricOutputPlugin.Builder builder = createDefaultTestBuilder()
+                .withPort(9464)
+                .withPath("metrics");
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("path must start with '/' for " + PrometheusMetricOutputPlugin.PLUGIN_NAME));
+
+    }
+
+    @Test
+    public void builderAppliesIncludesAndExcludes() {
+
+        // given
+        final PrometheusMetricOutputPlugin.Builder builder = createDefaultTestBuilder()
+                .withIncludes("available;backoffApplied")
+                .withExcludes("backoffApplied");
+
+        // when
+        final PrometheusMetricOutputPlugin output = builder.build();
+
+        // then
+        assertTrue(output.accepts(new Metric.Key("test-component", "available", "max")));
+        assertFalse(output.accepts(new Metric.Key("test-component", "backoffApplied", "count")));
+        assertFalse(output.accepts(new Metric.Key("test-component", "total", "max")));
+
+    }
+
+}
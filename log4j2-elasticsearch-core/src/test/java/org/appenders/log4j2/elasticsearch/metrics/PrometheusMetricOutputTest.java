@@ -0,0 +1,233 @@
+package org.appenders.log4j2.elasticsearch.metrics;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrometheusMetricOutputTest {
+
+    private static PrometheusMetricOutput createTestOutput(final int port) {
+        return new PrometheusMetricOutput("test-output", "127.0.0.1", port, "/metrics",
+                new IncludeExclude(Collections.emptyList(), Collections.emptyList()));
+    }
+
+    private static String scrape(final PrometheusMetricOutput output) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        output.writeTo(outputStream);
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void rendersValuesInTextFormat() throws IOException {
+
+        // given
+        final PrometheusMetricOutput output = createTestOutput(-1);
+
+        // when
+        output.write(1L, new Metric.Key("itemPool", "available", "max"), 100);
+        output.write(1L, new Metric.Key("HCHttp-1", "backoffApplied", "count"), -3);
+        output.flush();
+
+        // then
+        assertEquals("# TYPE log4j2_elasticsearch_available gauge\n" +
+                "log4j2_elasticsearch_available{component=\"itemPool\",type=\"max\"} 100\n" +
+                "# TYPE log4j2_elasticsearch_backoffApplied gauge\n" +
+                "log4j2_elasticsearch_backoffApplied{component=\"HCHttp-1\",type=\"count\"} -3\n", scrape(output));
+
+    }
+
+    @Test
+    public void groupsSamplesOfSameMetricName() throws IOException {
+
+        // given
+        final PrometheusMetricOutput output = createTestOutput(-1);
+
+        // when
+        output.write(1L, new Metric.Key("pool1", "available", "max"), 1);
+        output.write(1L, new Metric.Key("pool1", "total", "max"), 2);
+        output.write(1L, new Metric.Key("pool2", "available", "max"), 3);
+        output.flush();
+
+        // then
+        assertEquals("# TYPE log4j2_elasticsearch_available gauge\n" +
+                "log4j2_elasticsearch_available{component=\"pool1\",type=\"max\"} 1\n" +
+                "log4j2_elasticsearch_available{component=\"pool2\",type=\"max\"} 3\n" +
+                "# TYPE log4j2_elasticsearch_total gauge\n" +
+                "log4j2_elasticsearch_total{component=\"pool1\",type=\"max\"} 2\n", scrape(output));
+
+    }
+
+    @Test
+    public void sanitizesNamesAndEscapesLabelValues() throws IOException {
+
+        // given
+        final PrometheusMetricOutput output = createTestOutput(-1);
+
+        // when
+        output.write(1L, new Metric.Key("a\"b\\c", "items-sent.total", "count"), 1);
+        output.flush();
+
+        // then
+        assertEquals("# TYPE log4j2_elasticsearch_items_sent_total gauge\n" +
+                "log4j2_elasticsearch_items_sent_total{component=\"a\\\"b\\\\c\",type=\"count\"} 1\n", scrape(output));
+
+    }
+
+    @Test
+    public void publishesOnFlushOnly() throws IOException {
+
+        // given
+        final PrometheusMetricOutput output = createTestOutput(-1);
+        output.write(1L, new Metric.Key("pool", "available", "max"), 1);
+        output.flush();
+        final String expected = scrape(output);
+
+        // when
+        output.write(2L, new Metric.Key("pool", "available", "max"), 2);
+
+        // then
+        assertEquals(expected, scrape(output));
+
+    }
+
+    @Test
+    public void publishesLatestCycleOnly() throws IOException {
+
+        // given
+        final PrometheusMetricOutput output = createTestOutput(-1);
+        output.write(1L, new Metric.Key("pool", "available", "max"), 1);
+        output.write(1L, new Metric.Key("pool", "total", "max"), 1);
+        output.flush();
+
+        // when
+        output.write(2L, new Metric.Key("pool", "available", "max"), Long.MAX_VALUE);
+        output.flush();
+        output.write(3L, new Metric.Key("pool", "available", "max"), 1234567890L);
+        output.flush();
+
+        // then
+        assertEquals("# TYPE log4j2_elasticsearch_available gauge\n" +
+                "log4j2_elasticsearch_available{component=\"pool\",type=\"max\"} 1234567890\n", scrape(output));
+
+    }
+
+    @Test
+    public void bufferWritesLongValues() throws IOException {
+
+        // given
+        final PrometheusMetricOutput.Buffer buffer = new PrometheusMetricOutput.Buffer(1);
+        final long[] values = new long[] { 0, 9, 10, -1, -10, Long.MAX_VALUE, Long.MIN_VALUE };
+
+        for (long value : values) {
+
+            // when
+            buffer.reset();
+            buffer.writeLong(value);
+
+            // then
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            buffer.writeTo(outputStream);
+            assertEquals(Long.toString(value), new String(outputStream.toByteArray(), StandardCharsets.US_ASCII));
+
+        }
+
+    }
+
+    @Test
+    public void servesLatestPageIfStartedWithPort() throws IOException {
+
+        // given
+        final int port;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+
+        final PrometheusMetricOutput output = createTestOutput(port);
+        output.start();
+
+        output.write(1L, new Metric.Key("pool", "available", "max"), 42);
+        output.flush();
+
+        // when
+        final HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + port + "/metrics").openConnection();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream inputStream = connection.getInputStream()) {
+            final byte[] chunk = new byte[1024];
+            int read;
+            while ((read = inputStream.read(chunk)) != -1) {
+                body.write(chunk, 0, read);
+            }
+        } finally {
+            output.stop();
+        }
+
+        // then
+        assertEquals(200, connection.getResponseCode());
+        assertEquals(PrometheusMetricOutput.CONTENT_TYPE, connection.getContentType());
+        assertEquals(scrape(output), new String(body.toByteArray(), StandardCharsets.UTF_8));
+
+    }
+
+    @Test
+    public void lifecycleStart() {
+
+        // given
+        final PrometheusMetricOutput output = createTestOutput(-1);
+
+        // when
+        output.start();
+
+        // then
+        assertTrue(output.isStarted());
+        assertFalse(output.isStopped());
+
+    }
+
+    @Test
+    public void lifecycleStop() {
+
+        // given
+        final PrometheusMetricOutput output = createTestOutput(-1);
+        output.start();
+
+        // when
+        output.stop();
+
+        // then
+        assertFalse(output.isStarted());
+        assertTrue(output.isStopped());
+
+    }
+
+}
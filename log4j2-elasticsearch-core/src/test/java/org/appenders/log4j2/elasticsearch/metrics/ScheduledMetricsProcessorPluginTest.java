@@ -24,6 +24,8 @@ import org.apache.logging.log4j.core.config.ConfigurationException;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.Test;
 
+import javax.management.MBeanServer;
+import java.lang.management.ManagementFactory;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneId;
@@ -142,6 +144,29 @@ class ScheduledMetricsProcessorPluginTest {
 
     }
 
+    @Test
+    public void builderExposesRegisteredMetricsViaJmxIfConfigured() {
+
+        // given
+        final String componentName = UUID.randomUUID().toString();
+        final ScheduledMetricsProcessorPlugin plugin = createDefaultTestMetricProcessorBuilder()
+                .withJmx(true)
+                .build();
+
+        final Measured measured = registry -> registry.register(new CountMetric(new Metric.Key(componentName, "test-metric", "count")));
+
+        // when
+        plugin.register(measured);
+
+        // then
+        final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        assertTrue(mBeanServer.isRegistered(JmxMetricsRegistry.objectName(componentName)));
+
+        plugin.reset();
+        assertFalse(mBeanServer.isRegistered(JmxMetricsRegistry.objectName(componentName)));
+
+    }
+
     private ScheduledMetricsProcessorPlugin.Builder createDefaultTestMetricProcessorBuilder() {
         final MetricsRegistry registry = new BasicMetricsRegistry();
         final MetricOutput metricOutput = spy(MetricOutputTest.dummy());
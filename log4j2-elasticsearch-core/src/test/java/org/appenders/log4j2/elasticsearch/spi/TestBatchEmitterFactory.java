@@ -27,6 +27,7 @@ import org.appenders.log4j2.elasticsearch.BulkEmitter;
 import org.appenders.log4j2.elasticsearch.ClientObjectFactory;
 import org.appenders.log4j2.elasticsearch.FailoverPolicy;
 import org.appenders.log4j2.elasticsearch.TestHttpObjectFactory;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsFactory;
 import org.mockito.Mockito;
 
 public class TestBatchEmitterFactory extends BatchEmitterServiceProvider implements BatchEmitterFactory<BatchEmitter> {
@@ -60,4 +61,9 @@ public class TestBatchEmitterFactory extends BatchEmitterServiceProvider impleme
         }
         return spiedEmitter;
     }
+
+    @Override
+    public BatchEmitter createInstance(int batchSize, int deliveryInterval, ClientObjectFactory clientObjectFactory, FailoverPolicy failoverPolicy, String name, MetricsFactory metricsFactory) {
+        return createInstance(batchSize, deliveryInterval, clientObjectFactory, failoverPolicy);
+    }
 }
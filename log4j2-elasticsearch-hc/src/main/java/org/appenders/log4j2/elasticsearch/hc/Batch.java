@@ -25,5 +25,26 @@ import java.util.Collection;
 public interface Batch<I> extends Request {
     Collection<I> getItems();
     int size();
+
+    /**
+     * Allows to share this batch. Each call MUST be matched with an additional {@link #completed()} call.
+     */
+    void retain();
+
     void completed();
+
+    /**
+     * @return epoch millis at which the oldest item of this batch was added, 0 if not known
+     */
+    default long getOldestItemTimestamp() {
+        return 0;
+    }
+
+    /**
+     * @return time spent on serialization of this batch in microseconds, 0 if not serialized yet
+     */
+    default long getSerializeTookMicros() {
+        return 0;
+    }
+
 }
@@ -27,11 +27,15 @@ import org.appenders.log4j2.elasticsearch.Deserializer;
 import org.appenders.log4j2.elasticsearch.ItemSource;
 import org.appenders.log4j2.elasticsearch.JacksonSerializer;
 import org.appenders.log4j2.elasticsearch.Serializer;
+import org.appenders.log4j2.elasticsearch.jfr.FlightRecorderEvents;
 import org.appenders.log4j2.elasticsearch.util.UriUtil;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.appenders.log4j2.elasticsearch.QueueFactory.getQueueFactoryInstance;
 
@@ -44,9 +48,15 @@ public class BatchRequest implements Batch<IndexRequest> {
 
     public static final String HTTP_METHOD_NAME = "POST";
     public static final char LINE_SEPARATOR = '\n';
+    private static final byte[] ID_FIELD_PREFIX = "\"_id\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ID_FIELD_SUFFIX = "\",".getBytes(StandardCharsets.US_ASCII);
     private final Serializer<Object> itemSerializer;
     private final Deserializer<BatchResult> resultDeserializer;
     private ItemSource<ByteBuf> buffer;
+    private final AtomicInteger refCnt = new AtomicInteger(1);
+    private volatile boolean serialized;
+    private long serializeTookMicros;
+    private final long oldestItemTimestamp;
 
     protected final Collection<IndexRequest> indexRequests;
     private final int size;
@@ -59,28 +69,45 @@ public class BatchRequest implements Batch<IndexRequest> {
         this.resultDeserializer = builder.resultDeserializer;
         this.buffer = builder.buffer;
         this.uri = builder.uriBuilder.toString();
+        this.oldestItemTimestamp = builder.oldestItemTimestamp;
     }
 
     /**
-     * Serializes and writes {@link #indexRequests} into {@link #buffer}
+     * Serializes and writes {@link #indexRequests} into {@link #buffer}.
+     * If all items target the same index, first action is serialized once and IDs (if any) are spliced into it.
+     * Subsequent calls return the same buffer without serializing again, so the request can be sent more than once.
      *
      * @return underlying buffer filled with serialized indexRequests
      * @throws IOException if serialization failed
      */
     public ItemSource serialize() throws Exception {
 
+        if (serialized) {
+            return buffer;
+        }
+
+        final long start = System.nanoTime();
         final ByteBufOutputStream byteBufOutputStream = new ByteBufOutputStream(buffer.getSource());
 
-        // in current impl with no IDs, it's possible to reduce serialization by reusing first action
-        IndexRequest identicalAction = uniformAction(indexRequests);
-        byte[] actionTemplate = identicalAction != null ? itemSerializer.writeAsBytes(identicalAction) : null;
+        // if items are uniform, it's possible to reduce serialization by reusing first action and splicing IDs into it
+        final IndexRequest identicalAction = uniformAction(indexRequests);
+        final byte[] actionTemplate = identicalAction != null ? itemSerializer.writeAsBytes(withoutId(identicalAction)) : null;
+        final int idOffset = idOffset(actionTemplate);
 
         for (IndexRequest action : indexRequests) {
 
             if (actionTemplate == null) {
-                itemSerializer.write(byteBufOutputStream, action);
-            } else {
+                writeAction(byteBufOutputStream, action);
+            } else if (action.getId() == null) {
                 byteBufOutputStream.write(actionTemplate);
+            } else if (idOffset != -1 && canSplice(action.getId())) {
+                byteBufOutputStream.write(actionTemplate, 0, idOffset);
+                byteBufOutputStream.write(ID_FIELD_PREFIX);
+                byteBufOutputStream.writeBytes(action.getId());
+                byteBufOutputStream.write(ID_FIELD_SUFFIX);
+                byteBufOutputStream.write(actionTemplate, idOffset, actionTemplate.length - idOffset);
+            } else {
+                itemSerializer.write(byteBufOutputStream, action);
             }
             byteBufOutputStream.writeByte(LINE_SEPARATOR);
 
@@ -90,6 +117,12 @@ public class BatchRequest implements Batch<IndexRequest> {
 
         }
 
+        final long serializeTookNanos = System.nanoTime() - start;
+        serializeTookMicros = TimeUnit.NANOSECONDS.toMicros(serializeTookNanos);
+        serialized = true;
+
+        FlightRecorderEvents.batchSerialized(size, buffer.getSource().readableBytes(), serializeTookNanos);
+
         return buffer;
 
     }
@@ -98,6 +131,79 @@ public class BatchRequest implements Batch<IndexRequest> {
         return resultDeserializer.read(responseBody);
     }
 
+    /**
+     * Writes metadata of given action. Used if items in this batch are not uniform, see {@link #uniformAction(Collection)}.
+     *
+     * @param byteBufOutputStream output
+     * @param action action to write
+     * @throws Exception if serialization failed
+     */
+    protected void writeAction(final ByteBufOutputStream byteBufOutputStream, final IndexRequest action) throws Exception {
+        itemSerializer.write(byteBufOutputStream, action);
+    }
+
+    /**
+     * @param action action to copy
+     * @return given action if it has no ID, otherwise copy of given action without ID
+     */
+    IndexRequest withoutId(final IndexRequest action) {
+
+        if (action.id == null) {
+            return action;
+        }
+
+        return new IndexRequest.Builder(action.source)
+                .index(action.index)
+                .type(action.type)
+                .build();
+
+    }
+
+    /**
+     * Serialized action is expected to be a single, non-empty, nested object, e.g. <code>{"index":{"_index":"log4j2"}}</code>.
+     * ID is written as the first field of nested object - same as serializer would do.
+     *
+     * @param actionTemplate serialized action without ID
+     * @return position at which ID can be written, -1 if given template is not recognized
+     */
+    static int idOffset(final byte[] actionTemplate) {
+
+        if (actionTemplate == null || actionTemplate.length < 2 || actionTemplate[0] != '{') {
+            return -1;
+        }
+
+        final int last = actionTemplate.length - 1;
+        if (actionTemplate[last] != '}' || actionTemplate[last - 1] != '}') {
+            return -1;
+        }
+
+        for (int i = 1; i < last; i++) {
+            if (actionTemplate[i] == '{') {
+                return actionTemplate[i + 1] == '"' ? i + 1 : -1;
+            }
+        }
+
+        return -1;
+
+    }
+
+    /**
+     * @param id document ID
+     * @return true, if given ID can be written as is, false if it requires JSON escaping
+     */
+    static boolean canSplice(final String id) {
+
+        for (int i = 0; i < id.length(); i++) {
+            final char c = id.charAt(i);
+            if (c < 0x20 || c > 0x7e || c == '"' || c == '\\') {
+                return false;
+            }
+        }
+
+        return true;
+
+    }
+
     /**
      * Checks if all items in given collection are equal
      * ({@link IndexRequest#index} and {@link IndexRequest#type} are the same for all elements)
@@ -130,11 +236,25 @@ public class BatchRequest implements Batch<IndexRequest> {
     }
 
     /**
-     * Clears underlying collection of indexRequests and releases all {@link ItemSource} instances.
+     * Increments the number of {@link #completed()} calls required to release this request.
+     * MUST be called before this request is handed over to another party, e.g. sent again.
+     */
+    @Override
+    public void retain() {
+        refCnt.incrementAndGet();
+    }
+
+    /**
+     * Clears underlying collection of indexRequests and releases all {@link ItemSource} instances
+     * once every {@link #retain()} call was matched with a call to this method.
      * <p>MUST be called when request is completed. Otherwise it may lead to excessive resource usage and memory leaks
      */
     public void completed() {
 
+        if (refCnt.decrementAndGet() != 0) {
+            return;
+        }
+
         for (IndexRequest indexRequest : indexRequests) {
             indexRequest.completed();
         }
@@ -158,6 +278,16 @@ public class BatchRequest implements Batch<IndexRequest> {
         return size;
     }
 
+    @Override
+    public long getOldestItemTimestamp() {
+        return oldestItemTimestamp;
+    }
+
+    @Override
+    public long getSerializeTookMicros() {
+        return serializeTookMicros;
+    }
+
     @Override
     public String getURI() {
         return uri;
@@ -178,6 +308,7 @@ public class BatchRequest implements Batch<IndexRequest> {
         private ItemSource<ByteBuf> buffer;
         private Serializer<Object> itemSerializer;
         private Deserializer<BatchResult> resultDeserializer;
+        private long oldestItemTimestamp;
 
         public Builder() {
             this(getQueueFactoryInstance(BatchRequest.class.getSimpleName()).tryCreateMpscQueue(INITIAL_SIZE));
@@ -264,6 +395,15 @@ public class BatchRequest implements Batch<IndexRequest> {
             return this;
         }
 
+        /**
+         * @param oldestItemTimestamp epoch millis at which the oldest item of this batch was added
+         * @return this
+         */
+        public Builder withOldestItemTimestamp(final long oldestItemTimestamp) {
+            this.oldestItemTimestamp = oldestItemTimestamp;
+            return this;
+        }
+
     }
 
 }
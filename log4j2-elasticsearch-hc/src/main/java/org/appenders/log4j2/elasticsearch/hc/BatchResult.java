@@ -37,6 +37,7 @@ public class BatchResult implements Response {
     private final Error error;
     private final int statusCode;
     private final List<BatchItemResult> items;
+    private BatchItemFailures failedItems;
     private String errorMessage;
     private int responseCode;
 
@@ -71,6 +72,13 @@ public class BatchResult implements Response {
         return items;
     }
 
+    /**
+     * @return failed items recorded by {@link BatchResultDeserializer}, null if not available
+     */
+    public BatchItemFailures getFailedItems() {
+        return failedItems;
+    }
+
     @Override
     public int getResponseCode() {
         return responseCode;
@@ -86,7 +94,20 @@ public class BatchResult implements Response {
         return this;
     }
 
+    /**
+     * @param failedItems failed items recorded while reading the response
+     * @return this
+     */
+    public BatchResult withFailedItems(final BatchItemFailures failedItems) {
+        this.failedItems = failedItems;
+        return this;
+    }
+
     private StringBuilder appendFailedItemErrorMessageIfAvailable(final StringBuilder sb) {
+        if (failedItems != null) {
+            return appendFirstFailedItemErrorMessage(sb, failedItems.getFirstError());
+        }
+
         if (getItems() == null) {
             return sb.append(UNABLE_TO_GET_MORE_INFO);
         }
@@ -96,8 +117,16 @@ public class BatchResult implements Response {
             return sb.append(UNABLE_TO_GET_MORE_INFO);
         }
 
+        return appendFirstFailedItemErrorMessage(sb, firstFailedItem.get().getError());
+    }
+
+    private StringBuilder appendFirstFailedItemErrorMessage(final StringBuilder sb, final Error firstError) {
+        if (firstError == null) {
+            return sb.append(UNABLE_TO_GET_MORE_INFO);
+        }
+
         sb.append(FIRST_FAILED_ITEM_PREFIX);
-        return firstFailedItem.get().getError().appendErrorMessage(sb, ERROR_MAX_STACK_DEPTH);
+        return firstError.appendErrorMessage(sb, ERROR_MAX_STACK_DEPTH);
     }
 
     public BatchResult withErrorMessage(String errorMessage) {
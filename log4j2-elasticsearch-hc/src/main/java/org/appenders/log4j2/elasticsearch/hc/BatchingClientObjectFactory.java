@@ -24,10 +24,14 @@ import org.appenders.log4j2.elasticsearch.ClientObjectFactory;
 import org.appenders.log4j2.elasticsearch.ClientProvider;
 import org.appenders.log4j2.elasticsearch.FailoverPolicy;
 import org.appenders.log4j2.elasticsearch.LifeCycle;
+import org.appenders.log4j2.elasticsearch.OpSource;
 import org.appenders.log4j2.elasticsearch.Operation;
+import org.appenders.log4j2.elasticsearch.ParallelSetup;
+import org.appenders.log4j2.elasticsearch.SetupOperationCache;
 import org.appenders.log4j2.elasticsearch.backoff.BackoffPolicy;
 import org.appenders.log4j2.elasticsearch.backoff.NoopBackoffPolicy;
 import org.appenders.log4j2.elasticsearch.failover.FailedItemOps;
+import org.appenders.log4j2.elasticsearch.hc.discovery.ServerInfo;
 import org.appenders.log4j2.elasticsearch.metrics.DefaultMetricsFactory;
 import org.appenders.log4j2.elasticsearch.metrics.Measured;
 import org.appenders.log4j2.elasticsearch.metrics.Metric;
@@ -37,6 +41,8 @@ import org.appenders.log4j2.elasticsearch.metrics.Metrics;
 import org.appenders.log4j2.elasticsearch.metrics.MetricsFactory;
 import org.appenders.log4j2.elasticsearch.metrics.MetricsRegistry;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -44,6 +50,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 import static org.appenders.core.logging.InternalLogging.getLogger;
@@ -56,16 +63,23 @@ public abstract class BatchingClientObjectFactory<BATCH_TYPE extends Batch<ITEM_
     protected final HttpClientProvider clientProvider;
     protected final FailedItemOps<ITEM_TYPE> failedItemOps;
     protected final BackoffPolicy<BATCH_TYPE> backoffPolicy;
+    protected final HedgedDelivery hedgedDelivery;
+    protected final ParallelSetup parallelSetup;
 
     protected final BatchingClientMetrics metrics;
 
     private final ConcurrentLinkedQueue<Operation> operations = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+    private final AtomicLong inFlightItemCount = new AtomicLong();
+    private volatile Runnable onBatchCompleted = () -> {};
 
 
     public BatchingClientObjectFactory(BatchingClientObjectFactory.Builder<BATCH_TYPE, ITEM_TYPE> builder) {
         this.clientProvider = builder.clientProvider;
         this.failedItemOps = builder.failedItemOps;
         this.backoffPolicy = builder.backoffPolicy;
+        this.hedgedDelivery = builder.hedgedDelivery;
+        this.parallelSetup = builder.parallelSetup;
         // TODO: consider builder.metrics for better extensions support in future releases
         this.metrics = new BatchingClientMetrics(builder.name, builder.metricsFactory);
     }
@@ -120,6 +134,17 @@ public abstract class BatchingClientObjectFactory<BATCH_TYPE extends Batch<ITEM_
             @Override
             public Boolean apply(BATCH_TYPE request) {
 
+                long oldestItemTimestamp = request.getOldestItemTimestamp();
+                if (oldestItemTimestamp > 0) {
+                    metrics.queueDwellMs(System.currentTimeMillis() - oldestItemTimestamp);
+                }
+
+                // hold batches until setup is completed, see ParallelSetup.awaitCompletion() for limits
+                // failed setup operations are added to before-batch operations, so they have to be completed first
+                if (parallelSetup != null) {
+                    parallelSetup.awaitCompletion();
+                }
+
                 // FIXME: Wrap in a queue of some sort.. BatchPhaseQueue?
                 //        The goal is to have: beforeBatchQueue().executeAll() or queue.beforeBatch().execute() or similar
                 //        This should pave the way for before/on/afterBatch style handling
@@ -132,7 +157,8 @@ public abstract class BatchingClientObjectFactory<BATCH_TYPE extends Batch<ITEM_
                     }
                 }
 
-                if (backoffPolicy.shouldApply(request)) {
+                HttpClient client = createClient();
+                if (backoffPolicy.shouldApply(request) || client.isSaturated()) {
 
                     getLogger().warn("Backoff applied. Batch of {} items rejected", request.size());
                     metrics.backoffApplied(1);
@@ -146,9 +172,19 @@ public abstract class BatchingClientObjectFactory<BATCH_TYPE extends Batch<ITEM_
                     backoffPolicy.register(request);
                 }
 
-                ResponseHandler<BatchResult> responseHandler = createResultHandler(request, failureHandler);
+                InFlightResponseHandler responseHandler = new InFlightResponseHandler(createResultHandler(request, failureHandler), request.size());
                 // FIXME: Batch interface shouldn't extend Request!
-                createClient().executeAsync(request, responseHandler);
+                try {
+                    if (hedgedDelivery != null) {
+                        hedgedDelivery.execute(client, request, responseHandler);
+                    } else {
+                        client.executeAsync(request, responseHandler);
+                    }
+                } catch (RuntimeException e) {
+                    // response handler will not be called, batch is not in-flight anymore
+                    responseHandler.batchCompleted();
+                    throw e;
+                }
 
                 metrics.itemsSent(request.size());
 
@@ -163,6 +199,100 @@ public abstract class BatchingClientObjectFactory<BATCH_TYPE extends Batch<ITEM_
         operations.add(operation);
     }
 
+    /**
+     * If {@link ParallelSetup} is configured, starts HTTP client and submits given operation to {@link ParallelSetup}.
+     * Operations that were not executed successfully are added with {@link #addOperation(Operation)}, in order of submission.
+     * Otherwise, given operation is added with {@link #addOperation(Operation)}
+     *
+     * @param opSource operation definition
+     * @param operation operation created from given {@code opSource}
+     */
+    @Override
+    public void addSetupOperation(OpSource opSource, Operation operation) {
+
+        if (parallelSetup == null) {
+            addOperation(operation);
+            return;
+        }
+
+        LifeCycle.of(clientProvider).start();
+        parallelSetup.submit(opSource.getType(), SetupOperationCache.key(opSource, getServerList()), operation, this::addOperation);
+
+    }
+
+    /**
+     * @return number of batches sent but not completed yet
+     */
+    @Override
+    public int getInFlightCount() {
+        return inFlightCount.get();
+    }
+
+    /**
+     * @return number of items in batches sent but not completed yet
+     */
+    @Override
+    public long getInFlightItemCount() {
+        return inFlightItemCount.get();
+    }
+
+    @Override
+    public void onBatchCompleted(Runnable listener) {
+        this.onBatchCompleted = listener;
+    }
+
+    /**
+     * Tracks in-flight batches and their items. Batch is completed after {@code delegate} has handled the response,
+     * so failed items are already redirected to failover at this point
+     */
+    private class InFlightResponseHandler implements ResponseHandler<BatchResult> {
+
+        private final ResponseHandler<BatchResult> delegate;
+        private final int itemCount;
+
+        InFlightResponseHandler(ResponseHandler<BatchResult> delegate, int itemCount) {
+            this.delegate = delegate;
+            this.itemCount = itemCount;
+            inFlightCount.incrementAndGet();
+            inFlightItemCount.addAndGet(itemCount);
+        }
+
+        @Override
+        public void completed(BatchResult result) {
+            try {
+                delegate.completed(result);
+            } finally {
+                batchCompleted();
+            }
+        }
+
+        @Override
+        public void failed(Exception ex) {
+            try {
+                delegate.failed(ex);
+            } finally {
+                batchCompleted();
+            }
+        }
+
+        @Override
+        public BatchResult deserializeResponse(InputStream inputStream) throws IOException {
+            return delegate.deserializeResponse(inputStream);
+        }
+
+        @Override
+        public void serverAcquired(ServerInfo serverInfo) {
+            delegate.serverAcquired(serverInfo);
+        }
+
+        private void batchCompleted() {
+            inFlightItemCount.addAndGet(-itemCount);
+            inFlightCount.decrementAndGet();
+            onBatchCompleted.run();
+        }
+
+    }
+
     public static abstract class Builder<BATCH_TYPE extends Batch<ITEM_TYPE>, ITEM_TYPE extends Item<?>> {
 
         private static final AtomicInteger counter = new AtomicInteger();
@@ -172,6 +302,8 @@ public abstract class BatchingClientObjectFactory<BATCH_TYPE extends Batch<ITEM_
         protected HttpClientProvider clientProvider = new HttpClientProvider(new HttpClientFactory.Builder());
         protected BackoffPolicy<BATCH_TYPE> backoffPolicy = new NoopBackoffPolicy<>();
         protected FailedItemOps<ITEM_TYPE> failedItemOps;
+        protected HedgedDelivery hedgedDelivery;
+        protected ParallelSetup parallelSetup;
         protected final MetricsFactory metricsFactory = new DefaultMetricsFactory(BatchingClientMetrics.createConfigs(false));
 
         public abstract BatchingClientObjectFactory<BATCH_TYPE, ITEM_TYPE> build();
@@ -220,6 +352,24 @@ public abstract class BatchingClientObjectFactory<BATCH_TYPE extends Batch<ITEM_
             return this;
         }
 
+        /**
+         * @param hedgedDelivery if not null, slow batches will be sent again to another server
+         * @return this
+         */
+        public Builder<BATCH_TYPE, ITEM_TYPE> withHedgedDelivery(HedgedDelivery hedgedDelivery) {
+            this.hedgedDelivery = hedgedDelivery;
+            return this;
+        }
+
+        /**
+         * @param parallelSetup if not null, setup operations will be executed concurrently, off the batch delivery thread
+         * @return this
+         */
+        public Builder<BATCH_TYPE, ITEM_TYPE> withParallelSetup(ParallelSetup parallelSetup) {
+            this.parallelSetup = parallelSetup;
+            return this;
+        }
+
         public Builder<BATCH_TYPE, ITEM_TYPE> withMetricConfig(final MetricConfig metricConfig) {
             this.metricsFactory.configure(metricConfig);
             return this;
@@ -241,6 +391,10 @@ public abstract class BatchingClientObjectFactory<BATCH_TYPE extends Batch<ITEM_
 
         addOperation(() -> LifeCycle.of(clientProvider).start());
 
+        LifeCycle.of(hedgedDelivery).start();
+
+        LifeCycle.of(parallelSetup).start();
+
         startExtensions();
 
         state = State.STARTED;
@@ -258,6 +412,10 @@ public abstract class BatchingClientObjectFactory<BATCH_TYPE extends Batch<ITEM_
 
         stopExtensions();
 
+        LifeCycle.of(parallelSetup).stop();
+
+        LifeCycle.of(hedgedDelivery).stop();
+
         LifeCycle.of(clientProvider).stop();
 
         state = State.STOPPED;
@@ -300,6 +458,10 @@ public abstract class BatchingClientObjectFactory<BATCH_TYPE extends Batch<ITEM_
         private final Metric backoffApplied;
         private final Metric batchesFailed;
         private final Metric failoverTookMs;
+        private final Metric queueDwellMs;
+        private final Metric serializeTookMicros;
+        private final Metric responseTookMs;
+        private final Metric endToEndMs;
 
         public BatchingClientMetrics(final String name, final MetricsFactory factory) {
             this.serverTookMs = factory.createMetric(name, "serverTookMs");
@@ -309,6 +471,10 @@ public abstract class BatchingClientObjectFactory<BATCH_TYPE extends Batch<ITEM_
             this.backoffApplied = factory.createMetric(name, "backoffApplied");
             this.batchesFailed = factory.createMetric(name, "batchesFailed");
             this.failoverTookMs = factory.createMetric(name, "failoverTookMs");
+            this.queueDwellMs = factory.createMetric(name, "queueDwellMs");
+            this.serializeTookMicros = factory.createMetric(name, "serializeTookMicros");
+            this.responseTookMs = factory.createMetric(name, "responseTookMs");
+            this.endToEndMs = factory.createMetric(name, "endToEndMs");
         }
 
         public static List<MetricConfig> createConfigs(final boolean enabled) {
@@ -319,7 +485,11 @@ public abstract class BatchingClientObjectFactory<BATCH_TYPE extends Batch<ITEM_
                     MetricConfigFactory.createCountConfig(enabled, "itemsFailed"),
                     MetricConfigFactory.createCountConfig(enabled, "backoffApplied"),
                     MetricConfigFactory.createCountConfig(enabled, "batchesFailed"),
-                    MetricConfigFactory.createMaxConfig(enabled, "failoverTookMs", true))
+                    MetricConfigFactory.createMaxConfig(enabled, "failoverTookMs", true),
+                    MetricConfigFactory.createMaxConfig(enabled, "queueDwellMs", true),
+                    MetricConfigFactory.createMaxConfig(enabled, "serializeTookMicros", true),
+                    MetricConfigFactory.createMaxConfig(enabled, "responseTookMs", true),
+                    MetricConfigFactory.createMaxConfig(enabled, "endToEndMs", true))
             );
         }
 
@@ -332,6 +502,10 @@ public abstract class BatchingClientObjectFactory<BATCH_TYPE extends Batch<ITEM_
             registrations.add(registry.register(backoffApplied));
             registrations.add(registry.register(batchesFailed));
             registrations.add(registry.register(failoverTookMs));
+            registrations.add(registry.register(queueDwellMs));
+            registrations.add(registry.register(serializeTookMicros));
+            registrations.add(registry.register(responseTookMs));
+            registrations.add(registry.register(endToEndMs));
         }
 
         @Override
@@ -369,6 +543,34 @@ public abstract class BatchingClientObjectFactory<BATCH_TYPE extends Batch<ITEM_
             this.failoverTookMs.store(tookMs);
         }
 
+        /**
+         * @param tookMs time between arrival of the oldest item of a batch and batch emission
+         */
+        public void queueDwellMs(long tookMs) {
+            this.queueDwellMs.store(tookMs);
+        }
+
+        /**
+         * @param tookMicros time spent on batch serialization
+         */
+        public void serializeTookMicros(long tookMicros) {
+            this.serializeTookMicros.store(tookMicros);
+        }
+
+        /**
+         * @param tookMs time between batch dispatch and response; includes serialization, network and server time
+         */
+        public void responseTookMs(long tookMs) {
+            this.responseTookMs.store(tookMs);
+        }
+
+        /**
+         * @param tookMs time between arrival of the oldest item of a batch and response
+         */
+        public void endToEndMs(long tookMs) {
+            this.endToEndMs.store(tookMs);
+        }
+
     }
 
 }
@@ -20,16 +20,32 @@ package org.appenders.log4j2.elasticsearch.hc;
  * #L%
  */
 
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import io.netty.buffer.ByteBufOutputStream;
+
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * {@link org.appenders.log4j2.elasticsearch.ByteBufItemSource}-backed /_bulk request.
  * Allows to index multiple {@link IndexRequest} documents
  * in a single request.
+ * <p>
+ * If all items target the same data stream, data stream name is a part of the URI and each action is written as <code>{"create":{}}</code>.
+ * Otherwise, request is sent to /_bulk and each action names its target data stream, e.g. <code>{"create":{"_index":"logs-app1"}}</code>,
+ * so a single batch can carry documents for multiple data streams.
  */
 public class DataStreamBatchRequest extends BatchRequest {
 
+    private static final byte[] TARGETED_ACTION_PREFIX = "{\"create\":{\"_index\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TARGETED_ACTION_SUFFIX = "\"}}".getBytes(StandardCharsets.US_ASCII);
+
     private IndexRequest first;
+    private boolean uniform;
+    private boolean uniformityChecked;
+    private Map<String, byte[]> quotedTargets;
 
     protected DataStreamBatchRequest(Builder builder) {
         super(builder);
@@ -37,13 +53,18 @@ public class DataStreamBatchRequest extends BatchRequest {
 
     /**
      * Checks if all items in given collection are equal
-     * ({@link IndexRequest#index} and {@link IndexRequest#type} are the same for all elements)
+     * ({@link IndexRequest#index} is the same for all elements). Result is evaluated once per request.
      *
      * @param indexRequests collection of items to be checked
      * @return {@link IndexRequest} first action in given collection if all items are equal, null otherwise
      */
     IndexRequest uniformAction(Collection<IndexRequest> indexRequests) {
 
+        if (uniformityChecked) {
+            return uniform ? first : null;
+        }
+
+        uniform = true;
         for (IndexRequest indexRequest : indexRequests) {
 
             if (first == null) {
@@ -51,22 +72,52 @@ public class DataStreamBatchRequest extends BatchRequest {
                 continue;
             }
 
-            final boolean sameIndex = first.sameIndex(indexRequest);
-
-            if (!sameIndex) {
-                // fail fast and serialize each item
-                throw new IllegalArgumentException("Items for different indices found: " + first.getIndex() + " != " + indexRequest.getIndex());
+            if (!first.sameIndex(indexRequest)) {
+                // multiple data streams; each action has to name its target
+                uniform = false;
+                break;
             }
 
         }
 
-        return first;
+        uniformityChecked = true;
+
+        return uniform ? first : null;
+
+    }
+
+    /**
+     * Writes <code>{"create":{"_index":"..."}}</code> action. Quoted target names are reused within this request.
+     *
+     * @param byteBufOutputStream output
+     * @param action action to write
+     */
+    @Override
+    protected void writeAction(final ByteBufOutputStream byteBufOutputStream, final IndexRequest action) throws Exception {
+
+        if (quotedTargets == null) {
+            quotedTargets = new HashMap<>();
+        }
+
+        byteBufOutputStream.write(TARGETED_ACTION_PREFIX);
+        byteBufOutputStream.write(quotedTargets.computeIfAbsent(action.getIndex(), target -> JsonStringEncoder.getInstance().quoteAsUTF8(target)));
+        byteBufOutputStream.write(TARGETED_ACTION_SUFFIX);
 
     }
 
+    /**
+     * @return <code>&lt;data stream&gt;/_bulk</code> if all items target the same data stream, <code>/_bulk</code> otherwise
+     */
     @Override
     public String getURI() {
-        return uniformAction(indexRequests).getIndex() + uri;
+
+        final IndexRequest uniformAction = uniformAction(indexRequests);
+        if (uniformAction == null) {
+            return uri;
+        }
+
+        return uniformAction.getIndex() + uri;
+
     }
 
     @Override
@@ -0,0 +1,78 @@
+package org.appenders.log4j2.elasticsearch.hc;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.appenders.log4j2.elasticsearch.BatchEmitterFactory;
+import org.appenders.log4j2.elasticsearch.ClientObjectFactory;
+import org.appenders.log4j2.elasticsearch.DisruptorBatchEmitter;
+import org.appenders.log4j2.elasticsearch.FailoverPolicy;
+import org.appenders.log4j2.elasticsearch.metrics.DefaultMetricsFactory;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsFactory;
+
+/**
+ * Creates {@link DisruptorBatchEmitter} if {@code com.lmax:disruptor} is available.
+ * <p>
+ * Not selected by default. Set {@code -Dappenders.DisruptorBatchEmitterFactory.loadingOrder} lower than loading order of other available factories to use it.
+ */
+public class DisruptorBatchEmitterFactory implements BatchEmitterFactory<DisruptorBatchEmitter> {
+
+    static final String DISRUPTOR_CLASS_NAME = "com.lmax.disruptor.dsl.Disruptor";
+
+    @Override
+    public boolean accepts(final Class clientObjectFactoryClass) {
+        return HCHttp.class.isAssignableFrom(clientObjectFactoryClass) && isDisruptorAvailable();
+    }
+
+    /**
+     * @return By default, {@link BatchEmitterFactory#DEFAULT_LOADING_ORDER} + 11. Can be overridden with {@code -Dappenders.DisruptorBatchEmitterFactory.loadingOrder}
+     */
+    @Override
+    public int loadingOrder() {
+        final String priority = System.getProperty("appenders." + DisruptorBatchEmitterFactory.class.getSimpleName() + ".loadingOrder");
+        if (priority == null) {
+            return DEFAULT_LOADING_ORDER + 11;
+        }
+        return Integer.parseInt(priority);
+    }
+
+    @Override
+    public DisruptorBatchEmitter createInstance(final int batchSize, final int deliveryInterval, final ClientObjectFactory clientObjectFactory, final FailoverPolicy failoverPolicy) {
+        return createInstance(batchSize, deliveryInterval, clientObjectFactory, failoverPolicy, DisruptorBatchEmitter.class.getSimpleName(), new DefaultMetricsFactory(DisruptorBatchEmitter.metricConfigs(false)));
+    }
+
+    @Override
+    public DisruptorBatchEmitter createInstance(final int batchSize, final int deliveryInterval, final ClientObjectFactory clientObjectFactory, final FailoverPolicy failoverPolicy, final String name, final MetricsFactory metricsFactory) {
+        final DisruptorBatchEmitter batchEmitter = new DisruptorBatchEmitter(name, batchSize, deliveryInterval, clientObjectFactory.createBatchOperations(), metricsFactory);
+        batchEmitter.addListener(clientObjectFactory.createBatchListener(failoverPolicy));
+        return batchEmitter;
+    }
+
+    /* visible for testing */
+    boolean isDisruptorAvailable() {
+        try {
+            Class.forName(DISRUPTOR_CLASS_NAME, false, getClass().getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+}
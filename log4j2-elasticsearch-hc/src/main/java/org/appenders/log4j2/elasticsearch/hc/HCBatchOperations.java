@@ -45,7 +45,7 @@ public class HCBatchOperations implements BatchOperations<BatchRequest>, LifeCyc
     @Deprecated
     public HCBatchOperations(final PooledItemSourceFactory batchBufferFactory, final String mappingType) {
         this.batchBufferFactory = batchBufferFactory;
-        this.builderFactory = new ElasticsearchBulkAPI(mappingType, null);
+        this.builderFactory = new ElasticsearchBulkAPI(mappingType, ElasticsearchBulkAPI.DEFAULT_FILTER_PATH);
 
         // bad decisions pit..
         this.mappingType = mappingType;
@@ -97,6 +97,11 @@ public class HCBatchOperations implements BatchOperations<BatchRequest>, LifeCyc
                 builder.add(item);
             }
 
+            @Override
+            public void oldestItemTimestamp(long timestamp) {
+                builder.withOldestItemTimestamp(timestamp);
+            }
+
             @Override
             public BatchRequest build() {
                 return builder.build();
@@ -25,7 +25,9 @@ import org.appenders.log4j2.elasticsearch.LifeCycle;
 import org.appenders.log4j2.elasticsearch.OperationFactory;
 import org.appenders.log4j2.elasticsearch.backoff.BackoffPolicy;
 import org.appenders.log4j2.elasticsearch.failover.FailedItemOps;
+import org.appenders.log4j2.elasticsearch.hc.discovery.ServerInfo;
 import org.appenders.log4j2.elasticsearch.hc.failover.HCFailedItemOps;
+import org.appenders.log4j2.elasticsearch.jfr.FlightRecorderEvents;
 import org.appenders.log4j2.elasticsearch.metrics.Measured;
 import org.appenders.log4j2.elasticsearch.metrics.MetricConfig;
 import org.appenders.log4j2.elasticsearch.metrics.MetricsRegistry;
@@ -157,6 +159,8 @@ public class HCHttp extends BatchingClientObjectFactory<BatchRequest, IndexReque
 
         private final BatchRequest request;
         private final Function<BatchRequest, Boolean> failureHandler;
+        private final long sentTimestamp = System.currentTimeMillis();
+        private volatile String node;
 
         public HCResponseHandler(final BatchRequest request, final Function<BatchRequest, Boolean> failureHandler) {
 
@@ -167,7 +171,22 @@ public class HCHttp extends BatchingClientObjectFactory<BatchRequest, IndexReque
         @Override
         public void completed(BatchResult result) {
 
+            final long completedTimestamp = System.currentTimeMillis();
+
             metrics.serverTookMs(result.getTook());
+            metrics.responseTookMs(completedTimestamp - sentTimestamp);
+            metrics.serializeTookMicros(request.getSerializeTookMicros());
+            if (request.getOldestItemTimestamp() > 0) {
+                metrics.endToEndMs(completedTimestamp - request.getOldestItemTimestamp());
+            }
+
+            FlightRecorderEvents.bulkRequestCompleted(
+                    node,
+                    result.getResponseCode(),
+                    result.getTook(),
+                    completedTimestamp - sentTimestamp,
+                    request.size(),
+                    result.isSucceeded());
 
             if (!result.isSucceeded()) {
                 // TODO: filter only failed indexRequests when retry is ready.
@@ -187,6 +206,14 @@ public class HCHttp extends BatchingClientObjectFactory<BatchRequest, IndexReque
 
             getLogger().warn(ex.getMessage(), ex);
 
+            FlightRecorderEvents.bulkRequestCompleted(
+                    node,
+                    0,
+                    0,
+                    System.currentTimeMillis() - sentTimestamp,
+                    request.size(),
+                    false);
+
             backoffPolicy.deregister(request);
 
             failureHandler.apply(request);
@@ -199,6 +226,11 @@ public class HCHttp extends BatchingClientObjectFactory<BatchRequest, IndexReque
             return request.deserialize(responseBody);
         }
 
+        @Override
+        public void serverAcquired(ServerInfo serverInfo) {
+            this.node = serverInfo.getResolvedAddress();
+        }
+
     }
 
 }
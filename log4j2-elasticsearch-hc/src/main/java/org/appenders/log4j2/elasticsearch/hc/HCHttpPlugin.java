@@ -34,6 +34,7 @@ import org.appenders.log4j2.elasticsearch.Deserializer;
 import org.appenders.log4j2.elasticsearch.ItemSourceFactory;
 import org.appenders.log4j2.elasticsearch.JacksonDeserializer;
 import org.appenders.log4j2.elasticsearch.Log4j2Lookup;
+import org.appenders.log4j2.elasticsearch.ParallelSetup;
 import org.appenders.log4j2.elasticsearch.PooledItemSourceFactory;
 import org.appenders.log4j2.elasticsearch.ValueResolver;
 import org.appenders.log4j2.elasticsearch.backoff.BackoffPolicy;
@@ -85,6 +86,9 @@ public class HCHttpPlugin extends HCHttp {
         @PluginBuilderAttribute
         protected int maxTotalConnections = 8;
 
+        @PluginBuilderAttribute
+        protected int maxConnectionsPerServer;
+
         @PluginBuilderAttribute
         protected int ioThreadCount = Runtime.getRuntime().availableProcessors();
 
@@ -112,9 +116,19 @@ public class HCHttpPlugin extends HCHttp {
 
         @PluginElement("serviceDiscovery")
         protected ServiceDiscoveryFactory<HttpClient> serviceDiscoveryFactory;
+
+        @PluginElement(HedgedDelivery.ELEMENT_TYPE)
+        protected HedgedDelivery hedgedDelivery;
+
+        @PluginElement(ParallelSetup.ELEMENT_TYPE)
+        protected ParallelSetup parallelSetup;
+
         @PluginBuilderAttribute
         private String name = HCHttp.class.getSimpleName();
 
+        @PluginBuilderAttribute
+        protected String sharedClientName;
+
         @PluginElement("metricsFactory")
         private final MetricsFactory metricsFactory = new DefaultMetricsFactory(Collections.emptyList());
 
@@ -132,6 +146,8 @@ public class HCHttpPlugin extends HCHttp {
                     .withOperationFactory(createOperationFactory(clientProvider))
                     .withClientProvider(clientProvider)
                     .withBackoffPolicy(backoffPolicy == null ? new NoopBackoffPolicy<>() : backoffPolicy)
+                    .withHedgedDelivery(hedgedDelivery)
+                    .withParallelSetup(parallelSetup)
                     .withName(name);
 
             // Don't allow factory replacement yet. Maybe in future releases?
@@ -185,6 +201,7 @@ public class HCHttpPlugin extends HCHttp {
                     .withConnTimeout(connTimeout)
                     .withReadTimeout(readTimeout)
                     .withMaxTotalConnections(maxTotalConnections)
+                    .withMaxConnectionsPerServer(maxConnectionsPerServer)
                     .withIoThreadCount(ioThreadCount)
                     .withPooledResponseBuffers(pooledResponseBuffers)
                     .withPooledResponseBuffersSizeInBytes(pooledResponseBuffersSizeInBytes)
@@ -194,7 +211,9 @@ public class HCHttpPlugin extends HCHttp {
         protected HttpClientProvider createClientProvider() {
 
             HttpClientFactory.Builder mainClientFactoryBuilder = createHttpClientFactoryBuilder();
-            HttpClientProvider mainClientProvider = new HttpClientProvider(mainClientFactoryBuilder);
+            HttpClientProvider mainClientProvider = sharedClientName == null
+                    ? new HttpClientProvider(mainClientFactoryBuilder)
+                    : new SharedHttpClientProvider(sharedClientName, mainClientFactoryBuilder);
 
             if (this.serviceDiscoveryFactory != null) {
                 mainClientFactoryBuilder.withServiceDiscovery(serviceDiscoveryFactory.create(mainClientProvider));
@@ -226,6 +245,11 @@ public class HCHttpPlugin extends HCHttp {
             return this;
         }
 
+        public Builder withMaxConnectionsPerServer(int maxConnectionsPerServer) {
+            this.maxConnectionsPerServer = maxConnectionsPerServer;
+            return this;
+        }
+
         public Builder withConnTimeout(int connTimeout) {
             this.connTimeout = connTimeout;
             return this;
@@ -297,6 +321,30 @@ public class HCHttpPlugin extends HCHttp {
             return this;
         }
 
+        public Builder withHedgedDelivery(HedgedDelivery hedgedDelivery) {
+            this.hedgedDelivery = hedgedDelivery;
+            return this;
+        }
+
+        /**
+         * @param parallelSetup if not null, setup operations will be executed concurrently, off the batch delivery thread
+         * @return this
+         */
+        public Builder withParallelSetup(ParallelSetup parallelSetup) {
+            this.parallelSetup = parallelSetup;
+            return this;
+        }
+
+        /**
+         * @param sharedClientName if not null, HTTP client with given name will be shared with other {@link HCHttp}s configured with the same {@code sharedClientName}.
+         *                         Client is created with config of the first one
+         * @return this
+         */
+        public Builder withSharedClientName(final String sharedClientName) {
+            this.sharedClientName = sharedClientName;
+            return this;
+        }
+
         public Builder withName(String name) {
             this.name = name;
             return this;
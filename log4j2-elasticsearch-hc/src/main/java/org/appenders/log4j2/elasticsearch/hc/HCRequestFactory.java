@@ -67,7 +67,8 @@ public class HCRequestFactory implements RequestFactory<HttpUriRequest> {
 
         try {
             final ItemSource serialize = request.serialize();
-            final ByteBuf byteBuf = (ByteBuf) serialize.getSource();
+            // independent indices, so the same request can be sent more than once
+            final ByteBuf byteBuf = ((ByteBuf) serialize.getSource()).duplicate();
 
             return new ByteBufEntityBuilder()
                     .setByteBuf(byteBuf)
@@ -0,0 +1,282 @@
+package org.appenders.log4j2.elasticsearch.hc;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.appenders.log4j2.elasticsearch.LifeCycle;
+import org.appenders.log4j2.elasticsearch.hc.discovery.ServerInfo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.appenders.core.logging.InternalLogging.getLogger;
+
+/**
+ * Sends the same batch to another server if the first attempt takes longer than configured percentile of recent delivery latencies.
+ * First successful response is passed to the original {@link ResponseHandler}. Responses of remaining attempts are discarded.
+ * <p>Batch items SHOULD have deterministic ids (see {@link org.appenders.log4j2.elasticsearch.IdGenerator}).
+ * Otherwise, documents delivered by both attempts will be indexed twice.
+ * <p>No batches are hedged until enough latency samples are collected.
+ */
+public class HedgedDelivery implements LifeCycle {
+
+    public static final String ELEMENT_TYPE = "hedgedDelivery";
+
+    private static final String NAME = HedgedDelivery.class.getSimpleName();
+
+    static final int MIN_SAMPLES = 100;
+    static final long REFRESH_INTERVAL_MILLIS = 1000;
+
+    private volatile State state = State.STOPPED;
+
+    private final double percentile;
+    private final long minDelayMillis;
+    private final long[] samples;
+    private final long[] sortedSamples;
+    private final AtomicLong sampleCount = new AtomicLong();
+    private volatile long thresholdMillis = -1;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param percentile percentile of recent latencies after which batch is sent again, (0, 100]
+     * @param minDelayMillis min. millis before batch can be sent again
+     * @param sampleSize number of recent latencies to track
+     */
+    public HedgedDelivery(final double percentile, final long minDelayMillis, final int sampleSize) {
+        this.percentile = percentile;
+        this.minDelayMillis = minDelayMillis;
+        this.samples = new long[sampleSize];
+        this.sortedSamples = new long[sampleSize];
+    }
+
+    /**
+     * Executes given batch and schedules its second attempt if hedging threshold is available.
+     *
+     * @param client client to use
+     * @param batch batch to execute
+     * @param responseHandler handler notified once, with the first successful response or with the last failure
+     */
+    public void execute(final HttpClient client, final Batch<?> batch, final ResponseHandler<BatchResult> responseHandler) {
+        new HedgedExecution(client, batch, responseHandler).execute();
+    }
+
+    /**
+     * @return millis after which batch is sent again, -1 if not available yet
+     */
+    long delayMillis() {
+
+        final long threshold = thresholdMillis;
+        if (threshold < 0) {
+            return -1;
+        }
+
+        return Math.max(threshold, minDelayMillis);
+
+    }
+
+    void record(final long latencyMillis) {
+        samples[(int) (sampleCount.getAndIncrement() % samples.length)] = latencyMillis;
+    }
+
+    /**
+     * Recalculates hedging threshold from recent latencies
+     */
+    void refresh() {
+
+        final long count = sampleCount.get();
+        if (count < Math.min(MIN_SAMPLES, samples.length)) {
+            return;
+        }
+
+        final int size = (int) Math.min(count, samples.length);
+        System.arraycopy(samples, 0, sortedSamples, 0, size);
+        Arrays.sort(sortedSamples, 0, size);
+
+        final int index = (int) Math.ceil(percentile / 100 * size) - 1;
+        thresholdMillis = sortedSamples[Math.max(0, Math.min(index, size - 1))];
+
+    }
+
+    @Override
+    public void start() {
+
+        if (isStarted()) {
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setName(NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::refresh, REFRESH_INTERVAL_MILLIS, REFRESH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+        state = State.STARTED;
+
+    }
+
+    @Override
+    public void stop() {
+
+        if (isStopped()) {
+            return;
+        }
+
+        executor.shutdownNow();
+
+        state = State.STOPPED;
+
+    }
+
+    @Override
+    public boolean isStarted() {
+        return state == State.STARTED;
+    }
+
+    @Override
+    public boolean isStopped() {
+        return state == State.STOPPED;
+    }
+
+    /**
+     * Tracks attempts of a single batch. Each attempt retains the batch, so it's released once all attempts are completed.
+     */
+    private class HedgedExecution implements Runnable {
+
+        private final HttpClient client;
+        private final Batch<?> batch;
+        private final ResponseHandler<BatchResult> delegate;
+
+        private int pending = 1;
+        private boolean done;
+        private volatile ServerInfo firstServer;
+
+        HedgedExecution(final HttpClient client, final Batch<?> batch, final ResponseHandler<BatchResult> delegate) {
+            this.client = client;
+            this.batch = batch;
+            this.delegate = delegate;
+        }
+
+        void execute() {
+
+            firstServer = client.executeAsyncExcluding(batch, new Attempt(), null);
+
+            final long delay = delayMillis();
+            if (firstServer == null || delay < 0 || !isStarted()) {
+                return;
+            }
+
+            try {
+                executor.schedule(this, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                getLogger().debug("{}: Stopped. Batch will not be hedged", NAME);
+            }
+
+        }
+
+        /**
+         * Sends the batch again if it's not completed yet
+         */
+        @Override
+        public void run() {
+
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                pending++;
+                batch.retain();
+            }
+
+            getLogger().debug("{}: Batch of {} items not completed in {}ms. Sending again", NAME, batch.size(), delayMillis());
+
+            client.executeAsyncExcluding(batch, new Attempt(), firstServer);
+
+        }
+
+        void onResult(final Attempt attempt, final BatchResult result, final Exception ex) {
+
+            final boolean forward;
+            synchronized (this) {
+                pending--;
+                forward = !done && ((ex == null && result.isSucceeded()) || pending == 0);
+                if (forward) {
+                    done = true;
+                }
+            }
+
+            if (!forward) {
+                // another attempt is still in progress or already won
+                batch.completed();
+                return;
+            }
+
+            if (attempt.serverInfo != null) {
+                delegate.serverAcquired(attempt.serverInfo);
+            }
+
+            if (ex == null) {
+                delegate.completed(result);
+            } else {
+                delegate.failed(ex);
+            }
+
+        }
+
+        private class Attempt implements ResponseHandler<BatchResult> {
+
+            private final long startNanos = System.nanoTime();
+            private volatile ServerInfo serverInfo;
+
+            @Override
+            public void completed(final BatchResult result) {
+                record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                onResult(this, result, null);
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                onResult(this, null, ex);
+            }
+
+            @Override
+            public BatchResult deserializeResponse(final InputStream inputStream) throws IOException {
+                return delegate.deserializeResponse(inputStream);
+            }
+
+            @Override
+            public void serverAcquired(final ServerInfo serverInfo) {
+                // delegate is notified only about the server of the attempt that completed the batch
+                this.serverInfo = serverInfo;
+            }
+
+        }
+
+    }
+
+}
@@ -27,10 +27,13 @@ import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.apache.http.nio.client.methods.HttpAsyncMethods;
 import org.appenders.log4j2.elasticsearch.LifeCycle;
+import org.appenders.log4j2.elasticsearch.hc.discovery.ServerInfo;
 import org.appenders.log4j2.elasticsearch.metrics.Measured;
 import org.appenders.log4j2.elasticsearch.metrics.MetricsRegistry;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.appenders.core.logging.InternalLogging.getLogger;
 
@@ -77,21 +80,68 @@ public class HttpClient implements LifeCycle, Measured {
             final ResponseHandler<T> responseHandler,
             final HttpClientContext httpClientContext
     ) {
+        doExecuteAsync(request, responseHandler, httpClientContext, null);
+    }
+
+    /**
+     * Executes given request on any server other than {@code excluded}.
+     * If no other server can accept the request, {@link ResponseHandler#failed(Exception)} is called.
+     *
+     * @param request request to execute
+     * @param responseHandler response handler
+     * @param excluded server that MUST NOT be used, if null, any server may be used
+     * @param <T> response type
+     * @return server the request was sent to, null if request failed before it was sent
+     */
+    public <T extends Response> ServerInfo executeAsyncExcluding(
+            final Request request,
+            final ResponseHandler<T> responseHandler,
+            final ServerInfo excluded
+    ) {
+        return doExecuteAsync(request, responseHandler, createContextInstance(), excluded);
+    }
+
+    private <T extends Response> ServerInfo doExecuteAsync(
+            final Request request,
+            final ResponseHandler<T> responseHandler,
+            final HttpClientContext httpClientContext,
+            final ServerInfo excluded
+    ) {
 
+        ServerInfo serverInfo = null;
         HttpUriRequest clientRequest;
         try {
-            clientRequest = createClientRequest(request);
+            serverInfo = excluded == null ? serverPool.acquire() : serverPool.acquire(excluded);
+            if (serverInfo == null) {
+                throw new IllegalStateException("No servers available other than " + excluded.getResolvedAddress());
+            }
+            clientRequest = createClientRequest(serverInfo.getResolvedAddress(), request);
         } catch (Exception e) {
+            if (serverInfo != null) {
+                serverPool.release(serverInfo);
+            }
             responseHandler.failed(e);
-            return;
+            return null;
         }
 
-        FutureCallback<HttpResponse> responseCallback = createCallback(responseHandler);
-        getAsyncClient().execute(
-                HttpAsyncMethods.create(clientRequest),
-                asyncResponseConsumerFactory.create(),
-                httpClientContext,
-                responseCallback);
+        responseHandler.serverAcquired(serverInfo);
+
+        ServerReleasingResponseHandler<T> releasingHandler = new ServerReleasingResponseHandler<>(responseHandler, serverPool, serverInfo);
+        FutureCallback<HttpResponse> responseCallback = createCallback(releasingHandler);
+        try {
+            getAsyncClient().execute(
+                    HttpAsyncMethods.create(clientRequest),
+                    asyncResponseConsumerFactory.create(),
+                    httpClientContext,
+                    responseCallback);
+        } catch (RuntimeException e) {
+            // e.g. I/O reactor stopped; callback will not be called, so the server has to be released here
+            releasingHandler.release();
+            throw e;
+        }
+
+        return serverInfo;
+
     }
 
     public <T extends Response> void executeAsync(
@@ -102,7 +152,11 @@ public class HttpClient implements LifeCycle, Measured {
     }
 
     HttpUriRequest createClientRequest(final Request request) throws IOException {
-        String url = serverPool.getNext() + '/' + request.getURI();
+        return createClientRequest(serverPool.getNext(), request);
+    }
+
+    HttpUriRequest createClientRequest(final String address, final Request request) throws IOException {
+        String url = address + '/' + request.getURI();
         return (HttpUriRequest) httpRequestFactory.create(url, request);
     }
 
@@ -118,6 +172,13 @@ public class HttpClient implements LifeCycle, Measured {
         return asyncClient;
     }
 
+    /**
+     * @return true, if none of target servers can accept more requests, false otherwise
+     */
+    public boolean isSaturated() {
+        return serverPool.isSaturated();
+    }
+
     @Override
     public void start() {
 
@@ -186,4 +247,47 @@ public class HttpClient implements LifeCycle, Measured {
         Measured.of(asyncResponseConsumerFactory).deregister();
     }
 
+    /**
+     * Releases target server once the response was handled
+     *
+     * @param <T> response type
+     */
+    private static class ServerReleasingResponseHandler<T extends Response> implements ResponseHandler<T> {
+
+        private final ResponseHandler<T> delegate;
+        private final ServerPool serverPool;
+        private final ServerInfo serverInfo;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ServerReleasingResponseHandler(ResponseHandler<T> delegate, ServerPool serverPool, ServerInfo serverInfo) {
+            this.delegate = delegate;
+            this.serverPool = serverPool;
+            this.serverInfo = serverInfo;
+        }
+
+        @Override
+        public void completed(T result) {
+            release();
+            delegate.completed(result);
+        }
+
+        @Override
+        public void failed(Exception ex) {
+            release();
+            delegate.failed(ex);
+        }
+
+        @Override
+        public T deserializeResponse(InputStream inputStream) throws IOException {
+            return delegate.deserializeResponse(inputStream);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                serverPool.release(serverInfo);
+            }
+        }
+
+    }
+
 }
@@ -63,6 +63,7 @@ public class HttpClientFactory {
     protected final int connTimeout;
     protected final int readTimeout;
     protected final int maxTotalConnections;
+    protected final int maxConnectionsPerServer;
     protected final int ioThreadCount;
     protected final CredentialsProvider defaultCredentialsProvider;
     protected final LayeredConnectionSocketFactory sslSocketFactory;
@@ -80,6 +81,7 @@ public class HttpClientFactory {
         this.connTimeout = httpClientFactoryBuilder.connTimeout;
         this.readTimeout = httpClientFactoryBuilder.readTimeout;
         this.maxTotalConnections = httpClientFactoryBuilder.maxTotalConnections;
+        this.maxConnectionsPerServer = httpClientFactoryBuilder.maxConnectionsPerServer;
         this.ioThreadCount = httpClientFactoryBuilder.ioThreadCount;
         this.defaultCredentialsProvider = httpClientFactoryBuilder.defaultCredentialsProvider;
         this.plainSocketFactory = httpClientFactoryBuilder.plainSocketFactory;
@@ -101,7 +103,7 @@ public class HttpClientFactory {
         HttpAsyncResponseConsumerFactory httpAsyncResponseConsumerFactory =
                 createHttpAsyncResponseConsumerFactory();
 
-        final ServerPool serverPool = new ServerPool(new ArrayList<>(serverList));
+        final ServerPool serverPool = new ServerPool(new ArrayList<>(serverList), maxConnectionsPerServer);
         if (serviceDiscovery != null) {
             serviceDiscovery.addListener(serverPool);
         }
@@ -171,6 +173,7 @@ public class HttpClientFactory {
     protected NHttpClientConnectionManager getAsyncConnectionManager() {
         PoolingNHttpClientConnectionManager connectionManager = createUnconfiguredPoolingNHttpClientConnectionManager();
         connectionManager.setMaxTotal(maxTotalConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerServer > 0 ? maxConnectionsPerServer : maxTotalConnections);
         return connectionManager;
     }
 
@@ -228,6 +231,7 @@ public class HttpClientFactory {
         protected int connTimeout = 1000;
         protected int readTimeout = 1000;
         protected int maxTotalConnections = 1;
+        protected int maxConnectionsPerServer;
         protected int ioThreadCount = maxTotalConnections;
         protected CredentialsProvider defaultCredentialsProvider;
         protected LayeredConnectionSocketFactory sslSocketFactory;
@@ -295,6 +299,18 @@ public class HttpClientFactory {
             return this;
         }
 
+        /**
+         * Limits number of connections and in-flight requests per target server.
+         * Once all servers are saturated, {@link HttpClient#isSaturated()} returns true.
+         *
+         * @param maxConnectionsPerServer max number of connections per server. If lower or equal to 0, {@link #maxTotalConnections} is used as connection limit and in-flight requests are not limited
+         * @return this
+         */
+        public Builder withMaxConnectionsPerServer(int maxConnectionsPerServer) {
+            this.maxConnectionsPerServer = maxConnectionsPerServer;
+            return this;
+        }
+
         public Builder withIoThreadCount(int ioThreadCount) {
             this.ioThreadCount = ioThreadCount;
             return this;
@@ -362,6 +378,7 @@ public class HttpClientFactory {
                     ", connTimeout=" + connTimeout +
                     ", readTimeout=" + readTimeout +
                     ", maxTotalConnections=" + maxTotalConnections +
+                    ", maxConnectionsPerServer=" + maxConnectionsPerServer +
                     ", ioThreadCount=" + ioThreadCount +
                     ", pooledResponseBuffersEnabled=" + pooledResponseBuffersEnabled +
                     ", pooledResponseBuffersSizeInBytes=" + pooledResponseBuffersSizeInBytes +
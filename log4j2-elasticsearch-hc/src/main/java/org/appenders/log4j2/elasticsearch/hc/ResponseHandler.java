@@ -20,6 +20,8 @@ package org.appenders.log4j2.elasticsearch.hc;
  * #L%
  */
 
+import org.appenders.log4j2.elasticsearch.hc.discovery.ServerInfo;
+
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -31,5 +33,14 @@ public interface ResponseHandler<T> {
 
     T deserializeResponse(InputStream inputStream) throws IOException;
 
+    /**
+     * Called before {@link #completed(Object)} or {@link #failed(Exception)} once the target server was acquired.
+     * NOT called if the request failed before any server was acquired.
+     *
+     * @param serverInfo server the request is sent to
+     */
+    default void serverAcquired(ServerInfo serverInfo) {
+    }
+
 }
 
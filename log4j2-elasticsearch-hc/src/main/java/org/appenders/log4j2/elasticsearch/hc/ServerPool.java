@@ -24,7 +24,9 @@ import org.appenders.log4j2.elasticsearch.hc.discovery.ServerInfo;
 import org.appenders.log4j2.elasticsearch.hc.discovery.ServerInfoListener;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -33,7 +35,7 @@ import java.util.concurrent.locks.LockSupport;
 import static org.appenders.core.logging.InternalLogging.getLogger;
 
 /**
- * Stores a list of target nodes.
+ * Stores a list of target nodes and tracks number of in-flight requests per node.
  */
 public class ServerPool implements ServerInfoListener {
 
@@ -44,8 +46,17 @@ public class ServerPool implements ServerInfoListener {
 
     private final AtomicInteger currentIndex = new AtomicInteger();
     private final AtomicReference<List<ServerInfo>> ref;
+    private final int maxInFlightPerServer;
 
     public ServerPool(List<String> addresses) {
+        this(addresses, 0);
+    }
+
+    /**
+     * @param addresses initial list of target nodes
+     * @param maxInFlightPerServer max number of in-flight requests per node. If lower or equal to 0, in-flight requests are tracked, but not limited
+     */
+    public ServerPool(List<String> addresses, int maxInFlightPerServer) {
 
         if (addresses == null) {
             throw new IllegalArgumentException("Initial addresses cannot be null");
@@ -58,6 +69,7 @@ public class ServerPool implements ServerInfoListener {
         }
 
         this.ref = new AtomicReference<>(resolved);
+        this.maxInFlightPerServer = maxInFlightPerServer;
 
     }
 
@@ -68,6 +80,109 @@ public class ServerPool implements ServerInfoListener {
      */
     public String getNext() {
 
+        List<ServerInfo> serverInfos = waitForServers();
+
+        int next = Math.abs(currentIndex.getAndIncrement() % serverInfos.size());
+
+        String resolvedAddress = serverInfos.get(next).getResolvedAddress();
+        getLogger().debug("{}: Returning {}", NAME, resolvedAddress);
+
+        return resolvedAddress;
+
+    }
+
+    /**
+     * Returns first node with spare capacity, starting from the next one in round-robin order.
+     * If all nodes are saturated, next node is returned regardless of its load, so the limit is not strict.
+     * Returned node MUST be released with {@link #release(ServerInfo)} once the request is completed.
+     *
+     * @return next target server with spare capacity if available
+     */
+    public ServerInfo acquire() {
+
+        List<ServerInfo> serverInfos = waitForServers();
+
+        int size = serverInfos.size();
+        int start = currentIndex.getAndIncrement();
+
+        for (int i = 0; i < size; i++) {
+            ServerInfo candidate = serverInfos.get(Math.abs((start + i) % size));
+            if (candidate.tryAcquire(maxInFlightPerServer)) {
+                return candidate;
+            }
+        }
+
+        ServerInfo next = serverInfos.get(Math.abs(start % size));
+        next.acquire();
+
+        getLogger().debug("{}: All servers saturated. Returning {}", NAME, next.getResolvedAddress());
+
+        return next;
+
+    }
+
+    /**
+     * Returns first node other than {@code excluded} with spare capacity, starting from the next one in round-robin order.
+     * Returned node MUST be released with {@link #release(ServerInfo)} once the request is completed.
+     *
+     * @param excluded node that MUST NOT be returned
+     * @return next target server with spare capacity, null if none of the other nodes can accept more requests
+     */
+    public ServerInfo acquire(ServerInfo excluded) {
+
+        List<ServerInfo> serverInfos = waitForServers();
+
+        int size = serverInfos.size();
+        int start = currentIndex.getAndIncrement();
+
+        for (int i = 0; i < size; i++) {
+            ServerInfo candidate = serverInfos.get(Math.abs((start + i) % size));
+            if (!candidate.getResolvedAddress().equals(excluded.getResolvedAddress())
+                    && candidate.tryAcquire(maxInFlightPerServer)) {
+                return candidate;
+            }
+        }
+
+        getLogger().debug("{}: No servers available other than {}", NAME, excluded.getResolvedAddress());
+
+        return null;
+
+    }
+
+    /**
+     * @param serverInfo node returned by {@link #acquire()} or {@link #acquire(ServerInfo)}
+     */
+    public void release(ServerInfo serverInfo) {
+        serverInfo.release();
+    }
+
+    /**
+     * @return true, if in-flight requests are limited and none of the nodes can accept more requests, false otherwise
+     */
+    public boolean isSaturated() {
+
+        if (maxInFlightPerServer <= 0) {
+            return false;
+        }
+
+        List<ServerInfo> serverInfos = ref.get();
+        if (serverInfos.isEmpty()) {
+            // let acquire() handle it
+            return false;
+        }
+
+        for (ServerInfo serverInfo : serverInfos) {
+            if (serverInfo.getInFlight() < maxInFlightPerServer) {
+                return false;
+            }
+        }
+
+        return true;
+
+    }
+
+    private List<ServerInfo> waitForServers() {
+
         int retries = waitForHostsRetries;
         while (ref.get().size() == 0 && retries-- > 0) {
             LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(waitForHostsInterval));
@@ -80,19 +195,32 @@ public class ServerPool implements ServerInfoListener {
             throw new IllegalStateException("No servers available after " + waitForHostsRetries + " retries");
         }
 
-        int next = Math.abs(currentIndex.getAndIncrement() % serverInfos.size());
-
-        String resolvedAddress = serverInfos.get(next).getResolvedAddress();
-        getLogger().debug("{}: Returning {}", NAME, resolvedAddress);
-
-        return resolvedAddress;
+        return serverInfos;
 
     }
 
+    /**
+     * Replaces current list of target nodes. Nodes present on both lists are retained to preserve their in-flight requests count.
+     *
+     * @param serverInfos new list of target nodes
+     * @return true
+     */
     @Override
     public boolean onServerInfo(List<ServerInfo> serverInfos) {
-        ref.set(serverInfos);
+
+        Map<String, ServerInfo> current = new HashMap<>();
+        for (ServerInfo serverInfo : ref.get()) {
+            current.put(serverInfo.getResolvedAddress(), serverInfo);
+        }
+
+        List<ServerInfo> merged = new ArrayList<>(serverInfos.size());
+        for (ServerInfo serverInfo : serverInfos) {
+            merged.add(current.getOrDefault(serverInfo.getResolvedAddress(), serverInfo));
+        }
+
+        ref.set(merged);
         return true;
+
     }
 
 }
@@ -22,10 +22,12 @@ package org.appenders.log4j2.elasticsearch.hc.discovery;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ServerInfo {
 
     private final String resolvedAddress;
+    private final AtomicInteger inFlight = new AtomicInteger();
 
     /**
      * @param url MUST be a valid {@code java.net.URL}
@@ -46,4 +48,50 @@ public class ServerInfo {
         return resolvedAddress;
     }
 
+    /**
+     * Increments number of in-flight requests if it's lower than given limit
+     *
+     * @param limit max number of in-flight requests. If lower or equal to 0, number of in-flight requests is not limited
+     * @return true, if number of in-flight requests was incremented, false otherwise
+     */
+    public boolean tryAcquire(int limit) {
+
+        if (limit <= 0) {
+            inFlight.incrementAndGet();
+            return true;
+        }
+
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+
+        return true;
+
+    }
+
+    /**
+     * Increments number of in-flight requests regardless of any limits
+     */
+    public void acquire() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * Decrements number of in-flight requests
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * @return current number of in-flight requests
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
 }
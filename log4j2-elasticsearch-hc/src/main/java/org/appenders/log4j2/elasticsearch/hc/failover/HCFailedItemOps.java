@@ -47,7 +47,7 @@ public class HCFailedItemOps implements FailedItemOps<IndexRequest> {
 
     @Override
     public FailedItemInfo createInfo(IndexRequest failed) {
-        return new FailedItemInfo(failed.getIndex());
+        return new FailedItemInfo(failed.getIndex(), failed.getId());
     }
 
 }
@@ -333,6 +333,52 @@ public class BatchResultTest {
 
     }
 
+    @Test
+    public void errorMessageContainsFirstFailedItemErrorInfoIfFailedItemsAvailableAndErrorsIsTrue() {
+
+        // given
+        String expectedType = UUID.randomUUID().toString();
+        String expectedReason = UUID.randomUUID().toString();
+
+        Error error = new Error();
+        error.setType(expectedType);
+        error.setReason(expectedReason);
+
+        BatchItemFailures failedItems = new BatchItemFailures();
+        failedItems.add(1, 400, expectedType);
+        failedItems.setFirstError(error);
+
+        BatchResult result = createTestBatchResult(true, null).withFailedItems(failedItems);
+        result.withErrorMessage(DEFAULT_TEST_MESSAGE);
+
+        // when
+        String actualMessage = result.getErrorMessage();
+
+        // then
+        assertTrue(actualMessage.contains(BatchResult.FIRST_FAILED_ITEM_PREFIX));
+        assertTrue(actualMessage.contains(expectedType));
+        assertTrue(actualMessage.contains(expectedReason));
+
+    }
+
+    @Test
+    public void errorMessageContainsNoFailedItemErrorInfoIfFailedItemsHaveNoError() {
+
+        // given
+        BatchItemFailures failedItems = new BatchItemFailures();
+        failedItems.add(0, 500, null);
+
+        BatchResult result = createTestBatchResult(true, null).withFailedItems(failedItems);
+        result.withErrorMessage(DEFAULT_TEST_MESSAGE);
+
+        // when
+        String actualMessage = result.getErrorMessage();
+
+        // then
+        assertTrue(actualMessage.contains(BatchResult.UNABLE_TO_GET_MORE_INFO));
+
+    }
+
     @Test
     public void errorMessageDoesNotContainFailedItemErrorInfoIfAvailableAndErrorsIsFalse() {
 
@@ -188,7 +188,7 @@ public class BatchingClientObjectFactoryTest {
                 .build();
 
         objectFactory.register(registry);
-        assertEquals(7, registry.getMetrics(metric -> true).size());
+        assertEquals(11, registry.getMetrics(metric -> true).size());
 
         // when
         objectFactory.deregister();
@@ -394,6 +394,45 @@ public class BatchingClientObjectFactoryTest {
 
     }
 
+    @Test
+    public void storesQueueDwellMs() {
+
+        // given
+        final String expectedComponentName = UUID.randomUUID().toString();
+        final Metric.Key expectedKey = new Metric.Key(expectedComponentName, "queueDwellMs", "max");
+
+        final MetricsRegistry registry = new BasicMetricsRegistry();
+        final BackoffPolicy<BatchRequest> backoffPolicy = mock(BackoffPolicy.class);
+        final BatchingClientObjectFactory<BatchRequest, IndexRequest> objectFactory = spy(createTestBuilderWithMetric(expectedComponentName, MetricConfigFactory.createMaxConfig("queueDwellMs", false))
+                .withBackoffPolicy(backoffPolicy)
+                .build());
+        when(objectFactory.createClient()).thenReturn(mock(HttpClient.class));
+
+        final MetricOutput metricOutput = spy(MetricOutputTest.dummy());
+        when(metricOutput.accepts(any())).thenReturn(true);
+
+        final MetricsProcessor metricProcessor = new MetricsProcessor(registry, new BasicMetricOutputsRegistry(metricOutput));
+
+        objectFactory.register(registry);
+
+        final BatchRequest batchRequest = spy(BatchRequestTest.createDefaultTestObjectBuilder()
+                .withBuffer(ByteBufItemSourceTest.createTestItemSource())
+                .withOldestItemTimestamp(System.currentTimeMillis() - 50)
+                .build());
+        doNothing().when(batchRequest).completed();
+        when(backoffPolicy.shouldApply(eq(batchRequest))).thenReturn(true);
+
+        // when
+        objectFactory.createBatchListener(new NoopFailoverPolicy()).apply(batchRequest);
+        metricProcessor.process();
+
+        // then
+        final ArgumentCaptor<Long> captor = ArgumentCaptor.forClass(long.class);
+        verify(metricOutput).write(anyLong(), eq(expectedKey), captor.capture());
+        assertTrue(captor.getValue() >= 50);
+
+    }
+
     @Test
     public void storesBatchesFailed() {
 
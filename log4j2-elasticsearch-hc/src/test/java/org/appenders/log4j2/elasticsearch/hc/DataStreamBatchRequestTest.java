@@ -30,6 +30,7 @@ import org.appenders.log4j2.elasticsearch.Serializer;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -43,7 +44,9 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -206,40 +209,72 @@ public abstract class DataStreamBatchRequestTest {
     }
 
     @Test
-    public void throwsOnItemsWithDifferentIndicesInSameBatch() throws Exception {
+    public void canSerializeItemsForDifferentDataStreamsInSameBatch() throws Exception {
 
         // given
         final Serializer<Object> serializer = spy(new JacksonSerializer<>(new ObjectMapper().writerFor(IndexRequest.class)));
 
-        final ItemSource<ByteBuf> source1 = createTestItemSource();
-        final String index1 = UUID.randomUUID().toString();
-        final IndexRequest action1 = createDataStreamItemRequestBuilder(source1)
-                .index(index1)
+        final String dataStream1 = UUID.randomUUID().toString();
+        final IndexRequest action1 = createDataStreamItemRequestBuilder(createTestItemSource())
+                .index(dataStream1)
                 .build();
 
-        final ItemSource<ByteBuf> source2 = createTestItemSource();
-        final String index2 = UUID.randomUUID().toString();
+        final String dataStream2 = UUID.randomUUID().toString();
+        final IndexRequest action2 = createDataStreamItemRequestBuilder(createTestItemSource())
+                .index(dataStream2)
+                .build();
 
-        final IndexRequest action2 = createDataStreamItemRequestBuilder(source2)
-                .index(index2)
+        final IndexRequest action3 = createDataStreamItemRequestBuilder(createTestItemSource())
+                .index(dataStream1)
                 .build();
 
         @SuppressWarnings("unchecked")
         final BatchRequest request = new DataStreamBatchRequest.Builder()
                 .withItemSerializer(serializer)
                 .withResultDeserializer(mock(Deserializer.class))
+                .withBuffer(createTestItemSource())
+                .add(action1)
+                .add(action2)
+                .add(action3)
+                .build();
+
+        // when
+        final ItemSource<ByteBuf> result = request.serialize();
+
+        // then
+        final String expectedAction1 = "{\"create\":{\"_index\":\"" + dataStream1 + "\"}}\n\n";
+        final String expectedAction2 = "{\"create\":{\"_index\":\"" + dataStream2 + "\"}}\n\n";
+        assertEquals(expectedAction1 + expectedAction2 + expectedAction1, result.getSource().toString(StandardCharsets.UTF_8));
+        assertEquals("/_bulk", request.getURI());
+        verify(serializer, never()).writeAsBytes(any());
+        verify(serializer, never()).write(any(), any());
+
+    }
+
+    @Test
+    public void escapesDataStreamNamesInTargetedActions() throws Exception {
+
+        // given
+        final String dataStream = "\"quoted\"";
+        final IndexRequest action1 = createDataStreamItemRequestBuilder(createTestItemSource())
+                .index(dataStream)
+                .build();
+
+        final IndexRequest action2 = createDataStreamItemRequestBuilder(createTestItemSource())
+                .index(UUID.randomUUID().toString())
+                .build();
+
+        final BatchRequest request = createDefaultTestObjectBuilder()
                 .withBuffer(createTestItemSource())
                 .add(action1)
                 .add(action2)
                 .build();
 
         // when
-        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, request::serialize);
+        final ItemSource<ByteBuf> result = request.serialize();
 
         // then
-        assertThat(exception.getMessage(), containsString("Items for different indices found"));
-        assertThat(exception.getMessage(), containsString(index1));
-        assertThat(exception.getMessage(), containsString(index2));
+        assertThat(result.getSource().toString(StandardCharsets.UTF_8), containsString("{\"create\":{\"_index\":\"\\\"quoted\\\"\"}}"));
 
     }
 
@@ -25,9 +25,12 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.CompositeByteBuf;
 import org.appenders.log4j2.elasticsearch.ByteBufItemSourceTest;
 import org.appenders.log4j2.elasticsearch.Deserializer;
+import org.appenders.log4j2.elasticsearch.IdGenerator;
 import org.appenders.log4j2.elasticsearch.IndexNamePluginTest;
 import org.appenders.log4j2.elasticsearch.ItemSource;
 import org.appenders.log4j2.elasticsearch.Serializer;
+import org.appenders.log4j2.elasticsearch.failover.FailedItemInfo;
+import org.appenders.log4j2.elasticsearch.failover.FailedItemSource;
 import org.junit.jupiter.api.Test;
 
 import java.nio.charset.StandardCharsets;
@@ -37,10 +40,14 @@ import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class ElasticsearchBulkAPITest {
 
@@ -70,6 +77,89 @@ public class ElasticsearchBulkAPITest {
 
     }
 
+    @Test
+    public void itemBuilderSetsGeneratedId() {
+
+        // given
+        final ItemSource payload = createTestItemSource(UUID.randomUUID().toString());
+
+        @SuppressWarnings("unchecked") final Serializer<Object> serializer = mock(Serializer.class);
+        final Deserializer<BatchResult> deserializer = mock(Deserializer.class);
+
+        final String expectedId = UUID.randomUUID().toString();
+        final IdGenerator idGenerator = mock(IdGenerator.class);
+        when(idGenerator.generate(eq(payload))).thenReturn(expectedId);
+
+        final ElasticsearchBulkAPI builder = new ElasticsearchBulkAPI(null, null, serializer, deserializer, idGenerator);
+
+        // when
+        final IndexRequest request = builder.itemBuilder(IndexNamePluginTest.TEST_INDEX_NAME, payload).build();
+
+        // then
+        assertEquals(expectedId, request.getId());
+
+    }
+
+    @Test
+    public void itemBuilderDoesNotSetIdByDefault() {
+
+        // given
+        final ElasticsearchBulkAPI builder = new ElasticsearchBulkAPI();
+
+        // when
+        final IndexRequest request = builder.itemBuilder(IndexNamePluginTest.TEST_INDEX_NAME, createTestItemSource(UUID.randomUUID().toString())).build();
+
+        // then
+        assertNull(request.getId());
+
+    }
+
+    @Test
+    public void itemBuilderReusesIdOfFailedItem() {
+
+        // given
+        final String expectedId = UUID.randomUUID().toString();
+        final FailedItemSource payload = new FailedItemSource<>(
+                createTestItemSource(UUID.randomUUID().toString()),
+                new FailedItemInfo(IndexNamePluginTest.TEST_INDEX_NAME, expectedId));
+
+        final IdGenerator idGenerator = mock(IdGenerator.class);
+
+        @SuppressWarnings("unchecked") final Serializer<Object> serializer = mock(Serializer.class);
+        final ElasticsearchBulkAPI builder = new ElasticsearchBulkAPI(null, null, serializer, mock(Deserializer.class), idGenerator);
+
+        // when
+        final IndexRequest request = builder.itemBuilder(IndexNamePluginTest.TEST_INDEX_NAME, payload).build();
+
+        // then
+        assertEquals(expectedId, request.getId());
+        verify(idGenerator, never()).generate(any());
+
+    }
+
+    @Test
+    public void itemBuilderGeneratesIdIfFailedItemHasNoId() {
+
+        // given
+        final FailedItemSource payload = new FailedItemSource<>(
+                createTestItemSource(UUID.randomUUID().toString()),
+                new FailedItemInfo(IndexNamePluginTest.TEST_INDEX_NAME));
+
+        final String expectedId = UUID.randomUUID().toString();
+        final IdGenerator idGenerator = mock(IdGenerator.class);
+        when(idGenerator.generate(eq(payload))).thenReturn(expectedId);
+
+        @SuppressWarnings("unchecked") final Serializer<Object> serializer = mock(Serializer.class);
+        final ElasticsearchBulkAPI builder = new ElasticsearchBulkAPI(null, null, serializer, mock(Deserializer.class), idGenerator);
+
+        // when
+        final IndexRequest request = builder.itemBuilder(IndexNamePluginTest.TEST_INDEX_NAME, payload).build();
+
+        // then
+        assertEquals(expectedId, request.getId());
+
+    }
+
     @Test
     public void createsBatchRequestBuilder() throws Exception {
 
@@ -112,6 +202,22 @@ public class ElasticsearchBulkAPITest {
 
     }
 
+    @Test
+    public void defaultFilterPathIsUsedIfNotConfigured() {
+
+        // given
+        final ElasticsearchBulkAPI bulkAPI = new ElasticsearchBulkAPI();
+
+        // when
+        final BatchRequest request = bulkAPI.batchBuilder()
+                .withBuffer(createDefaultTestBatchBuffer())
+                .build();
+
+        // then
+        assertEquals("/_bulk?filter_path=" + ElasticsearchBulkAPI.DEFAULT_FILTER_PATH, request.getURI());
+
+    }
+
     ItemSource createTestItemSource(final String payloadString) {
 
         final CompositeByteBuf buffer = ByteBufItemSourceTest.createDefaultTestByteBuf();
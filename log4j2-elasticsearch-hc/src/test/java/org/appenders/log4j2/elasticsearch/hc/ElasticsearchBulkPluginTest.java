@@ -22,6 +22,7 @@ package org.appenders.log4j2.elasticsearch.hc;
 
 import org.apache.logging.log4j.core.config.ConfigurationException;
 import org.appenders.log4j2.elasticsearch.ByteBufItemSourceTest;
+import org.appenders.log4j2.elasticsearch.ContentHashIdGenerator;
 import org.junit.jupiter.api.Test;
 
 import java.util.UUID;
@@ -124,6 +125,23 @@ public class ElasticsearchBulkPluginTest extends ElasticsearchBulkAPITest {
 
     }
 
+    @Test
+    public void builderSetsConfiguredIdGenerator() {
+
+        // given
+        final ElasticsearchBulkPlugin.Builder builder = ElasticsearchBulkPlugin.newBuilder()
+                .withIdGenerator(new ContentHashIdGenerator());
+
+        final ElasticsearchBulkPlugin plugin = builder.build();
+
+        // when
+        final IndexRequest indexRequest = plugin.itemBuilder(TEST_INDEX_NAME, createTestItemSource(TEST_PAYLOAD_STRING)).build();
+
+        // then
+        assertNotNull(indexRequest.getId());
+
+    }
+
     @Test
     public void builderThrowsWhenItemSerializerIsNull() {
 
@@ -52,6 +52,7 @@ import static org.appenders.log4j2.elasticsearch.hc.HttpClientProviderTest.TEST_
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -119,6 +120,35 @@ public class HCHttpPluginTest {
 
     }
 
+    @Test
+    public void builderCreatesSharedClientProviderIfSharedClientNameIsConfigured() {
+
+        // given
+        final HCHttpPlugin.Builder builder = createDefaultHttpObjectFactoryBuilder()
+                .withSharedClientName(UUID.randomUUID().toString());
+
+        // when
+        final HCHttpPlugin plugin = builder.build();
+
+        // then
+        assertTrue(plugin.clientProvider instanceof SharedHttpClientProvider);
+
+    }
+
+    @Test
+    public void builderCreatesNonSharedClientProviderByDefault() {
+
+        // given
+        final HCHttpPlugin.Builder builder = createDefaultHttpObjectFactoryBuilder();
+
+        // when
+        final HCHttpPlugin plugin = builder.build();
+
+        // then
+        assertFalse(plugin.clientProvider instanceof SharedHttpClientProvider);
+
+    }
+
     @Test
     public void builderThrowsIfItemSourceFactoryIsNull() {
 
@@ -234,6 +264,23 @@ public class HCHttpPluginTest {
 
     }
 
+    @Test
+    public void hedgedDeliveryIsUsedIfConfigured() {
+
+        // given
+        HedgedDelivery hedgedDelivery = HedgedDeliveryPlugin.newBuilder().build();
+
+        HCHttpPlugin.Builder builder = createDefaultHttpObjectFactoryBuilder()
+                .withHedgedDelivery(hedgedDelivery);
+
+        // when
+        HCHttpPlugin plugin = builder.build();
+
+        // then
+        assertEquals(hedgedDelivery, plugin.hedgedDelivery);
+
+    }
+
     @Test
     public void clientAPIFactoryIsUsedIfConfigured() {
 
@@ -308,8 +355,8 @@ public class HCHttpPluginTest {
         final HCHttpPlugin plugin = builder.build();
 
         plugin.register(registry);
-        assertEquals(7, registry.getMetrics(metric -> !TestKeyAccessor.getMetricType(metric.getKey()).equals("noop")).size());
-        assertEquals(12, registry.getMetrics(metric -> true).size()); // pool noop metrics
+        assertEquals(11, registry.getMetrics(metric -> !TestKeyAccessor.getMetricType(metric.getKey()).equals("noop")).size());
+        assertEquals(16, registry.getMetrics(metric -> true).size()); // pool noop metrics
 
         // when
         plugin.deregister();
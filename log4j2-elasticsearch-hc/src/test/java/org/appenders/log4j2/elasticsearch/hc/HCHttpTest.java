@@ -22,7 +22,10 @@ package org.appenders.log4j2.elasticsearch.hc;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.CompositeByteBuf;
+import org.apache.logging.log4j.Level;
+import org.appenders.log4j2.elasticsearch.AsyncBatchDelivery;
 import org.appenders.log4j2.elasticsearch.Auth;
+import org.appenders.log4j2.elasticsearch.BatchDelivery;
 import org.appenders.log4j2.elasticsearch.BatchOperations;
 import org.appenders.log4j2.elasticsearch.ByteBufItemSourceTest;
 import org.appenders.log4j2.elasticsearch.ClientObjectFactory;
@@ -30,13 +33,17 @@ import org.appenders.log4j2.elasticsearch.ClientProvider;
 import org.appenders.log4j2.elasticsearch.Deserializer;
 import org.appenders.log4j2.elasticsearch.FailoverPolicy;
 import org.appenders.log4j2.elasticsearch.ItemSource;
+import org.appenders.log4j2.elasticsearch.LevelAwareLoadSheddingPolicyPlugin;
 import org.appenders.log4j2.elasticsearch.LifeCycle;
 import org.appenders.log4j2.elasticsearch.NoopFailoverPolicy;
+import org.appenders.log4j2.elasticsearch.OpSource;
 import org.appenders.log4j2.elasticsearch.Operation;
 import org.appenders.log4j2.elasticsearch.OperationFactory;
+import org.appenders.log4j2.elasticsearch.ParallelSetup;
 import org.appenders.log4j2.elasticsearch.PooledItemSourceFactory;
 import org.appenders.log4j2.elasticsearch.PooledItemSourceFactoryTest;
 import org.appenders.log4j2.elasticsearch.Result;
+import org.appenders.log4j2.elasticsearch.SetupOperationCache;
 import org.appenders.log4j2.elasticsearch.ValueResolver;
 import org.appenders.log4j2.elasticsearch.backoff.BackoffPolicy;
 import org.appenders.log4j2.elasticsearch.failover.FailedItemOps;
@@ -54,6 +61,7 @@ import org.appenders.log4j2.elasticsearch.metrics.MetricsRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
 import java.io.IOException;
@@ -63,7 +71,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import static org.appenders.core.logging.InternalLogging.setLogger;
@@ -87,6 +98,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockingDetails;
 import static org.mockito.Mockito.never;
@@ -676,6 +689,363 @@ public class HCHttpTest {
     }
 
 
+    @Test
+    public void failoverHandlerIsExecutedImmediatelyIfAllServersAreSaturated() {
+
+        // given
+        TestBackoffPolicy<BatchRequest> backoffPolicy = spy(new TestBackoffPolicy<BatchRequest>() {
+            @Override
+            public boolean shouldApply(BatchRequest data) {
+                return false;
+            }
+        });
+
+        HttpClient httpClient = mock(HttpClient.class);
+        when(httpClient.isSaturated()).thenReturn(true);
+
+        HttpClientProvider clientProvider = mock(HttpClientProvider.class);
+        when(clientProvider.createClient()).thenReturn(httpClient);
+
+        HCHttp.Builder builder = createDefaultHttpObjectFactoryBuilder()
+                .withBackoffPolicy(backoffPolicy)
+                .withClientProvider(clientProvider);
+
+        FailoverPolicy failoverPolicy = mock(FailoverPolicy.class);
+        Function<BatchRequest, Boolean> failoverHandler = mock(Function.class);
+
+        HCHttp config = spy(builder.build());
+        when(config.createFailureHandler(eq(failoverPolicy))).thenReturn(failoverHandler);
+
+        ItemSource<ByteBuf> payload1 = createDefaultTestItemSource("test1");
+
+        BatchRequest.Builder batchBuilder = spy(new BatchRequest.Builder());
+        BatchRequest batchRequest = createTestBatch(batchBuilder, payload1);
+
+        Function<BatchRequest, Boolean> batchListener = config.createBatchListener(failoverPolicy);
+
+        // when
+        batchListener.apply(batchRequest);
+
+        // then
+        verify(failoverHandler, times(1)).apply(eq(batchRequest));
+        verify(batchRequest, times(1)).completed();
+        verify(backoffPolicy, never()).register(any());
+        verify(httpClient, never()).executeAsync(any(), any());
+
+    }
+
+    @Test
+    public void batchListenerDelegatesToHedgedDeliveryIfConfigured() {
+
+        // given
+        HttpClient httpClient = mock(HttpClient.class);
+
+        HttpClientProvider clientProvider = mock(HttpClientProvider.class);
+        when(clientProvider.createClient()).thenReturn(httpClient);
+
+        HedgedDelivery hedgedDelivery = mock(HedgedDelivery.class);
+
+        HCHttp.Builder builder = (HCHttp.Builder) createDefaultHttpObjectFactoryBuilder()
+                .withClientProvider(clientProvider)
+                .withHedgedDelivery(hedgedDelivery);
+
+        HCHttp config = builder.build();
+
+        BatchRequest batchRequest = createTestBatch(spy(new BatchRequest.Builder()), createDefaultTestItemSource("test1"));
+
+        Function<BatchRequest, Boolean> batchListener = config.createBatchListener(mock(FailoverPolicy.class));
+
+        // when
+        batchListener.apply(batchRequest);
+
+        // then
+        verify(hedgedDelivery).execute(eq(httpClient), eq(batchRequest), any());
+        verify(httpClient, never()).executeAsync(any(), any());
+
+    }
+
+    @Test
+    public void addSetupOperationSubmitsOperationToParallelSetupIfConfigured() {
+
+        // given
+        HttpClientProvider clientProvider = mock(HttpClientProvider.class);
+        when(clientProvider.getHttpClientFactoryBuilder()).thenReturn(createDefaultTestHttpClientFactoryBuilder());
+        ParallelSetup parallelSetup = mock(ParallelSetup.class);
+
+        HCHttp config = ((HCHttp.Builder) createDefaultHttpObjectFactoryBuilder()
+                .withClientProvider(clientProvider)
+                .withParallelSetup(parallelSetup))
+                .build();
+
+        OpSource opSource = mock(OpSource.class);
+        when(opSource.getType()).thenReturn("testType");
+        when(opSource.getSource()).thenReturn("testSource");
+
+        Operation operation = mock(Operation.class);
+
+        // when
+        config.addSetupOperation(opSource, operation);
+
+        // then
+        String expectedKey = SetupOperationCache.key(opSource, config.getServerList());
+        verify(clientProvider).start();
+        verify(parallelSetup).submit(eq("testType"), eq(expectedKey), eq(operation), any());
+
+    }
+
+    @Test
+    public void addSetupOperationExecutesOperationBeforeBatchIfParallelSetupIsNotConfigured() throws Exception {
+
+        // given
+        HttpClientProvider clientProvider = mock(HttpClientProvider.class);
+        when(clientProvider.createClient()).thenReturn(mock(HttpClient.class));
+
+        HCHttp config = createDefaultHttpObjectFactoryBuilder()
+                .withClientProvider(clientProvider)
+                .build();
+
+        Operation operation = mock(Operation.class);
+        config.addSetupOperation(mock(OpSource.class), operation);
+
+        Function<BatchRequest, Boolean> batchListener = config.createBatchListener(mock(FailoverPolicy.class));
+
+        // when
+        batchListener.apply(createTestBatch(spy(new BatchRequest.Builder()), createDefaultTestItemSource("test1")));
+
+        // then
+        verify(operation).execute();
+
+    }
+
+    @Test
+    public void batchListenerExecutesFailedParallelSetupOperationsAfterParallelSetupCompletion() throws Exception {
+
+        // given
+        HttpClientProvider clientProvider = mock(HttpClientProvider.class);
+        when(clientProvider.getHttpClientFactoryBuilder()).thenReturn(createDefaultTestHttpClientFactoryBuilder());
+        when(clientProvider.createClient()).thenReturn(mock(HttpClient.class));
+
+        ParallelSetup parallelSetup = mock(ParallelSetup.class);
+
+        HCHttp config = ((HCHttp.Builder) createDefaultHttpObjectFactoryBuilder()
+                .withClientProvider(clientProvider)
+                .withParallelSetup(parallelSetup))
+                .build();
+
+        OpSource opSource = mock(OpSource.class);
+        when(opSource.getType()).thenReturn("testType");
+        when(opSource.getSource()).thenReturn("testSource");
+
+        Operation operation = mock(Operation.class);
+        config.addSetupOperation(opSource, operation);
+
+        ArgumentCaptor<Consumer<Operation>> captor = ArgumentCaptor.forClass(Consumer.class);
+        verify(parallelSetup).submit(any(), any(), eq(operation), captor.capture());
+        captor.getValue().accept(operation);
+
+        Function<BatchRequest, Boolean> batchListener = config.createBatchListener(mock(FailoverPolicy.class));
+
+        // when
+        batchListener.apply(createTestBatch(spy(new BatchRequest.Builder()), createDefaultTestItemSource("test1")));
+
+        // then
+        InOrder inOrder = inOrder(parallelSetup, operation);
+        inOrder.verify(parallelSetup).awaitCompletion();
+        inOrder.verify(operation).execute();
+
+    }
+
+    @Test
+    public void batchListenerAwaitsParallelSetupCompletionIfConfigured() {
+
+        // given
+        HttpClient httpClient = mock(HttpClient.class);
+
+        HttpClientProvider clientProvider = mock(HttpClientProvider.class);
+        when(clientProvider.createClient()).thenReturn(httpClient);
+
+        ParallelSetup parallelSetup = mock(ParallelSetup.class);
+
+        HCHttp config = ((HCHttp.Builder) createDefaultHttpObjectFactoryBuilder()
+                .withClientProvider(clientProvider)
+                .withParallelSetup(parallelSetup))
+                .build();
+
+        BatchRequest batchRequest = createTestBatch(spy(new BatchRequest.Builder()), createDefaultTestItemSource("test1"));
+
+        Function<BatchRequest, Boolean> batchListener = config.createBatchListener(mock(FailoverPolicy.class));
+
+        // when
+        batchListener.apply(batchRequest);
+
+        // then
+        verify(parallelSetup).awaitCompletion();
+        verify(httpClient).executeAsync(eq(batchRequest), any());
+
+    }
+
+    @Test
+    public void batchListenerTracksInFlightBatchUntilCompleted() {
+
+        // given
+        HttpClient httpClient = mock(HttpClient.class);
+
+        HttpClientProvider clientProvider = mock(HttpClientProvider.class);
+        when(clientProvider.createClient()).thenReturn(httpClient);
+
+        HCHttp config = createDefaultHttpObjectFactoryBuilder()
+                .withClientProvider(clientProvider)
+                .build();
+
+        Runnable onBatchCompleted = mock(Runnable.class);
+        config.onBatchCompleted(onBatchCompleted);
+
+        BatchRequest batchRequest = createTestBatch(spy(new BatchRequest.Builder()), createDefaultTestItemSource("test1"));
+        BatchResult result = mock(BatchResult.class);
+        when(result.isSucceeded()).thenReturn(true);
+
+        Function<BatchRequest, Boolean> batchListener = config.createBatchListener(mock(FailoverPolicy.class));
+        batchListener.apply(batchRequest);
+
+        ArgumentCaptor<ResponseHandler> captor = ArgumentCaptor.forClass(ResponseHandler.class);
+        verify(httpClient).executeAsync(eq(batchRequest), captor.capture());
+        ResponseHandler<BatchResult> responseHandler = captor.getValue();
+
+        assertEquals(1, config.getInFlightCount());
+        assertEquals(1, config.getInFlightItemCount());
+        verify(onBatchCompleted, never()).run();
+
+        // when
+        responseHandler.completed(result);
+
+        // then
+        assertEquals(0, config.getInFlightCount());
+        assertEquals(0, config.getInFlightItemCount());
+        verify(onBatchCompleted).run();
+
+    }
+
+    @Test
+    public void batchListenerTracksInFlightBatchUntilFailed() {
+
+        // given
+        HttpClient httpClient = mock(HttpClient.class);
+
+        HttpClientProvider clientProvider = mock(HttpClientProvider.class);
+        when(clientProvider.createClient()).thenReturn(httpClient);
+
+        HCHttp config = createDefaultHttpObjectFactoryBuilder()
+                .withClientProvider(clientProvider)
+                .build();
+
+        Runnable onBatchCompleted = mock(Runnable.class);
+        config.onBatchCompleted(onBatchCompleted);
+
+        BatchRequest batchRequest = createTestBatch(spy(new BatchRequest.Builder()), createDefaultTestItemSource("test1"));
+        BatchResult result = mock(BatchResult.class);
+        when(result.isSucceeded()).thenReturn(true);
+
+        Function<BatchRequest, Boolean> batchListener = config.createBatchListener(mock(FailoverPolicy.class));
+        batchListener.apply(batchRequest);
+
+        ArgumentCaptor<ResponseHandler> captor = ArgumentCaptor.forClass(ResponseHandler.class);
+        verify(httpClient).executeAsync(eq(batchRequest), captor.capture());
+        ResponseHandler<BatchResult> responseHandler = captor.getValue();
+
+        assertEquals(1, config.getInFlightCount());
+        assertEquals(1, config.getInFlightItemCount());
+        verify(onBatchCompleted, never()).run();
+
+        // when
+        responseHandler.failed(new IOException("test"));
+
+        // then
+        assertEquals(0, config.getInFlightCount());
+        assertEquals(0, config.getInFlightItemCount());
+        verify(onBatchCompleted).run();
+
+    }
+
+    @Test
+    public void loadSheddingPolicyDropsDebugEventsIfEndpointStalls() {
+
+        // given
+        HttpClient httpClient = mock(HttpClient.class); // response handler is never called
+
+        HttpClientProvider clientProvider = mock(HttpClientProvider.class);
+        when(clientProvider.createClient()).thenReturn(httpClient);
+        when(clientProvider.getHttpClientFactoryBuilder()).thenReturn(createDefaultTestHttpClientFactoryBuilder());
+
+        HCHttp config = createDefaultHttpObjectFactoryBuilder()
+                .withClientProvider(clientProvider)
+                .build();
+
+        BatchDelivery<String> batchDelivery = AsyncBatchDelivery.newBuilder()
+                .withClientObjectFactory(config)
+                .withBatchSize(1)
+                .withDeliveryInterval(1000)
+                .withShutdownDelayMillis(0)
+                .build();
+        batchDelivery.start();
+
+        LevelAwareLoadSheddingPolicyPlugin policy = LevelAwareLoadSheddingPolicyPlugin.newBuilder()
+                .withCapacity(4)
+                .withInfoCapacityFactor(0.75)
+                .withDebugCapacityFactor(0.5)
+                .build();
+
+        assertTrue(policy.accept(Level.DEBUG, batchDelivery));
+
+        // when
+        batchDelivery.add("test-index", createDefaultTestItemSource("test1"));
+        batchDelivery.add("test-index", createDefaultTestItemSource("test2"));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (config.getInFlightCount() < 2 && System.currentTimeMillis() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        // then
+        assertEquals(2, batchDelivery.getBacklogSize());
+        assertFalse(policy.accept(Level.DEBUG, batchDelivery));
+        assertTrue(policy.accept(Level.INFO, batchDelivery));
+        assertEquals(1, policy.getDroppedDebug());
+
+        batchDelivery.stop();
+
+    }
+
+    @Test
+    public void batchListenerDoesNotTrackInFlightBatchIfExecutionThrows() {
+
+        // given
+        HttpClient httpClient = mock(HttpClient.class);
+        doThrow(new IllegalStateException("test")).when(httpClient).executeAsync(any(), any());
+
+        HttpClientProvider clientProvider = mock(HttpClientProvider.class);
+        when(clientProvider.createClient()).thenReturn(httpClient);
+
+        HCHttp config = createDefaultHttpObjectFactoryBuilder()
+                .withClientProvider(clientProvider)
+                .build();
+
+        Runnable onBatchCompleted = mock(Runnable.class);
+        config.onBatchCompleted(onBatchCompleted);
+
+        BatchRequest batchRequest = createTestBatch(spy(new BatchRequest.Builder()), createDefaultTestItemSource("test1"));
+
+        Function<BatchRequest, Boolean> batchListener = config.createBatchListener(mock(FailoverPolicy.class));
+
+        // when
+        assertThrows(IllegalStateException.class, () -> batchListener.apply(batchRequest));
+
+        // then
+        assertEquals(0, config.getInFlightCount());
+        assertEquals(0, config.getInFlightItemCount());
+        verify(onBatchCompleted).run();
+
+    }
+
     @Test
     public void failureHandlerDeregistersRequestFromBackoffPolicyAfterException() {
 
@@ -798,6 +1168,46 @@ public class HCHttpTest {
 
     }
 
+    @Test
+    public void lifecycleStartStartsAndStopStopsHedgedDelivery() {
+
+        // given
+        HedgedDelivery hedgedDelivery = mock(HedgedDelivery.class);
+
+        HCHttp objectFactory = ((HCHttp.Builder) createDefaultHttpObjectFactoryBuilder()
+                .withHedgedDelivery(hedgedDelivery))
+                .build();
+
+        // when
+        objectFactory.start();
+        objectFactory.stop();
+
+        // then
+        verify(hedgedDelivery).start();
+        verify(hedgedDelivery).stop();
+
+    }
+
+    @Test
+    public void lifecycleStartStartsAndStopStopsParallelSetup() {
+
+        // given
+        ParallelSetup parallelSetup = mock(ParallelSetup.class);
+
+        HCHttp objectFactory = ((HCHttp.Builder) createDefaultHttpObjectFactoryBuilder()
+                .withParallelSetup(parallelSetup))
+                .build();
+
+        // when
+        objectFactory.start();
+        objectFactory.stop();
+
+        // then
+        verify(parallelSetup).start();
+        verify(parallelSetup).stop();
+
+    }
+
     @Test
     public void lifecycleStartStartOperationFactoryOnlyOnce() {
 
@@ -1142,6 +1552,39 @@ public class HCHttpTest {
 
     }
 
+    @Test
+    public void storesEndToEndMs() {
+
+        // given
+        final String expectedComponentName = UUID.randomUUID().toString();
+        final Metric.Key expectedKey = new Metric.Key(expectedComponentName, "endToEndMs", "max");
+
+        final MetricsRegistry registry = new BasicMetricsRegistry();
+        final HCHttp config = createTestObjectFactoryWithMetric(expectedComponentName, MetricConfigFactory.createMaxConfig("endToEndMs", false));
+
+        final MetricOutput metricOutput = spy(MetricOutputTest.dummy());
+        when(metricOutput.accepts(any())).thenReturn(true);
+
+        final BatchRequest batchRequest = mock(BatchRequest.class);
+        when(batchRequest.getOldestItemTimestamp()).thenReturn(System.currentTimeMillis() - 50);
+
+        final ResponseHandler<BatchResult> resultHandler = config.createResultHandler(batchRequest, config.createFailureHandler(new NoopFailoverPolicy.Builder().build()));
+
+        final MetricsProcessor metricProcessor = new MetricsProcessor(registry, new BasicMetricOutputsRegistry(metricOutput));
+
+        config.register(registry);
+
+        // when
+        resultHandler.completed(new BatchResult(0, false, null, 200, null));
+        metricProcessor.process();
+
+        // then
+        final ArgumentCaptor<Long> captor = ArgumentCaptor.forClass(long.class);
+        verify(metricOutput).write(anyLong(), eq(expectedKey), captor.capture());
+        assertTrue(captor.getValue() >= 50);
+
+    }
+
     @Test
     public void storesItemsSent() {
 
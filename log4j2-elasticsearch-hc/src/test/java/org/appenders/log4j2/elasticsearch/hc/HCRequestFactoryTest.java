@@ -152,7 +152,7 @@ public class HCRequestFactoryTest {
     }
 
     @Test
-    public void createsEntityUsingGivenSource() throws Exception {
+    public void createsEntityWithIndependentReaderIndex() throws Exception {
 
         // given
         HCRequestFactory factory = createDefaultTestObject();
@@ -177,7 +177,7 @@ public class HCRequestFactoryTest {
         source.readBytes(new byte[source.writerIndex()]);
 
         InputStream inputStream = result.getEntity().getContent();
-        assertEquals(0, inputStream.available());
+        assertEquals(expectedBytes.length, inputStream.available());
 
     }
 
@@ -188,6 +188,7 @@ public class HCRequestFactoryTest {
 
         ByteBuf byteBuf = mock(ByteBuf.class);
         when(byteBuf.writerIndex()).thenReturn(1);
+        when(byteBuf.duplicate()).thenReturn(byteBuf);
 
         ItemSource<ByteBuf> itemSource = mock(ItemSource.class);
         when(itemSource.getSource()).thenReturn(byteBuf);
@@ -0,0 +1,131 @@
+package org.appenders.log4j2.elasticsearch.hc;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.logging.log4j.core.config.ConfigurationException;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class HedgedDeliveryPluginTest {
+
+    @Test
+    public void builderBuildsSuccessfully() {
+
+        // given
+        HedgedDeliveryPlugin.Builder builder = HedgedDeliveryPlugin.newBuilder();
+
+        // when
+        HedgedDeliveryPlugin hedgedDelivery = builder.build();
+
+        // then
+        assertNotNull(hedgedDelivery);
+
+    }
+
+    @Test
+    public void builderSetsMinDelay() {
+
+        // given
+        long expectedMinDelay = 500;
+        HedgedDeliveryPlugin hedgedDelivery = HedgedDeliveryPlugin.newBuilder()
+                .withPercentile(50)
+                .withSampleSize(HedgedDelivery.MIN_SAMPLES)
+                .withMinDelayMillis(expectedMinDelay)
+                .build();
+
+        for (int i = 0; i < HedgedDelivery.MIN_SAMPLES; i++) {
+            hedgedDelivery.record(1);
+        }
+
+        // when
+        hedgedDelivery.refresh();
+
+        // then
+        assertEquals(expectedMinDelay, hedgedDelivery.delayMillis());
+
+    }
+
+    @Test
+    public void builderThrowsIfPercentileIsZero() {
+
+        // given
+        HedgedDeliveryPlugin.Builder builder = HedgedDeliveryPlugin.newBuilder()
+                .withPercentile(0);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("percentile must be higher than 0"));
+
+    }
+
+    @Test
+    public void builderThrowsIfPercentileIsHigherThan100() {
+
+        // given
+        HedgedDeliveryPlugin.Builder builder = HedgedDeliveryPlugin.newBuilder()
+                .withPercentile(100.1);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("lower or equal 100"));
+
+    }
+
+    @Test
+    public void builderThrowsIfMinDelayIsNegative() {
+
+        // given
+        HedgedDeliveryPlugin.Builder builder = HedgedDeliveryPlugin.newBuilder()
+                .withMinDelayMillis(-1);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("minDelayMillis must be higher or equal 0"));
+
+    }
+
+    @Test
+    public void builderThrowsIfSampleSizeIsZero() {
+
+        // given
+        HedgedDeliveryPlugin.Builder builder = HedgedDeliveryPlugin.newBuilder()
+                .withSampleSize(0);
+
+        // when
+        final ConfigurationException exception = assertThrows(ConfigurationException.class, builder::build);
+
+        // then
+        assertThat(exception.getMessage(), containsString("sampleSize must be higher than 0"));
+
+    }
+
+}
@@ -32,6 +32,7 @@ import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
 import org.apache.http.message.BasicHttpResponse;
 import org.apache.http.message.BasicStatusLine;
 import org.apache.http.nio.conn.NHttpClientConnectionManager;
@@ -95,6 +96,7 @@ public class HttpClientFactoryTest {
     private static final int TEST_READ_TIMEOUT = RANDOM.nextInt(1000) + 10;
 
     private static final int TEST_MAX_TOTAL_CONNECTIONS = RANDOM.nextInt(1000) + 10;
+    private static final int TEST_MAX_CONNECTIONS_PER_SERVER = RANDOM.nextInt(10) + 1;
     private static final int TEST_IO_THREAD_COUNT = RANDOM.nextInt(1000) + 10;
     private static final boolean TEST_POOLED_RESPONSE_BUFFERS_ENABLED = true;
     private static final int TEST_POOLED_RESPONSE_BUFFERS_SIZE_IN_BYTES = 34;
@@ -161,6 +163,7 @@ public class HttpClientFactoryTest {
                 .withConnTimeout(TEST_CONNECTION_TIMEOUT)
                 .withReadTimeout(TEST_READ_TIMEOUT)
                 .withMaxTotalConnections(TEST_MAX_TOTAL_CONNECTIONS)
+                .withMaxConnectionsPerServer(TEST_MAX_CONNECTIONS_PER_SERVER)
                 .withIoThreadCount(TEST_IO_THREAD_COUNT)
                 .withPooledResponseBuffers(TEST_POOLED_RESPONSE_BUFFERS_ENABLED)
                 .withPooledResponseBuffersSizeInBytes(TEST_POOLED_RESPONSE_BUFFERS_SIZE_IN_BYTES)
@@ -179,6 +182,7 @@ public class HttpClientFactoryTest {
         assertEquals(TEST_CONNECTION_TIMEOUT, httpClientFactory.connTimeout);
         assertEquals(TEST_READ_TIMEOUT, httpClientFactory.readTimeout);
         assertEquals(TEST_MAX_TOTAL_CONNECTIONS, httpClientFactory.maxTotalConnections);
+        assertEquals(TEST_MAX_CONNECTIONS_PER_SERVER, httpClientFactory.maxConnectionsPerServer);
         assertEquals(TEST_IO_THREAD_COUNT, httpClientFactory.ioThreadCount);
         assertEquals(TEST_POOLED_RESPONSE_BUFFERS_ENABLED, httpClientFactory.pooledResponseBuffersEnabled);
         assertEquals(TEST_POOLED_RESPONSE_BUFFERS_SIZE_IN_BYTES, httpClientFactory.pooledResponseBuffersSizeInBytes);
@@ -244,6 +248,46 @@ public class HttpClientFactoryTest {
 
     }
 
+    @Test
+    public void asyncConnectionManagerLimitsConnectionsPerServerIfConfigured() {
+
+        // given
+        HttpClientFactory factory = spy(createDefaultTestHttpClientFactoryBuilder()
+                .withMaxTotalConnections(TEST_MAX_TOTAL_CONNECTIONS)
+                .withMaxConnectionsPerServer(TEST_MAX_CONNECTIONS_PER_SERVER)
+                .build());
+
+        PoolingNHttpClientConnectionManager connectionManager = mock(PoolingNHttpClientConnectionManager.class);
+        when(factory.createUnconfiguredPoolingNHttpClientConnectionManager()).thenReturn(connectionManager);
+
+        // when
+        factory.getAsyncConnectionManager();
+
+        // then
+        verify(connectionManager).setMaxTotal(TEST_MAX_TOTAL_CONNECTIONS);
+        verify(connectionManager).setDefaultMaxPerRoute(TEST_MAX_CONNECTIONS_PER_SERVER);
+
+    }
+
+    @Test
+    public void asyncConnectionManagerAllowsMaxTotalConnectionsPerServerByDefault() {
+
+        // given
+        HttpClientFactory factory = spy(createDefaultTestHttpClientFactoryBuilder()
+                .withMaxTotalConnections(TEST_MAX_TOTAL_CONNECTIONS)
+                .build());
+
+        PoolingNHttpClientConnectionManager connectionManager = mock(PoolingNHttpClientConnectionManager.class);
+        when(factory.createUnconfiguredPoolingNHttpClientConnectionManager()).thenReturn(connectionManager);
+
+        // when
+        factory.getAsyncConnectionManager();
+
+        // then
+        verify(connectionManager).setDefaultMaxPerRoute(TEST_MAX_TOTAL_CONNECTIONS);
+
+    }
+
     @Test
     public void throwsIllegalStateOnReactorException() throws IOReactorException {
 
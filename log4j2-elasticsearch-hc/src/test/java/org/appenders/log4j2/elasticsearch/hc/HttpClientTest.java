@@ -41,6 +41,7 @@ import org.apache.http.protocol.HttpContext;
 import org.appenders.core.logging.Logger;
 import org.appenders.log4j2.elasticsearch.ItemSource;
 import org.appenders.log4j2.elasticsearch.LifeCycle;
+import org.appenders.log4j2.elasticsearch.hc.discovery.ServerInfo;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -54,6 +55,8 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Random;
 import java.util.UUID;
 
@@ -64,11 +67,14 @@ import static org.appenders.log4j2.elasticsearch.ByteBufItemSourceTest.createTes
 import static org.appenders.log4j2.elasticsearch.hc.BatchRequestTest.createTestBatch;
 import static org.appenders.log4j2.elasticsearch.hc.HCHttpTest.createDefaultHttpObjectFactoryBuilder;
 import static org.appenders.log4j2.elasticsearch.hc.HttpClientFactoryTest.createDefaultTestHttpClientFactoryBuilder;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -207,9 +213,10 @@ public class HttpClientTest {
 
         // given
         RequestFactory requestFactory = mock(RequestFactory.class);
+        ServerPool serverPool = new ServerPool(Collections.singletonList("http://localhost:9200"), 1);
         HttpClient client = createTestHttpClient(
                 mock(CloseableHttpAsyncClient.class),
-                mock(ServerPool.class),
+                serverPool,
                 requestFactory,
                 mock(HttpAsyncResponseConsumerFactory.class)
         );
@@ -226,6 +233,143 @@ public class HttpClientTest {
         // then
         verify(responseHandler).failed(exceptionCaptor.capture());
         assertEquals(expectedMessage, exceptionCaptor.getValue().getMessage());
+        assertFalse(serverPool.isSaturated());
+
+    }
+
+    @Test
+    public void executeAsyncReleasesServerWhenResponseIsHandled() {
+
+        // given
+        CloseableHttpAsyncClient asyncClient = mock(CloseableHttpAsyncClient.class);
+        ServerPool serverPool = new ServerPool(Collections.singletonList("http://localhost:9200"), 1);
+        HttpClient client = createTestHttpClient(
+                asyncClient,
+                serverPool,
+                new HCRequestFactory(),
+                mock(HttpAsyncResponseConsumerFactory.class)
+        );
+
+        ResponseHandler<Response> responseHandler = createMockTestResultHandler();
+
+        client.executeAsync(createDefaultTestBatchRequest(), responseHandler);
+        assertTrue(client.isSaturated());
+
+        verify(asyncClient).execute(
+                any(HttpAsyncRequestProducer.class),
+                any(),
+                any(HttpContext.class),
+                hcResultCallbackCaptor.capture());
+
+        // when
+        hcResultCallbackCaptor.getValue().failed(new Exception("test"));
+
+        // then
+        assertFalse(client.isSaturated());
+        verify(responseHandler).failed(any());
+
+    }
+
+    @Test
+    public void executeAsyncReleasesServerAndRethrowsIfExecutionFails() {
+
+        // given
+        CloseableHttpAsyncClient asyncClient = mock(CloseableHttpAsyncClient.class);
+        ServerPool serverPool = new ServerPool(Collections.singletonList("http://localhost:9200"), 1);
+        HttpClient client = createTestHttpClient(
+                asyncClient,
+                serverPool,
+                new HCRequestFactory(),
+                mock(HttpAsyncResponseConsumerFactory.class)
+        );
+
+        String expectedMessage = UUID.randomUUID().toString();
+        when(asyncClient.execute(any(HttpAsyncRequestProducer.class), any(), any(HttpContext.class), any(FutureCallback.class)))
+                .thenThrow(new IllegalStateException(expectedMessage));
+
+        // when
+        final IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> client.executeAsync(createDefaultTestBatchRequest(), createMockTestResultHandler()));
+
+        // then
+        assertEquals(expectedMessage, exception.getMessage());
+        assertFalse(client.isSaturated());
+
+    }
+
+    @Test
+    public void executeAsyncExcludingNotifiesResponseHandlerAboutAcquiredServer() {
+
+        // given
+        ServerPool serverPool = new ServerPool(Collections.singletonList("http://localhost:9200"));
+        HttpClient client = createTestHttpClient(
+                mock(CloseableHttpAsyncClient.class),
+                serverPool,
+                new HCRequestFactory(),
+                mock(HttpAsyncResponseConsumerFactory.class)
+        );
+
+        ResponseHandler<Response> responseHandler = createMockTestResultHandler();
+
+        // when
+        ServerInfo result = client.executeAsyncExcluding(createDefaultTestBatchRequest(), responseHandler, null);
+
+        // then
+        verify(responseHandler).serverAcquired(eq(result));
+
+    }
+
+    @Test
+    public void executeAsyncExcludingSendsRequestToOtherServer() throws IOException {
+
+        // given
+        RequestFactory requestFactory = spy(new HCRequestFactory());
+        ServerPool serverPool = new ServerPool(Arrays.asList("http://localhost:9200", "http://localhost:9201"));
+        HttpClient client = createTestHttpClient(
+                mock(CloseableHttpAsyncClient.class),
+                serverPool,
+                requestFactory,
+                mock(HttpAsyncResponseConsumerFactory.class)
+        );
+
+        BatchRequest request = createDefaultTestBatchRequest();
+        ServerInfo excluded = client.executeAsyncExcluding(request, createMockTestResultHandler(), null);
+
+        // when
+        ServerInfo result = client.executeAsyncExcluding(request, createMockTestResultHandler(), excluded);
+
+        // then
+        assertNotEquals(excluded.getResolvedAddress(), result.getResolvedAddress());
+        verify(requestFactory).create(eq(result.getResolvedAddress() + "/" + request.getURI()), eq(request));
+
+    }
+
+    @Test
+    public void executeAsyncExcludingFailsIfNoOtherServerIsAvailable() {
+
+        // given
+        CloseableHttpAsyncClient asyncClient = mock(CloseableHttpAsyncClient.class);
+        ServerPool serverPool = new ServerPool(Collections.singletonList("http://localhost:9200"));
+        HttpClient client = createTestHttpClient(
+                asyncClient,
+                serverPool,
+                new HCRequestFactory(),
+                mock(HttpAsyncResponseConsumerFactory.class)
+        );
+
+        BatchRequest request = createDefaultTestBatchRequest();
+        ServerInfo excluded = client.executeAsyncExcluding(request, createMockTestResultHandler(), null);
+
+        ResponseHandler<Response> responseHandler = createMockTestResultHandler();
+
+        // when
+        ServerInfo result = client.executeAsyncExcluding(request, responseHandler, excluded);
+
+        // then
+        assertNull(result);
+        verify(responseHandler).failed(exceptionCaptor.capture());
+        assertThat(exceptionCaptor.getValue().getMessage(), containsString("No servers available other than"));
+        verify(asyncClient, times(1)).execute(any(HttpAsyncRequestProducer.class), any(), any(HttpContext.class), any());
 
     }
 
@@ -667,7 +811,7 @@ public class HttpClientTest {
         when(request.getURI()).thenReturn(UUID.randomUUID().toString());
         when(request.getHttpMethodName()).thenReturn(BatchRequest.HTTP_METHOD_NAME);
         ItemSource itemSource = mock(ItemSource.class);
-        when(itemSource.getSource()).thenReturn(mock(ByteBuf.class));
+        when(itemSource.getSource()).thenReturn(createDefaultTestByteBuf());
         when(request.serialize()).thenReturn(itemSource);
 
         client.executeAsync(request, responseHandler);
@@ -0,0 +1,181 @@
+package org.appenders.log4j2.elasticsearch.hc;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.appenders.log4j2.elasticsearch.SharedResources;
+import org.appenders.log4j2.elasticsearch.metrics.BasicMetricsRegistry;
+import org.appenders.log4j2.elasticsearch.metrics.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.appenders.log4j2.elasticsearch.hc.HttpClientProviderTest.createDefaultTestBuilder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SharedHttpClientProviderTest {
+
+    @Test
+    public void providersWithTheSameSharedClientNameShareClient() {
+
+        // given
+        final String sharedClientName = UUID.randomUUID().toString();
+        final SharedHttpClientProvider provider1 = createTestSharedHttpClientProvider(sharedClientName);
+        final SharedHttpClientProvider provider2 = createTestSharedHttpClientProvider(sharedClientName);
+
+        // when
+        final HttpClient client1 = provider1.createClient();
+        final HttpClient client2 = provider2.createClient();
+
+        // then
+        assertSame(client1, client2);
+        assertEquals(2, SharedResources.getInstance().getReferenceCount(SharedHttpClientProvider.sharedName(sharedClientName)));
+
+        provider1.stop();
+        provider2.stop();
+
+    }
+
+    @Test
+    public void providersWithDifferentSharedClientNamesDoNotShareClient() {
+
+        // given
+        final SharedHttpClientProvider provider1 = createTestSharedHttpClientProvider(UUID.randomUUID().toString());
+        final SharedHttpClientProvider provider2 = createTestSharedHttpClientProvider(UUID.randomUUID().toString());
+
+        // when
+        final HttpClient client1 = provider1.createClient();
+        final HttpClient client2 = provider2.createClient();
+
+        // then
+        assertNotSame(client1, client2);
+
+    }
+
+    @Test
+    public void createClientAcquiresClientOnlyOnce() {
+
+        // given
+        final String sharedClientName = UUID.randomUUID().toString();
+        final SharedHttpClientProvider provider = createTestSharedHttpClientProvider(sharedClientName);
+
+        // when
+        provider.createClient();
+        provider.createClient();
+
+        // then
+        assertEquals(1, SharedResources.getInstance().getReferenceCount(SharedHttpClientProvider.sharedName(sharedClientName)));
+
+    }
+
+    @Test
+    public void stopDoesNotStopClientReferencedByOtherProviders() {
+
+        // given
+        final String sharedClientName = UUID.randomUUID().toString();
+        final SharedHttpClientProvider provider1 = createTestSharedHttpClientProvider(sharedClientName);
+        final SharedHttpClientProvider provider2 = createTestSharedHttpClientProvider(sharedClientName);
+
+        provider1.start();
+        provider2.start();
+
+        final HttpClient client = provider2.createClient();
+
+        // when
+        provider1.stop();
+
+        // then
+        assertTrue(provider1.isStopped());
+        assertTrue(client.isStarted());
+        assertEquals(1, SharedResources.getInstance().getReferenceCount(SharedHttpClientProvider.sharedName(sharedClientName)));
+
+        provider2.stop();
+
+    }
+
+    @Test
+    public void stopStopsClientIfLastReferenceWasReleased() {
+
+        // given
+        final String sharedClientName = UUID.randomUUID().toString();
+        final SharedHttpClientProvider provider1 = createTestSharedHttpClientProvider(sharedClientName);
+        final SharedHttpClientProvider provider2 = createTestSharedHttpClientProvider(sharedClientName);
+
+        provider1.start();
+        provider2.start();
+
+        final HttpClient client = provider2.createClient();
+        provider1.stop();
+
+        // when
+        provider2.stop();
+
+        // then
+        assertFalse(client.isStarted());
+        assertEquals(0, SharedResources.getInstance().getReferenceCount(SharedHttpClientProvider.sharedName(sharedClientName)));
+
+    }
+
+    @Test
+    public void clientMetricsAreRegisteredOnlyOnceAndMovedToNextProviderOnStop() {
+
+        // given
+        final String sharedClientName = UUID.randomUUID().toString();
+        final SharedHttpClientProvider provider1 = createTestSharedHttpClientProvider(sharedClientName);
+        final SharedHttpClientProvider provider2 = createTestSharedHttpClientProvider(sharedClientName);
+
+        provider1.start();
+        provider2.start();
+        provider1.createClient();
+        provider2.createClient();
+
+        final MetricsRegistry registry1 = new BasicMetricsRegistry();
+        final MetricsRegistry registry2 = new BasicMetricsRegistry();
+
+        provider1.register(registry1);
+        provider2.register(registry2);
+
+        final int expectedMetricsCount = registry1.getMetrics(metric -> true).size();
+        assertTrue(expectedMetricsCount > 0);
+        assertEquals(0, registry2.getMetrics(metric -> true).size());
+
+        // when
+        provider1.stop();
+
+        // then
+        assertEquals(0, registry1.getMetrics(metric -> true).size());
+        assertEquals(expectedMetricsCount, registry2.getMetrics(metric -> true).size());
+
+        provider2.stop();
+        assertEquals(0, registry2.getMetrics(metric -> true).size());
+
+    }
+
+    private SharedHttpClientProvider createTestSharedHttpClientProvider(final String sharedClientName) {
+        return new SharedHttpClientProvider(sharedClientName, createDefaultTestBuilder()
+                .withIoThreadCount(1)
+                .withMetricConfigs(PoolingAsyncResponseConsumer.metricConfigs(true)));
+    }
+
+}
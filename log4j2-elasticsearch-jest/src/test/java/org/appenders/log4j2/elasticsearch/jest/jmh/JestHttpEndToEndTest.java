@@ -0,0 +1,98 @@
+package org.appenders.log4j2.elasticsearch.jest.jmh;
+
+/*-
+ * #%L
+ * log4j2-elasticsearch
+ * %%
+ * Copyright (C) 2022 Rafal Foltynski
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.appenders.log4j2.elasticsearch.ByteBufBoundedSizeLimitPolicy;
+import org.appenders.log4j2.elasticsearch.ByteBufPooledObjectOps;
+import org.appenders.log4j2.elasticsearch.ClientObjectFactory;
+import org.appenders.log4j2.elasticsearch.ItemSourceFactory;
+import org.appenders.log4j2.elasticsearch.PooledItemSourceFactory;
+import org.appenders.log4j2.elasticsearch.StringItemSourceFactory;
+import org.appenders.log4j2.elasticsearch.UnlimitedResizePolicy;
+import org.appenders.log4j2.elasticsearch.ValueResolver;
+import org.appenders.log4j2.elasticsearch.jest.BufferedJestHttpObjectFactory;
+import org.appenders.log4j2.elasticsearch.jest.JestHttpObjectFactory;
+import org.appenders.log4j2.elasticsearch.jmh.EndToEndBenchmarkBase;
+import org.appenders.log4j2.elasticsearch.jmh.MockBulkServer;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * {@link EndToEndBenchmarkBase} with {@link JestHttpObjectFactory} and {@link BufferedJestHttpObjectFactory} clients against {@link MockBulkServer}.
+ * <p>See {@link JestHttpEndToEndTestMain}
+ */
+public class JestHttpEndToEndTest extends EndToEndBenchmarkBase {
+
+    @Param({
+            "true",
+            "false",
+    })
+    public boolean buffered;
+
+    @Override
+    protected ClientObjectFactory<?, ?> createClientObjectFactory(final String serverUri, final int estimatedBatchSizeInBytes) {
+
+        final JestHttpObjectFactory.Builder builder;
+        if (buffered) {
+            builder = BufferedJestHttpObjectFactory.newBuilder()
+                    .withItemSourceFactory(new PooledItemSourceFactory.Builder<Object, ByteBuf>()
+                            .withPoolName("batchPool")
+                            .withInitialPoolSize(4)
+                            .withPooledObjectOps(new ByteBufPooledObjectOps(
+                                    UnpooledByteBufAllocator.DEFAULT,
+                                    new ByteBufBoundedSizeLimitPolicy(estimatedBatchSizeInBytes, estimatedBatchSizeInBytes * 2)))
+                            .build());
+        } else {
+            builder = JestHttpObjectFactory.newBuilder();
+        }
+
+        return builder.withServerUris(serverUri)
+                .withConnTimeout(500)
+                .withReadTimeout(10000)
+                .withIoThreadCount(4)
+                .withDefaultMaxTotalConnectionPerRoute(8)
+                .withMaxTotalConnection(8)
+                .withValueResolver(ValueResolver.NO_OP)
+                .withName("http-jmh")
+                .build();
+
+    }
+
+    @Override
+    protected ItemSourceFactory<Object, ?> createItemSourceFactory(final int itemSizeInBytes) {
+
+        if (!buffered) {
+            return new StringItemSourceFactory.Builder().build();
+        }
+
+        return new PooledItemSourceFactory.Builder<Object, ByteBuf>()
+                .withPoolName("itemPool")
+                .withPooledObjectOps(new ByteBufPooledObjectOps(
+                        UnpooledByteBufAllocator.DEFAULT,
+                        new ByteBufBoundedSizeLimitPolicy(itemSizeInBytes, itemSizeInBytes * 2)))
+                .withInitialPoolSize(batchSize * 4)
+                .withResizePolicy(new UnlimitedResizePolicy.Builder().build())
+                .build();
+
+    }
+
+}